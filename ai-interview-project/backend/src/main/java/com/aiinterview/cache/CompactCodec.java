@@ -0,0 +1,30 @@
+package com.aiinterview.cache;
+
+/**
+ * Binary codec for one cached value type, plugged into {@link CompactRedisSerializer}.
+ *
+ * Each codec owns a type id (stored in the value header) and a schema version. When the
+ * fields of a type change, bump the version and keep reading the older versions, so values
+ * already in Redis stay readable during a rolling deploy.
+ */
+public interface CompactCodec<T> {
+
+    Class<T> type();
+
+    /**
+     * Stable id written into every value header; never reuse an id for a different type
+     */
+    byte typeId();
+
+    /**
+     * Schema version written by {@link #write}
+     */
+    byte version();
+
+    void write(T value, CompactEncoding.Writer out);
+
+    /**
+     * Read a value written with the given schema version
+     */
+    T read(CompactEncoding.Reader in, byte version);
+}
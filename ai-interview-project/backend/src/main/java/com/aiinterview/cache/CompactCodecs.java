@@ -0,0 +1,18 @@
+package com.aiinterview.cache;
+
+/**
+ * Built-in codecs for {@link CompactRedisSerializer}. Type ids: 1 = QAHistory, 2 = EvaluationResult.
+ */
+public final class CompactCodecs {
+
+    private CompactCodecs() {
+    }
+
+    public static CompactCodec<?> qaHistory() {
+        return new QAHistoryCodec();
+    }
+
+    public static CompactCodec<?> evaluationResult() {
+        return new EvaluationResultCodec();
+    }
+}
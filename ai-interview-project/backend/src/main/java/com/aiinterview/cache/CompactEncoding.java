@@ -0,0 +1,216 @@
+package com.aiinterview.cache;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primitive encoding shared by the compact codecs: unsigned varints, length-prefixed UTF-8
+ * strings, and nullable collections (count + 1, with 0 meaning null).
+ */
+public final class CompactEncoding {
+
+    private CompactEncoding() {
+    }
+
+    public static final class Writer {
+
+        private final ByteArrayOutputStream out;
+
+        public Writer(int initialCapacity) {
+            this.out = new ByteArrayOutputStream(initialCapacity);
+        }
+
+        public void writeByte(int value) {
+            out.write(value);
+        }
+
+        public void writeBytes(byte[] bytes) {
+            out.write(bytes, 0, bytes.length);
+        }
+
+        public void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        public void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        public void writeDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+        }
+
+        /**
+         * Nullable int: 0 for null, otherwise zigzag(value) + 1
+         */
+        public void writeNullableInt(Integer value) {
+            if (value == null) {
+                writeVarLong(0);
+            } else {
+                writeVarLong((((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL) + 1);
+            }
+        }
+
+        public void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        public void writeStringList(List<String> values) {
+            if (values == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(values.size() + 1);
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        public void writeIntMap(Map<String, Integer> values) {
+            if (values == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(values.size() + 1);
+            for (Map.Entry<String, Integer> entry : values.entrySet()) {
+                writeString(entry.getKey());
+                writeNullableInt(entry.getValue());
+            }
+        }
+
+        /**
+         * Zone-less date-time as epoch seconds plus nanos (UTC offset is only used for the arithmetic)
+         */
+        public void writeDateTime(LocalDateTime value) {
+            writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    public static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        public Reader(byte[] buffer, int offset) {
+            this.buffer = buffer;
+            this.position = offset;
+        }
+
+        public int position() {
+            return position;
+        }
+
+        public int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        public long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        public int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        public double readDouble() {
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        public Integer readNullableInt() {
+            long raw = readVarLong();
+            if (raw == 0) {
+                return null;
+            }
+            int zigzag = (int) (raw - 1);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        public String readString() {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        public List<String> readStringList() {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        public Map<String, Integer> readIntMap() {
+            int count = readVarInt();
+            if (count == 0) {
+                return null;
+            }
+            Map<String, Integer> values = new LinkedHashMap<>();
+            for (int i = 1; i < count; i++) {
+                values.put(readString(), readNullableInt());
+            }
+            return values;
+        }
+
+        public LocalDateTime readDateTime() {
+            long seconds = readVarLong();
+            int nanos = readVarInt();
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+
+        private void require(int bytes) {
+            if (bytes < 0 || position + bytes > buffer.length) {
+                throw new SerializationException("Truncated compact value");
+            }
+        }
+    }
+}
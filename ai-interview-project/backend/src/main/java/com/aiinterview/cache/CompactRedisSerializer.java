@@ -0,0 +1,160 @@
+package com.aiinterview.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer that writes registered types with a compact binary codec and
+ * everything else with a fallback serializer (JSON).
+ *
+ * Compact values start with a 4-byte header: magic 0xC1, codec type id, schema version, flags.
+ * 0xC1 can never start a UTF-8 JSON document, so values written by the fallback serializer
+ * (including everything cached before this serializer was introduced) are still readable.
+ *
+ * Bodies at or above the compression threshold are deflated when that makes them smaller;
+ * the uncompressed length is then written as a varint before the deflated bytes.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xC1;
+    static final int HEADER_BYTES = 4;
+    static final int FLAG_DEFLATED = 1;
+    private static final int MAX_INFLATED_BYTES = 16 * 1024 * 1024;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final Map<Class<?>, CompactCodec<?>> codecsByType = new HashMap<>();
+    private final CompactCodec<?>[] codecsById = new CompactCodec<?>[256];
+
+    /**
+     * @param fallback             serializer for types without a registered codec
+     * @param compressionThreshold body size in bytes from which values are deflated; 0 disables compression
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public CompactRedisSerializer register(CompactCodec<?> codec) {
+        int id = codec.typeId() & 0xFF;
+        if (codecsById[id] != null) {
+            throw new IllegalArgumentException("Duplicate compact codec type id " + id);
+        }
+        codecsById[id] = codec;
+        codecsByType.put(codec.type(), codec);
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        @SuppressWarnings("unchecked")
+        CompactCodec<Object> codec = (CompactCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+
+        CompactEncoding.Writer body = new CompactEncoding.Writer(256);
+        codec.write(value, body);
+        byte[] raw = body.toByteArray();
+
+        byte[] deflated = compressionThreshold > 0 && raw.length >= compressionThreshold ? deflate(raw) : null;
+        byte[] payload = deflated != null ? deflated : raw;
+
+        CompactEncoding.Writer out = new CompactEncoding.Writer(HEADER_BYTES + 5 + payload.length);
+        out.writeByte(MAGIC);
+        out.writeByte(codec.typeId());
+        out.writeByte(codec.version());
+        out.writeByte(deflated != null ? FLAG_DEFLATED : 0);
+        if (deflated != null) {
+            out.writeVarInt(raw.length);
+        }
+        out.writeBytes(payload);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_BYTES) {
+            throw new SerializationException("Truncated compact value header");
+        }
+        CompactCodec<?> codec = codecsById[bytes[1] & 0xFF];
+        if (codec == null) {
+            throw new SerializationException("Unknown compact codec type id " + (bytes[1] & 0xFF));
+        }
+        byte version = bytes[2];
+        int flags = bytes[3] & 0xFF;
+
+        if ((flags & FLAG_DEFLATED) == 0) {
+            return codec.read(new CompactEncoding.Reader(bytes, HEADER_BYTES), version);
+        }
+        CompactEncoding.Reader header = new CompactEncoding.Reader(bytes, HEADER_BYTES);
+        int rawLength = header.readVarInt();
+        if (rawLength < 0 || rawLength > MAX_INFLATED_BYTES) {
+            throw new SerializationException("Invalid compact value length " + rawLength);
+        }
+        byte[] raw = inflate(bytes, header.position(), rawLength);
+        return codec.read(new CompactEncoding.Reader(raw, 0), version);
+    }
+
+    /**
+     * Deflate the body, or return null when compression does not save space
+     */
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[raw.length];
+            int length = deflater.deflate(buffer);
+            if (!deflater.finished() || length + varIntSize(raw.length) >= raw.length) {
+                return null;
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] raw = new byte[rawLength];
+            int length = inflater.inflate(raw);
+            if (length != rawLength) {
+                throw new SerializationException("Compact value inflated to " + length + " bytes, expected " + rawLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt deflated compact value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        long v = value & 0xFFFFFFFFL;
+        while ((v & ~0x7FL) != 0) {
+            v >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,66 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.model.EvaluationResult;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact codec for {@link EvaluationResult}.
+ *
+ * v1 layout: score presence flag, [score], rubricLevel, the four 0-10 dimension scores,
+ * strengths, improvements, followUpQuestions.
+ */
+class EvaluationResultCodec implements CompactCodec<EvaluationResult> {
+
+    private static final int HAS_SCORE = 1;
+
+    @Override
+    public Class<EvaluationResult> type() {
+        return EvaluationResult.class;
+    }
+
+    @Override
+    public byte typeId() {
+        return 2;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public void write(EvaluationResult result, CompactEncoding.Writer out) {
+        out.writeByte(result.getScore() != null ? HAS_SCORE : 0);
+        if (result.getScore() != null) {
+            out.writeDouble(result.getScore());
+        }
+        out.writeString(result.getRubricLevel());
+        out.writeNullableInt(result.getTechnicalAccuracy());
+        out.writeNullableInt(result.getDepth());
+        out.writeNullableInt(result.getExperience());
+        out.writeNullableInt(result.getCommunication());
+        out.writeStringList(result.getStrengths());
+        out.writeStringList(result.getImprovements());
+        out.writeStringList(result.getFollowUpQuestions());
+    }
+
+    @Override
+    public EvaluationResult read(CompactEncoding.Reader in, byte version) {
+        if (version != 1) {
+            throw new SerializationException("Unsupported EvaluationResult schema version " + version);
+        }
+        EvaluationResult result = new EvaluationResult();
+        if ((in.readByte() & HAS_SCORE) != 0) {
+            result.setScore(in.readDouble());
+        }
+        result.setRubricLevel(in.readString());
+        result.setTechnicalAccuracy(in.readNullableInt());
+        result.setDepth(in.readNullableInt());
+        result.setExperience(in.readNullableInt());
+        result.setCommunication(in.readNullableInt());
+        result.setStrengths(in.readStringList());
+        result.setImprovements(in.readStringList());
+        result.setFollowUpQuestions(in.readStringList());
+        return result;
+    }
+}
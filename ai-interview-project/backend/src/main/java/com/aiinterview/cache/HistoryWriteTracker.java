@@ -0,0 +1,62 @@
+package com.aiinterview.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks writes to interview histories, so a history read from the database is only cached
+ * when no turn of that interview was written while it was being read.
+ *
+ * The cache tiers only append to a history they already hold. Without this check, a turn saved
+ * between the database read and the seeding of a tier would be missing from the cached history
+ * until it expires. Interviews are hashed onto a fixed number of stripes, so memory stays
+ * constant; interviews that share a stripe only cost each other an occasional skipped seed.
+ */
+public class HistoryWriteTracker {
+
+    /**
+     * Stamp returned while a write is in progress; it never matches
+     */
+    public static final long WRITING = -1;
+
+    private static final int STRIPES = 64;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicIntegerArray writers = new AtomicIntegerArray(STRIPES);
+
+    /**
+     * Take a stamp before reading the history from a slower tier
+     */
+    public long stamp(String interviewId) {
+        int stripe = stripe(interviewId);
+        long generation = generations.get(stripe);
+        return writers.get(stripe) > 0 ? WRITING : generation;
+    }
+
+    /**
+     * Whether no write started or finished since the stamp was taken
+     */
+    public boolean unchanged(String interviewId, long stamp) {
+        return stamp != WRITING && generations.get(stripe(interviewId)) == stamp;
+    }
+
+    /**
+     * Call before writing a turn to the database; pair with {@link #endWrite} once the cache
+     * tiers have been updated
+     */
+    public void beginWrite(String interviewId) {
+        int stripe = stripe(interviewId);
+        writers.incrementAndGet(stripe);
+        generations.incrementAndGet(stripe);
+    }
+
+    public void endWrite(String interviewId) {
+        int stripe = stripe(interviewId);
+        generations.incrementAndGet(stripe);
+        writers.decrementAndGet(stripe);
+    }
+
+    private static int stripe(String interviewId) {
+        return Math.floorMod(interviewId.hashCode(), STRIPES);
+    }
+}
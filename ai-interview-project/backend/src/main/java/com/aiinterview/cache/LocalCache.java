@@ -0,0 +1,303 @@
+package com.aiinterview.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Small bounded in-process cache.
+ *
+ * Entries are kept in access order and evicted least-recently-used first once either the
+ * entry count or the total weight exceeds its limit. Entries also expire a fixed time after
+ * they were written (TTL) and after they have not been read for a while (idle time).
+ * A zero or negative duration disables the corresponding expiry.
+ */
+public class LocalCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public LocalCache(String name, int maxEntries, long maxWeight,
+                      Duration expireAfterWrite, Duration expireAfterAccess,
+                      ToLongBiFunction<K, V> weigher) {
+        this(name, maxEntries, maxWeight, expireAfterWrite, expireAfterAccess, weigher, System::nanoTime);
+    }
+
+    LocalCache(String name, int maxEntries, long maxWeight,
+               Duration expireAfterWrite, Duration expireAfterAccess,
+               ToLongBiFunction<K, V> weigher, LongSupplier ticker) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight > 0 ? maxWeight : Long.MAX_VALUE;
+        this.expireAfterWriteNanos = toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = toNanos(expireAfterAccess);
+        this.weigher = weigher != null ? weigher : (k, v) -> 1L;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Get a value, or null if it is absent or expired
+     */
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            long now = ticker.getAsLong();
+            if (isExpired(entry, now)) {
+                removeEntry(key, entry);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            entry.accessedAt = now;
+            hits.incrementAndGet();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert or replace a value, then evict until the cache is back within its limits
+     */
+    public void put(K key, V value) {
+        long weight = Math.max(0, weigher.applyAsLong(key, value));
+        lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            Entry<V> previous = entries.put(key, new Entry<>(value, weight, now));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+            evictExpiredHead(now);
+            evictToLimits(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get a value, or atomically insert the one {@code loader} creates when it is absent or
+     * expired. The loader runs under the cache lock, so it must be cheap and must not touch
+     * this cache.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !isExpired(entry, now)) {
+                entry.accessedAt = now;
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                removeEntry(key, entry);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            V value = loader.apply(key);
+            long weight = Math.max(0, weigher.applyAsLong(key, value));
+            entries.put(key, new Entry<>(value, weight, now));
+            totalWeight += weight;
+            evictExpiredHead(now);
+            evictToLimits(key);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-weigh an entry after its value was mutated in place.
+     * Does not refresh the write time or count as an access.
+     */
+    public void reweigh(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            long weight = Math.max(0, weigher.applyAsLong(key, entry.value));
+            totalWeight += weight - entry.weight;
+            entry.weight = weight;
+            evictToLimits(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                removeEntry(key, entry);
+                invalidations.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop every expired entry
+     */
+    public void cleanUp() {
+        lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry<V> entry = it.next().getValue();
+                if (isExpired(entry, now)) {
+                    it.remove();
+                    totalWeight -= entry.weight;
+                    expirations.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weightedSize() {
+        lock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot of size and hit/miss/eviction counters
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("weightedSize", weightedSize());
+        stats.put("maxWeight", maxWeight == Long.MAX_VALUE ? -1 : maxWeight);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests == 0 ? 0.0 : Math.round(hitCount * 10000.0 / requests) / 10000.0);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private void evictExpiredHead(long now) {
+        // Entries are in access order, so idle entries collect at the head
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<V> entry = it.next().getValue();
+            if (!isExpired(entry, now)) {
+                break;
+            }
+            it.remove();
+            totalWeight -= entry.weight;
+            expirations.incrementAndGet();
+        }
+    }
+
+    private void evictToLimits(K protectedKey) {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && it.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            // Keep the entry just written unless it alone breaks the limits
+            if (eldest.getKey().equals(protectedKey) && entries.size() > 1) {
+                continue;
+            }
+            it.remove();
+            totalWeight -= eldest.getValue().weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeEntry(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        if (expireAfterWriteNanos > 0 && now - entry.writtenAt >= expireAfterWriteNanos) {
+            return true;
+        }
+        return expireAfterAccessNanos > 0 && now - entry.accessedAt >= expireAfterAccessNanos;
+    }
+
+    private static long toNanos(Duration duration) {
+        return duration == null || duration.isNegative() || duration.isZero() ? 0 : duration.toNanos();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long writtenAt;
+        private long accessedAt;
+        private long weight;
+
+        private Entry(V value, long weight, long now) {
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = now;
+            this.accessedAt = now;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.dto.QAHistory;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact codec for {@link QAHistory}, the element type of the Redis history lists.
+ *
+ * v1 layout: presence flags (score, createdAt), question, answer, rubricLevel, [score],
+ * detailedScores, strengths, improvements, followUpQuestions, [createdAt].
+ */
+class QAHistoryCodec implements CompactCodec<QAHistory> {
+
+    private static final int HAS_SCORE = 1;
+    private static final int HAS_CREATED_AT = 1 << 1;
+
+    @Override
+    public Class<QAHistory> type() {
+        return QAHistory.class;
+    }
+
+    @Override
+    public byte typeId() {
+        return 1;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public void write(QAHistory qa, CompactEncoding.Writer out) {
+        int flags = (qa.getScore() != null ? HAS_SCORE : 0)
+            | (qa.getCreatedAt() != null ? HAS_CREATED_AT : 0);
+        out.writeByte(flags);
+        out.writeString(qa.getQuestionText());
+        out.writeString(qa.getAnswerText());
+        out.writeString(qa.getRubricLevel());
+        if (qa.getScore() != null) {
+            out.writeDouble(qa.getScore());
+        }
+        out.writeIntMap(qa.getDetailedScores());
+        out.writeStringList(qa.getStrengths());
+        out.writeStringList(qa.getImprovements());
+        out.writeStringList(qa.getFollowUpQuestions());
+        if (qa.getCreatedAt() != null) {
+            out.writeDateTime(qa.getCreatedAt());
+        }
+    }
+
+    @Override
+    public QAHistory read(CompactEncoding.Reader in, byte version) {
+        if (version != 1) {
+            throw new SerializationException("Unsupported QAHistory schema version " + version);
+        }
+        int flags = in.readByte();
+        QAHistory qa = new QAHistory();
+        qa.setQuestionText(in.readString());
+        qa.setAnswerText(in.readString());
+        qa.setRubricLevel(in.readString());
+        if ((flags & HAS_SCORE) != 0) {
+            qa.setScore(in.readDouble());
+        }
+        qa.setDetailedScores(in.readIntMap());
+        qa.setStrengths(in.readStringList());
+        qa.setImprovements(in.readStringList());
+        qa.setFollowUpQuestions(in.readStringList());
+        qa.setCreatedAt((flags & HAS_CREATED_AT) != 0 ? in.readDateTime() : null);
+        return qa;
+    }
+}
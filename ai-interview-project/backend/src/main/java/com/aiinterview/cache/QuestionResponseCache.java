@@ -0,0 +1,377 @@
+package com.aiinterview.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of generated interview questions for the early turns of an interview.
+ *
+ * Prompts are grouped into scopes by role, level and normalised system prompt, so a cached
+ * question is only served for the same interview setup. Within a scope, a prompt first matches
+ * on the hash of its normalised text. The opening question (no answered turns) otherwise matches
+ * the most similar cached opening prompt, by Jaccard similarity of character n-gram shingles,
+ * once it reaches {@code interview.question-cache.similarity-threshold}. This runs in-process,
+ * without an embedding model. Later prompts contain the candidate's own answers, so they only
+ * match exactly; a near match could serve one candidate a follow-up built on another
+ * candidate's answers.
+ *
+ * To keep some variety, each prompt collects {@code variants} different questions before the
+ * cache serves any of them, and then serves a random one. In addition, {@code bypass-probability}
+ * of lookups skip the cache, and the question they generate replaces a random variant. Only
+ * interviews with at most {@code max-history-turns} answered turns are cached. Entries expire
+ * after the role's TTL ({@code role-ttl-minutes}, else {@code ttl-minutes}); a TTL of 0 turns
+ * caching off for that role.
+ */
+@Component
+public class QuestionResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final boolean enabled;
+    private final int maxHistoryTurns;
+    private final int variants;
+    private final double bypassProbability;
+    private final double similarityThreshold;
+    private final int shingleSize;
+    private final int maxEntriesPerScope;
+    private final Duration defaultTtl;
+    private final Map<String, Duration> roleTtls;
+    private final Clock clock;
+    // Null for ThreadLocalRandom.current() of the calling thread; tests pass a seeded generator
+    private final RandomGenerator random;
+    private final LocalCache<String, Scope> scopes;
+
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong nearHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong collecting = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong replaced = new AtomicLong();
+
+    @Autowired
+    public QuestionResponseCache(
+            @Value("${interview.question-cache.enabled:true}") boolean enabled,
+            @Value("${interview.question-cache.max-history-turns:2}") int maxHistoryTurns,
+            @Value("${interview.question-cache.variants:3}") int variants,
+            @Value("${interview.question-cache.bypass-probability:0.1}") double bypassProbability,
+            @Value("${interview.question-cache.similarity-threshold:0.9}") double similarityThreshold,
+            @Value("${interview.question-cache.shingle-size:3}") int shingleSize,
+            @Value("${interview.question-cache.max-scopes:1000}") int maxScopes,
+            @Value("${interview.question-cache.max-entries-per-scope:100}") int maxEntriesPerScope,
+            @Value("${interview.question-cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${interview.question-cache.role-ttl-minutes:}") String roleTtlMinutes) {
+        this(enabled, maxHistoryTurns, variants, bypassProbability, similarityThreshold, shingleSize, maxScopes,
+            maxEntriesPerScope, Duration.ofMinutes(ttlMinutes), parseRoleTtls(roleTtlMinutes),
+            Clock.systemUTC(), null);
+    }
+
+    QuestionResponseCache(boolean enabled, int maxHistoryTurns, int variants, double bypassProbability,
+                          double similarityThreshold, int shingleSize, int maxScopes, int maxEntriesPerScope,
+                          Duration defaultTtl, Map<String, Duration> roleTtls, Clock clock, RandomGenerator random) {
+        this.enabled = enabled;
+        this.maxHistoryTurns = maxHistoryTurns;
+        this.variants = Math.max(1, variants);
+        this.bypassProbability = Math.min(Math.max(bypassProbability, 0.0), 1.0);
+        this.similarityThreshold = similarityThreshold;
+        this.shingleSize = Math.max(1, shingleSize);
+        this.maxEntriesPerScope = Math.max(1, maxEntriesPerScope);
+        this.defaultTtl = defaultTtl;
+        this.roleTtls = roleTtls;
+        this.clock = clock;
+        this.random = random;
+        // Scopes idle for longer than any TTL hold only expired entries
+        Duration longestTtl = roleTtls.values().stream().reduce(defaultTtl, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        this.scopes = new LocalCache<>("question-responses", Math.max(1, maxScopes), 0, null, longestTtl, null);
+    }
+
+    /**
+     * Lookup key for the next question of an interview with {@code answeredTurns} answered
+     * turns, or null when such a question is not cached
+     */
+    public Key key(String roleId, String level, int answeredTurns, String systemPrompt, String userPrompt) {
+        if (!enabled || answeredTurns > maxHistoryTurns || ttlFor(roleId).isZero()) {
+            uncacheable.incrementAndGet();
+            return null;
+        }
+        String prompt = normalize(userPrompt);
+        int[] shingles = answeredTurns == 0 ? shingles(prompt) : null;
+        return new Key(roleId, sha256(roleId, level, normalize(systemPrompt)), sha256(prompt), shingles);
+    }
+
+    /**
+     * A cached question for the key, or null. A miss or bypass leaves the matched prompt on
+     * the key, so the question generated next is stored with it.
+     */
+    public String get(Key key) {
+        if (random().nextDouble() < bypassProbability) {
+            bypassed.incrementAndGet();
+            key.bypassed = true;
+            return null;
+        }
+        Scope scope = scopes.get(key.scope);
+        if (scope == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = clock.millis();
+        scope.lock.lock();
+        try {
+            scope.removeExpired(now);
+            Entry entry = scope.entries.get(key.promptHash);
+            boolean exact = entry != null;
+            if (!exact && key.shingles != null) {
+                entry = scope.mostSimilar(key.shingles);
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            key.matchedHash = entry.promptHash;
+            if (entry.responses.size() < variants) {
+                collecting.incrementAndGet();
+                return null;
+            }
+            (exact ? exactHits : nearHits).incrementAndGet();
+            return entry.responses.get(random().nextInt(entry.responses.size()));
+        } finally {
+            scope.lock.unlock();
+        }
+    }
+
+    /**
+     * Store a generated question for the key's prompt, or for the prompt it matched
+     */
+    public void put(Key key, String response) {
+        if (response == null || response.isBlank()) {
+            return;
+        }
+        Scope scope = scopes.computeIfAbsent(key.scope, k -> new Scope());
+        long now = clock.millis();
+        scope.lock.lock();
+        try {
+            scope.removeExpired(now);
+            String hash = key.matchedHash != null && scope.entries.containsKey(key.matchedHash)
+                ? key.matchedHash : key.promptHash;
+            Entry entry = scope.entries.get(hash);
+            if (entry == null) {
+                scope.evictOldestIfFull();
+                entry = new Entry(hash, key.shingles, now + ttlFor(key.roleId).toMillis());
+                scope.entries.put(hash, entry);
+            }
+            if (entry.responses.contains(response)) {
+                return;
+            }
+            puts.incrementAndGet();
+            if (entry.responses.size() < variants) {
+                entry.responses.add(response);
+            } else if (key.bypassed) {
+                // A bypassed lookup refreshes the pool with its new question
+                entry.responses.set(random().nextInt(entry.responses.size()), response);
+                replaced.incrementAndGet();
+            }
+        } finally {
+            scope.lock.unlock();
+        }
+    }
+
+    private RandomGenerator random() {
+        return random != null ? random : ThreadLocalRandom.current();
+    }
+
+    private Duration ttlFor(String roleId) {
+        return roleId != null ? roleTtls.getOrDefault(roleId, defaultTtl) : defaultTtl;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).trim();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted, distinct hashes of the character n-grams of a normalised prompt
+     */
+    int[] shingles(String text) {
+        if (text.length() <= shingleSize) {
+            return new int[] {text.hashCode()};
+        }
+        int[] hashes = new int[text.length() - shingleSize + 1];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = text.substring(i, i + shingleSize).hashCode();
+        }
+        return Arrays.stream(hashes).sorted().distinct().toArray();
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 1.0 : (double) common / union;
+    }
+
+    private static String sha256(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                // Length-prefixed so ("ab", "c") and ("a", "bc") differ
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Map<String, Duration> parseRoleTtls(String spec) {
+        Map<String, Duration> result = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                result.put(entry.substring(0, colon).trim(),
+                    Duration.ofMinutes(Long.parseLong(entry.substring(colon + 1).trim())));
+            } catch (NumberFormatException e) {
+                // Ignore malformed entries, the default TTL applies
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        long exact = exactHits.get();
+        long near = nearHits.get();
+        long lookups = exact + near + misses.get() + collecting.get() + bypassed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("variants", variants);
+        stats.put("lookups", lookups);
+        stats.put("exactHits", exact);
+        stats.put("nearHits", near);
+        stats.put("misses", misses.get());
+        stats.put("collecting", collecting.get());
+        stats.put("bypassed", bypassed.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) (exact + near) / lookups);
+        stats.put("uncacheable", uncacheable.get());
+        stats.put("puts", puts.get());
+        stats.put("replaced", replaced.get());
+        stats.put("scopes", scopes.stats());
+        return stats;
+    }
+
+    /**
+     * One lookup. Not shared between requests.
+     */
+    public static final class Key {
+
+        private final String roleId;
+        private final String scope;
+        private final String promptHash;
+        // Null when the prompt may only match exactly
+        private final int[] shingles;
+        // Set by get()
+        private String matchedHash;
+        private boolean bypassed;
+
+        private Key(String roleId, String scope, String promptHash, int[] shingles) {
+            this.roleId = roleId;
+            this.scope = scope;
+            this.promptHash = promptHash;
+            this.shingles = shingles;
+        }
+    }
+
+    private final class Scope {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Insertion order, oldest first; guarded by lock
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+        private void removeExpired(long now) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+
+        private void evictOldestIfFull() {
+            Iterator<Entry> oldest = entries.values().iterator();
+            if (entries.size() >= maxEntriesPerScope && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+
+        private Entry mostSimilar(int[] shingles) {
+            Entry best = null;
+            double bestSimilarity = similarityThreshold;
+            for (Entry entry : entries.values()) {
+                if (entry.shingles == null) {
+                    continue;
+                }
+                double similarity = jaccard(shingles, entry.shingles);
+                if (similarity >= bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String promptHash;
+        private final int[] shingles;
+        private final long expiresAt;
+        private final List<String> responses = new ArrayList<>(2);
+
+        private Entry(String promptHash, int[] shingles, long expiresAt) {
+            this.promptHash = promptHash;
+            this.shingles = shingles;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.dto.QAHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Redis tier for interview conversation history.
+ *
+ * History is stored as a Redis list with one element per turn, so a new message is a single
+ * RPUSH and an evaluation update is a single LSET instead of rewriting the whole history.
+ * Interviews cached under the legacy layout (the whole list as one value at
+ * {@code session:history:{id}}) are migrated to the list layout the first time they are read.
+ *
+ * All operations are best effort: when Redis is unavailable they return null/false and the
+ * caller falls back to the database.
+ */
+@Component
+public class RedisHistoryStore {
+
+    static final String LEGACY_KEY_PREFIX = "session:history:";
+    static final String KEY_PREFIX = "session:history:list:";
+    static final Duration TTL = Duration.ofHours(24);
+
+    @Autowired(required = false)
+    private RedisTemplate<String, Object> redisTemplate;
+
+    public RedisHistoryStore() {
+    }
+
+    RedisHistoryStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Load the full history, or null if it is not in Redis
+     */
+    public List<QAHistory> load(String interviewId) {
+        return range(interviewId, 0, -1);
+    }
+
+    /**
+     * Load a range of turns using LRANGE semantics (negative indexes count from the end),
+     * or null if the history is not in Redis
+     */
+    public List<QAHistory> range(String interviewId, long start, long end) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            List<Object> values = redisTemplate.opsForList().range(key(interviewId), start, end);
+            if (values != null && !values.isEmpty()) {
+                return toHistory(values);
+            }
+            List<QAHistory> migrated = migrateLegacy(interviewId);
+            if (migrated == null) {
+                return null;
+            }
+            return slice(migrated, start, end);
+        } catch (Exception e) {
+            // Redis unavailable, fallback to database
+            return null;
+        }
+    }
+
+    /**
+     * Replace the stored history with the given list (used when seeding from the database).
+     * DEL, RPUSH and EXPIRE run in one MULTI/EXEC transaction, so two concurrent seeds of the
+     * same interview cannot interleave and store the history twice.
+     */
+    public void saveAll(String interviewId, List<QAHistory> history) {
+        if (redisTemplate == null || history == null || history.isEmpty()) {
+            return;
+        }
+        try {
+            String key = key(interviewId);
+            List<Object> values = new ArrayList<>(history);
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.multi();
+                    ops.delete(key);
+                    ops.opsForList().rightPushAll(key, values);
+                    ops.expire(key, TTL);
+                    return ops.exec();
+                }
+            });
+        } catch (Exception e) {
+            // Redis unavailable, continue without caching
+        }
+    }
+
+    /**
+     * Append one turn. Only appends to a history that already exists in Redis (RPUSHX), so a
+     * history is never started from a single turn; callers seed the full history with
+     * {@link #saveAll} and guard the seed against concurrent writes. Returns whether the turn
+     * was appended.
+     */
+    public boolean append(String interviewId, QAHistory qa) {
+        if (redisTemplate == null) {
+            return false;
+        }
+        try {
+            String key = key(interviewId);
+            Long size = redisTemplate.opsForList().rightPushIfPresent(key, qa);
+            if (size == null || size == 0) {
+                return false;
+            }
+            redisTemplate.expire(key, TTL);
+            return true;
+        } catch (Exception e) {
+            // Redis unavailable, continue without caching
+            return false;
+        }
+    }
+
+    /**
+     * Overwrite a single turn in place (LSET). The turn at the index is read first (LINDEX) and
+     * must have the same question and answer; if it does not, or the index is no longer valid,
+     * the stored history is dropped, so the next read rebuilds it from the database.
+     */
+    public void replace(String interviewId, long index, QAHistory qa) {
+        if (redisTemplate == null) {
+            return;
+        }
+        String key = key(interviewId);
+        try {
+            Object current = redisTemplate.opsForList().index(key, index);
+            if (!(current instanceof QAHistory turn) || !sameTurn(turn, qa)) {
+                delete(interviewId);
+                return;
+            }
+            redisTemplate.opsForList().set(key, index, qa);
+        } catch (Exception e) {
+            delete(interviewId);
+        }
+    }
+
+    private static boolean sameTurn(QAHistory a, QAHistory b) {
+        return Objects.equals(a.getQuestionText(), b.getQuestionText())
+            && Objects.equals(a.getAnswerText(), b.getAnswerText());
+    }
+
+    public void delete(String interviewId) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(List.of(key(interviewId), LEGACY_KEY_PREFIX + interviewId));
+        } catch (Exception e) {
+            // Redis unavailable, the keys expire on their own
+        }
+    }
+
+    /**
+     * Move a history stored under the legacy single-value layout to the list layout
+     */
+    private List<QAHistory> migrateLegacy(String interviewId) {
+        String legacyKey = LEGACY_KEY_PREFIX + interviewId;
+        Object legacy = redisTemplate.opsForValue().get(legacyKey);
+        if (!(legacy instanceof List<?> legacyList)) {
+            return null;
+        }
+        List<QAHistory> history = toHistory(legacyList);
+        saveAll(interviewId, history);
+        redisTemplate.delete(legacyKey);
+        return history;
+    }
+
+    private static List<QAHistory> toHistory(List<?> values) {
+        List<QAHistory> history = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof QAHistory qa) {
+                history.add(qa);
+            }
+        }
+        return history;
+    }
+
+    private static List<QAHistory> slice(List<QAHistory> history, long start, long end) {
+        int size = history.size();
+        int from = (int) (start < 0 ? Math.max(0, size + start) : Math.min(start, size));
+        int to = (int) (end < 0 ? size + end : Math.min(end, size - 1)) + 1;
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(history.subList(from, to));
+    }
+
+    static String key(String interviewId) {
+        return KEY_PREFIX + interviewId;
+    }
+}
@@ -0,0 +1,118 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.dto.QAHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local tier for interview conversation history, in front of Redis and MySQL.
+ *
+ * Bounded by interview count and by the estimated size of the cached messages,
+ * with TTL and idle expiry so finished interviews leave the heap on their own.
+ */
+@Component
+public class SessionHistoryCache {
+
+    // Rough per-entry overhead of a QAHistory object and its fields
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final LocalCache<String, List<QAHistory>> cache;
+
+    public SessionHistoryCache(
+            @Value("${interview.history-cache.max-entries:1000}") int maxEntries,
+            @Value("${interview.history-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+            @Value("${interview.history-cache.expire-after-write-minutes:120}") long expireAfterWriteMinutes,
+            @Value("${interview.history-cache.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this.cache = new LocalCache<>("session-history", maxEntries, maxWeightBytes,
+            Duration.ofMinutes(expireAfterWriteMinutes), Duration.ofMinutes(expireAfterAccessMinutes),
+            (interviewId, history) -> estimateBytes(history));
+    }
+
+    /**
+     * Get a copy of the cached history, or null if the interview is not cached
+     */
+    public List<QAHistory> get(String interviewId) {
+        List<QAHistory> history = cache.get(interviewId);
+        if (history == null) {
+            return null;
+        }
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    public void put(String interviewId, List<QAHistory> history) {
+        cache.put(interviewId, new ArrayList<>(history));
+    }
+
+    /**
+     * Append a message to a cached history.
+     * Returns false when the interview is not cached, so a partial history is never created.
+     */
+    public boolean append(String interviewId, QAHistory qa) {
+        List<QAHistory> history = cache.get(interviewId);
+        if (history == null) {
+            return false;
+        }
+        synchronized (history) {
+            history.add(qa);
+        }
+        cache.reweigh(interviewId);
+        return true;
+    }
+
+    /**
+     * Recalculate the weight of an entry whose messages were updated in place
+     */
+    public void refreshWeight(String interviewId) {
+        cache.reweigh(interviewId);
+    }
+
+    public void invalidate(String interviewId) {
+        cache.invalidate(interviewId);
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    static long estimateBytes(List<QAHistory> history) {
+        long bytes = 0;
+        synchronized (history) {
+            for (QAHistory qa : history) {
+                bytes += ENTRY_OVERHEAD_BYTES;
+                bytes += stringBytes(qa.getQuestionText());
+                bytes += stringBytes(qa.getAnswerText());
+                bytes += stringBytes(qa.getRubricLevel());
+                bytes += listBytes(qa.getStrengths());
+                bytes += listBytes(qa.getImprovements());
+                bytes += listBytes(qa.getFollowUpQuestions());
+                if (qa.getDetailedScores() != null) {
+                    bytes += qa.getDetailedScores().size() * 32L;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        // Java strings hold up to two bytes per char
+        return value == null ? 0 : 2L * value.length();
+    }
+
+    private static long listBytes(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (String value : values) {
+            bytes += 16 + stringBytes(value);
+        }
+        return bytes;
+    }
+}
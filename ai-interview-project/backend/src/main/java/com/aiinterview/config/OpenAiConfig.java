@@ -1,6 +1,7 @@
 package com.aiinterview.config;
 
-import com.aiinterview.service.ApiKeyConfigService;
+import com.aiinterview.llm.LlmEndpointBalancer;
+import com.aiinterview.llm.LlmHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,27 +13,23 @@ public class OpenAiConfig {
     @Value("${openai.api.url}")
     private String apiUrl;
 
-    private final ApiKeyConfigService apiKeyConfigService;
+    private final LlmEndpointBalancer endpointBalancer;
+    private final LlmHttpClient llmHttpClient;
 
-    public OpenAiConfig(ApiKeyConfigService apiKeyConfigService) {
-        this.apiKeyConfigService = apiKeyConfigService;
+    public OpenAiConfig(LlmEndpointBalancer endpointBalancer, LlmHttpClient llmHttpClient) {
+        this.endpointBalancer = endpointBalancer;
+        this.llmHttpClient = llmHttpClient;
     }
 
     @Bean
     public WebClient openAiWebClient() {
-        // Get API key from database, use dummy if not found
-        String apiKey = apiKeyConfigService.getActiveApiKey("openai")
-            .orElse("sk-dummy-key-for-testing");
-
-        if (apiKey.equals("sk-dummy-key-for-testing")) {
-            System.err.println("WARNING: Using dummy OpenAI API key. Please configure a real API key in database.");
-        }
-
-        return WebClient.builder()
+        // Pooled connections, timeouts and HTTP/2 come from the shared LLM client. Each request is
+        // routed to one of the active keys (and its endpoint) in the database, so keys can be
+        // added or rotated without a restart.
+        return llmHttpClient.webClientBuilder()
                 .baseUrl(apiUrl)
-                .defaultHeader("Authorization", "Bearer " + apiKey)
+                .filter(endpointBalancer.filter("openai"))
                 .defaultHeader("Content-Type", "application/json")
                 .build();
     }
 }
-
@@ -1,5 +1,8 @@
 package com.aiinterview.config;
 
+import com.aiinterview.cache.CompactCodecs;
+import com.aiinterview.cache.CompactRedisSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,6 +11,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -36,19 +40,49 @@ public class RedisConfig {
         return factory;
     }
     
+    // compact: binary codecs for cached DTOs, JSON for everything else; json: JSON only
+    @Value("${interview.redis.value-format:compact}")
+    private String valueFormat;
+
+    @Value("${interview.redis.compression-threshold-bytes:512}")
+    private int compressionThresholdBytes;
+    
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         if (connectionFactory == null) {
             return null;
         }
+        return createTemplate(connectionFactory, valueSerializer(valueFormat, compressionThresholdBytes));
+    }
+
+    public static RedisTemplate<String, Object> createTemplate(RedisConnectionFactory connectionFactory,
+                                                               RedisSerializer<Object> valueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(valueSerializer);
         template.afterPropertiesSet();
         return template;
     }
-}
 
+    /**
+     * Value serializer for the given format. The compact serializer still reads values
+     * written as JSON, so switching formats does not invalidate what is already cached.
+     */
+    public static RedisSerializer<Object> valueSerializer(String format, int compressionThresholdBytes) {
+        if ("json".equalsIgnoreCase(format)) {
+            return jsonSerializer();
+        }
+        return new CompactRedisSerializer(jsonSerializer(), compressionThresholdBytes)
+            .register(CompactCodecs.qaHistory())
+            .register(CompactCodecs.evaluationResult());
+    }
+
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        // Cached DTOs carry LocalDateTime fields, which need the JSR-310 module
+        return new GenericJackson2JsonRedisSerializer()
+            .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+    }
+}
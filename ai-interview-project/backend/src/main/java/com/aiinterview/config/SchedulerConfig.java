@@ -0,0 +1,46 @@
+package com.aiinterview.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * Bounded scheduler for blocking repository work on the reactive chat path, so JPA calls
+     * never run on Reactor Netty event-loop threads. Sized to the connection pool by default;
+     * tasks beyond the queue cap are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler chatBlockingScheduler(
+            @Value("${interview.chat.blocking-threads:10}") int threads,
+            @Value("${interview.chat.blocking-queue-capacity:10000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "chat-blocking");
+    }
+
+    /**
+     * Workers for interview completion jobs (answer evaluation, then report generation). Jobs are
+     * persisted, so work dropped at shutdown is resumed on the next start.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService completionExecutor(
+            @Value("${interview.completion.worker-threads:4}") int threads,
+            @Value("${interview.completion.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "interview-completion-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
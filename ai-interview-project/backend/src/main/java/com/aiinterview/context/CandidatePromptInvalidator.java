@@ -0,0 +1,26 @@
+package com.aiinterview.context;
+
+import com.aiinterview.model.Candidate;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that invalidates cached system prompts when a candidate row changes,
+ * whichever code path made the change
+ */
+@Component
+public class CandidatePromptInvalidator {
+
+    private final SystemPromptCache systemPromptCache;
+
+    public CandidatePromptInvalidator(SystemPromptCache systemPromptCache) {
+        this.systemPromptCache = systemPromptCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void candidateChanged(Candidate candidate) {
+        systemPromptCache.invalidateCandidate(candidate.getId());
+    }
+}
@@ -0,0 +1,55 @@
+package com.aiinterview.context;
+
+import com.aiinterview.model.openai.OpenAiMessage;
+
+import java.util.List;
+
+/**
+ * Messages chosen for one LLM call, with the token accounting behind the choice
+ */
+public class ContextWindow {
+
+    private final List<OpenAiMessage> messages;
+    private final int promptTokens;
+    private final int budgetTokens;
+    private final int includedTurns;
+    private final int droppedTurns;
+    private final boolean summarized;
+
+    public ContextWindow(List<OpenAiMessage> messages, int promptTokens, int budgetTokens,
+                         int includedTurns, int droppedTurns, boolean summarized) {
+        this.messages = messages;
+        this.promptTokens = promptTokens;
+        this.budgetTokens = budgetTokens;
+        this.includedTurns = includedTurns;
+        this.droppedTurns = droppedTurns;
+        this.summarized = summarized;
+    }
+
+    public List<OpenAiMessage> getMessages() {
+        return messages;
+    }
+
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public int getBudgetTokens() {
+        return budgetTokens;
+    }
+
+    public int getIncludedTurns() {
+        return includedTurns;
+    }
+
+    /**
+     * Turns left out of this call (they are covered by the summary when one is sent)
+     */
+    public int getDroppedTurns() {
+        return droppedTurns;
+    }
+
+    public boolean isSummarized() {
+        return summarized;
+    }
+}
@@ -0,0 +1,163 @@
+package com.aiinterview.context;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.openai.OpenAiMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fits interview history into a per-model prompt token budget.
+ *
+ * The budget is the model's context window minus the completion tokens, capped by
+ * {@code openai.context.max-prompt-tokens} to keep cost and latency flat over long
+ * interviews. The newest turns are kept, at most {@code openai.max-history-messages} of them;
+ * older turns are left to the rolling summary, which is sent as a second system message.
+ */
+@Component
+public class ContextWindowBuilder {
+
+    static final String SUMMARY_HEADER = "此前对话摘要（较早的轮次）：\n";
+    static final int DEFAULT_WINDOW_TOKENS = 8192;
+
+    private final String model;
+    private final int completionTokens;
+    private final int maxPromptTokens;
+    private final int maxHistoryTurns;
+    private final int summaryMaxTokens;
+    private final Map<String, Integer> windowTokens;
+
+    public ContextWindowBuilder(
+            @Value("${openai.model:gpt-3.5-turbo}") String model,
+            @Value("${openai.max-tokens:1000}") int completionTokens,
+            @Value("${openai.context.max-prompt-tokens:6000}") int maxPromptTokens,
+            @Value("${openai.max-history-messages:10}") int maxHistoryTurns,
+            @Value("${openai.context.summary-max-tokens:400}") int summaryMaxTokens,
+            @Value("${openai.context.window-tokens:gpt-3.5-turbo:16385,gpt-4:8192,gpt-4-turbo:128000,gpt-4o:128000,gpt-4o-mini:128000}")
+            String windowTokens) {
+        this.model = model;
+        this.completionTokens = completionTokens;
+        this.maxPromptTokens = maxPromptTokens;
+        this.maxHistoryTurns = maxHistoryTurns;
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.windowTokens = parseWindowTokens(windowTokens);
+    }
+
+    /**
+     * Prompt token budget for the configured model
+     */
+    public int budget() {
+        return budgetFor(model);
+    }
+
+    public int budgetFor(String modelName) {
+        int window = windowTokensFor(modelName);
+        int budget = window - completionTokens;
+        if (maxPromptTokens > 0) {
+            budget = Math.min(budget, maxPromptTokens);
+        }
+        return Math.max(0, budget);
+    }
+
+    public int getSummaryMaxTokens() {
+        return summaryMaxTokens;
+    }
+
+    /**
+     * Number of oldest turns of {@code history} that do not fit next to the system prompt,
+     * the current message and (if present or about to be created) the summary
+     */
+    public int turnsToDrop(String systemPrompt, boolean hasSummary, List<QAHistory> history, String userMessage) {
+        if (history.isEmpty()) {
+            return 0;
+        }
+        int fixed = TokenEstimator.REPLY_PRIMING
+            + TokenEstimator.MESSAGE_OVERHEAD + TokenEstimator.estimate(systemPrompt)
+            + TokenEstimator.MESSAGE_OVERHEAD + TokenEstimator.estimate(userMessage);
+        int summaryReserve = TokenEstimator.MESSAGE_OVERHEAD + TokenEstimator.estimate(SUMMARY_HEADER) + summaryMaxTokens;
+
+        int kept = turnsThatFit(history, budget() - fixed - (hasSummary ? summaryReserve : 0));
+        if (kept < history.size() && !hasSummary) {
+            // Dropping turns creates a summary, so leave room for it
+            kept = turnsThatFit(history, budget() - fixed - summaryReserve);
+        }
+        return history.size() - kept;
+    }
+
+    /**
+     * Assemble the messages: system prompt, summary (if any), the given turns, then the current message
+     */
+    public ContextWindow build(String systemPrompt, String summary, List<QAHistory> turns,
+                               String userMessage, int droppedTurns) {
+        List<OpenAiMessage> messages = new ArrayList<>(turns.size() * 2 + 3);
+        messages.add(new OpenAiMessage("system", systemPrompt));
+        boolean summarized = summary != null && !summary.isBlank();
+        if (summarized) {
+            messages.add(new OpenAiMessage("system", SUMMARY_HEADER + summary));
+        }
+        for (QAHistory qa : turns) {
+            messages.add(new OpenAiMessage("user", qa.getQuestionText()));
+            messages.add(new OpenAiMessage("assistant", qa.getAnswerText()));
+        }
+        messages.add(new OpenAiMessage("user", userMessage));
+        return new ContextWindow(messages, TokenEstimator.estimate(messages), budget(),
+            turns.size(), droppedTurns, summarized);
+    }
+
+    private int turnsThatFit(List<QAHistory> history, int available) {
+        int used = 0;
+        int kept = 0;
+        for (int i = history.size() - 1; i >= 0 && kept < maxHistoryTurns; i--) {
+            used += TokenEstimator.estimateTurn(history.get(i));
+            if (used > available) {
+                break;
+            }
+            kept++;
+        }
+        return kept;
+    }
+
+    /**
+     * Exact match first, then the longest configured prefix (so dated snapshots such as
+     * gpt-4o-2024-08-06 use the gpt-4o window)
+     */
+    private int windowTokensFor(String modelName) {
+        if (modelName == null) {
+            return DEFAULT_WINDOW_TOKENS;
+        }
+        Integer exact = windowTokens.get(modelName);
+        if (exact != null) {
+            return exact;
+        }
+        String bestPrefix = null;
+        for (String candidate : windowTokens.keySet()) {
+            if (modelName.startsWith(candidate) && (bestPrefix == null || candidate.length() > bestPrefix.length())) {
+                bestPrefix = candidate;
+            }
+        }
+        return bestPrefix != null ? windowTokens.get(bestPrefix) : DEFAULT_WINDOW_TOKENS;
+    }
+
+    private static Map<String, Integer> parseWindowTokens(String spec) {
+        Map<String, Integer> result = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                result.put(entry.substring(0, colon).trim(), Integer.parseInt(entry.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid context window entry: " + entry);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.aiinterview.context;
+
+import com.aiinterview.dto.QAHistory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Condenses turns that no longer fit the context window into a rolling summary.
+ *
+ * Extractive and local (no LLM call), so it can run on the request path: each turn becomes
+ * one line with the start of the candidate's message and the interviewer's reply. When the
+ * summary exceeds its token limit the oldest lines are dropped first.
+ */
+@Component
+public class ConversationSummarizer {
+
+    static final int MAX_EXCERPT_CHARS = 160;
+
+    /**
+     * Append the given turns to an existing summary (may be null) and trim it to maxTokens
+     */
+    public String extend(String existingSummary, List<QAHistory> turns, int maxTokens) {
+        List<String> lines = new ArrayList<>();
+        if (existingSummary != null && !existingSummary.isBlank()) {
+            lines.addAll(List.of(existingSummary.split("\n")));
+        }
+        for (QAHistory qa : turns) {
+            lines.add("- 候选人：" + excerpt(qa.getQuestionText()) + " / 面试官：" + excerpt(qa.getAnswerText()));
+        }
+
+        int tokens = 0;
+        for (String line : lines) {
+            tokens += TokenEstimator.estimate(line) + 1;
+        }
+        int first = 0;
+        while (tokens > maxTokens && first < lines.size() - 1) {
+            tokens -= TokenEstimator.estimate(lines.get(first)) + 1;
+            first++;
+        }
+        return String.join("\n", lines.subList(first, lines.size()));
+    }
+
+    static String excerpt(String text) {
+        if (text == null) {
+            return "";
+        }
+        String flat = text.replaceAll("\\s+", " ").trim();
+        if (flat.length() <= MAX_EXCERPT_CHARS) {
+            return flat;
+        }
+        int end = MAX_EXCERPT_CHARS;
+        if (Character.isHighSurrogate(flat.charAt(end - 1))) {
+            end--;
+        }
+        return flat.substring(0, end) + "…";
+    }
+}
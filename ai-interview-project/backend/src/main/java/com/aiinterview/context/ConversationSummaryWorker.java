@@ -0,0 +1,165 @@
+package com.aiinterview.context;
+
+import com.aiinterview.cache.LocalCache;
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.InterviewMessage;
+import com.aiinterview.model.InterviewSummary;
+import com.aiinterview.repository.InterviewMessageRepository;
+import com.aiinterview.repository.InterviewSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the rolling interview summary up to date off the chat path.
+ *
+ * Every {@code interview.summary.every-turns} saved turns, the interview is queued for a
+ * refresh that folds everything except the newest {@code interview.summary.keep-recent-turns}
+ * turns into the persisted summary. Refreshes run on a single background thread with a bounded
+ * queue; an interview is queued at most once at a time, and when the queue is full the refresh
+ * is skipped (the next trigger, or the prompt builder's in-memory fallback, covers it).
+ */
+@Component
+public class ConversationSummaryWorker {
+
+    private final InterviewMessageRepository interviewMessageRepository;
+    private final InterviewSummaryRepository interviewSummaryRepository;
+    private final ConversationSummarizer summarizer;
+    private final int everyTurns;
+    private final int keepRecentTurns;
+    private final int summaryMaxTokens;
+    private final ThreadPoolExecutor executor;
+
+    // Turns saved since the last refresh was queued, per interview
+    private final LocalCache<String, AtomicInteger> turnsSinceRefresh = new LocalCache<>(
+        "summary-turn-counters", 1000, 0, Duration.ofHours(2), Duration.ofMinutes(30), null);
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ConversationSummaryWorker(
+            InterviewMessageRepository interviewMessageRepository,
+            InterviewSummaryRepository interviewSummaryRepository,
+            ConversationSummarizer summarizer,
+            @Value("${interview.summary.every-turns:4}") int everyTurns,
+            @Value("${interview.summary.keep-recent-turns:6}") int keepRecentTurns,
+            @Value("${interview.summary.queue-capacity:100}") int queueCapacity,
+            @Value("${openai.context.summary-max-tokens:400}") int summaryMaxTokens) {
+        this.interviewMessageRepository = interviewMessageRepository;
+        this.interviewSummaryRepository = interviewSummaryRepository;
+        this.summarizer = summarizer;
+        this.everyTurns = Math.max(1, everyTurns);
+        this.keepRecentTurns = Math.max(0, keepRecentTurns);
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "conversation-summary");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Count a saved turn and queue a refresh every N turns. Never blocks.
+     */
+    public void onTurnSaved(String interviewId) {
+        AtomicInteger counter = turnsSinceRefresh.get(interviewId);
+        if (counter == null) {
+            counter = new AtomicInteger();
+            turnsSinceRefresh.put(interviewId, counter);
+        }
+        if (counter.incrementAndGet() >= everyTurns) {
+            counter.set(0);
+            requestRefresh(interviewId);
+        }
+    }
+
+    /**
+     * Queue a refresh now (used when a prompt had to summarise turns the stored summary does not cover yet)
+     */
+    public void requestRefresh(String interviewId) {
+        if (!queued.add(interviewId)) {
+            deduplicated.incrementAndGet();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh(interviewId);
+                    completed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    System.err.println("Failed to refresh summary for interview " + interviewId + ": " + e.getMessage());
+                } finally {
+                    queued.remove(interviewId);
+                }
+            });
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            queued.remove(interviewId);
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * Fold all but the newest turns into the stored summary
+     */
+    void refresh(String interviewId) {
+        List<InterviewMessage> messages = interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(interviewId);
+        int target = messages.size() - keepRecentTurns;
+        InterviewSummary summary = interviewSummaryRepository.findById(interviewId)
+            .orElseGet(() -> new InterviewSummary(interviewId));
+        int covered = Math.min(summary.getCoveredTurns(), messages.size());
+        if (target <= covered) {
+            return;
+        }
+
+        List<QAHistory> turns = messages.subList(covered, target).stream()
+            .map(msg -> new QAHistory(msg.getUserMessage(), msg.getAiMessage()))
+            .collect(Collectors.toList());
+        summary.setSummary(summarizer.extend(summary.getSummary(), turns, summaryMaxTokens));
+        summary.setCoveredTurns(target);
+        interviewSummaryRepository.save(summary);
+    }
+
+    public void forget(String interviewId) {
+        turnsSinceRefresh.invalidate(interviewId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("everyTurns", everyTurns);
+        stats.put("keepRecentTurns", keepRecentTurns);
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("submitted", submitted.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("rejected", rejected.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
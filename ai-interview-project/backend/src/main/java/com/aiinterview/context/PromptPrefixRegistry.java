@@ -0,0 +1,189 @@
+package com.aiinterview.context;
+
+import com.aiinterview.cache.LocalCache;
+import com.aiinterview.model.openai.OpenAiMessage;
+import com.aiinterview.model.openai.OpenAiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates how much of each prompt the provider can serve from its prompt cache.
+ *
+ * Providers cache prompts by prefix: a request reuses the work for the longest prefix it shares,
+ * in whole blocks, with a recent request, once that prefix reaches a minimum size. This registry
+ * splits each prompt into blocks of {@code openai.prompt-cache.block-chars} characters and keeps
+ * a chained hash per block, so a block's hash also covers everything before it. The leading
+ * blocks whose hashes were seen within {@code ttl-minutes} are the cacheable prefix; it counts
+ * only when it reaches {@code min-cacheable-tokens}. Cacheable and prompt tokens are reported
+ * per call type, next to the cached tokens the provider reports in its usage, when it does.
+ */
+@Component
+public class PromptPrefixRegistry {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final boolean enabled;
+    private final int blockChars;
+    private final int minCacheableTokens;
+    private final boolean routingKeyEnabled;
+    private final LocalCache<Long, Boolean> blocks;
+    private final Map<String, TypeStats> types = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PromptPrefixRegistry(
+            @Value("${openai.prompt-cache.enabled:true}") boolean enabled,
+            @Value("${openai.prompt-cache.block-chars:256}") int blockChars,
+            @Value("${openai.prompt-cache.min-cacheable-tokens:1024}") int minCacheableTokens,
+            @Value("${openai.prompt-cache.ttl-minutes:5}") long ttlMinutes,
+            @Value("${openai.prompt-cache.max-blocks:100000}") int maxBlocks,
+            @Value("${openai.prompt-cache.routing-key.enabled:false}") boolean routingKeyEnabled) {
+        this(enabled, blockChars, minCacheableTokens, Duration.ofMinutes(ttlMinutes), maxBlocks, routingKeyEnabled);
+    }
+
+    PromptPrefixRegistry(boolean enabled, int blockChars, int minCacheableTokens, Duration ttl, int maxBlocks,
+                         boolean routingKeyEnabled) {
+        this.enabled = enabled;
+        this.blockChars = Math.max(1, blockChars);
+        this.minCacheableTokens = Math.max(0, minCacheableTokens);
+        this.routingKeyEnabled = routingKeyEnabled;
+        this.blocks = new LocalCache<>("prompt-prefix-blocks", Math.max(1, maxBlocks), 0, ttl, null, null);
+    }
+
+    /**
+     * Record a prompt of the given call type and return its cacheable prefix, in tokens
+     */
+    public int record(String callType, List<OpenAiMessage> messages) {
+        if (!enabled) {
+            return 0;
+        }
+        String text = serialize(messages);
+        int blockCount = text.length() / blockChars;
+        int matched = 0;
+        boolean matching = true;
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < blockCount; i++) {
+            hash = hash(hash, text, i * blockChars, (i + 1) * blockChars);
+            if (matching && blocks.get(hash) != null) {
+                matched++;
+            } else {
+                matching = false;
+            }
+            // Refreshed on every use, like the provider's cache
+            blocks.put(hash, Boolean.TRUE);
+        }
+
+        int cacheableTokens = matched == 0 ? 0 : TokenEstimator.estimate(text.substring(0, matched * blockChars));
+        if (cacheableTokens < minCacheableTokens) {
+            cacheableTokens = 0;
+        }
+        TypeStats stats = types.computeIfAbsent(callType, key -> new TypeStats());
+        stats.calls.increment();
+        stats.promptTokens.add(TokenEstimator.estimate(messages));
+        stats.cacheableTokens.add(cacheableTokens);
+        if (cacheableTokens > 0) {
+            stats.cacheableCalls.increment();
+        }
+        return cacheableTokens;
+    }
+
+    /**
+     * Record the prompt and cached tokens the provider reported for a call
+     */
+    public void recordUsage(String callType, OpenAiResponse.Usage usage) {
+        if (!enabled || usage == null || usage.getPromptTokens() == null) {
+            return;
+        }
+        TypeStats stats = types.computeIfAbsent(callType, key -> new TypeStats());
+        stats.providerPromptTokens.add(usage.getPromptTokens());
+        OpenAiResponse.PromptTokensDetails details = usage.getPromptTokensDetails();
+        if (details != null && details.getCachedTokens() != null) {
+            stats.providerCachedTokens.add(details.getCachedTokens());
+        }
+    }
+
+    /**
+     * Key that sends prompts sharing their first block to the same provider cache, or null when
+     * {@code openai.prompt-cache.routing-key.enabled} is off
+     */
+    public String routingKey(List<OpenAiMessage> messages) {
+        if (!routingKeyEnabled) {
+            return null;
+        }
+        String text = serialize(messages);
+        return Long.toHexString(hash(FNV_OFFSET, text, 0, Math.min(blockChars, text.length())));
+    }
+
+    /**
+     * The prompt as the provider sees it, in message order
+     */
+    private static String serialize(List<OpenAiMessage> messages) {
+        StringBuilder text = new StringBuilder();
+        for (OpenAiMessage message : messages) {
+            text.append(message.getRole()).append('\n');
+            if (message.getContent() != null) {
+                text.append(message.getContent());
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    // FNV-1a over the block's chars, seeded with the previous block's hash
+    private static long hash(long seed, String text, int from, int to) {
+        long hash = seed;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("blockChars", blockChars);
+        result.put("minCacheableTokens", minCacheableTokens);
+        result.put("blocks", blocks.stats());
+        Map<String, Object> perType = new TreeMap<>();
+        types.forEach((type, stats) -> perType.put(type, stats.toMap()));
+        result.put("callTypes", perType);
+        return result;
+    }
+
+    private static final class TypeStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder cacheableCalls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder cacheableTokens = new LongAdder();
+        private final LongAdder providerPromptTokens = new LongAdder();
+        private final LongAdder providerCachedTokens = new LongAdder();
+
+        private Map<String, Object> toMap() {
+            long prompt = promptTokens.sum();
+            long cacheable = cacheableTokens.sum();
+            long providerPrompt = providerPromptTokens.sum();
+            long providerCached = providerCachedTokens.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("cacheableCalls", cacheableCalls.sum());
+            map.put("promptTokens", prompt);
+            map.put("cacheableTokens", cacheable);
+            map.put("cacheableRatio", prompt == 0 ? 0.0 : Math.round(cacheable * 1000.0 / prompt) / 1000.0);
+            map.put("providerPromptTokens", providerPrompt);
+            map.put("providerCachedTokens", providerCached);
+            map.put("providerCachedRatio", providerPrompt == 0 ? 0.0
+                : Math.round(providerCached * 1000.0 / providerPrompt) / 1000.0);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.aiinterview.context;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-call-path prompt token counters for LLM calls built through {@link ContextWindowBuilder}
+ */
+@Component
+public class PromptTokenMetrics {
+
+    private final Map<String, PathStats> paths = new ConcurrentHashMap<>();
+
+    public void record(String callPath, ContextWindow window) {
+        PathStats stats = paths.computeIfAbsent(callPath, key -> new PathStats());
+        stats.calls.increment();
+        stats.promptTokens.add(window.getPromptTokens());
+        stats.maxPromptTokens.accumulateAndGet(window.getPromptTokens(), Math::max);
+        stats.lastPromptTokens.set(window.getPromptTokens());
+        stats.lastBudgetTokens.set(window.getBudgetTokens());
+        stats.droppedTurns.add(window.getDroppedTurns());
+        if (window.getDroppedTurns() > 0) {
+            stats.trimmedCalls.increment();
+        }
+        if (window.isSummarized()) {
+            stats.summarizedCalls.increment();
+        }
+        if (window.getPromptTokens() > window.getBudgetTokens()) {
+            stats.overBudgetCalls.increment();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new TreeMap<>();
+        paths.forEach((path, stats) -> result.put(path, stats.toMap()));
+        return result;
+    }
+
+    private static final class PathStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final AtomicLong maxPromptTokens = new AtomicLong();
+        private final AtomicLong lastPromptTokens = new AtomicLong();
+        private final AtomicLong lastBudgetTokens = new AtomicLong();
+        private final LongAdder droppedTurns = new LongAdder();
+        private final LongAdder trimmedCalls = new LongAdder();
+        private final LongAdder summarizedCalls = new LongAdder();
+        private final LongAdder overBudgetCalls = new LongAdder();
+
+        private Map<String, Object> toMap() {
+            long callCount = calls.sum();
+            long tokens = promptTokens.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", callCount);
+            map.put("promptTokensTotal", tokens);
+            map.put("promptTokensAvg", callCount > 0 ? Math.round((double) tokens / callCount) : 0);
+            map.put("promptTokensMax", maxPromptTokens.get());
+            map.put("promptTokensLast", lastPromptTokens.get());
+            map.put("budgetTokens", lastBudgetTokens.get());
+            map.put("trimmedCalls", trimmedCalls.sum());
+            map.put("summarizedCalls", summarizedCalls.sum());
+            map.put("droppedTurns", droppedTurns.sum());
+            map.put("overBudgetCalls", overBudgetCalls.sum());
+            return map;
+        }
+    }
+}
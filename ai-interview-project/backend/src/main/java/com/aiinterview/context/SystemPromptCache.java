@@ -0,0 +1,142 @@
+package com.aiinterview.context;
+
+import com.aiinterview.cache.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-interview cache of the assembled interviewer system prompt.
+ *
+ * Entries are stamped with the versions of the interview and candidate they were built from.
+ * Versions are bumped when an interview is updated through the API or a candidate row changes,
+ * so a stale entry is never served even if it was being built while the change happened.
+ * Changes made outside the application are picked up when the entry expires.
+ *
+ * Versions are kept in bounded caches that outlive the prompt entries by a margin. A version
+ * is a fresh number from one sequence, so a version that has been dropped reads as 0 and no
+ * longer matches any prompt stamped after that change.
+ *
+ * A hit saves the interview and candidate lookups (two DB round-trips) for that turn.
+ */
+@Component
+public class SystemPromptCache {
+
+    static final int DB_ROUND_TRIPS_PER_BUILD = 2;
+    // Versions outlive the prompts stamped with them, including prompts still being built
+    static final Duration VERSION_TTL_MARGIN = Duration.ofMinutes(5);
+
+    private final LocalCache<String, Entry> cache;
+    private final LocalCache<String, Long> interviewVersions;
+    private final LocalCache<Integer, Long> candidateVersions;
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong staleRejections = new AtomicLong();
+
+    public SystemPromptCache(
+            @Value("${interview.prompt-cache.max-entries:1000}") int maxEntries,
+            @Value("${interview.prompt-cache.expire-after-write-minutes:30}") long expireAfterWriteMinutes) {
+        Duration expireAfterWrite = Duration.ofMinutes(expireAfterWriteMinutes);
+        this.cache = new LocalCache<>("system-prompt", maxEntries, 0, expireAfterWrite, Duration.ZERO, null);
+        Duration versionTtl = expireAfterWrite.isZero() ? Duration.ZERO : expireAfterWrite.plus(VERSION_TTL_MARGIN);
+        this.interviewVersions = new LocalCache<>("system-prompt-interview-versions", maxEntries, 0,
+            versionTtl, Duration.ZERO, null);
+        this.candidateVersions = new LocalCache<>("system-prompt-candidate-versions", maxEntries, 0,
+            versionTtl, Duration.ZERO, null);
+    }
+
+    /**
+     * Cached prompt, or null if missing or built from an older interview/candidate version
+     */
+    public String get(String interviewId) {
+        Entry entry = cache.get(interviewId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.interviewVersion != interviewVersion(interviewId)
+                || entry.candidateVersion != candidateVersion(entry.candidateId)) {
+            cache.invalidate(interviewId);
+            staleRejections.incrementAndGet();
+            return null;
+        }
+        return entry.prompt;
+    }
+
+    /**
+     * Store a prompt; the versions must be read before the entities were loaded. A prompt
+     * whose versions already changed is not stored.
+     */
+    public void put(String interviewId, String prompt, long interviewVersion,
+                    Integer candidateId, long candidateVersion) {
+        if (interviewVersion != interviewVersion(interviewId) || candidateVersion != candidateVersion(candidateId)) {
+            return;
+        }
+        cache.put(interviewId, new Entry(prompt, interviewVersion, candidateId, candidateVersion));
+    }
+
+    public long interviewVersion(String interviewId) {
+        Long version = interviewVersions.get(interviewId);
+        return version != null ? version : 0;
+    }
+
+    public long candidateVersion(Integer candidateId) {
+        if (candidateId == null) {
+            return 0;
+        }
+        Long version = candidateVersions.get(candidateId);
+        return version != null ? version : 0;
+    }
+
+    public void invalidateInterview(String interviewId) {
+        interviewVersions.put(interviewId, versionSequence.incrementAndGet());
+        cache.invalidate(interviewId);
+    }
+
+    /**
+     * Drop every prompt built from this candidate (lazily, on the next read)
+     */
+    public void invalidateCandidate(Integer candidateId) {
+        if (candidateId != null) {
+            candidateVersions.put(candidateId, versionSequence.incrementAndGet());
+        }
+    }
+
+    /**
+     * Forget a deleted interview entirely
+     */
+    public void remove(String interviewId) {
+        cache.invalidate(interviewId);
+        interviewVersions.invalidate(interviewId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> cacheStats = cache.stats();
+        // Stale entries count as cache hits but still cost a rebuild
+        long hits = (Long) cacheStats.get("hits") - staleRejections.get();
+        long lookups = (Long) cacheStats.get("hits") + (Long) cacheStats.get("misses");
+        Map<String, Object> stats = new LinkedHashMap<>(cacheStats);
+        stats.put("staleRejections", staleRejections.get());
+        stats.put("trackedVersions", interviewVersions.size() + candidateVersions.size());
+        stats.put("dbRoundTripsSaved", hits * DB_ROUND_TRIPS_PER_BUILD);
+        stats.put("dbRoundTripsSavedPerTurn", lookups > 0
+            ? Math.round((double) hits * DB_ROUND_TRIPS_PER_BUILD / lookups * 100.0) / 100.0 : 0.0);
+        return stats;
+    }
+
+    private static final class Entry {
+        private final String prompt;
+        private final long interviewVersion;
+        private final Integer candidateId;
+        private final long candidateVersion;
+
+        private Entry(String prompt, long interviewVersion, Integer candidateId, long candidateVersion) {
+            this.prompt = prompt;
+            this.interviewVersion = interviewVersion;
+            this.candidateId = candidateId;
+            this.candidateVersion = candidateVersion;
+        }
+    }
+}
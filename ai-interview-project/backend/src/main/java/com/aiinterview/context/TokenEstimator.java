@@ -0,0 +1,69 @@
+package com.aiinterview.context;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.openai.OpenAiMessage;
+
+import java.util.List;
+
+/**
+ * Local token estimate for chat prompts, close enough to the cl100k tokenizer for budgeting
+ * without a tokenizer dependency: about one token per CJK character and one token per four
+ * characters of other text, plus the fixed per-message overhead of the chat format.
+ */
+public final class TokenEstimator {
+
+    // Role and separator tokens added by the chat format for every message
+    static final int MESSAGE_OVERHEAD = 4;
+    // Tokens that prime the assistant reply, counted once per request
+    static final int REPLY_PRIMING = 3;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                cjk++;
+            } else {
+                other++;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    public static int estimate(OpenAiMessage message) {
+        return MESSAGE_OVERHEAD + estimate(message.getContent());
+    }
+
+    public static int estimate(List<OpenAiMessage> messages) {
+        int total = REPLY_PRIMING;
+        for (OpenAiMessage message : messages) {
+            total += estimate(message);
+        }
+        return total;
+    }
+
+    /**
+     * Tokens for one history turn, sent as a user message and an assistant message
+     */
+    public static int estimateTurn(QAHistory qa) {
+        return 2 * MESSAGE_OVERHEAD + estimate(qa.getQuestionText()) + estimate(qa.getAnswerText());
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL
+            || (codePoint >= 0x3000 && codePoint <= 0x303F)
+            || (codePoint >= 0xFF00 && codePoint <= 0xFFEF);
+    }
+}
@@ -1,5 +1,6 @@
 package com.aiinterview.controller;
 
+import com.aiinterview.llm.ApiKeyProvider;
 import com.aiinterview.model.ApiKeyConfig;
 import com.aiinterview.service.ApiKeyConfigService;
 import org.springframework.http.ResponseEntity;
@@ -14,9 +15,11 @@ import java.util.Map;
 public class ApiKeyController {
 
     private final ApiKeyConfigService apiKeyConfigService;
+    private final ApiKeyProvider apiKeyProvider;
 
-    public ApiKeyController(ApiKeyConfigService apiKeyConfigService) {
+    public ApiKeyController(ApiKeyConfigService apiKeyConfigService, ApiKeyProvider apiKeyProvider) {
         this.apiKeyConfigService = apiKeyConfigService;
+        this.apiKeyProvider = apiKeyProvider;
     }
 
     /**
@@ -65,7 +68,9 @@ public class ApiKeyController {
     }
 
     /**
-     * Set active API key for a service
+     * Set active API key for a service. With {@code "append": "true"} the key joins the service's
+     * other active keys, which requests are balanced over; {@code baseUrl} and {@code weight}
+     * optionally set its endpoint and share of requests.
      */
     @PostMapping("/{serviceName}")
     public ResponseEntity<ApiKeyConfig> setApiKey(@PathVariable String serviceName, @RequestBody Map<String, String> request) {
@@ -73,13 +78,35 @@ public class ApiKeyController {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        Integer weight = null;
+        if (request.get("weight") != null) {
+            try {
+                weight = Integer.parseInt(request.get("weight").trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (weight < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
 
-        // Deactivate all existing keys for this service
-        apiKeyConfigService.deactivateAllForService(serviceName);
+        if (!Boolean.parseBoolean(request.get("append"))) {
+            // Deactivate all existing keys for this service
+            apiKeyConfigService.deactivateAllForService(serviceName);
+        }
 
         // Create new active key
         ApiKeyConfig newConfig = new ApiKeyConfig(serviceName, apiKey.trim());
+        String baseUrl = request.get("baseUrl");
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            newConfig.setBaseUrl(baseUrl.trim());
+        }
+        if (weight != null) {
+            newConfig.setWeight(weight);
+        }
         ApiKeyConfig saved = apiKeyConfigService.save(newConfig);
+        // LLM clients pick up the new key with their next request
+        apiKeyProvider.invalidate(serviceName);
 
         return ResponseEntity.ok(saved);
     }
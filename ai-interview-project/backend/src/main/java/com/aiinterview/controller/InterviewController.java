@@ -5,17 +5,21 @@ import com.aiinterview.dto.CreateInterviewRequest;
 import com.aiinterview.dto.QAHistory;
 import com.aiinterview.model.Candidate;
 import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewCompletionJob;
 import com.aiinterview.repository.InterviewRepository;
 import com.aiinterview.service.AiService;
 import com.aiinterview.service.CandidateService;
 import com.aiinterview.service.InterviewService;
+import com.aiinterview.service.InterviewCompletionService;
 import com.aiinterview.service.InterviewSessionService;
-import com.aiinterview.service.LlmEvaluationService;
 import com.aiinterview.service.PdfReportService;
 import com.aiinterview.service.ReportService;
 import com.aiinterview.service.AudioService;
 import com.aiinterview.service.ResumeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,16 +32,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import reactor.core.publisher.Mono;
 import org.springframework.web.multipart.MultipartFile;
-import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/interviews")
 public class InterviewController {
 
+    // Reports are per user and change when answers are evaluated: cache privately, always revalidate
+    private static final CacheControl REPORT_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    // A report without LLM feedback is rebuilt on the next request: no ETag, not cached
+    private static final CacheControl PARTIAL_REPORT_CACHE_CONTROL = CacheControl.noStore();
+
     private final AiService aiService;
     private final InterviewRepository interviewRepository;
     private final InterviewService interviewService;
@@ -45,10 +53,10 @@ public class InterviewController {
     private final InterviewSessionService interviewSessionService;
     private final ReportService reportService;
     private final PdfReportService pdfReportService;
-    private final LlmEvaluationService llmEvaluationService;
     private final AudioService audioService;
     private final ResumeService resumeService;
     private final ObjectMapper objectMapper;
+    private final InterviewCompletionService interviewCompletionService;
 
     public InterviewController(AiService aiService,
                                InterviewRepository interviewRepository,
@@ -57,10 +65,10 @@ public class InterviewController {
                                InterviewSessionService interviewSessionService,
                                ReportService reportService,
                                PdfReportService pdfReportService,
-                               LlmEvaluationService llmEvaluationService,
                                AudioService audioService,
                                ResumeService resumeService,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               InterviewCompletionService interviewCompletionService) {
         this.aiService = aiService;
         this.interviewRepository = interviewRepository;
         this.interviewService = interviewService;
@@ -68,10 +76,10 @@ public class InterviewController {
         this.interviewSessionService = interviewSessionService;
         this.reportService = reportService;
         this.pdfReportService = pdfReportService;
-        this.llmEvaluationService = llmEvaluationService;
         this.audioService = audioService;
         this.resumeService = resumeService;
         this.objectMapper = objectMapper;
+        this.interviewCompletionService = interviewCompletionService;
     }
 
     @GetMapping
@@ -281,7 +289,9 @@ public class InterviewController {
     }
     
     /**
-     * End interview and generate report
+     * End interview. Evaluation and report generation run as a background job; the response
+     * carries the job id, and progress is available from GET /{id}/end/{jobId} and on
+     * /topic/interview/{id}.
      */
     @PostMapping("/{id}/end")
     public ResponseEntity<?> endInterview(@PathVariable String id, HttpServletRequest request) {
@@ -299,38 +309,60 @@ public class InterviewController {
         if (interviewOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        
-        Interview interview = interviewOpt.get();
-        
-        // Update interview status and end time
-        interview.setStatus("Completed");
-        if (interview.getStartedAt() == null) {
-            interview.setStartedAt(interview.getCreatedAt());
+
+        InterviewCompletionJob job = interviewCompletionService.start(interviewOpt.get(), userId);
+        boolean failed = InterviewCompletionJob.STATUS_FAILED.equals(job.getStatus());
+
+        Map<String, Object> response = interviewCompletionService.describe(job, false);
+        response.put("success", !failed);
+        response.put("message", failed ? job.getError() : "Interview completed, report is being generated");
+        return ResponseEntity.status(failed ? 503 : 202).body(response);
+    }
+
+    /**
+     * Status of the latest completion job of an interview
+     */
+    @GetMapping("/{id}/end")
+    public ResponseEntity<?> getLatestCompletionJob(@PathVariable String id, HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
         }
-        interview.setEndedAt(java.time.LocalDateTime.now());
-        if (interview.getStartedAt() != null) {
-            long duration = java.time.Duration.between(interview.getStartedAt(), interview.getEndedAt()).getSeconds();
-            interview.setDurationSeconds((int) duration);
+
+        ResponseEntity<?> ownershipCheck = checkInterviewOwnership(id, userId);
+        if (ownershipCheck != null) {
+            return ownershipCheck;
         }
-        interviewRepository.save(interview);
-        
-        // Generate evaluation for all Q&A pairs
-        List<QAHistory> history = interviewSessionService.getChatHistory(id);
-        evaluateAllAnswers(id, history, interview.getTitle());
-        
-        // Generate report
-        Map<String, Object> report = reportService.generateReport(id);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Interview completed successfully");
-        response.put("report", report);
-        
-        return ResponseEntity.ok(response);
+
+        return interviewCompletionService.getLatestJob(id)
+            .<ResponseEntity<?>>map(job -> ResponseEntity.ok(interviewCompletionService.describe(job, true)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Status of a completion job, including the report once it is done
+     */
+    @GetMapping("/{id}/end/{jobId}")
+    public ResponseEntity<?> getCompletionJob(@PathVariable String id, @PathVariable String jobId,
+                                              HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        ResponseEntity<?> ownershipCheck = checkInterviewOwnership(id, userId);
+        if (ownershipCheck != null) {
+            return ownershipCheck;
+        }
+
+        return interviewCompletionService.getJob(id, jobId)
+            .<ResponseEntity<?>>map(job -> ResponseEntity.ok(interviewCompletionService.describe(job, true)))
+            .orElse(ResponseEntity.notFound().build());
     }
     
     /**
-     * Get interview report
+     * Get interview report. Served from the report store with an ETag; a matching
+     * If-None-Match gets 304 without reading or generating the report.
      */
     @GetMapping("/{id}/report")
     public ResponseEntity<?> getInterviewReport(@PathVariable String id, HttpServletRequest request) {
@@ -344,12 +376,7 @@ public class InterviewController {
             return ownershipCheck;
         }
 
-        try {
-            Map<String, Object> report = reportService.generateReport(id);
-            return ResponseEntity.ok(report);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        return reportResponse(id, request);
     }
     
     /**
@@ -367,9 +394,27 @@ public class InterviewController {
             return ownershipCheck;
         }
 
+        return reportResponse(id, request);
+    }
+
+    private ResponseEntity<?> reportResponse(String id, HttpServletRequest request) {
         try {
-            Map<String, Object> report = reportService.generateReport(id);
-            return ResponseEntity.ok(report);
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                String eTag = ReportService.toETag(reportService.getContentHash(id));
+                if (eTagMatches(ifNoneMatch, eTag)) {
+                    reportService.recordNotModified();
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REPORT_CACHE_CONTROL).build();
+                }
+            }
+            ReportService.VersionedReport report = reportService.getReport(id);
+            if (!report.complete()) {
+                return ResponseEntity.ok().cacheControl(PARTIAL_REPORT_CACHE_CONTROL).body(report.report());
+            }
+            return ResponseEntity.ok()
+                .eTag(report.eTag())
+                .cacheControl(REPORT_CACHE_CONTROL)
+                .body(report.report());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -391,15 +436,48 @@ public class InterviewController {
         }
 
         try {
-            byte[] pdfBytes = pdfReportService.generatePdfReport(id);
-            return ResponseEntity.ok()
+            // The PDF is rendered from the stored report, so it changes exactly when the report does
+            String eTag = ReportService.toETag(reportService.getContentHash(id) + "-pdf");
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && eTagMatches(ifNoneMatch, eTag)) {
+                reportService.recordNotModified();
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REPORT_CACHE_CONTROL).build();
+            }
+            ReportService.VersionedReport report = reportService.getReport(id);
+            byte[] pdfBytes = pdfReportService.generatePdfReport(report.report());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header("Content-Type", "application/pdf")
-                .header("Content-Disposition", "attachment; filename=\"interview-report-" + id + ".pdf\"")
+                .header("Content-Disposition", "attachment; filename=\"interview-report-" + id + ".pdf\"");
+            if (!report.complete()) {
+                return response.cacheControl(PARTIAL_REPORT_CACHE_CONTROL).body(pdfBytes);
+            }
+            return response
+                .eTag(ReportService.toETag(report.contentHash() + "-pdf"))
+                .cacheControl(REPORT_CACHE_CONTROL)
                 .body(pdfBytes);
         } catch (RuntimeException | IOException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * If-None-Match check; weak comparison as RFC 9110 requires for this header
+     */
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
     
     /**
      * Update interview information
@@ -440,6 +518,7 @@ public class InterviewController {
         }
         
         Interview updated = interviewRepository.save(interview);
+        interviewSessionService.invalidateSystemPrompt(id);
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("interview", updated);
@@ -467,6 +546,8 @@ public class InterviewController {
         }
         
         interviewRepository.delete(interviewOpt.get());
+        interviewSessionService.clearSession(id);
+        reportService.deleteStoredReport(id);
         return ResponseEntity.ok(Map.of("success", true, "message", "Interview deleted successfully"));
     }
 
@@ -490,93 +571,6 @@ public class InterviewController {
         }
     }
 
-    /**
-     * Evaluate all Q&A pairs in an interview (optimized for speed)
-     */
-    private void evaluateAllAnswers(String interviewId, List<QAHistory> history, String roleId) {
-        if (history.isEmpty()) {
-            return;
-        }
-
-        // Extract role and level from roleId
-        String role = roleId;
-        String level = "mid"; // default
-
-        if (roleId != null && roleId.contains("_")) {
-            String[] parts = roleId.split("_");
-            if (parts.length >= 3) {
-                level = parts[parts.length - 1];
-                role = roleId.substring(0, roleId.lastIndexOf("_" + level));
-            }
-        }
-
-        final String finalRole = role;
-        final String finalLevel = level;
-
-        System.out.println("Starting evaluation for interview " + interviewId + " with " + history.size() + " Q&A pairs");
-
-        // Limit to last 10 Q&A pairs for faster evaluation
-        List<QAHistory> toEvaluate = history.size() > 10
-            ? history.subList(history.size() - 10, history.size())
-            : history;
-
-        // Evaluate each Q&A pair asynchronously with reduced timeout
-        List<CompletableFuture<Void>> evaluationTasks = toEvaluate.stream()
-            .filter(qa -> qa.getAnswerText() != null && !qa.getAnswerText().trim().isEmpty())
-            .map(qa -> CompletableFuture.runAsync(() -> {
-                try {
-                    llmEvaluationService.evaluateAnswer(
-                        qa.getQuestionText(),
-                        qa.getAnswerText(),
-                        finalRole,
-                        finalLevel
-                    )
-                    .timeout(Duration.ofSeconds(10)) // 10 second timeout per evaluation
-                    .doOnNext(evaluationResult -> {
-                        qa.setScore(evaluationResult.getScore());
-                        qa.setDetailedScores(evaluationResult.getDetailedScores());
-                        qa.setStrengths(evaluationResult.getStrengths());
-                        qa.setImprovements(evaluationResult.getImprovements());
-                        qa.setFollowUpQuestions(evaluationResult.getFollowUpQuestions());
-                        qa.setRubricLevel(evaluationResult.getRubricLevel());
-
-                        interviewSessionService.updateEvaluationResults(
-                            interviewId,
-                            qa.getQuestionText(),
-                            qa.getAnswerText(),
-                            evaluationResult.getScore(),
-                            evaluationResult.getDetailedScores(),
-                            evaluationResult.getStrengths(),
-                            evaluationResult.getImprovements(),
-                            evaluationResult.getFollowUpQuestions(),
-                            evaluationResult.getRubricLevel()
-                        );
-                    })
-                    .doOnError(error -> {
-                        System.err.println("Evaluation failed for Q&A: " + error.getMessage());
-                        // Set default scores on error
-                        qa.setScore(70.0);
-                        qa.setRubricLevel("Intermediate");
-                    })
-                    .onErrorComplete() // Continue even if one fails
-                    .block(); // Block to ensure completion
-                } catch (Exception e) {
-                    System.err.println("Failed to evaluate answer: " + e.getMessage());
-                }
-            }))
-            .toList();
-
-        // Wait for evaluations with shorter timeout
-        try {
-            CompletableFuture.allOf(evaluationTasks.toArray(new CompletableFuture[0]))
-                .get(15, java.util.concurrent.TimeUnit.SECONDS); // Reduced to 15 seconds
-            System.out.println("Evaluation completed for interview " + interviewId);
-        } catch (Exception e) {
-            System.err.println("Evaluation timeout for interview " + interviewId + ": " + e.getMessage());
-            // Continue anyway - partial results are acceptable
-        }
-    }
-
     /**
      * Upload audio recording for an interview
      */
@@ -1,5 +1,8 @@
 package com.aiinterview.controller;
 
+import com.aiinterview.cache.QuestionResponseCache;
+import com.aiinterview.evaluation.EvaluationRejectedException;
+import com.aiinterview.evaluation.EvaluationScheduler;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.service.LlmEvaluationService;
 import com.aiinterview.service.OpenAiService;
@@ -7,6 +10,8 @@ import com.aiinterview.service.PromptService;
 import com.aiinterview.session.SessionService;
 import com.aiinterview.session.model.InterviewSession;
 import com.aiinterview.session.model.QAHistory;
+import com.aiinterview.stream.StreamAccumulator;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
@@ -38,9 +43,18 @@ public class LlmGatewayController {
     @Autowired
     private SessionService sessionService;
 
+    @Autowired
+    private EvaluationScheduler evaluationScheduler;
+
+    @Autowired
+    private QuestionResponseCache questionCache;
+
     @Value("${openai.max-history-messages:10}")
     private int maxHistoryMessages;
 
+    @Value("${openai.max-tokens:1000}")
+    private int maxTokens;
+
     /**
      * Generate next interview question based on session history
      */
@@ -68,7 +82,12 @@ public class LlmGatewayController {
             new OpenAiMessage("user", userPrompt)
         );
 
-        return openAiService.chat(messages)
+        QuestionResponseCache.Key cacheKey = questionCache.key(roleId, level, history.size(), systemPrompt, userPrompt);
+        String cached = cacheKey != null ? questionCache.get(cacheKey) : null;
+        Mono<String> nextQuestion = cached != null ? Mono.just(cached) : openAiService.chat(messages)
+            .doOnNext(generated -> cacheQuestion(cacheKey, generated));
+
+        return nextQuestion
             .map(question -> {
                 Map<String, Object> response = Map.of(
                     "question", question,
@@ -90,13 +109,16 @@ public class LlmGatewayController {
      * Evaluate candidate's answer
      */
     @PostMapping("/eval")
-    public Mono<ResponseEntity<Object>> eval(@RequestBody Map<String, Object> body) {
+    public Mono<ResponseEntity<Object>> eval(@RequestBody Map<String, Object> body, HttpServletRequest request) {
         String question = (String) body.get("question");
         String answer = (String) body.get("answer");
         String roleId = (String) body.getOrDefault("roleId", "backend_java");
         String level = (String) body.getOrDefault("level", "mid");
 
-        return evaluationService.evaluateAnswer(question, answer, roleId, level)
+        Object userId = request.getAttribute("userId");
+        String userKey = userId != null ? userId.toString() : request.getRemoteAddr();
+
+        return evaluationScheduler.submit(userKey, () -> evaluationService.evaluateAnswer(question, answer, roleId, level))
             .map(result -> {
                 Map<String, Object> response = Map.of(
                     "score", result.getScore(),
@@ -108,6 +130,13 @@ public class LlmGatewayController {
                 );
                 return ResponseEntity.ok((Object) response);
             })
+            .onErrorResume(EvaluationRejectedException.class, error -> Mono.just(ResponseEntity.status(429)
+                .header("Retry-After", "1")
+                .body(Map.of(
+                    "error", "Evaluation queue is full",
+                    "reason", error.getReason(),
+                    "message", error.getMessage()
+                ))))
             .onErrorResume(error -> {
                 System.err.println("Evaluation error: " + error.getMessage());
                 return Mono.just(ResponseEntity.status(500).body(Map.of(
@@ -176,8 +205,24 @@ public class LlmGatewayController {
             new OpenAiMessage("user", userPrompt)
         );
 
+        QuestionResponseCache.Key cacheKey = questionCache.key(roleId, level, history.size(), systemPrompt, userPrompt);
+        String cached = cacheKey != null ? questionCache.get(cacheKey) : null;
+        Flux<String> chunks;
+        if (cached != null) {
+            chunks = Flux.just(cached);
+        } else if (cacheKey != null) {
+            chunks = Flux.defer(() -> {
+                StreamAccumulator generated = StreamAccumulator.forMaxTokens(maxTokens);
+                return openAiService.chatStream(messages)
+                    .doOnNext(generated::append)
+                    .doOnComplete(() -> cacheQuestion(cacheKey, generated.finish()));
+            });
+        } else {
+            chunks = openAiService.chatStream(messages);
+        }
+
         // Stream response
-        return openAiService.chatStream(messages)
+        return chunks
             .map(chunk -> ServerSentEvent.<String>builder()
                 .data(chunk)
                 .build())
@@ -194,6 +239,15 @@ public class LlmGatewayController {
             });
     }
 
+    /**
+     * Remember a generated question, unless it is a mock fallback answer
+     */
+    private void cacheQuestion(QuestionResponseCache.Key cacheKey, String question) {
+        if (cacheKey != null && !openAiService.isMockResponse(question)) {
+            questionCache.put(cacheKey, question.trim());
+        }
+    }
+
     /**
      * Health check for OpenAI integration
      */
@@ -0,0 +1,209 @@
+package com.aiinterview.controller;
+
+import com.aiinterview.cache.QuestionResponseCache;
+import com.aiinterview.context.PromptPrefixRegistry;
+import com.aiinterview.evaluation.EvaluationScheduler;
+import com.aiinterview.llm.ApiKeyProvider;
+import com.aiinterview.llm.LlmCallGovernor;
+import com.aiinterview.llm.LlmCircuitBreaker;
+import com.aiinterview.llm.LlmEndpointBalancer;
+import com.aiinterview.llm.LlmHttpClient;
+import com.aiinterview.llm.LlmRequestHedger;
+import com.aiinterview.service.InterviewSessionService;
+import com.aiinterview.service.LlmEvaluationService;
+import com.aiinterview.service.OpenAiService;
+import com.aiinterview.service.ReportService;
+import com.aiinterview.stream.ActiveStreamRegistry;
+import com.aiinterview.stream.TokenCoalescer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime counters for caches and LLM call paths
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final InterviewSessionService interviewSessionService;
+    private final EvaluationScheduler evaluationScheduler;
+    private final ReportService reportService;
+    private final LlmEvaluationService llmEvaluationService;
+    private final TokenCoalescer tokenCoalescer;
+    private final ActiveStreamRegistry activeStreamRegistry;
+    private final LlmHttpClient llmHttpClient;
+    private final ApiKeyProvider apiKeyProvider;
+    private final LlmEndpointBalancer endpointBalancer;
+    private final LlmCallGovernor callGovernor;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final LlmRequestHedger requestHedger;
+    private final OpenAiService openAiService;
+    private final QuestionResponseCache questionCache;
+    private final PromptPrefixRegistry prefixRegistry;
+
+    public MetricsController(InterviewSessionService interviewSessionService,
+                             EvaluationScheduler evaluationScheduler,
+                             ReportService reportService,
+                             LlmEvaluationService llmEvaluationService,
+                             TokenCoalescer tokenCoalescer,
+                             ActiveStreamRegistry activeStreamRegistry,
+                             LlmHttpClient llmHttpClient,
+                             ApiKeyProvider apiKeyProvider,
+                             LlmEndpointBalancer endpointBalancer,
+                             LlmCallGovernor callGovernor,
+                             LlmCircuitBreaker circuitBreaker,
+                             LlmRequestHedger requestHedger,
+                             OpenAiService openAiService,
+                             QuestionResponseCache questionCache,
+                             PromptPrefixRegistry prefixRegistry) {
+        this.interviewSessionService = interviewSessionService;
+        this.evaluationScheduler = evaluationScheduler;
+        this.reportService = reportService;
+        this.llmEvaluationService = llmEvaluationService;
+        this.tokenCoalescer = tokenCoalescer;
+        this.activeStreamRegistry = activeStreamRegistry;
+        this.llmHttpClient = llmHttpClient;
+        this.apiKeyProvider = apiKeyProvider;
+        this.endpointBalancer = endpointBalancer;
+        this.callGovernor = callGovernor;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.openAiService = openAiService;
+        this.questionCache = questionCache;
+        this.prefixRegistry = prefixRegistry;
+    }
+
+    /**
+     * Local session-history cache statistics
+     */
+    @GetMapping("/history-cache")
+    public ResponseEntity<Map<String, Object>> historyCache() {
+        return ResponseEntity.ok(interviewSessionService.getHistoryCacheStats());
+    }
+
+    /**
+     * Prompt token usage per LLM call path (chat, stream)
+     */
+    @GetMapping("/prompt-tokens")
+    public ResponseEntity<Map<String, Object>> promptTokens() {
+        return ResponseEntity.ok(interviewSessionService.getPromptTokenStats());
+    }
+
+    /**
+     * Share of prompt tokens in a prefix the provider can serve from its prompt cache, per call
+     * type, next to the cached tokens the provider reports
+     */
+    @GetMapping("/prompt-prefix")
+    public ResponseEntity<Map<String, Object>> promptPrefix() {
+        return ResponseEntity.ok(prefixRegistry.stats());
+    }
+
+    /**
+     * Background conversation-summary queue
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Map<String, Object>> summaries() {
+        return ResponseEntity.ok(interviewSessionService.getSummaryWorkerStats());
+    }
+
+    /**
+     * Per-interview system prompt cache, with DB round-trips saved per turn
+     */
+    @GetMapping("/system-prompt")
+    public ResponseEntity<Map<String, Object>> systemPrompt() {
+        return ResponseEntity.ok(interviewSessionService.getSystemPromptCacheStats());
+    }
+
+    /**
+     * Shared answer-evaluation scheduler: concurrency, queue depth, rejections and queue wait,
+     * plus batch evaluation counters
+     */
+    @GetMapping("/evaluations")
+    public ResponseEntity<Map<String, Object>> evaluations() {
+        Map<String, Object> stats = new LinkedHashMap<>(evaluationScheduler.stats());
+        stats.put("batching", llmEvaluationService.getBatchStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Evaluation cache hit rates per tier (local, Redis) and bypassed lookups
+     */
+    @GetMapping("/evaluation-cache")
+    public ResponseEntity<Map<String, Object>> evaluationCache() {
+        return ResponseEntity.ok(llmEvaluationService.getCacheStats());
+    }
+
+    /**
+     * Generated-question cache: exact and near-match hits, prompts still collecting variants,
+     * and bypassed lookups
+     */
+    @GetMapping("/question-cache")
+    public ResponseEntity<Map<String, Object>> questionCache() {
+        return ResponseEntity.ok(questionCache.stats());
+    }
+
+    /**
+     * Report store hit rate and requests answered with 304 Not Modified
+     */
+    @GetMapping("/reports")
+    public ResponseEntity<Map<String, Object>> reports() {
+        return ResponseEntity.ok(reportService.getStoreStats());
+    }
+
+    /**
+     * WebSocket response streaming: frames per response, flush reasons and flush latency, plus
+     * active streams and cancellations
+     */
+    @GetMapping("/streaming")
+    public ResponseEntity<Map<String, Object>> streaming() {
+        Map<String, Object> stats = new LinkedHashMap<>(tokenCoalescer.stats());
+        stats.put("activeStreams", activeStreamRegistry.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * LLM connection pool: active, idle and pending connections, and acquire time, plus API key
+     * cache lookups and reloads
+     */
+    @GetMapping("/llm-pool")
+    public ResponseEntity<Map<String, Object>> llmPool() {
+        Map<String, Object> stats = new LinkedHashMap<>(llmHttpClient.stats());
+        stats.put("apiKeys", apiKeyProvider.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * LLM key balancing: per-key requests, 429 and 5xx responses, rate-limit headroom and ejections
+     */
+    @GetMapping("/llm-keys")
+    public ResponseEntity<Map<String, Object>> llmKeys() {
+        return ResponseEntity.ok(endpointBalancer.stats());
+    }
+
+    /**
+     * LLM call governor: adaptive concurrency limit, rate-limit tokens, and queue wait and
+     * rejections per priority lane
+     */
+    @GetMapping("/llm-limiter")
+    public ResponseEntity<Map<String, Object>> llmLimiter() {
+        return ResponseEntity.ok(callGovernor.stats());
+    }
+
+    /**
+     * LLM failure handling: circuit breaker state and window, hedged requests, and failed calls
+     * answered with a mock response
+     */
+    @GetMapping("/llm-resilience")
+    public ResponseEntity<Map<String, Object>> llmResilience() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitBreaker", circuitBreaker.stats());
+        stats.put("hedging", requestHedger.stats());
+        stats.put("fallback", openAiService.getFallbackStats());
+        return ResponseEntity.ok(stats);
+    }
+}
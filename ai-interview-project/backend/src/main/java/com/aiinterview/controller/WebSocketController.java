@@ -6,17 +6,22 @@ import com.aiinterview.dto.StreamResponse;
 import com.aiinterview.dto.TranscriptMessage;
 import com.aiinterview.service.InterviewSessionService;
 import com.aiinterview.service.OpenAiService;
+import com.aiinterview.stream.ActiveStreamRegistry;
+import com.aiinterview.stream.ActiveStreamRegistry.ActiveStream;
+import com.aiinterview.stream.ActiveStreamRegistry.CancelReason;
+import com.aiinterview.stream.StreamAccumulator;
+import com.aiinterview.stream.TokenCoalescer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Controller
 public class WebSocketController {
     
@@ -31,11 +36,22 @@ public class WebSocketController {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private TokenCoalescer tokenCoalescer;
+
+    @Autowired
+    private ActiveStreamRegistry activeStreams;
+
+    @Value("${openai.max-tokens:1000}")
+    private int maxTokens;
+
     /**
-     * Handle transcript messages from client
+     * Handle transcript messages from client. A final transcript cancels the response still
+     * streaming for the interview.
      */
     @MessageMapping("/transcript")
-    public void handleTranscript(TranscriptMessage message) {
+    public void handleTranscript(TranscriptMessage message,
+                                 @Header(name = "simpSessionId", required = false) String sessionId) {
         logger.info("Received transcript: interviewId={}, text='{}', isFinal={}, language={}",
             message.getInterviewId(),
             message.getText() != null ? message.getText().substring(0, Math.min(50, message.getText().length())) : "null",
@@ -57,30 +73,28 @@ public class WebSocketController {
             logger.info("Processing final transcript for interview {}: '{}'",
                 interviewId, userMessage.substring(0, Math.min(100, userMessage.length())));
 
+            // The candidate spoke again: stop paying for the previous response
+            ActiveStream activeStream = activeStreams.start(interviewId, sessionId);
             try {
                 // Create ChatRequest
                 ChatRequest chatRequest = new ChatRequest();
                 chatRequest.setUserMessage(userMessage);
                 chatRequest.setLanguage(message.getLanguage() != null ? message.getLanguage() : "English");
 
-                // Get conversation history
-                var history = interviewSessionService.getChatHistory(interviewId);
-                chatRequest.setRecentHistory(history);
-                logger.debug("Loaded {} previous Q&A pairs for context", history.size());
-
-                // Call OpenAI with streaming
+                // Call OpenAI with streaming (history and summary are loaded by the prompt builder)
                 var messages = interviewSessionService.buildMessagesForOpenAI(interviewId, chatRequest);
                 logger.debug("Built {} messages for OpenAI", messages.size());
 
-                // Stream response through WebSocket
-                List<String> fullResponse = new ArrayList<>();
-                Flux<String> stream = openAiService.chatStream(messages);
-            
-                stream.subscribe(
+                // Stream response through WebSocket, several tokens per frame
+                StreamAccumulator fullResponse = StreamAccumulator.forMaxTokens(maxTokens);
+                Flux<String> stream = tokenCoalescer.coalesce(openAiService.chatStream(messages))
+                    .doOnCancel(() -> onStreamCancelled(activeStream, userMessage, fullResponse));
+
+                Disposable subscription = stream.subscribe(
                     chunk -> {
                         if (chunk != null && !chunk.isEmpty()) {
-                            fullResponse.add(chunk);
-                            // Send each chunk to client
+                            fullResponse.append(chunk);
+                            // Send each coalesced chunk to client
                             StreamResponse response = new StreamResponse(
                                 interviewId,
                                 chunk,
@@ -94,8 +108,16 @@ public class WebSocketController {
                         }
                     },
                     error -> {
+                        activeStreams.finish(activeStream);
                         logger.error("Error streaming AI response for interview {}: {}",
                             interviewId, error.getMessage(), error);
+                        // Keep what the candidate already saw of the interrupted response
+                        String partialResponse = fullResponse.checkpoint();
+                        if (!partialResponse.isEmpty()) {
+                            logger.info("Saving {} chars of interrupted response for interview {}",
+                                partialResponse.length(), interviewId);
+                            interviewSessionService.saveChatMessageAsync(interviewId, new QAHistory(userMessage, partialResponse));
+                        }
                         StreamResponse errorResponse = new StreamResponse(
                             interviewId,
                             "I apologize, but I encountered an error processing your response. Please try again.",
@@ -108,14 +130,15 @@ public class WebSocketController {
                         );
                     },
                     () -> {
+                        activeStreams.finish(activeStream);
                         // Stream complete - save to database
-                        String aiResponse = String.join("", fullResponse);
+                        String aiResponse = fullResponse.finish();
                         if (!aiResponse.isEmpty()) {
                             logger.info("Stream complete for interview {}. AI response length: {} chars",
                                 interviewId, aiResponse.length());
+                            // Completion runs on the Reactor Netty thread: persist off it
                             QAHistory qa = new QAHistory(userMessage, aiResponse);
-                            interviewSessionService.saveChatMessage(interviewId, qa);
-                            logger.debug("Saved Q&A to database for interview {}", interviewId);
+                            interviewSessionService.saveChatMessageAsync(interviewId, qa);
                         } else {
                             logger.warn("Empty AI response for interview {}", interviewId);
                         }
@@ -133,7 +156,9 @@ public class WebSocketController {
                         );
                     }
                 );
+                activeStream.attach(subscription);
             } catch (Exception e) {
+                activeStreams.finish(activeStream);
                 logger.error("Error processing transcript for interview {}: {}",
                     interviewId, e.getMessage(), e);
                 sendErrorResponse(interviewId, "Failed to process your message. Please try again.");
@@ -143,6 +168,41 @@ public class WebSocketController {
         }
     }
 
+    /**
+     * Cancel the response streaming for an interview, keeping the text sent so far
+     */
+    @MessageMapping("/cancel")
+    public void handleCancel(TranscriptMessage message) {
+        String interviewId = message.getInterviewId();
+        if (interviewId == null || interviewId.isEmpty()) {
+            logger.error("Received cancel with null or empty interviewId");
+            return;
+        }
+        if (!activeStreams.cancel(interviewId)) {
+            logger.debug("No active stream to cancel for interview {}", interviewId);
+        }
+    }
+
+    /**
+     * Runs on the thread that cancelled the stream, after the upstream request was cancelled
+     */
+    private void onStreamCancelled(ActiveStream activeStream, String userMessage, StreamAccumulator fullResponse) {
+        String interviewId = activeStream.getInterviewId();
+        CancelReason reason = activeStream.getCancelReason();
+        String partialResponse = fullResponse.checkpoint();
+        logger.info("Stream for interview {} cancelled ({}) after {} chars",
+            interviewId, reason, partialResponse.length());
+        if (!partialResponse.isEmpty()) {
+            interviewSessionService.saveChatMessageAsync(interviewId, new QAHistory(userMessage, partialResponse));
+        }
+        if (reason != CancelReason.DISCONNECT) {
+            messagingTemplate.convertAndSend(
+                "/topic/interview/" + interviewId + "/response",
+                new StreamResponse(interviewId, "", true, "cancelled")
+            );
+        }
+    }
+
     private void sendErrorResponse(String interviewId, String errorMessage) {
         StreamResponse errorResponse = new StreamResponse(
             interviewId,
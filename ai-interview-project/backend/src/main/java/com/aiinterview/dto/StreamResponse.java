@@ -4,7 +4,7 @@ public class StreamResponse {
     private String interviewId;
     private String content;
     private boolean isComplete;
-    private String type; // "chunk" or "complete"
+    private String type; // "chunk", "complete", "cancelled" or "error"
 
     public StreamResponse() {
     }
@@ -0,0 +1,188 @@
+package com.aiinterview.evaluation;
+
+import com.aiinterview.cache.LocalCache;
+import com.aiinterview.model.EvaluationResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache for answer evaluations.
+ *
+ * Entries are keyed by a SHA-256 over the normalised question and answer (NFKC, trimmed,
+ * whitespace collapsed, lower-cased), the role, the level, the evaluation prompt version and
+ * the model, so a candidate who repeats a stock answer, or an interview that is completed
+ * again, does not pay for a second LLM call. A local tier sits in front of Redis, which shares
+ * entries between instances; both tiers expire entries on their own TTL.
+ *
+ * The cache only applies when evaluations are sampled at or below
+ * {@code interview.evaluation.cache.max-temperature}: at higher temperatures the same answer
+ * is meant to get a different evaluation each time, so caching one would change behaviour.
+ * Redis operations are best effort; a Redis failure counts as a miss.
+ */
+@Component
+public class EvaluationCache {
+
+    static final String KEY_PREFIX = "eval:cache:";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final boolean enabled;
+    private final double maxTemperature;
+    private final Duration redisTtl;
+    private final String model;
+    private final LocalCache<String, EvaluationResult> local;
+
+    @Autowired(required = false)
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+
+    @Autowired
+    public EvaluationCache(
+            @Value("${interview.evaluation.cache.enabled:true}") boolean enabled,
+            @Value("${interview.evaluation.cache.max-temperature:0.0}") double maxTemperature,
+            @Value("${interview.evaluation.cache.max-entries:10000}") int maxEntries,
+            @Value("${interview.evaluation.cache.expire-after-write-minutes:720}") long expireAfterWriteMinutes,
+            @Value("${interview.evaluation.cache.redis-ttl-hours:168}") long redisTtlHours,
+            @Value("${openai.model:gpt-3.5-turbo}") String model) {
+        this.enabled = enabled;
+        this.maxTemperature = maxTemperature;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+        this.model = model;
+        this.local = new LocalCache<>("evaluation", maxEntries, 0,
+            Duration.ofMinutes(expireAfterWriteMinutes), null, null);
+    }
+
+    EvaluationCache(boolean enabled, double maxTemperature, int maxEntries, String model,
+                    RedisTemplate<String, Object> redisTemplate) {
+        this(enabled, maxTemperature, maxEntries, 60, 24, model);
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Whether evaluations sampled at this temperature may be served from the cache. A null
+     * temperature is the model default (1.0 for OpenAI) and is never cached.
+     */
+    public boolean isEnabledFor(Double temperature) {
+        boolean active = enabled && temperature != null && temperature <= maxTemperature;
+        if (!active) {
+            bypassed.incrementAndGet();
+        }
+        return active;
+    }
+
+    /**
+     * Cache key for one evaluation
+     */
+    public String key(String question, String answer, String roleId, String level, String promptVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] {normalize(question), normalize(answer), roleId, level, promptVersion, model}) {
+                byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                // Length-prefixed so ("ab", "c") and ("a", "bc") differ
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).trim();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cached evaluation from the local tier, then Redis; null on a miss. Redis hits are copied
+     * into the local tier. Returned results are shared and must not be modified.
+     */
+    public EvaluationResult get(String key) {
+        EvaluationResult result = local.get(key);
+        if (result != null) {
+            localHits.incrementAndGet();
+            return result;
+        }
+        result = loadFromRedis(key);
+        if (result != null) {
+            redisHits.incrementAndGet();
+            local.put(key, result);
+            return result;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, EvaluationResult result) {
+        if (result == null) {
+            return;
+        }
+        puts.incrementAndGet();
+        local.put(key, result);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, result, redisTtl);
+        } catch (Exception e) {
+            // Redis unavailable, the local tier still has the entry
+        }
+    }
+
+    private EvaluationResult loadFromRedis(String key) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return value instanceof EvaluationResult result ? result : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hit rates per tier and overall, plus the local tier's own statistics
+     */
+    public Map<String, Object> stats() {
+        long localHitCount = localHits.get();
+        long redisHitCount = redisHits.get();
+        long lookups = localHitCount + redisHitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxTemperature", maxTemperature);
+        stats.put("redis", redisTemplate != null);
+        stats.put("lookups", lookups);
+        stats.put("localHits", localHitCount);
+        stats.put("redisHits", redisHitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) (localHitCount + redisHitCount) / lookups);
+        stats.put("puts", puts.get());
+        stats.put("bypassed", bypassed.get());
+        stats.put("local", local.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,26 @@
+package com.aiinterview.evaluation;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Raised when the evaluation scheduler has no room for another evaluation
+ */
+public class EvaluationRejectedException extends RejectedExecutionException {
+
+    public static final String QUEUE_FULL = "queue-full";
+    public static final String USER_LIMIT = "user-limit";
+
+    private final String reason;
+
+    public EvaluationRejectedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * {@link #QUEUE_FULL} or {@link #USER_LIMIT}
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,250 @@
+package com.aiinterview.evaluation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Shared, bounded scheduler for LLM answer evaluations.
+ *
+ * At most {@code interview.evaluation.max-concurrent} evaluations are in flight; the rest wait
+ * in per-user FIFO queues that are served round-robin, so one user ending several interviews
+ * cannot starve everyone else. Submissions are rejected with {@link EvaluationRejectedException}
+ * once {@code queue-capacity} evaluations are waiting in total, or {@code max-queued-per-user}
+ * for the submitting user. Cancelling the returned Mono drops a queued evaluation or cancels a
+ * running one.
+ */
+@Component
+public class EvaluationScheduler {
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final int maxQueuedPerUser;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ArrayDeque<Task<?>>> queues = new HashMap<>();
+    // Users with queued evaluations, in the order they will be served next
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private int running;
+    private int queued;
+    private final AtomicInteger drainWip = new AtomicInteger();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedUserLimit = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    public EvaluationScheduler(
+            @Value("${interview.evaluation.max-concurrent:8}") int maxConcurrent,
+            @Value("${interview.evaluation.queue-capacity:200}") int queueCapacity,
+            @Value("${interview.evaluation.max-queued-per-user:20}") int maxQueuedPerUser) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxQueuedPerUser = Math.max(1, maxQueuedPerUser);
+    }
+
+    /**
+     * Run an evaluation once a slot is free. The supplier is only invoked when the evaluation
+     * starts, so its timeouts do not include the time spent queued.
+     */
+    public <T> Mono<T> submit(String userKey, Supplier<Mono<T>> evaluation) {
+        String user = userKey != null ? userKey : "anonymous";
+        return Mono.create(sink -> {
+            Task<T> task = new Task<>(user, evaluation, sink);
+            String rejection = enqueue(task);
+            if (rejection != null) {
+                sink.error(new EvaluationRejectedException(rejection, EvaluationRejectedException.QUEUE_FULL.equals(rejection)
+                    ? "Evaluation queue is full (" + queueCapacity + " waiting)"
+                    : "Too many evaluations queued for this user (" + maxQueuedPerUser + ")"));
+                return;
+            }
+            sink.onCancel(() -> cancel(task));
+            drain();
+        });
+    }
+
+    private String enqueue(Task<?> task) {
+        lock.lock();
+        try {
+            // A free slot always accepts, even with a zero-length queue
+            if (queued >= queueCapacity && running >= maxConcurrent) {
+                rejectedQueueFull.incrementAndGet();
+                return EvaluationRejectedException.QUEUE_FULL;
+            }
+            ArrayDeque<Task<?>> queue = queues.get(task.user);
+            if (queue != null && queue.size() >= maxQueuedPerUser) {
+                rejectedUserLimit.incrementAndGet();
+                return EvaluationRejectedException.USER_LIMIT;
+            }
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(task.user, queue);
+                rotation.add(task.user);
+            }
+            queue.add(task);
+            queued++;
+            submitted.incrementAndGet();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start queued evaluations while slots are free. Re-entrant calls (an evaluation that
+     * completes synchronously) only mark more work, so the stack never grows with the queue.
+     */
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Task<?> next;
+            while ((next = pollNext()) != null) {
+                next.start();
+            }
+        } while (drainWip.decrementAndGet() != 0);
+    }
+
+    private Task<?> pollNext() {
+        lock.lock();
+        try {
+            if (running >= maxConcurrent || rotation.isEmpty()) {
+                return null;
+            }
+            String user = rotation.poll();
+            ArrayDeque<Task<?>> queue = queues.get(user);
+            Task<?> task = queue.poll();
+            if (queue.isEmpty()) {
+                queues.remove(user);
+            } else {
+                rotation.add(user);
+            }
+            queued--;
+            running++;
+            task.running = true;
+            recordQueueWait(System.nanoTime() - task.queuedAt);
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private void cancel(Task<?> task) {
+        lock.lock();
+        try {
+            if (!task.running) {
+                ArrayDeque<Task<?>> queue = queues.get(task.user);
+                if (queue != null && queue.remove(task)) {
+                    queued--;
+                    if (queue.isEmpty()) {
+                        queues.remove(task.user);
+                        rotation.remove(task.user);
+                    }
+                    cancelled.incrementAndGet();
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        cancelled.incrementAndGet();
+        task.subscription.dispose();
+    }
+
+    private void recordQueueWait(long nanos) {
+        started.incrementAndGet();
+        totalQueueWaitNanos.addAndGet(nanos);
+        maxQueueWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("running", running);
+            stats.put("queued", queued);
+            stats.put("queuedUsers", queues.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("maxQueuedPerUser", maxQueuedPerUser);
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("cancelled", cancelled.get());
+        stats.put("rejectedQueueFull", rejectedQueueFull.get());
+        stats.put("rejectedUserLimit", rejectedUserLimit.get());
+        long startedCount = started.get();
+        stats.put("avgQueueWaitMs", startedCount == 0 ? 0.0
+            : TimeUnit.NANOSECONDS.toMicros(totalQueueWaitNanos.get() / startedCount) / 1000.0);
+        stats.put("maxQueueWaitMs", TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()));
+        return stats;
+    }
+
+    private final class Task<T> {
+
+        private final String user;
+        private final Supplier<Mono<T>> evaluation;
+        private final MonoSink<T> sink;
+        private final long queuedAt = System.nanoTime();
+        private final Disposable.Swap subscription = Disposables.swap();
+        // Guarded by lock
+        private boolean running;
+
+        private Task(String user, Supplier<Mono<T>> evaluation, MonoSink<T> sink) {
+            this.user = user;
+            this.evaluation = evaluation;
+            this.sink = sink;
+        }
+
+        private void start() {
+            Mono<T> mono;
+            try {
+                mono = evaluation.get();
+            } catch (Exception e) {
+                mono = Mono.error(e);
+            }
+            subscription.update(mono
+                .doFinally(signal -> release())
+                .subscribe(sink::success, error -> {
+                    failed.incrementAndGet();
+                    sink.error(error);
+                }, () -> {
+                    completed.incrementAndGet();
+                    // No-op after a value; completes the sink for empty results
+                    sink.success();
+                }));
+        }
+    }
+}
@@ -13,13 +13,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
+/**
+ * Question bank, rubrics and feedback templates, loaded once at startup.
+ *
+ * Questions are held in one {@link QuestionIndex} per role, so lookups by id, skill, difficulty
+ * or type and picking an unasked question do not scan or copy the role's question list.
+ * Rubrics are keyed by (roleId, skill).
+ */
 @Service("questionKnowledgeBaseService")
 public class KnowledgeBaseService {
 
+    private record RubricKey(String roleId, String skill) {
+    }
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<String, List<QuestionItem>> questionsByRole = new ConcurrentHashMap<>();
-    private final Map<String, List<RubricItem>> rubricsByRole = new ConcurrentHashMap<>();
+    private final Map<String, QuestionIndex> questionsByRole = new ConcurrentHashMap<>();
+    private final Map<RubricKey, RubricItem> rubrics = new ConcurrentHashMap<>();
     private final Map<String, String> feedbackTemplatesByRole = new ConcurrentHashMap<>();
 
     @PostConstruct
@@ -35,7 +46,7 @@ public class KnowledgeBaseService {
             JsonNode root = objectMapper.readTree(in);
             String roleId = root.path("roleId").asText();
             List<QuestionItem> items = objectMapper.convertValue(root.path("questions"), new TypeReference<>() {});
-            questionsByRole.put(roleId, items);
+            indexQuestions(roleId, items);
         } catch (IOException e) {
             System.err.println("Failed to load questions from " + path + ": " + e.getMessage());
         }
@@ -45,11 +56,10 @@ public class KnowledgeBaseService {
         try (InputStream in = new ClassPathResource(path).getInputStream()) {
             JsonNode root = objectMapper.readTree(in);
             List<RubricItem> items = objectMapper.convertValue(root.path("rubrics"), new TypeReference<>() {});
-            Map<String, List<RubricItem>> byRole = new HashMap<>();
             for (RubricItem item : items) {
-                byRole.computeIfAbsent(item.getRoleId(), k -> new ArrayList<>()).add(item);
+                // The first rubric for a skill wins, as with the list scan this replaces
+                rubrics.putIfAbsent(new RubricKey(item.getRoleId(), item.getSkill()), item);
             }
-            rubricsByRole.putAll(byRole);
         } catch (IOException e) {
             System.err.println("Failed to load rubrics from " + path + ": " + e.getMessage());
         }
@@ -68,15 +78,44 @@ public class KnowledgeBaseService {
         }
     }
 
+    /**
+     * Replace the questions of a role
+     */
+    void indexQuestions(String roleId, List<QuestionItem> questions) {
+        questionsByRole.put(roleId, new QuestionIndex(questions));
+    }
+
+    /**
+     * Questions of a role, in file order. Not a copy.
+     */
     public List<QuestionItem> getQuestions(String roleId) {
-        return questionsByRole.getOrDefault(roleId, Collections.emptyList());
+        return getQuestionIndex(roleId).questions();
+    }
+
+    /**
+     * Index over a role's questions; empty for unknown roles
+     */
+    public QuestionIndex getQuestionIndex(String roleId) {
+        return questionsByRole.getOrDefault(roleId, QuestionIndex.EMPTY);
+    }
+
+    /**
+     * Questions of a role matching every given criterion; null matches anything
+     */
+    public List<QuestionItem> findQuestions(String roleId, String skill, String difficulty, String type) {
+        return getQuestionIndex(roleId).find(skill, difficulty, type);
+    }
+
+    /**
+     * Pick a random question of the role that is not set in {@code asked}, a bitset of
+     * {@link QuestionIndex} ordinals, and mark it asked
+     */
+    public Optional<QuestionItem> pickNextQuestion(String roleId, BitSet asked, RandomGenerator random) {
+        return Optional.ofNullable(getQuestionIndex(roleId).sample(asked, random));
     }
 
     public Optional<RubricItem> getRubric(String roleId, String skill) {
-        return rubricsByRole.getOrDefault(roleId, Collections.emptyList())
-                .stream()
-                .filter(r -> skill.equals(r.getSkill()))
-                .findFirst();
+        return Optional.ofNullable(rubrics.get(new RubricKey(roleId, skill)));
     }
 
     public Optional<String> getFeedbackTemplate(String roleId) {
@@ -0,0 +1,147 @@
+package com.aiinterview.knowledge;
+
+import com.aiinterview.knowledge.model.QuestionItem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Immutable index over the questions of one role.
+ *
+ * Each question gets an ordinal, its position in the role's list. Skills, difficulties and
+ * types (the question's tag, e.g. technical or behavioral) map to a {@link BitSet} of ordinals,
+ * so a query is an intersection of bitsets. Asked questions are tracked the same way, as a
+ * bitset of ordinals, and {@link #sample} draws from the questions not yet asked without
+ * copying or filtering the question list.
+ */
+public final class QuestionIndex {
+
+    public static final QuestionIndex EMPTY = new QuestionIndex(List.of());
+
+    // Random draws before sample() falls back to counting the remaining questions
+    private static final int SAMPLE_ATTEMPTS = 32;
+
+    private final List<QuestionItem> questions;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, BitSet> bySkill = new HashMap<>();
+    private final Map<String, BitSet> byDifficulty = new HashMap<>();
+    private final Map<String, BitSet> byType = new HashMap<>();
+
+    public QuestionIndex(List<QuestionItem> items) {
+        this.questions = Collections.unmodifiableList(new ArrayList<>(items));
+        for (int ordinal = 0; ordinal < questions.size(); ordinal++) {
+            QuestionItem question = questions.get(ordinal);
+            if (question.getId() != null) {
+                ordinals.putIfAbsent(question.getId(), ordinal);
+            }
+            if (question.getSkills() != null) {
+                for (String skill : question.getSkills()) {
+                    add(bySkill, skill, ordinal);
+                }
+            }
+            add(byDifficulty, question.getDifficulty(), ordinal);
+            add(byType, question.getType(), ordinal);
+        }
+    }
+
+    private static void add(Map<String, BitSet> index, String key, int ordinal) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    /**
+     * All questions, in ordinal order. Not a copy.
+     */
+    public List<QuestionItem> questions() {
+        return questions;
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    /**
+     * Ordinal of a question id, or -1 if the role has no such question
+     */
+    public int ordinal(String questionId) {
+        return questionId != null ? ordinals.getOrDefault(questionId, -1) : -1;
+    }
+
+    public QuestionItem get(int ordinal) {
+        return questions.get(ordinal);
+    }
+
+    /**
+     * Ordinals of the questions matching every given criterion; null matches anything
+     */
+    public BitSet select(String skill, String difficulty, String type) {
+        BitSet result = new BitSet(questions.size());
+        result.set(0, questions.size());
+        restrict(result, bySkill, skill);
+        restrict(result, byDifficulty, difficulty);
+        restrict(result, byType, type);
+        return result;
+    }
+
+    private static void restrict(BitSet result, Map<String, BitSet> index, String key) {
+        if (key == null) {
+            return;
+        }
+        BitSet matching = index.get(key);
+        if (matching != null) {
+            result.and(matching);
+        } else {
+            result.clear();
+        }
+    }
+
+    /**
+     * Questions matching every given criterion, in ordinal order; null matches anything
+     */
+    public List<QuestionItem> find(String skill, String difficulty, String type) {
+        BitSet selected = select(skill, difficulty, type);
+        List<QuestionItem> result = new ArrayList<>(selected.cardinality());
+        for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+            result.add(questions.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Draw a question uniformly from those whose ordinal is not set in {@code asked}, and set
+     * it. Returns null once every question has been asked.
+     *
+     * Random draws are retried while they hit asked questions, which takes one or two draws
+     * until most of the role's questions are asked. After {@value #SAMPLE_ATTEMPTS} misses, the
+     * remaining questions are counted and one is picked by rank.
+     */
+    public QuestionItem sample(BitSet asked, RandomGenerator random) {
+        int size = questions.size();
+        if (size == 0) {
+            return null;
+        }
+        for (int attempt = 0; attempt < SAMPLE_ATTEMPTS; attempt++) {
+            int ordinal = random.nextInt(size);
+            if (!asked.get(ordinal)) {
+                asked.set(ordinal);
+                return questions.get(ordinal);
+            }
+        }
+        int remaining = size - asked.get(0, size).cardinality();
+        if (remaining == 0) {
+            return null;
+        }
+        int ordinal = asked.nextClearBit(0);
+        for (int rank = random.nextInt(remaining); rank > 0; rank--) {
+            ordinal = asked.nextClearBit(ordinal + 1);
+        }
+        asked.set(ordinal);
+        return questions.get(ordinal);
+    }
+}
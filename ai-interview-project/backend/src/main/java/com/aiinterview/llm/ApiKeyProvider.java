@@ -0,0 +1,162 @@
+package com.aiinterview.llm;
+
+import com.aiinterview.model.ApiKeyConfig;
+import com.aiinterview.service.ApiKeyConfigService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider API keys, looked up per request so a rotated key takes effect without a restart.
+ *
+ * The active keys of a service are read from {@link ApiKeyConfigService} and cached in memory.
+ * Once an entry is older than {@code openai.api-key.cache-ttl-seconds} the cached keys are still
+ * used while they are reloaded in the background, so requests never wait on the database for
+ * known keys. Only the first lookup of a service, or the first after {@link #invalidate(String)},
+ * loads the keys before the request proceeds, off the event loop.
+ */
+@Component
+public class ApiKeyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiKeyProvider.class);
+
+    private final ApiKeyConfigService apiKeyConfigService;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Scheduler loader;
+
+    private final Map<String, CachedKeys> keys = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public ApiKeyProvider(ApiKeyConfigService apiKeyConfigService,
+                          @Value("${openai.api-key.cache-ttl-seconds:30}") long ttlSeconds) {
+        this(apiKeyConfigService, Duration.ofSeconds(ttlSeconds), Clock.systemUTC(), Schedulers.boundedElastic());
+    }
+
+    ApiKeyProvider(ApiKeyConfigService apiKeyConfigService, Duration ttl, Clock clock, Scheduler loader) {
+        this.apiKeyConfigService = apiKeyConfigService;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.loader = loader;
+    }
+
+    /**
+     * The newest active key of a service
+     */
+    public Mono<Optional<String>> apiKey(String serviceName) {
+        return activeKeys(serviceName)
+            .map(configs -> configs.stream().findFirst().map(ApiKeyConfig::getApiKey));
+    }
+
+    /**
+     * The active keys of a service, newest first. Cached keys are returned at once, and reloaded
+     * in the background once older than the TTL.
+     */
+    public Mono<List<ApiKeyConfig>> activeKeys(String serviceName) {
+        CachedKeys cached = keys.get(serviceName);
+        if (cached == null) {
+            return Mono.fromCallable(() -> load(serviceName)).subscribeOn(loader);
+        }
+        if (clock.millis() - cached.loadedAt < ttlMillis) {
+            hits.incrementAndGet();
+        } else {
+            staleHits.incrementAndGet();
+            refreshInBackground(serviceName, cached);
+        }
+        return Mono.just(cached.configs);
+    }
+
+    /**
+     * Drop the cached keys of a service after they were changed, and start loading the new ones
+     */
+    public void invalidate(String serviceName) {
+        invalidations.incrementAndGet();
+        keys.remove(serviceName);
+        Mono.fromCallable(() -> load(serviceName))
+            .subscribeOn(loader)
+            .subscribe(configs -> { }, error -> {
+                refreshFailures.incrementAndGet();
+                logger.warn("Failed to reload API keys for {}: {}", serviceName, error.getMessage());
+            });
+    }
+
+    private void refreshInBackground(String serviceName, CachedKeys stale) {
+        // One reload per stale entry; the stale key keeps being served meanwhile
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Mono.fromCallable(() -> load(serviceName))
+            .subscribeOn(loader)
+            .subscribe(configs -> { }, error -> {
+                refreshFailures.incrementAndGet();
+                stale.refreshing.set(false);
+                logger.warn("Failed to refresh API keys for {}, keeping the cached ones: {}",
+                    serviceName, error.getMessage());
+            });
+    }
+
+    private List<ApiKeyConfig> load(String serviceName) {
+        loads.incrementAndGet();
+        long generation = invalidations.get();
+        List<ApiKeyConfig> configs = List.copyOf(apiKeyConfigService.getActiveApiKeyConfigs(serviceName));
+        if (invalidations.get() != generation) {
+            // Invalidated while reading: these keys may predate the change, leave caching to the reload
+            return configs;
+        }
+        CachedKeys previous = keys.put(serviceName, new CachedKeys(configs, clock.millis()));
+        if (configs.isEmpty() && (previous == null || !previous.configs.isEmpty())) {
+            logger.warn("No active {} API key. Please configure a real API key in database.", serviceName);
+        } else if (previous != null && !ids(previous.configs).equals(ids(configs))) {
+            logger.info("Active {} API keys changed: {} active", serviceName, configs.size());
+        }
+        return configs;
+    }
+
+    private static List<Integer> ids(List<ApiKeyConfig> configs) {
+        return configs.stream().map(ApiKeyConfig::getId).toList();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("loads", loads.get());
+        stats.put("refreshFailures", refreshFailures.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private static final class CachedKeys {
+
+        private final List<ApiKeyConfig> configs;
+        private final long loadedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedKeys(List<ApiKeyConfig> configs, long loadedAt) {
+            this.configs = configs;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.aiinterview.llm;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive concurrency limit and request rate limit for LLM calls.
+ *
+ * The number of calls in flight is capped by an AIMD limit: each successful call raises it by
+ * {@code 1/limit} (about one per round of calls) while the limit is in use, and a call rejected
+ * as overloaded (429, 503, a timeout or no pooled connection) cuts it by
+ * {@code openai.limiter.backoff-ratio}, once per congestion event. Calls also take a token from
+ * a bucket refilled at {@code requests-per-second}, holding up to {@code burst} tokens.
+ *
+ * Waiting calls queue per {@link LlmPriority} lane and the highest non-empty lane is always
+ * served first. Lower lanes may only use the limit minus {@code interactive-reserve} of it, so an
+ * interactive turn finds a free slot even while batch work saturates its share. A call is
+ * rejected with {@link LlmRejectedException} when its lane queue is full, or when it waited
+ * longer than {@code queue-timeout-ms}.
+ */
+@Component
+public class LlmCallGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallGovernor.class);
+
+    enum Outcome { SUCCESS, OVERLOAD, IGNORED }
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double interactiveReserve;
+    private final double requestsPerSecond;
+    private final double tokensPerNano;
+    private final int burst;
+    private final int queueCapacity;
+    private final Duration queueTimeout;
+    private final Scheduler scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Iterated in priority order
+    private final Map<LlmPriority, Lane> lanes = new EnumMap<>(LlmPriority.class);
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseAt = Long.MIN_VALUE;
+    private double tokens;
+    private long tokensUpdatedAt;
+    private boolean refillScheduled;
+    private final AtomicInteger drainWip = new AtomicInteger();
+
+    private final AtomicLong overloads = new AtomicLong();
+    private final AtomicLong decreases = new AtomicLong();
+    private final AtomicLong rateLimitedWaits = new AtomicLong();
+
+    @Autowired
+    public LlmCallGovernor(
+            @Value("${openai.limiter.enabled:true}") boolean enabled,
+            @Value("${openai.limiter.initial-limit:10}") int initialLimit,
+            @Value("${openai.limiter.min-limit:2}") int minLimit,
+            @Value("${openai.limiter.max-limit:50}") int maxLimit,
+            @Value("${openai.limiter.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${openai.limiter.interactive-reserve:0.2}") double interactiveReserve,
+            @Value("${openai.limiter.requests-per-second:20}") double requestsPerSecond,
+            @Value("${openai.limiter.burst:40}") int burst,
+            @Value("${openai.limiter.queue-capacity:100}") int queueCapacity,
+            @Value("${openai.limiter.queue-timeout-ms:30000}") long queueTimeoutMillis) {
+        this(enabled, initialLimit, minLimit, maxLimit, backoffRatio, interactiveReserve, requestsPerSecond,
+            burst, queueCapacity, Duration.ofMillis(queueTimeoutMillis), Schedulers.parallel());
+    }
+
+    LlmCallGovernor(boolean enabled, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                    double interactiveReserve, double requestsPerSecond, int burst, int queueCapacity,
+                    Duration queueTimeout, Scheduler scheduler) {
+        this.enabled = enabled;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = Math.min(Math.max(backoffRatio, 0.1), 0.95);
+        this.interactiveReserve = Math.min(Math.max(interactiveReserve, 0.0), 0.9);
+        this.requestsPerSecond = Math.max(0.0, requestsPerSecond);
+        this.tokensPerNano = this.requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeout = queueTimeout;
+        this.scheduler = scheduler;
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.tokens = this.burst;
+        this.tokensUpdatedAt = now();
+        for (LlmPriority priority : LlmPriority.values()) {
+            lanes.put(priority, new Lane(priority));
+        }
+    }
+
+    /**
+     * Run a call once its lane gets a slot. The supplier is only invoked then, so its timeout
+     * does not include the time spent queued.
+     */
+    public <T> Mono<T> call(LlmPriority priority, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return acquire(priority).flatMap(permit -> Mono.defer(call)
+            .doOnSuccess(value -> permit.release(Outcome.SUCCESS))
+            .doOnError(error -> permit.release(classify(error)))
+            .doOnCancel(() -> permit.release(Outcome.IGNORED)));
+    }
+
+    /**
+     * Run a streamed call once its lane gets a slot; the slot is held until the stream ends
+     */
+    public <T> Flux<T> stream(LlmPriority priority, Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        return acquire(priority).flatMapMany(permit -> Flux.defer(call)
+            .doOnComplete(() -> permit.release(Outcome.SUCCESS))
+            .doOnError(error -> permit.release(classify(error)))
+            .doOnCancel(() -> permit.release(Outcome.IGNORED)));
+    }
+
+    private Mono<Permit> acquire(LlmPriority priority) {
+        Lane lane = lanes.get(priority);
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(lane, sink, now());
+            if (!enqueue(waiter)) {
+                sink.error(new LlmRejectedException(LlmRejectedException.QUEUE_FULL,
+                    "LLM " + priority + " queue is full (" + queueCapacity + " waiting)"));
+                return;
+            }
+            sink.onCancel(() -> cancel(waiter));
+            waiter.timer.update(scheduler.schedule(() -> expire(waiter), queueTimeout.toMillis(), TimeUnit.MILLISECONDS));
+            drain();
+        });
+    }
+
+    private boolean enqueue(Waiter waiter) {
+        Lane lane = waiter.lane;
+        lock.lock();
+        try {
+            // A free slot always accepts, even with a zero-length queue
+            if (lane.queue.size() >= queueCapacity && inFlight >= capacity(lane.priority)) {
+                lane.rejectedQueueFull.incrementAndGet();
+                return false;
+            }
+            lane.queue.add(waiter);
+            lane.submitted.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grant slots while the limit and the bucket allow. Re-entrant calls (a call that completes
+     * synchronously) only mark more work, so the stack never grows with the queue.
+     */
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Waiter next;
+            while ((next = pollNext()) != null) {
+                next.grant();
+            }
+        } while (drainWip.decrementAndGet() != 0);
+    }
+
+    private Waiter pollNext() {
+        lock.lock();
+        try {
+            for (Lane lane : lanes.values()) {
+                Waiter waiter = lane.queue.peek();
+                if (waiter == null) {
+                    continue;
+                }
+                // Strict priority: a blocked lane also blocks the lanes below it
+                if (inFlight >= capacity(lane.priority) || !takeToken()) {
+                    return null;
+                }
+                lane.queue.poll();
+                inFlight++;
+                long now = now();
+                waiter.permit = new Permit(now);
+                lane.recordWait(now - waiter.queuedAt);
+                return waiter;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Guarded by lock
+    private int capacity(LlmPriority priority) {
+        int current = (int) limit;
+        return priority.isInteractive() ? current : Math.max(1, (int) (current * (1 - interactiveReserve)));
+    }
+
+    // Guarded by lock
+    private boolean takeToken() {
+        if (tokensPerNano <= 0) {
+            return true;
+        }
+        long now = now();
+        tokens = Math.min(burst, tokens + (now - tokensUpdatedAt) * tokensPerNano);
+        tokensUpdatedAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        if (!refillScheduled) {
+            refillScheduled = true;
+            rateLimitedWaits.incrementAndGet();
+            long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            scheduler.schedule(this::onRefill, waitNanos, TimeUnit.NANOSECONDS);
+        }
+        return false;
+    }
+
+    private void onRefill() {
+        lock.lock();
+        try {
+            refillScheduled = false;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        lock.lock();
+        try {
+            int wasInFlight = inFlight--;
+            if (outcome == Outcome.SUCCESS) {
+                // Only grow while the limit is actually used, or it drifts up during quiet periods
+                if (wasInFlight * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else if (outcome == Outcome.OVERLOAD) {
+                overloads.incrementAndGet();
+                // Calls started before the last decrease belong to the congestion already handled
+                if (permit.startedAt > lastDecreaseAt && limit > minLimit) {
+                    double previous = limit;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseAt = now();
+                    decreases.incrementAndGet();
+                    logger.info("LLM concurrency limit lowered from {} to {}", (int) previous, (int) limit);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private void expire(Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.permit != null || !waiter.lane.queue.remove(waiter)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        waiter.lane.timedOut.incrementAndGet();
+        waiter.sink.error(new LlmRejectedException(LlmRejectedException.QUEUE_TIMEOUT,
+            "LLM " + waiter.lane.priority + " call waited longer than " + queueTimeout.toMillis() + " ms"));
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit permit;
+        lock.lock();
+        try {
+            permit = waiter.permit;
+            if (permit == null && waiter.lane.queue.remove(waiter)) {
+                waiter.lane.cancelled.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        waiter.timer.dispose();
+        if (permit != null) {
+            // Cancelled while the slot was being handed over
+            permit.release(Outcome.IGNORED);
+        }
+    }
+
+    /**
+     * Whether a failed call tells that the provider, or the path to it, is overloaded
+     */
+    static Outcome classify(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status == 503 ? Outcome.OVERLOAD : Outcome.IGNORED;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof ReadTimeoutException) {
+                return Outcome.OVERLOAD;
+            }
+        }
+        return LlmHttpClient.isAcquireFailure(error) ? Outcome.OVERLOAD : Outcome.IGNORED;
+    }
+
+    private long now() {
+        return scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.lock();
+        try {
+            stats.put("limit", Math.round(limit * 100) / 100.0);
+            stats.put("interactiveLimit", capacity(LlmPriority.INTERACTIVE));
+            stats.put("batchLimit", capacity(LlmPriority.EVALUATION));
+            stats.put("inFlight", inFlight);
+            stats.put("tokens", Math.round(tokens * 100) / 100.0);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("minLimit", minLimit);
+        stats.put("maxLimit", maxLimit);
+        stats.put("requestsPerSecond", requestsPerSecond);
+        stats.put("burst", burst);
+        stats.put("overloads", overloads.get());
+        stats.put("decreases", decreases.get());
+        stats.put("rateLimitedWaits", rateLimitedWaits.get());
+        Map<String, Object> perLane = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            perLane.put(lane.priority.name().toLowerCase(), lane.stats());
+        }
+        stats.put("lanes", perLane);
+        return stats;
+    }
+
+    private final class Lane {
+
+        private final LlmPriority priority;
+        // Guarded by lock
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong rejectedQueueFull = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Lane(LlmPriority priority) {
+            this.priority = priority;
+        }
+
+        private void recordWait(long nanos) {
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                stats.put("queued", queue.size());
+            } finally {
+                lock.unlock();
+            }
+            long startedCount = started.get();
+            stats.put("submitted", submitted.get());
+            stats.put("started", startedCount);
+            stats.put("rejectedQueueFull", rejectedQueueFull.get());
+            stats.put("timedOut", timedOut.get());
+            stats.put("cancelled", cancelled.get());
+            stats.put("avgWaitMs", startedCount == 0 ? 0.0
+                : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / startedCount) / 1000.0);
+            stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+            return stats;
+        }
+    }
+
+    private final class Waiter {
+
+        private final Lane lane;
+        private final MonoSink<Permit> sink;
+        private final long queuedAt;
+        private final Disposable.Swap timer = Disposables.swap();
+        // Guarded by lock
+        private Permit permit;
+
+        private Waiter(Lane lane, MonoSink<Permit> sink, long queuedAt) {
+            this.lane = lane;
+            this.sink = sink;
+            this.queuedAt = queuedAt;
+        }
+
+        private void grant() {
+            timer.dispose();
+            sink.success(permit);
+        }
+    }
+
+    private final class Permit {
+
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                LlmCallGovernor.this.release(this, outcome);
+            }
+        }
+    }
+}
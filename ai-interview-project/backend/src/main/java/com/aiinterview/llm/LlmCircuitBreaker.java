@@ -0,0 +1,344 @@
+package com.aiinterview.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker for calls to the LLM provider.
+ *
+ * The outcome of the last {@code openai.circuit-breaker.window-size} calls is kept. Once at least
+ * {@code minimum-calls} are recorded and the share that failed (5xx, 429, timeouts, connection
+ * errors) or was slower than {@code slow-call-ms} reaches its threshold, the breaker opens: calls
+ * fail at once with {@link LlmCircuitOpenException} instead of waiting on a degraded provider.
+ * After {@code open-seconds} it lets {@code half-open-calls} probe calls through; it closes when
+ * they all succeed and opens again on the first probe failure. Other 4xx responses are the
+ * request's fault and do not count either way.
+ */
+@Component
+public class LlmCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte SUCCESS = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILURE = 2;
+
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ring of the last outcomes while closed
+    private final byte[] window;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+    private int windowSlow;
+    private State state = State.CLOSED;
+    // Bumped on every transition; outcomes of calls started in an earlier state are dropped
+    private long generation;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+    private String lastOpenReason;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong slowCalls = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong probes = new AtomicLong();
+
+    @Autowired
+    public LlmCircuitBreaker(
+            @Value("${openai.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${openai.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${openai.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${openai.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${openai.circuit-breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+            @Value("${openai.circuit-breaker.slow-call-ms:20000}") long slowCallMillis,
+            @Value("${openai.circuit-breaker.open-seconds:30}") long openSeconds,
+            @Value("${openai.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        this(enabled, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+            Duration.ofMillis(slowCallMillis), Duration.ofSeconds(openSeconds), halfOpenCalls, Clock.systemUTC());
+    }
+
+    LlmCircuitBreaker(boolean enabled, int windowSize, int minimumCalls, int failureRateThreshold,
+                      int slowCallRateThreshold, Duration slowCall, Duration open, int halfOpenCalls, Clock clock) {
+        this.enabled = enabled;
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), window.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCall.toMillis();
+        this.openMillis = open.toMillis();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+    }
+
+    /**
+     * Run a call if the breaker allows it, and record its outcome and latency
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Permit permit = acquire();
+            if (permit == null) {
+                return Mono.error(rejection());
+            }
+            return call
+                .doOnSuccess(value -> permit.complete(null))
+                .doOnError(permit::complete)
+                .doOnCancel(permit::cancel);
+        });
+    }
+
+    /**
+     * Run a streamed call if the breaker allows it. Latency is the time to the first element,
+     * and the outcome is recorded when the stream ends.
+     */
+    public <T> Flux<T> protectStream(Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            Permit permit = acquire();
+            if (permit == null) {
+                return Flux.error(rejection());
+            }
+            return call
+                .doOnNext(value -> permit.firstElement())
+                .doOnComplete(() -> permit.complete(null))
+                .doOnError(permit::complete)
+                .doOnCancel(permit::cancel);
+        });
+    }
+
+    private Permit acquire() {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            if (state == State.OPEN && now - openedAt >= openMillis) {
+                transition(State.HALF_OPEN);
+                logger.info("LLM circuit half-open, probing with {} call(s)", halfOpenCalls);
+            }
+            if (state == State.CLOSED) {
+                return new Permit(generation, now, false);
+            }
+            if (state == State.HALF_OPEN && probesIssued < halfOpenCalls) {
+                probesIssued++;
+                probes.incrementAndGet();
+                return new Permit(generation, now, true);
+            }
+            rejected.incrementAndGet();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LlmCircuitOpenException rejection() {
+        lock.lock();
+        try {
+            long retryAfter = state == State.OPEN ? Math.max(0, openedAt + openMillis - clock.millis()) : 0;
+            return new LlmCircuitOpenException("LLM circuit breaker is open: " + lastOpenReason, retryAfter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Permit permit, long latencyMillis, Throwable error) {
+        if (error != null && !isFailure(error)) {
+            releaseProbe(permit);
+            return;
+        }
+        byte outcome = error != null ? FAILURE : latencyMillis >= slowCallMillis ? SLOW : SUCCESS;
+        if (outcome == FAILURE) {
+            failures.incrementAndGet();
+        } else if (outcome == SLOW) {
+            slowCalls.incrementAndGet();
+        } else {
+            successes.incrementAndGet();
+        }
+        lock.lock();
+        try {
+            if (permit.generation != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                if (outcome == FAILURE) {
+                    open("probe call failed");
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                    logger.info("LLM circuit closed after {} successful probe(s)", probesSucceeded);
+                }
+                return;
+            }
+            add(outcome);
+            if (windowCount < minimumCalls) {
+                return;
+            }
+            if (windowFailures * 100 >= failureRateThreshold * windowCount) {
+                open(windowFailures + " of the last " + windowCount + " calls failed");
+            } else if (windowSlow * 100 >= slowCallRateThreshold * windowCount) {
+                open(windowSlow + " of the last " + windowCount + " calls took over " + slowCallMillis + " ms");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Guarded by lock
+    private void add(byte outcome) {
+        if (windowCount == window.length) {
+            byte evicted = window[windowNext];
+            windowFailures -= evicted == FAILURE ? 1 : 0;
+            windowSlow -= evicted == SLOW ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = outcome;
+        windowNext = (windowNext + 1) % window.length;
+        windowFailures += outcome == FAILURE ? 1 : 0;
+        windowSlow += outcome == SLOW ? 1 : 0;
+    }
+
+    // Guarded by lock
+    private void open(String reason) {
+        transition(State.OPEN);
+        openedAt = clock.millis();
+        lastOpenReason = reason;
+        opened.incrementAndGet();
+        logger.warn("LLM circuit opened for {} ms: {}", openMillis, reason);
+    }
+
+    // Guarded by lock
+    private void transition(State next) {
+        state = next;
+        generation++;
+        probesIssued = 0;
+        probesSucceeded = 0;
+        windowCount = 0;
+        windowNext = 0;
+        windowFailures = 0;
+        windowSlow = 0;
+    }
+
+    private void releaseProbe(Permit permit) {
+        if (!permit.probe) {
+            return;
+        }
+        lock.lock();
+        try {
+            // Lets another call probe in its place
+            if (permit.generation == generation && probesIssued > 0) {
+                probesIssued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether an error says something about the provider's health. Local rejections and
+     * 4xx responses other than 429 do not.
+     */
+    static boolean isFailure(Throwable error) {
+        if (error instanceof LlmRejectedException || error instanceof LlmCircuitOpenException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        lock.lock();
+        try {
+            stats.put("state", state.name());
+            stats.put("windowCalls", windowCount);
+            stats.put("failureRate", windowCount == 0 ? 0.0 : Math.round(windowFailures * 1000.0 / windowCount) / 10.0);
+            stats.put("slowCallRate", windowCount == 0 ? 0.0 : Math.round(windowSlow * 1000.0 / windowCount) / 10.0);
+            stats.put("retryAfterMs", state == State.OPEN ? Math.max(0, openedAt + openMillis - clock.millis()) : 0);
+            stats.put("lastOpenReason", lastOpenReason);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("successes", successes.get());
+        stats.put("failures", failures.get());
+        stats.put("slowCalls", slowCalls.get());
+        stats.put("rejected", rejected.get());
+        stats.put("opened", opened.get());
+        stats.put("probes", probes.get());
+        return stats;
+    }
+
+    private final class Permit {
+
+        private final long generation;
+        private final long startedAt;
+        private final boolean probe;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile long latencyMillis = -1;
+
+        private Permit(long generation, long startedAt, boolean probe) {
+            this.generation = generation;
+            this.startedAt = startedAt;
+            this.probe = probe;
+        }
+
+        private void firstElement() {
+            if (latencyMillis < 0) {
+                latencyMillis = clock.millis() - startedAt;
+            }
+        }
+
+        private void complete(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                record(this, latencyMillis >= 0 ? latencyMillis : clock.millis() - startedAt, error);
+            }
+        }
+
+        private void cancel() {
+            if (done.compareAndSet(false, true)) {
+                releaseProbe(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.aiinterview.llm;
+
+/**
+ * Raised instead of calling the LLM provider while the {@link LlmCircuitBreaker} is open
+ */
+public class LlmCircuitOpenException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public LlmCircuitOpenException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Time until the breaker lets probe calls through again
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,356 @@
+package com.aiinterview.llm;
+
+import com.aiinterview.model.ApiKeyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Spreads LLM requests over the active keys of a service, each with its own endpoint URL.
+ *
+ * Keys are picked by smooth weighted round-robin on {@link ApiKeyConfig#getWeight()}. A key is
+ * ejected for a cool-down after a 429 (for its {@code Retry-After}, or
+ * {@code openai.balancer.rate-limit-cooldown-seconds}), after a 5xx or a connection failure
+ * ({@code error-cooldown-seconds}), and until the reset time its {@code x-ratelimit-*} headers
+ * announce once its remaining requests or tokens reach zero. A rejected request is sent again on
+ * another key, up to {@code max-attempts}; the response status arrives before any body, so
+ * streams are retried safely. With every key ejected, the one whose cool-down ends first is used.
+ */
+@Component
+public class LlmEndpointBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmEndpointBalancer.class);
+
+    static final String DUMMY_KEY = "sk-dummy-key-for-testing";
+    // Go-style durations as sent by OpenAI: 20ms, 1s, 6m0s, 1h2m3.5s
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final ApiKeyProvider apiKeyProvider;
+    private final String defaultUrl;
+    private final long rateLimitCooldownMillis;
+    private final long errorCooldownMillis;
+    private final int maxAttempts;
+    private final Clock clock;
+
+    private final ReentrantLock selectionLock = new ReentrantLock();
+    private final Map<Integer, Endpoint> endpoints = new ConcurrentHashMap<>();
+    // Key list the endpoints were last pruned against; guarded by selectionLock
+    private List<ApiKeyConfig> knownConfigs = List.of();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong allEjectedSelections = new AtomicLong();
+
+    @Autowired
+    public LlmEndpointBalancer(
+            ApiKeyProvider apiKeyProvider,
+            @Value("${openai.api.url}") String defaultUrl,
+            @Value("${openai.balancer.rate-limit-cooldown-seconds:30}") long rateLimitCooldownSeconds,
+            @Value("${openai.balancer.error-cooldown-seconds:10}") long errorCooldownSeconds,
+            @Value("${openai.balancer.max-attempts:2}") int maxAttempts) {
+        this(apiKeyProvider, defaultUrl, Duration.ofSeconds(rateLimitCooldownSeconds),
+            Duration.ofSeconds(errorCooldownSeconds), maxAttempts, Clock.systemUTC());
+    }
+
+    LlmEndpointBalancer(ApiKeyProvider apiKeyProvider, String defaultUrl, Duration rateLimitCooldown,
+                        Duration errorCooldown, int maxAttempts, Clock clock) {
+        this.apiKeyProvider = apiKeyProvider;
+        this.defaultUrl = defaultUrl;
+        this.rateLimitCooldownMillis = rateLimitCooldown.toMillis();
+        this.errorCooldownMillis = errorCooldown.toMillis();
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.clock = clock;
+    }
+
+    /**
+     * Filter that routes each request to a key of {@code serviceName}, setting its URL and
+     * {@code Authorization} header. Without an active key a dummy key is sent to the default URL,
+     * and the provider rejects the call.
+     */
+    public ExchangeFilterFunction filter(String serviceName) {
+        return (request, next) -> apiKeyProvider.activeKeys(serviceName).flatMap(configs -> {
+            if (configs.isEmpty()) {
+                return next.exchange(route(request, defaultUrl, DUMMY_KEY));
+            }
+            return exchange(request, next, configs, select(configs, null), 1);
+        });
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, List<ApiKeyConfig> configs,
+                                          Endpoint endpoint, int attempt) {
+        long started = System.nanoTime();
+        endpoint.requests.incrementAndGet();
+        return next.exchange(route(request, endpoint.url, endpoint.apiKey))
+            .doOnError(error -> {
+                endpoint.failures.incrementAndGet();
+                eject(endpoint, errorCooldownMillis, error.getClass().getSimpleName());
+            })
+            .flatMap(response -> {
+                endpoint.totalLatencyNanos.addAndGet(System.nanoTime() - started);
+                int status = response.statusCode().value();
+                observeRateLimits(endpoint, response.headers().asHttpHeaders());
+                if (status != 429 && status < 500) {
+                    endpoint.successes.incrementAndGet();
+                    return Mono.just(response);
+                }
+                if (status == 429) {
+                    endpoint.rateLimited.incrementAndGet();
+                    eject(endpoint, retryAfterMillis(response.headers().asHttpHeaders()), "429");
+                } else {
+                    endpoint.serverErrors.incrementAndGet();
+                    eject(endpoint, errorCooldownMillis, String.valueOf(status));
+                }
+                Endpoint alternative = attempt < maxAttempts ? select(configs, endpoint) : null;
+                if (alternative == null || alternative.ejectedUntil > clock.millis()) {
+                    // No healthy key left to try: the caller sees this response
+                    return Mono.just(response);
+                }
+                retries.incrementAndGet();
+                return response.releaseBody()
+                    .then(Mono.defer(() -> exchange(request, next, configs, alternative, attempt + 1)));
+            });
+    }
+
+    private static ClientRequest route(ClientRequest request, String url, String apiKey) {
+        return ClientRequest.from(request)
+            .url(URI.create(url))
+            .headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey))
+            .build();
+    }
+
+    /**
+     * Smooth weighted round-robin over the keys that are not ejected, other than {@code excluded}.
+     * Returns null when {@code excluded} is the only key.
+     */
+    Endpoint select(List<ApiKeyConfig> configs, Endpoint excluded) {
+        long now = clock.millis();
+        selectionLock.lock();
+        try {
+            if (configs != knownConfigs) {
+                // Keys were reloaded: forget the ones no longer active
+                knownConfigs = configs;
+                List<Integer> ids = configs.stream().map(ApiKeyConfig::getId).toList();
+                endpoints.keySet().retainAll(ids);
+            }
+            List<Endpoint> candidates = new ArrayList<>(configs.size());
+            for (ApiKeyConfig config : configs) {
+                Endpoint endpoint = endpoint(config);
+                if (endpoint != excluded) {
+                    candidates.add(endpoint);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            Endpoint best = null;
+            int totalWeight = 0;
+            for (Endpoint endpoint : candidates) {
+                if (endpoint.ejectedUntil > now) {
+                    continue;
+                }
+                endpoint.currentWeight += endpoint.weight;
+                totalWeight += endpoint.weight;
+                if (best == null || endpoint.currentWeight > best.currentWeight) {
+                    best = endpoint;
+                }
+            }
+            if (best == null) {
+                // Every key is cooling down: use the one that recovers first
+                allEjectedSelections.incrementAndGet();
+                best = candidates.get(0);
+                for (Endpoint endpoint : candidates) {
+                    if (endpoint.ejectedUntil < best.ejectedUntil) {
+                        best = endpoint;
+                    }
+                }
+                return best;
+            }
+            best.currentWeight -= totalWeight;
+            return best;
+        } finally {
+            selectionLock.unlock();
+        }
+    }
+
+    /**
+     * State of a key, kept across reloads by its id; a rotated key or URL starts afresh
+     */
+    private Endpoint endpoint(ApiKeyConfig config) {
+        String url = config.getBaseUrl() != null && !config.getBaseUrl().isBlank() ? config.getBaseUrl() : defaultUrl;
+        int weight = config.getWeight() != null && config.getWeight() > 0 ? config.getWeight() : 1;
+        Endpoint endpoint = endpoints.get(config.getId());
+        if (endpoint == null || !endpoint.apiKey.equals(config.getApiKey()) || !endpoint.url.equals(url)
+                || endpoint.weight != weight) {
+            endpoint = new Endpoint(config.getApiKey(), url, weight);
+            endpoints.put(config.getId(), endpoint);
+        }
+        return endpoint;
+    }
+
+    private void eject(Endpoint endpoint, long cooldownMillis, String reason) {
+        long until = clock.millis() + cooldownMillis;
+        if (until > endpoint.ejectedUntil) {
+            endpoint.ejectedUntil = until;
+            endpoint.ejections.incrementAndGet();
+            logger.warn("Ejected LLM key {} for {} ms after {}", endpoint.label(), cooldownMillis, reason);
+        }
+    }
+
+    private long retryAfterMillis(HttpHeaders headers) {
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                // An HTTP date: fall back to the configured cool-down
+            }
+        }
+        return rateLimitCooldownMillis;
+    }
+
+    private void observeRateLimits(Endpoint endpoint, HttpHeaders headers) {
+        long remainingRequests = parseLong(headers.getFirst("x-ratelimit-remaining-requests"));
+        long remainingTokens = parseLong(headers.getFirst("x-ratelimit-remaining-tokens"));
+        if (remainingRequests >= 0) {
+            endpoint.remainingRequests = remainingRequests;
+        }
+        if (remainingTokens >= 0) {
+            endpoint.remainingTokens = remainingTokens;
+        }
+        // Stop sending to a key that has used up its window until the window resets
+        if (remainingRequests == 0) {
+            eject(endpoint, parseDurationMillis(headers.getFirst("x-ratelimit-reset-requests")), "request limit");
+        } else if (remainingTokens == 0) {
+            eject(endpoint, parseDurationMillis(headers.getFirst("x-ratelimit-reset-tokens")), "token limit");
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reset durations such as {@code 6m0s}; unparseable values count as one second
+     */
+    static long parseDurationMillis(String value) {
+        if (value == null) {
+            return 1000;
+        }
+        Matcher matcher = DURATION_PART.matcher(value);
+        double millis = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+        }
+        return matched ? (long) Math.ceil(millis) : 1000;
+    }
+
+    /**
+     * Per-key requests, outcomes, last seen rate-limit headroom and ejection state
+     */
+    public Map<String, Object> stats() {
+        long now = clock.millis();
+        Map<String, Object> perKey = new LinkedHashMap<>();
+        endpoints.forEach((id, endpoint) -> {
+            long requests = endpoint.requests.get();
+            Map<String, Object> key = new LinkedHashMap<>();
+            key.put("id", id);
+            key.put("url", endpoint.url);
+            key.put("weight", endpoint.weight);
+            key.put("requests", requests);
+            key.put("successes", endpoint.successes.get());
+            key.put("rateLimited", endpoint.rateLimited.get());
+            key.put("serverErrors", endpoint.serverErrors.get());
+            key.put("failures", endpoint.failures.get());
+            key.put("ejections", endpoint.ejections.get());
+            key.put("ejectedForMs", Math.max(0, endpoint.ejectedUntil - now));
+            key.put("remainingRequests", endpoint.remainingRequests);
+            key.put("remainingTokens", endpoint.remainingTokens);
+            key.put("avgResponseMs", requests == 0 ? 0.0
+                : TimeUnit.NANOSECONDS.toMicros(endpoint.totalLatencyNanos.get() / requests) / 1000.0);
+            perKey.put(endpoint.label(), key);
+        });
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("retries", retries.get());
+        stats.put("allEjectedSelections", allEjectedSelections.get());
+        stats.put("keys", perKey);
+        return stats;
+    }
+
+    static final class Endpoint {
+
+        private final String apiKey;
+        private final String url;
+        private final int weight;
+        // Guarded by selectionLock
+        private int currentWeight;
+        private volatile long ejectedUntil;
+        // Last values seen in x-ratelimit-* headers, -1 until seen
+        private volatile long remainingRequests = -1;
+        private volatile long remainingTokens = -1;
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+        private Endpoint(String apiKey, String url, int weight) {
+            this.apiKey = apiKey;
+            this.url = url;
+            this.weight = weight;
+        }
+
+        String label() {
+            String masked = apiKey.length() > 11
+                ? apiKey.substring(0, 7) + "..." + apiKey.substring(apiKey.length() - 4)
+                : "***";
+            return masked + "@" + URI.create(url).getHost();
+        }
+
+        String apiKey() {
+            return apiKey;
+        }
+
+        long ejectedUntil() {
+            return ejectedUntil;
+        }
+    }
+}
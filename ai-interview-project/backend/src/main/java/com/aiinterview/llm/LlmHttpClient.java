@@ -0,0 +1,188 @@
+package com.aiinterview.llm;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared HTTP client for LLM provider calls.
+ *
+ * All LLM WebClients are built on one Reactor Netty connection pool, so TLS connections to the
+ * provider are kept alive and reused instead of each client holding its own default pool. The
+ * pool size, the queue of requests waiting for a connection, idle eviction and timeouts are set
+ * under {@code openai.http.*}. Pool occupancy (active, idle, pending) is read from the pool
+ * itself, and acquire time is measured from the start of an exchange until its request is written.
+ */
+@Component
+public class LlmHttpClient {
+
+    private static final String POOL_NAME = "llm";
+    private static final String ACQUIRE_STARTED = LlmHttpClient.class.getName() + ".acquireStarted";
+    private static final int MAX_IN_MEMORY_SIZE = 10 * 1024 * 1024;
+
+    private final ConnectionProvider connectionProvider;
+    private final ReactorClientHttpConnector connector;
+    private final int maxConnections;
+    private final int pendingAcquireMax;
+    private final boolean http2;
+
+    // One entry per remote address the pool has connected to
+    private final Map<SocketAddress, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final AtomicLong acquires = new AtomicLong();
+    private final AtomicLong totalAcquireNanos = new AtomicLong();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final AtomicLong acquireFailures = new AtomicLong();
+
+    @Autowired
+    public LlmHttpClient(
+            @Value("${openai.http.max-connections:50}") int maxConnections,
+            @Value("${openai.http.pending-acquire-max:200}") int pendingAcquireMax,
+            @Value("${openai.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMillis,
+            @Value("${openai.http.max-idle-seconds:30}") long maxIdleSeconds,
+            @Value("${openai.http.max-life-seconds:300}") long maxLifeSeconds,
+            @Value("${openai.http.connect-timeout-ms:5000}") int connectTimeoutMillis,
+            @Value("${openai.http.read-timeout-seconds:60}") long readTimeoutSeconds,
+            @Value("${openai.http.http2:false}") boolean http2) {
+        this.maxConnections = maxConnections;
+        this.pendingAcquireMax = pendingAcquireMax;
+        this.http2 = http2;
+        this.connectionProvider = ConnectionProvider.builder(POOL_NAME)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMax)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+            // Close idle connections before the provider's load balancer does
+            .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+            .maxLifeTime(Duration.ofSeconds(maxLifeSeconds))
+            .evictInBackground(Duration.ofSeconds(Math.max(1, maxIdleSeconds)))
+            .metrics(true, () -> new PoolRegistrar())
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .keepAlive(true)
+            // Longest silence between reads; a stream stalled mid-response fails instead of hanging
+            .responseTimeout(Duration.ofSeconds(readTimeoutSeconds))
+            .doOnRequest((request, connection) -> request.currentContextView()
+                .<Long>getOrEmpty(ACQUIRE_STARTED)
+                .ifPresent(started -> recordAcquire(System.nanoTime() - started)));
+        if (http2) {
+            // HTTP/2 over TLS where the provider offers it (ALPN), HTTP/1.1 otherwise
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        this.connector = new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * A WebClient builder on the shared pool; callers add their base URL and headers
+     */
+    public WebClient.Builder webClientBuilder() {
+        return WebClient.builder()
+            .clientConnector(connector)
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
+            .filter(timeAcquire());
+    }
+
+    private ExchangeFilterFunction timeAcquire() {
+        return (request, next) -> next.exchange(request)
+            .doOnError(error -> {
+                if (isAcquireFailure(error)) {
+                    acquireFailures.incrementAndGet();
+                }
+            })
+            .contextWrite(context -> context.put(ACQUIRE_STARTED, System.nanoTime()));
+    }
+
+    private void recordAcquire(long nanos) {
+        acquires.incrementAndGet();
+        totalAcquireNanos.addAndGet(nanos);
+        maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * The pool's pending-queue limit and acquire timeout; Reactor Netty ships these shaded
+     */
+    static boolean isAcquireFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause.getClass().getSimpleName().startsWith("PoolAcquire")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pool occupancy per remote address and acquire times
+     */
+    public Map<String, Object> stats() {
+        int active = 0;
+        int idle = 0;
+        int pending = 0;
+        Map<String, Object> perRemote = new LinkedHashMap<>();
+        for (Map.Entry<SocketAddress, ConnectionPoolMetrics> entry : pools.entrySet()) {
+            ConnectionPoolMetrics pool = entry.getValue();
+            Map<String, Object> remote = new LinkedHashMap<>();
+            remote.put("active", pool.acquiredSize());
+            remote.put("idle", pool.idleSize());
+            remote.put("allocated", pool.allocatedSize());
+            remote.put("pending", pool.pendingAcquireSize());
+            perRemote.put(String.valueOf(entry.getKey()), remote);
+            active += pool.acquiredSize();
+            idle += pool.idleSize();
+            pending += pool.pendingAcquireSize();
+        }
+        long acquireCount = acquires.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConnections", maxConnections);
+        stats.put("pendingAcquireMax", pendingAcquireMax);
+        stats.put("http2", http2);
+        stats.put("active", active);
+        stats.put("idle", idle);
+        stats.put("pending", pending);
+        stats.put("acquires", acquireCount);
+        stats.put("acquireFailures", acquireFailures.get());
+        stats.put("avgAcquireMs", acquireCount == 0 ? 0.0
+            : TimeUnit.NANOSECONDS.toMicros(totalAcquireNanos.get() / acquireCount) / 1000.0);
+        stats.put("maxAcquireMs", TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()) / 1000.0);
+        stats.put("remotes", perRemote);
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Receives each per-remote pool as Reactor Netty creates it
+     */
+    private final class PoolRegistrar implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            pools.put(remoteAddress, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            pools.remove(remoteAddress);
+        }
+    }
+}
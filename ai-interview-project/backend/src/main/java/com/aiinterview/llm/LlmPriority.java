@@ -0,0 +1,24 @@
+package com.aiinterview.llm;
+
+/**
+ * Call classes of LLM requests, highest priority first. Each has its own queue in
+ * {@link LlmCallGovernor}, and a queued call only starts once every higher lane is empty.
+ */
+public enum LlmPriority {
+
+    /** A candidate waiting on the next interview turn */
+    INTERACTIVE,
+
+    /** Answer evaluations, per answer or batched at the end of an interview */
+    EVALUATION,
+
+    /** Interview report feedback */
+    REPORT,
+
+    /** Resume analysis on upload */
+    RESUME_ANALYSIS;
+
+    public boolean isInteractive() {
+        return this == INTERACTIVE;
+    }
+}
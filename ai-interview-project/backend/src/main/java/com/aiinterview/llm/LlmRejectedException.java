@@ -0,0 +1,26 @@
+package com.aiinterview.llm;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Raised when an LLM call could not get a slot from the {@link LlmCallGovernor}
+ */
+public class LlmRejectedException extends RejectedExecutionException {
+
+    public static final String QUEUE_FULL = "queue-full";
+    public static final String QUEUE_TIMEOUT = "queue-timeout";
+
+    private final String reason;
+
+    public LlmRejectedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * {@link #QUEUE_FULL} or {@link #QUEUE_TIMEOUT}
+     */
+    public String getReason() {
+        return reason;
+    }
+}
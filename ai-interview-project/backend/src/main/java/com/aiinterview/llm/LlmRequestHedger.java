@@ -0,0 +1,220 @@
+package com.aiinterview.llm;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hedged requests for latency-sensitive LLM calls.
+ *
+ * The latency of recent successful calls is sampled. When a call has not answered after the
+ * {@code openai.hedging.percentile} of those samples (at least {@code min-delay-ms}), a second
+ * attempt is started and whichever answers first wins; the other is cancelled, which releases
+ * its connection. Hedges are capped at {@code max-hedge-ratio} of all calls so a slow provider
+ * does not get double the load, and no hedge is sent before {@code min-samples} latencies are
+ * known. An attempt that fails while the other is still running does not fail the call.
+ */
+@Component
+public class LlmRequestHedger {
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayMillis;
+    private final int minSamples;
+    private final double maxHedgeRatio;
+    private final Scheduler scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ring of recent successful attempt latencies, in ms
+    private final long[] samples;
+    private int sampleCount;
+    private int sampleNext;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong skippedOverBudget = new AtomicLong();
+
+    @Autowired
+    public LlmRequestHedger(
+            @Value("${openai.hedging.enabled:false}") boolean enabled,
+            @Value("${openai.hedging.percentile:0.95}") double percentile,
+            @Value("${openai.hedging.min-delay-ms:500}") long minDelayMillis,
+            @Value("${openai.hedging.min-samples:20}") int minSamples,
+            @Value("${openai.hedging.max-hedge-ratio:0.1}") double maxHedgeRatio,
+            @Value("${openai.hedging.window-size:200}") int windowSize) {
+        this(enabled, percentile, minDelayMillis, minSamples, maxHedgeRatio, windowSize, Schedulers.parallel());
+    }
+
+    LlmRequestHedger(boolean enabled, double percentile, long minDelayMillis, int minSamples,
+                     double maxHedgeRatio, int windowSize, Scheduler scheduler) {
+        this.enabled = enabled;
+        this.percentile = Math.min(Math.max(percentile, 0.5), 0.999);
+        this.minDelayMillis = Math.max(0, minDelayMillis);
+        this.samples = new long[Math.max(1, windowSize)];
+        this.minSamples = Math.min(Math.max(1, minSamples), samples.length);
+        this.maxHedgeRatio = Math.max(0.0, maxHedgeRatio);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Run a call, starting a second attempt if it is slower than usual. {@code attempt} must be
+     * cold: each subscription sends its own request.
+     */
+    public <T> Mono<T> hedge(Mono<T> attempt) {
+        if (!enabled) {
+            return timed(attempt);
+        }
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            long delay = hedgeDelayMillis();
+            return delay < 0 ? timed(attempt) : race(attempt, delay);
+        });
+    }
+
+    private <T> Mono<T> race(Mono<T> attempt, long delayMillis) {
+        return Mono.create(sink -> new Race<>(attempt, sink).start(delayMillis));
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long started = scheduler.now(TimeUnit.MILLISECONDS);
+            return attempt.doOnSuccess(value -> {
+                if (value != null) {
+                    record(scheduler.now(TimeUnit.MILLISECONDS) - started);
+                }
+            });
+        });
+    }
+
+    private boolean withinBudget() {
+        return hedged.get() < calls.get() * maxHedgeRatio;
+    }
+
+    private void record(long latencyMillis) {
+        lock.lock();
+        try {
+            samples[sampleNext] = latencyMillis;
+            sampleNext = (sampleNext + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delay before hedging, or -1 while too few latencies are known
+     */
+    long hedgeDelayMillis() {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (sampleCount < minSamples) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, sampleCount);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return Math.max(minDelayMillis, sorted[Math.max(0, index)]);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long callCount = calls.get();
+        stats.put("enabled", enabled);
+        stats.put("percentile", percentile);
+        stats.put("hedgeDelayMs", hedgeDelayMillis());
+        stats.put("calls", callCount);
+        stats.put("hedged", hedged.get());
+        stats.put("hedgeRate", callCount == 0 ? 0.0 : Math.round(hedged.get() * 1000.0 / callCount) / 1000.0);
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("skippedOverBudget", skippedOverBudget.get());
+        return stats;
+    }
+
+    /**
+     * One hedged call: the first attempt, and a second one if the first is still running
+     * after the delay
+     */
+    private final class Race<T> {
+
+        private final Mono<T> attempt;
+        private final MonoSink<T> sink;
+        private final AtomicBoolean won = new AtomicBoolean();
+        // Attempts still running; the call fails only when the last one fails
+        private final AtomicInteger running = new AtomicInteger(1);
+        private final Disposable.Composite attempts = Disposables.composite();
+
+        private Race(Mono<T> attempt, MonoSink<T> sink) {
+            this.attempt = attempt;
+            this.sink = sink;
+        }
+
+        private void start(long delayMillis) {
+            sink.onCancel(attempts);
+            launch(false);
+            attempts.add(scheduler.schedule(this::hedge, delayMillis, TimeUnit.MILLISECONDS));
+        }
+
+        private void hedge() {
+            if (won.get()) {
+                return;
+            }
+            if (!withinBudget()) {
+                skippedOverBudget.incrementAndGet();
+                return;
+            }
+            // Only while the first attempt is still running
+            if (running.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            hedged.incrementAndGet();
+            launch(true);
+        }
+
+        private void launch(boolean hedge) {
+            attempts.add(timed(attempt).subscribe(value -> onValue(value, hedge), this::onError, this::onEmpty));
+        }
+
+        private void onValue(T value, boolean hedge) {
+            if (won.compareAndSet(false, true)) {
+                if (hedge) {
+                    hedgeWins.incrementAndGet();
+                }
+                attempts.dispose();
+                sink.success(value);
+            }
+        }
+
+        private void onError(Throwable error) {
+            if (running.decrementAndGet() == 0 && won.compareAndSet(false, true)) {
+                attempts.dispose();
+                sink.error(error);
+            }
+        }
+
+        private void onEmpty() {
+            if (running.decrementAndGet() == 0 && won.compareAndSet(false, true)) {
+                sink.success();
+            }
+        }
+    }
+}
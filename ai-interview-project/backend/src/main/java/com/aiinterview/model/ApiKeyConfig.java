@@ -20,6 +20,14 @@ public class ApiKeyConfig {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Chat completions URL of this key's endpoint; null uses openai.api.url
+    @Column(name = "base_url")
+    private String baseUrl;
+
+    // Share of requests relative to the service's other active keys
+    @Column(name = "weight")
+    private Integer weight = 1;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -73,6 +81,22 @@ public class ApiKeyConfig {
         this.isActive = isActive;
     }
 
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
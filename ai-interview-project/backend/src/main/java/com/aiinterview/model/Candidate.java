@@ -1,11 +1,13 @@
 package com.aiinterview.model;
 
+import com.aiinterview.context.CandidatePromptInvalidator;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "candidate")
+@EntityListeners(CandidatePromptInvalidator.class)
 public class Candidate {
 
     @Id
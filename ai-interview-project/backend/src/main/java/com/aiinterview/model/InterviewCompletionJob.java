@@ -0,0 +1,217 @@
+package com.aiinterview.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Background job that finishes an interview: evaluates the answers, then generates the report.
+ * Persisted so unfinished jobs can be resumed after a restart.
+ */
+@Entity
+@Table(name = "interview_completion_job", indexes = {
+    @Index(name = "idx_completion_job_interview", columnList = "interview_id"),
+    @Index(name = "idx_completion_job_status", columnList = "status")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_completion_job_active_interview", columnNames = "active_interview_id")
+})
+public class InterviewCompletionJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public static final String STAGE_QUEUED = "QUEUED";
+    public static final String STAGE_EVALUATING = "EVALUATING";
+    public static final String STAGE_REPORTING = "REPORTING";
+    public static final String STAGE_DONE = "DONE";
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "interview_id", nullable = false, length = 36)
+    private String interviewId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Interview id while the job is pending or running, null otherwise. Computed by the database and
+    // unique, so an interview never has two active jobs
+    @Column(name = "active_interview_id", length = 36, insertable = false, updatable = false,
+        columnDefinition = "varchar(36) GENERATED ALWAYS AS "
+            + "(CASE WHEN status IN ('PENDING', 'RUNNING') THEN interview_id END)")
+    private String activeInterviewId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = STATUS_PENDING;
+
+    @Column(name = "stage", nullable = false, length = 20)
+    private String stage = STAGE_QUEUED;
+
+    // 0-100
+    @Column(name = "progress", nullable = false)
+    private int progress;
+
+    @Column(name = "total_answers", nullable = false)
+    private int totalAnswers;
+
+    @Column(name = "evaluated_answers", nullable = false)
+    private int evaluatedAnswers;
+
+    // Number of times the job was started (more than 1 after a restart)
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    // Generated report as JSON, set when the job completes
+    @Column(name = "report", columnDefinition = "LONGTEXT")
+    private String report;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public InterviewCompletionJob() {
+    }
+
+    public InterviewCompletionJob(String id, String interviewId, Long userId) {
+        this.id = id;
+        this.interviewId = interviewId;
+        this.userId = userId;
+    }
+
+    public boolean isActive() {
+        return STATUS_PENDING.equals(status) || STATUS_RUNNING.equals(status);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getInterviewId() {
+        return interviewId;
+    }
+
+    public void setInterviewId(String interviewId) {
+        this.interviewId = interviewId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public int getTotalAnswers() {
+        return totalAnswers;
+    }
+
+    public void setTotalAnswers(int totalAnswers) {
+        this.totalAnswers = totalAnswers;
+    }
+
+    public int getEvaluatedAnswers() {
+        return evaluatedAnswers;
+    }
+
+    public void setEvaluatedAnswers(int evaluatedAnswers) {
+        this.evaluatedAnswers = evaluatedAnswers;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void setReport(String report) {
+        this.report = report;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
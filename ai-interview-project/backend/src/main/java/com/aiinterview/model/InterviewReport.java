@@ -0,0 +1,85 @@
+package com.aiinterview.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last generated report of an interview, stored with a hash of the data it was built from
+ * so it is only regenerated when the interview, its messages or their evaluations change
+ */
+@Entity
+@Table(name = "interview_report")
+public class InterviewReport {
+
+    @Id
+    @Column(name = "interview_id", length = 36)
+    private String interviewId;
+
+    // SHA-256 (hex) of the report inputs, also served as the report ETag
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Incremented each time the report is regenerated
+    @Column(name = "version", nullable = false)
+    private int version;
+
+    // Report as JSON
+    @Column(name = "report", nullable = false, columnDefinition = "LONGTEXT")
+    private String report;
+
+    @Column(name = "generated_at")
+    private LocalDateTime generatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        generatedAt = LocalDateTime.now();
+    }
+
+    public InterviewReport() {
+    }
+
+    public InterviewReport(String interviewId) {
+        this.interviewId = interviewId;
+    }
+
+    public String getInterviewId() {
+        return interviewId;
+    }
+
+    public void setInterviewId(String interviewId) {
+        this.interviewId = interviewId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void setReport(String report) {
+        this.report = report;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
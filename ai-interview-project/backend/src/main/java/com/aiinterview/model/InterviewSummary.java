@@ -0,0 +1,72 @@
+package com.aiinterview.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Rolling summary of the early turns of an interview, kept next to the interview so
+ * prompts can send it instead of turns that no longer fit the context window
+ */
+@Entity
+@Table(name = "interview_summary")
+public class InterviewSummary {
+
+    @Id
+    @Column(name = "interview_id", length = 36)
+    private String interviewId;
+
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary;
+
+    // Number of leading turns (in message order) folded into the summary
+    @Column(name = "covered_turns", nullable = false)
+    private int coveredTurns;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public InterviewSummary() {
+    }
+
+    public InterviewSummary(String interviewId) {
+        this.interviewId = interviewId;
+    }
+
+    public String getInterviewId() {
+        return interviewId;
+    }
+
+    public void setInterviewId(String interviewId) {
+        this.interviewId = interviewId;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public int getCoveredTurns() {
+        return coveredTurns;
+    }
+
+    public void setCoveredTurns(int coveredTurns) {
+        this.coveredTurns = coveredTurns;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
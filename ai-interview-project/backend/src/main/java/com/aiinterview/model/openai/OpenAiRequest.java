@@ -1,8 +1,12 @@
 package com.aiinterview.model.openai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import java.util.List;
 
+// Fixed field order, so identical requests serialise to identical bytes
+@JsonPropertyOrder({"model", "messages", "temperature", "max_tokens", "stream", "prompt_cache_key"})
 public class OpenAiRequest {
     private String model;
     private List<OpenAiMessage> messages;
@@ -13,6 +17,11 @@ public class OpenAiRequest {
     
     private Boolean stream;
 
+    // Routes prompts with the same prefix to the same provider cache; omitted when null
+    @JsonProperty("prompt_cache_key")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String promptCacheKey;
+
     public OpenAiRequest() {
         this.model = "gpt-3.5-turbo";
         this.temperature = 0.7;
@@ -59,5 +68,12 @@ public class OpenAiRequest {
     public void setStream(Boolean stream) {
         this.stream = stream;
     }
-}
 
+    public String getPromptCacheKey() {
+        return promptCacheKey;
+    }
+
+    public void setPromptCacheKey(String promptCacheKey) {
+        this.promptCacheKey = promptCacheKey;
+    }
+}
@@ -49,6 +49,8 @@ public class OpenAiResponse {
         private Integer completionTokens;
         @JsonProperty("total_tokens")
         private Integer totalTokens;
+        @JsonProperty("prompt_tokens_details")
+        private PromptTokensDetails promptTokensDetails;
 
         public Integer getPromptTokens() {
             return promptTokens;
@@ -73,6 +75,28 @@ public class OpenAiResponse {
         public void setTotalTokens(Integer totalTokens) {
             this.totalTokens = totalTokens;
         }
+
+        public PromptTokensDetails getPromptTokensDetails() {
+            return promptTokensDetails;
+        }
+
+        public void setPromptTokensDetails(PromptTokensDetails promptTokensDetails) {
+            this.promptTokensDetails = promptTokensDetails;
+        }
+    }
+
+    public static class PromptTokensDetails {
+        // Prompt tokens served from the provider's prompt cache
+        @JsonProperty("cached_tokens")
+        private Integer cachedTokens;
+
+        public Integer getCachedTokens() {
+            return cachedTokens;
+        }
+
+        public void setCachedTokens(Integer cachedTokens) {
+            this.cachedTokens = cachedTokens;
+        }
     }
 
     public String getId() {
@@ -4,15 +4,15 @@ import com.aiinterview.model.ApiKeyConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface ApiKeyConfigRepository extends JpaRepository<ApiKeyConfig, Integer> {
 
     /**
-     * Find active API key by service name
+     * Find the active API keys of a service, newest first
      */
-    Optional<ApiKeyConfig> findByServiceNameAndIsActive(String serviceName, Boolean isActive);
+    List<ApiKeyConfig> findByServiceNameAndIsActiveOrderByIdDesc(String serviceName, Boolean isActive);
 
     /**
      * Check if active API key exists for service
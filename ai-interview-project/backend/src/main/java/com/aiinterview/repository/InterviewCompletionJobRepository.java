@@ -0,0 +1,17 @@
+package com.aiinterview.repository;
+
+import com.aiinterview.model.InterviewCompletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InterviewCompletionJobRepository extends JpaRepository<InterviewCompletionJob, String> {
+
+    Optional<InterviewCompletionJob> findFirstByInterviewIdOrderByCreatedAtDesc(String interviewId);
+
+    List<InterviewCompletionJob> findByStatusInOrderByCreatedAtAsc(Collection<String> statuses);
+}
@@ -0,0 +1,9 @@
+package com.aiinterview.repository;
+
+import com.aiinterview.model.InterviewSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InterviewSummaryRepository extends JpaRepository<InterviewSummary, String> {
+}
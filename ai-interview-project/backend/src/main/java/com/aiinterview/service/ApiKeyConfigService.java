@@ -15,18 +15,25 @@ public class ApiKeyConfigService {
     private ApiKeyConfigRepository apiKeyConfigRepository;
 
     /**
-     * Get active API key for a service
+     * Get active API key for a service (the newest, when several are active)
      */
     public Optional<String> getActiveApiKey(String serviceName) {
-        return apiKeyConfigRepository.findByServiceNameAndIsActive(serviceName, true)
+        return getActiveApiKeyConfig(serviceName)
             .map(ApiKeyConfig::getApiKey);
     }
 
     /**
-     * Get active API key config for a service
+     * Get active API key config for a service (the newest, when several are active)
      */
     public Optional<ApiKeyConfig> getActiveApiKeyConfig(String serviceName) {
-        return apiKeyConfigRepository.findByServiceNameAndIsActive(serviceName, true);
+        return getActiveApiKeyConfigs(serviceName).stream().findFirst();
+    }
+
+    /**
+     * Get all active API key configs of a service, newest first
+     */
+    public List<ApiKeyConfig> getActiveApiKeyConfigs(String serviceName) {
+        return apiKeyConfigRepository.findByServiceNameAndIsActiveOrderByIdDesc(serviceName, true);
     }
 
     /**
@@ -0,0 +1,363 @@
+package com.aiinterview.service;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.evaluation.EvaluationScheduler;
+import com.aiinterview.model.EvaluationResult;
+import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewCompletionJob;
+import com.aiinterview.repository.InterviewCompletionJobRepository;
+import com.aiinterview.repository.InterviewRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.aiinterview.model.InterviewCompletionJob.*;
+
+/**
+ * Finishes interviews in the background.
+ *
+ * Ending an interview creates a persisted {@link InterviewCompletionJob} and returns at once; a
+ * worker then runs the pipeline stages (answer evaluation, report generation) and publishes
+ * progress to {@code /topic/interview/{id}}. Jobs left PENDING or RUNNING by a restart are
+ * resumed from their current stage when the application is ready; answers that already have
+ * a score are not evaluated again.
+ */
+@Service
+public class InterviewCompletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterviewCompletionService.class);
+
+    // Only the most recent answers are evaluated, to keep completion fast
+    static final int MAX_EVALUATED_ANSWERS = 10;
+
+    private static final int PROGRESS_EVALUATING = 5;
+    private static final int PROGRESS_REPORTING = 85;
+
+    @Autowired
+    private InterviewRepository interviewRepository;
+
+    @Autowired
+    private InterviewCompletionJobRepository jobRepository;
+
+    @Autowired
+    private InterviewSessionService interviewSessionService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private LlmEvaluationService llmEvaluationService;
+
+    @Autowired
+    private EvaluationScheduler evaluationScheduler;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("completionExecutor")
+    private Executor completionExecutor;
+
+    @Value("${interview.completion.evaluation-stage-timeout-seconds:60}")
+    private long evaluationStageTimeoutSeconds;
+
+    @Value("${interview.completion.max-attempts:3}")
+    private int maxAttempts;
+
+    private record Evaluated(QAHistory qa, EvaluationResult result) {
+    }
+
+    /**
+     * Mark the interview completed and queue its completion job. If a job for the interview is
+     * still pending or running, that job is returned instead of starting another one.
+     *
+     * Concurrent calls are settled by the unique active_interview_id column: only one of them
+     * can insert an active job, the others get that job back.
+     */
+    public InterviewCompletionJob start(Interview interview, Long userId) {
+        Optional<InterviewCompletionJob> existing = findActiveJob(interview.getId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        InterviewCompletionJob job;
+        try {
+            job = jobRepository.save(new InterviewCompletionJob(UUID.randomUUID().toString(), interview.getId(), userId));
+        } catch (DataIntegrityViolationException e) {
+            // Another request queued a job for this interview first
+            return findActiveJob(interview.getId()).orElseThrow(() -> e);
+        }
+
+        // Update interview status and end time, keeping the previous values in case the job is rejected
+        String previousStatus = interview.getStatus();
+        LocalDateTime previousStartedAt = interview.getStartedAt();
+        LocalDateTime previousEndedAt = interview.getEndedAt();
+        Integer previousDurationSeconds = interview.getDurationSeconds();
+        interview.setStatus("Completed");
+        if (interview.getStartedAt() == null) {
+            interview.setStartedAt(interview.getCreatedAt());
+        }
+        interview.setEndedAt(LocalDateTime.now());
+        if (interview.getStartedAt() != null) {
+            long duration = Duration.between(interview.getStartedAt(), interview.getEndedAt()).getSeconds();
+            interview.setDurationSeconds((int) duration);
+        }
+        interviewRepository.save(interview);
+
+        if (!submit(job)) {
+            // No evaluations or report will be produced, so the interview is not completed
+            interview.setStatus(previousStatus);
+            interview.setStartedAt(previousStartedAt);
+            interview.setEndedAt(previousEndedAt);
+            interview.setDurationSeconds(previousDurationSeconds);
+            interviewRepository.save(interview);
+        }
+        return job;
+    }
+
+    private Optional<InterviewCompletionJob> findActiveJob(String interviewId) {
+        return jobRepository.findFirstByInterviewIdOrderByCreatedAtDesc(interviewId).filter(InterviewCompletionJob::isActive);
+    }
+
+    public Optional<InterviewCompletionJob> getLatestJob(String interviewId) {
+        return jobRepository.findFirstByInterviewIdOrderByCreatedAtDesc(interviewId);
+    }
+
+    public Optional<InterviewCompletionJob> getJob(String interviewId, String jobId) {
+        return jobRepository.findById(jobId).filter(job -> job.getInterviewId().equals(interviewId));
+    }
+
+    /**
+     * Resume jobs interrupted by a shutdown, giving up on jobs that already used all attempts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<InterviewCompletionJob> unfinished = jobRepository.findByStatusInOrderByCreatedAtAsc(
+            List.of(STATUS_PENDING, STATUS_RUNNING));
+        for (InterviewCompletionJob job : unfinished) {
+            if (job.getAttempts() >= maxAttempts) {
+                fail(job, "Gave up after " + job.getAttempts() + " attempts");
+                continue;
+            }
+            logger.info("Resuming completion job {} for interview {} at stage {}",
+                job.getId(), job.getInterviewId(), job.getStage());
+            submit(job);
+        }
+    }
+
+    /**
+     * Hand a job to the workers. Returns false, with the job marked failed, when they are saturated.
+     */
+    private boolean submit(InterviewCompletionJob job) {
+        try {
+            completionExecutor.execute(() -> run(job.getId()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            fail(job, "Too many interviews are being completed, please try again later");
+            return false;
+        }
+    }
+
+    /**
+     * Run the remaining stages of a job on the calling (worker) thread
+     */
+    void run(String jobId) {
+        InterviewCompletionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !job.isActive()) {
+            return;
+        }
+        job.setStatus(STATUS_RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+
+        try {
+            if (STAGE_QUEUED.equals(job.getStage()) || STAGE_EVALUATING.equals(job.getStage())) {
+                advance(job, STAGE_EVALUATING, PROGRESS_EVALUATING);
+                evaluateAnswers(job);
+            }
+
+            advance(job, STAGE_REPORTING, PROGRESS_REPORTING);
+            Map<String, Object> report = reportService.generateReport(job.getInterviewId());
+            job.setReport(objectMapper.writeValueAsString(report));
+
+            // The interview is over, release its locally cached session state
+            interviewSessionService.evictSession(job.getInterviewId());
+
+            job.setStatus(STATUS_COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            advance(job, STAGE_DONE, 100);
+        } catch (Exception e) {
+            logger.error("Completion job {} for interview {} failed at stage {}: {}",
+                job.getId(), job.getInterviewId(), job.getStage(), e.getMessage());
+            fail(job, e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluate the most recent answers that have no score yet, recording each result as it arrives
+     */
+    private void evaluateAnswers(InterviewCompletionJob job) {
+        String interviewId = job.getInterviewId();
+        Interview interview = interviewRepository.findById(interviewId)
+            .orElseThrow(() -> new IllegalStateException("Interview not found"));
+
+        List<QAHistory> history = interviewSessionService.getChatHistory(interviewId);
+        List<QAHistory> recent = history.size() > MAX_EVALUATED_ANSWERS
+            ? history.subList(history.size() - MAX_EVALUATED_ANSWERS, history.size())
+            : history;
+        List<QAHistory> answered = recent.stream()
+            .filter(qa -> qa.getAnswerText() != null && !qa.getAnswerText().trim().isEmpty())
+            .toList();
+        List<QAHistory> pending = answered.stream()
+            .filter(qa -> qa.getScore() == null)
+            .toList();
+
+        job.setTotalAnswers(answered.size());
+        job.setEvaluatedAnswers(answered.size() - pending.size());
+        advance(job, STAGE_EVALUATING, evaluationProgress(job));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Extract role and level from the interview title (e.g. backend_java_senior)
+        String roleId = interview.getTitle();
+        String role = roleId;
+        String level = "mid";
+        if (roleId != null && roleId.contains("_")) {
+            String[] parts = roleId.split("_");
+            if (parts.length >= 3) {
+                level = parts[parts.length - 1];
+                role = roleId.substring(0, roleId.lastIndexOf("_" + level));
+            }
+        }
+        String finalRole = role;
+        String finalLevel = level;
+
+        // Queue the answers on the shared evaluation scheduler (bounded, fair across users), several
+        // answers per LLM request when batching is enabled
+        String userKey = String.valueOf(job.getUserId());
+        List<Flux<Evaluated>> evaluations = llmEvaluationService.planBatches(pending, finalRole, finalLevel).stream()
+            .map(batch -> evaluationScheduler.submit(userKey, () -> llmEvaluationService
+                    .evaluateBatch(batch, finalRole, finalLevel))
+                .flatMapIterable(results -> {
+                    // Timeouts are applied per request inside evaluateBatch; timed-out answers are null
+                    List<Evaluated> evaluated = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (results.get(i) != null) {
+                            evaluated.add(new Evaluated(batch.get(i), results.get(i)));
+                        }
+                    }
+                    return evaluated;
+                })
+                .onErrorResume(error -> {
+                    // Continue even if one fails; the report falls back to unscored answers
+                    logger.warn("Evaluation failed for interview {}: {}", interviewId, error.getMessage());
+                    return Flux.empty();
+                }))
+            .toList();
+
+        // Results are consumed on this worker thread, so persistence never runs on a reactor thread.
+        // Evaluations still running when the stage times out are cancelled.
+        Iterable<Evaluated> results = Flux.merge(evaluations)
+            .take(Duration.ofSeconds(evaluationStageTimeoutSeconds))
+            .toIterable();
+        for (Evaluated evaluated : results) {
+            QAHistory qa = evaluated.qa();
+            EvaluationResult result = evaluated.result();
+            interviewSessionService.updateEvaluationResults(
+                interviewId,
+                qa.getQuestionText(),
+                qa.getAnswerText(),
+                result.getScore(),
+                result.getDetailedScores(),
+                result.getStrengths(),
+                result.getImprovements(),
+                result.getFollowUpQuestions(),
+                result.getRubricLevel()
+            );
+            job.setEvaluatedAnswers(job.getEvaluatedAnswers() + 1);
+            advance(job, STAGE_EVALUATING, evaluationProgress(job));
+        }
+    }
+
+    private static int evaluationProgress(InterviewCompletionJob job) {
+        if (job.getTotalAnswers() == 0) {
+            return PROGRESS_REPORTING;
+        }
+        return PROGRESS_EVALUATING
+            + (PROGRESS_REPORTING - PROGRESS_EVALUATING) * job.getEvaluatedAnswers() / job.getTotalAnswers();
+    }
+
+    private void advance(InterviewCompletionJob job, String stage, int progress) {
+        job.setStage(stage);
+        job.setProgress(progress);
+        jobRepository.save(job);
+        publish(job);
+    }
+
+    private void fail(InterviewCompletionJob job, String error) {
+        job.setStatus(STATUS_FAILED);
+        job.setError(error);
+        jobRepository.save(job);
+        publish(job);
+    }
+
+    private void publish(InterviewCompletionJob job) {
+        try {
+            Map<String, Object> message = describe(job, false);
+            message.put("type", "completion");
+            messagingTemplate.convertAndSend("/topic/interview/" + job.getInterviewId(), message);
+        } catch (Exception e) {
+            logger.warn("Failed to publish completion progress for interview {}: {}", job.getInterviewId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Job status for REST and STOMP clients; the report is only included when asked for and ready
+     */
+    public Map<String, Object> describe(InterviewCompletionJob job, boolean includeReport) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("jobId", job.getId());
+        view.put("interviewId", job.getInterviewId());
+        view.put("status", job.getStatus());
+        view.put("stage", job.getStage());
+        view.put("progress", job.getProgress());
+        view.put("totalAnswers", job.getTotalAnswers());
+        view.put("evaluatedAnswers", job.getEvaluatedAnswers());
+        view.put("attempts", job.getAttempts());
+        view.put("error", job.getError());
+        view.put("createdAt", job.getCreatedAt());
+        view.put("updatedAt", job.getUpdatedAt());
+        view.put("completedAt", job.getCompletedAt());
+        if (includeReport && job.getReport() != null) {
+            try {
+                view.put("report", objectMapper.readValue(job.getReport(), Map.class));
+            } catch (Exception e) {
+                logger.warn("Stored report of job {} is not valid JSON: {}", job.getId(), e.getMessage());
+            }
+        }
+        return view;
+    }
+}
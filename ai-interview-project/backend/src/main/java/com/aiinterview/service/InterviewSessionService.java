@@ -1,5 +1,15 @@
 package com.aiinterview.service;
 
+import com.aiinterview.cache.HistoryWriteTracker;
+import com.aiinterview.cache.LocalCache;
+import com.aiinterview.cache.RedisHistoryStore;
+import com.aiinterview.cache.SessionHistoryCache;
+import com.aiinterview.context.ContextWindow;
+import com.aiinterview.context.ContextWindowBuilder;
+import com.aiinterview.context.ConversationSummarizer;
+import com.aiinterview.context.ConversationSummaryWorker;
+import com.aiinterview.context.PromptTokenMetrics;
+import com.aiinterview.context.SystemPromptCache;
 import com.aiinterview.dto.ChatRequest;
 import com.aiinterview.dto.QAHistory;
 import com.aiinterview.knowledge.KnowledgeBaseService;
@@ -8,20 +18,26 @@ import com.aiinterview.knowledge.model.RubricItem;
 import com.aiinterview.model.Candidate;
 import com.aiinterview.model.Interview;
 import com.aiinterview.model.InterviewMessage;
+import com.aiinterview.model.InterviewSummary;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.repository.CandidateRepository;
 import com.aiinterview.repository.InterviewMessageRepository;
 import com.aiinterview.repository.InterviewRepository;
+import com.aiinterview.repository.InterviewSummaryRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,16 +58,49 @@ public class InterviewSessionService {
     @Autowired
     private KnowledgeBaseService knowledgeBaseService;
 
-    @Autowired(required = false)
-    private RedisTemplate<String, Object> redisTemplate;
+    @Autowired
+    private RedisHistoryStore redisHistoryStore;
+
+    @Autowired
+    private SessionHistoryCache historyCache;
+
+    @Autowired
+    private InterviewSummaryRepository interviewSummaryRepository;
+
+    @Autowired
+    private ContextWindowBuilder contextWindowBuilder;
+
+    @Autowired
+    private ConversationSummarizer conversationSummarizer;
+
+    @Autowired
+    private PromptTokenMetrics promptTokenMetrics;
+
+    @Autowired
+    private ConversationSummaryWorker summaryWorker;
+
+    @Autowired
+    private SystemPromptCache systemPromptCache;
+
+    @Autowired
+    @Qualifier("chatBlockingScheduler")
+    private Scheduler chatBlockingScheduler;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // In-memory cache for active sessions (backed by Redis and DB)
-    private final Map<String, List<QAHistory>> sessionHistories = new ConcurrentHashMap<>();
-    private final Map<String, Set<String>> askedQuestions = new ConcurrentHashMap<>();
+    // Questions already asked per interview, bounded like the history cache
+    private final LocalCache<String, AskedQuestions> askedQuestions = new LocalCache<>(
+        "asked-questions", 1000, 0, Duration.ofHours(2), Duration.ofMinutes(30), null);
     private final Random random = new Random();
 
+    private static final Duration SAVE_RETRY_DELAY = Duration.ofMillis(50);
+
+    // Turns waiting to be saved, per interview; present while a drain is running
+    private final Map<String, Deque<QAHistory>> pendingSaves = new ConcurrentHashMap<>();
+
+    // Writes in progress per interview, checked before a database read seeds a cache tier
+    private final HistoryWriteTracker writeTracker = new HistoryWriteTracker();
+
     /**
      * 获取面试会话信息
      */
@@ -76,157 +125,250 @@ public class InterviewSessionService {
     }
     
     /**
-     * 加载对话历史（优先从Redis，然后数据库）
+     * 加载对话历史（本地缓存 -> Redis -> 数据库）
      */
     private List<QAHistory> loadChatHistory(String interviewId) {
-        // Try Redis first
-        if (redisTemplate != null) {
-            try {
-                @SuppressWarnings("unchecked")
-                List<QAHistory> cached = (List<QAHistory>) redisTemplate.opsForValue().get("session:history:" + interviewId);
-                if (cached != null) {
-                    return cached;
-                }
-            } catch (Exception e) {
-                // Redis unavailable, fallback to database
-                // Log error but continue
-            }
+        // Local tier first
+        List<QAHistory> local = historyCache.get(interviewId);
+        if (local != null) {
+            return local;
         }
-        
-        // Try in-memory cache
-        if (sessionHistories.containsKey(interviewId)) {
-            return sessionHistories.get(interviewId);
+
+        // Then Redis
+        long stamp = writeTracker.stamp(interviewId);
+        List<QAHistory> cached = redisHistoryStore.load(interviewId);
+        if (cached != null) {
+            seedLocal(interviewId, cached, stamp);
+            return cached;
         }
         
         // Load from database
         List<InterviewMessage> messages = interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(interviewId);
         List<QAHistory> history = messages.stream()
-            .map(msg -> {
-                QAHistory qa = new QAHistory(msg.getUserMessage(), msg.getAiMessage());
-
-                // Load evaluation results if available
-                if (msg.getEvaluationScore() != null) {
-                    qa.setScore(msg.getEvaluationScore());
-                    qa.setRubricLevel(msg.getEvaluationRubricLevel());
-
-                    // Set detailed scores
-                    Map<String, Integer> detailedScores = new HashMap<>();
-                    detailedScores.put("technicalAccuracy", msg.getTechnicalAccuracy() != null ? msg.getTechnicalAccuracy() : 0);
-                    detailedScores.put("depth", msg.getDepthScore() != null ? msg.getDepthScore() : 0);
-                    detailedScores.put("experience", msg.getExperienceScore() != null ? msg.getExperienceScore() : 0);
-                    detailedScores.put("communication", msg.getCommunicationScore() != null ? msg.getCommunicationScore() : 0);
-                    qa.setDetailedScores(detailedScores);
-
-                    // Load lists from JSON
-                    try {
-                        if (msg.getEvaluationStrengths() != null) {
-                            List<String> strengths = objectMapper.readValue(msg.getEvaluationStrengths(),
-                                objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-                            qa.setStrengths(strengths);
-                        }
-                        if (msg.getEvaluationImprovements() != null) {
-                            List<String> improvements = objectMapper.readValue(msg.getEvaluationImprovements(),
-                                objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-                            qa.setImprovements(improvements);
-                        }
-                        if (msg.getFollowUpQuestions() != null) {
-                            List<String> followUpQuestions = objectMapper.readValue(msg.getFollowUpQuestions(),
-                                objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-                            qa.setFollowUpQuestions(followUpQuestions);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to parse evaluation JSON for message " + msg.getId() + ": " + e.getMessage());
-                    }
-                }
-
-                return qa;
-            })
+            .map(this::toQAHistory)
             .collect(Collectors.toList());
         
-        // Cache in memory and Redis
-        sessionHistories.put(interviewId, history);
-        if (redisTemplate != null) {
-            try {
-                redisTemplate.opsForValue().set("session:history:" + interviewId, history, Duration.ofHours(24));
-            } catch (Exception e) {
-                // Redis unavailable, continue without caching
-            }
-        }
+        // Cache locally and in Redis
+        seedLocal(interviewId, history, stamp);
+        seedRedis(interviewId, history, stamp);
         
         return history;
     }
 
     /**
-     * 生成智能回答
+     * Cache a history read from a slower tier locally, unless a turn was written meanwhile.
+     * SessionHistoryCache.append skips interviews it does not hold, so a write that starts
+     * while seeding may have missed the new entry; it is dropped again in that case.
      */
-    public Mono<String> generatePersonalizedResponse(String interviewId, ChatRequest request) {
-        Optional<Interview> interviewOpt = interviewRepository.findById(interviewId);
-        if (interviewOpt.isEmpty()) {
-            return Mono.just("面试会话不存在");
+    private void seedLocal(String interviewId, List<QAHistory> history, long stamp) {
+        if (!writeTracker.unchanged(interviewId, stamp)) {
+            return;
+        }
+        historyCache.put(interviewId, history);
+        if (!writeTracker.unchanged(interviewId, stamp)) {
+            historyCache.invalidate(interviewId);
         }
+    }
 
-        Interview interview = interviewOpt.get();
-        Optional<Candidate> candidateOpt = candidateRepository.findById(interview.getCandidateId());
-        if (candidateOpt.isEmpty()) {
-            return Mono.just("候选人信息不存在");
+    /**
+     * Store a history read from the database in Redis, unless a turn was written meanwhile.
+     * A write that starts while seeding may have missed the new list, so it is dropped again
+     * and the next read rebuilds it.
+     */
+    private void seedRedis(String interviewId, List<QAHistory> history, long stamp) {
+        if (!writeTracker.unchanged(interviewId, stamp)) {
+            return;
+        }
+        redisHistoryStore.saveAll(interviewId, history);
+        if (!writeTracker.unchanged(interviewId, stamp)) {
+            redisHistoryStore.delete(interviewId);
+        }
+    }
+
+    /**
+     * Map a persisted message (and its evaluation, if any) to a history entry
+     */
+    private QAHistory toQAHistory(InterviewMessage msg) {
+        QAHistory qa = new QAHistory(msg.getUserMessage(), msg.getAiMessage());
+
+        // Load evaluation results if available
+        if (msg.getEvaluationScore() != null) {
+            qa.setScore(msg.getEvaluationScore());
+            qa.setRubricLevel(msg.getEvaluationRubricLevel());
+
+            // Set detailed scores
+            Map<String, Integer> detailedScores = new HashMap<>();
+            detailedScores.put("technicalAccuracy", msg.getTechnicalAccuracy() != null ? msg.getTechnicalAccuracy() : 0);
+            detailedScores.put("depth", msg.getDepthScore() != null ? msg.getDepthScore() : 0);
+            detailedScores.put("experience", msg.getExperienceScore() != null ? msg.getExperienceScore() : 0);
+            detailedScores.put("communication", msg.getCommunicationScore() != null ? msg.getCommunicationScore() : 0);
+            qa.setDetailedScores(detailedScores);
+
+            // Load lists from JSON
+            try {
+                if (msg.getEvaluationStrengths() != null) {
+                    List<String> strengths = objectMapper.readValue(msg.getEvaluationStrengths(),
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+                    qa.setStrengths(strengths);
+                }
+                if (msg.getEvaluationImprovements() != null) {
+                    List<String> improvements = objectMapper.readValue(msg.getEvaluationImprovements(),
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+                    qa.setImprovements(improvements);
+                }
+                if (msg.getFollowUpQuestions() != null) {
+                    List<String> followUpQuestions = objectMapper.readValue(msg.getFollowUpQuestions(),
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+                    qa.setFollowUpQuestions(followUpQuestions);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to parse evaluation JSON for message " + msg.getId() + ": " + e.getMessage());
+            }
         }
 
-        Candidate candidate = candidateOpt.get();
+        return qa;
+    }
 
-        // 构建系统提示
-        String systemPrompt = buildInterviewSystemPrompt(interview, candidate);
+    /**
+     * 生成智能回答
+     *
+     * Repository lookups run on the bounded chat scheduler, and the turn is persisted
+     * asynchronously once the reply is emitted, so nothing here blocks the caller or the
+     * Reactor Netty thread that delivers the LLM response.
+     */
+    public Mono<String> generatePersonalizedResponse(String interviewId, ChatRequest request) {
+        return Mono.fromCallable(() -> prepareChat(interviewId, request))
+            .subscribeOn(chatBlockingScheduler)
+            .flatMap(prepared -> {
+                if (prepared.error() != null) {
+                    return Mono.just(prepared.error());
+                }
+                // 调用OpenAI生成回答，回复发出后异步保存到对话历史
+                return openAiService.chat(prepared.messages())
+                    .doOnNext(aiResponse -> saveChatMessageAsync(interviewId,
+                        new QAHistory(request.getUserMessage(), aiResponse)));
+            });
+    }
 
-        // 构建消息列表
-        List<OpenAiMessage> messages = new ArrayList<>();
-        messages.add(new OpenAiMessage("system", systemPrompt));
+    private record PreparedChat(List<OpenAiMessage> messages, String error) {
+    }
 
-        // 添加对话历史（从持久化存储加载）
-        List<QAHistory> history = loadChatHistory(interviewId);
-        if (request.getRecentHistory() != null && !request.getRecentHistory().isEmpty()) {
-            history = new ArrayList<>(request.getRecentHistory());
+    /**
+     * 构建系统提示和消息列表（阻塞，需在chat调度器上执行）
+     */
+    private PreparedChat prepareChat(String interviewId, ChatRequest request) {
+        SystemPromptLookup lookup = resolveSystemPrompt(interviewId);
+        if (lookup.error() != null) {
+            return new PreparedChat(null, lookup.error());
         }
+        // 构建消息列表（按token预算裁剪历史）
+        return new PreparedChat(buildContextWindow(interviewId, lookup.prompt(), request, "chat").getMessages(), null);
+    }
 
-        for (QAHistory qa : history) {
-            messages.add(new OpenAiMessage("user", qa.getQuestionText()));
-            messages.add(new OpenAiMessage("assistant", qa.getAnswerText()));
+    /**
+     * Persist a turn on the chat scheduler without waiting for it.
+     *
+     * Turns of one interview are queued and saved one at a time, in the order they were
+     * submitted, so the database and Redis always see the same turn order. If the scheduler
+     * is saturated, the drain is retried after a short delay; the turns stay queued and the
+     * calling thread (often a Reactor Netty event loop) never runs the save itself.
+     */
+    public void saveChatMessageAsync(String interviewId, QAHistory qa) {
+        boolean[] idle = new boolean[1];
+        pendingSaves.compute(interviewId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                idle[0] = true;
+            }
+            queue.add(qa);
+            return queue;
+        });
+        if (idle[0]) {
+            Mono.fromRunnable(() -> drainSaves(interviewId))
+                .subscribeOn(chatBlockingScheduler)
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, SAVE_RETRY_DELAY)
+                    .filter(RejectedExecutionException.class::isInstance))
+                .subscribe(null, error ->
+                    System.err.println("Failed to save chat messages for interview " + interviewId + ": " + error.getMessage()));
         }
+    }
 
-        // 添加当前用户消息
-        messages.add(new OpenAiMessage("user", request.getUserMessage()));
+    /**
+     * Save queued turns until the interview's queue is empty, then remove it. A queue stays
+     * in the map while it is being drained, so only one drain runs per interview.
+     */
+    private void drainSaves(String interviewId) {
+        QAHistory next;
+        while ((next = pollSave(interviewId)) != null) {
+            try {
+                saveChatMessage(interviewId, next);
+            } catch (Exception e) {
+                System.err.println("Failed to save chat message for interview " + interviewId + ": " + e.getMessage());
+            }
+        }
+    }
 
-        // 调用OpenAI生成回答
-        return openAiService.chat(messages)
-            .doOnNext(aiResponse -> {
-                // 保存到对话历史
-                QAHistory qa = new QAHistory(request.getUserMessage(), aiResponse);
-                saveChatMessage(interviewId, qa);
-            });
+    private QAHistory pollSave(String interviewId) {
+        QAHistory[] next = new QAHistory[1];
+        pendingSaves.computeIfPresent(interviewId, (id, queue) -> {
+            next[0] = queue.poll();
+            return next[0] != null ? queue : null;
+        });
+        return next[0];
     }
 
     /**
      * 保存聊天消息到历史（数据库 + Redis + 内存）
      */
     public void saveChatMessage(String interviewId, QAHistory qa) {
-        // Save to database
-        InterviewMessage message = new InterviewMessage();
-        message.setInterviewId(interviewId);
-        message.setUserMessage(qa.getQuestionText());
-        message.setAiMessage(qa.getAnswerText());
-        message.setMessageType("chat");
-        interviewMessageRepository.save(message);
-        
-        // Update in-memory cache
-        sessionHistories.computeIfAbsent(interviewId, k -> new ArrayList<>()).add(qa);
-        
-        // Update Redis cache
-        if (redisTemplate != null) {
-            try {
-                List<QAHistory> history = sessionHistories.get(interviewId);
-                redisTemplate.opsForValue().set("session:history:" + interviewId, history, Duration.ofHours(24));
-            } catch (Exception e) {
-                // Redis unavailable, continue without caching
-            }
+        writeTracker.beginWrite(interviewId);
+        try {
+            // Save to database
+            InterviewMessage message = new InterviewMessage();
+            message.setInterviewId(interviewId);
+            message.setUserMessage(qa.getQuestionText());
+            message.setAiMessage(qa.getAnswerText());
+            message.setMessageType("chat");
+            interviewMessageRepository.save(message);
+
+            // Update local cache (only if the full history is already cached)
+            historyCache.append(interviewId, qa);
+
+            // Append the single turn to Redis (no-op if the interview is not in Redis yet)
+            redisHistoryStore.append(interviewId, qa);
+        } finally {
+            writeTracker.endWrite(interviewId);
         }
+
+        // Every N turns, refresh the rolling summary in the background
+        summaryWorker.onTurnSaved(interviewId);
+    }
+
+    /**
+     * Drop the locally cached state of an interview (history and asked questions)
+     */
+    public void evictSession(String interviewId) {
+        historyCache.invalidate(interviewId);
+        askedQuestions.invalidate(interviewId);
+        summaryWorker.forget(interviewId);
+    }
+
+    /**
+     * Drop all cached and derived state of an interview, including Redis and the rolling
+     * summary (used when the interview is deleted)
+     */
+    public void clearSession(String interviewId) {
+        evictSession(interviewId);
+        redisHistoryStore.delete(interviewId);
+        interviewSummaryRepository.deleteById(interviewId);
+        systemPromptCache.remove(interviewId);
+    }
+
+    /**
+     * Local history cache statistics
+     */
+    public Map<String, Object> getHistoryCacheStats() {
+        return historyCache.stats();
     }
     
     /**
@@ -236,19 +378,24 @@ public class InterviewSessionService {
                                       Double score, Map<String, Integer> detailedScores,
                                       List<String> strengths, List<String> improvements,
                                       List<String> followUpQuestions, String rubricLevel) {
+        writeTracker.beginWrite(interviewId);
         try {
             // Find the interview message by interviewId and content
             List<InterviewMessage> messages = interviewMessageRepository
                 .findByInterviewIdOrderByCreatedAtAsc(interviewId);
 
             // Find the message that matches the question and answer
-            Optional<InterviewMessage> targetMessage = messages.stream()
-                .filter(msg -> questionText.equals(msg.getUserMessage()) &&
-                              answerText.equals(msg.getAiMessage()))
-                .findFirst();
+            int index = -1;
+            for (int i = 0; i < messages.size(); i++) {
+                InterviewMessage msg = messages.get(i);
+                if (questionText.equals(msg.getUserMessage()) && answerText.equals(msg.getAiMessage())) {
+                    index = i;
+                    break;
+                }
+            }
 
-            if (targetMessage.isPresent()) {
-                InterviewMessage message = targetMessage.get();
+            if (index >= 0) {
+                InterviewMessage message = messages.get(index);
                 message.setEvaluationScore(score);
                 message.setEvaluationRubricLevel(rubricLevel);
                 message.setTechnicalAccuracy(detailedScores.get("technicalAccuracy"));
@@ -270,9 +417,10 @@ public class InterviewSessionService {
                 message.setEvaluationCompletedAt(LocalDateTime.now());
                 interviewMessageRepository.save(message);
 
-                // Update in-memory cache if it exists
-                if (sessionHistories.containsKey(interviewId)) {
-                    sessionHistories.get(interviewId).stream()
+                // Update local cache if it exists
+                List<QAHistory> history = historyCache.get(interviewId);
+                if (history != null) {
+                    history.stream()
                         .filter(qa -> questionText.equals(qa.getQuestionText()) &&
                                     answerText.equals(qa.getAnswerText()))
                         .findFirst()
@@ -284,22 +432,16 @@ public class InterviewSessionService {
                             qa.setFollowUpQuestions(followUpQuestions);
                             qa.setRubricLevel(rubricLevel);
                         });
+                    historyCache.refreshWeight(interviewId);
                 }
 
-                // Update Redis cache
-                if (redisTemplate != null) {
-                    try {
-                        List<QAHistory> history = sessionHistories.get(interviewId);
-                        if (history != null) {
-                            redisTemplate.opsForValue().set("session:history:" + interviewId, history, Duration.ofHours(24));
-                        }
-                    } catch (Exception e) {
-                        // Redis unavailable, continue without caching
-                    }
-                }
+                // Update only the changed turn in Redis; list order matches the message order
+                redisHistoryStore.replace(interviewId, index, toQAHistory(message));
             }
         } catch (Exception e) {
             System.err.println("Failed to update evaluation results: " + e.getMessage());
+        } finally {
+            writeTracker.endWrite(interviewId);
         }
     }
 
@@ -307,17 +449,32 @@ public class InterviewSessionService {
      * 从知识库选择下一个问题（合并自SessionService）
      */
     public Optional<QuestionItem> pickNextQuestion(String interviewId, String roleId) {
-        Set<String> asked = askedQuestions.computeIfAbsent(interviewId, k -> new HashSet<>());
-        List<QuestionItem> questions = knowledgeBaseService.getQuestions(roleId);
-        List<QuestionItem> remaining = questions.stream()
-                .filter(q -> !asked.contains(q.getId()))
-                .collect(Collectors.toList());
-        if (remaining.isEmpty()) {
-            return Optional.empty();
-        }
-        QuestionItem selected = remaining.get(random.nextInt(remaining.size()));
-        asked.add(selected.getId());
-        return Optional.of(selected);
+        AskedQuestions asked = askedQuestions.computeIfAbsent(interviewId, id -> new AskedQuestions(roleId));
+        asked.lock.lock();
+        try {
+            if (!Objects.equals(asked.roleId, roleId)) {
+                // Ordinals index the previous role's question bank
+                asked.roleId = roleId;
+                asked.ordinals.clear();
+            }
+            return knowledgeBaseService.pickNextQuestion(roleId, asked.ordinals, random);
+        } finally {
+            asked.lock.unlock();
+        }
+    }
+
+    /**
+     * 已提问的问题（按角色题库中的序号记录）
+     */
+    private static final class AskedQuestions {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        private String roleId;
+        private final BitSet ordinals = new BitSet();
+
+        private AskedQuestions(String roleId) {
+            this.roleId = roleId;
+        }
     }
     
     /**
@@ -382,46 +539,137 @@ public class InterviewSessionService {
         return loadChatHistory(interviewId);
     }
 
+    /**
+     * 获取最近的若干轮对话（本地缓存 -> Redis LRANGE -> 数据库）
+     */
+    public List<QAHistory> getRecentChatHistory(String interviewId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<QAHistory> local = historyCache.get(interviewId);
+        if (local == null) {
+            List<QAHistory> recent = redisHistoryStore.range(interviewId, -limit, -1);
+            if (recent != null) {
+                return recent;
+            }
+            local = loadChatHistory(interviewId);
+        }
+        return new ArrayList<>(local.subList(Math.max(0, local.size() - limit), local.size()));
+    }
+
     /**
      * 构建OpenAI消息列表（用于WebSocket流式响应）
      */
     public List<OpenAiMessage> buildMessagesForOpenAI(String interviewId, ChatRequest request) {
+        SystemPromptLookup lookup = resolveSystemPrompt(interviewId);
+        if (lookup.error() != null) {
+            return List.of();
+        }
+
+        return buildContextWindow(interviewId, lookup.prompt(), request, "stream").getMessages();
+    }
+
+    private record SystemPromptLookup(String prompt, String error) {
+    }
+
+    /**
+     * 获取系统提示：命中缓存时跳过面试和候选人查询，否则从数据库构建并缓存
+     */
+    private SystemPromptLookup resolveSystemPrompt(String interviewId) {
+        String cached = systemPromptCache.get(interviewId);
+        if (cached != null) {
+            return new SystemPromptLookup(cached, null);
+        }
+
+        // Read versions before loading, so a concurrent update invalidates what we build here
+        long interviewVersion = systemPromptCache.interviewVersion(interviewId);
         Optional<Interview> interviewOpt = interviewRepository.findById(interviewId);
         if (interviewOpt.isEmpty()) {
-            return List.of();
+            return new SystemPromptLookup(null, "面试会话不存在");
         }
 
         Interview interview = interviewOpt.get();
+        long candidateVersion = systemPromptCache.candidateVersion(interview.getCandidateId());
         Optional<Candidate> candidateOpt = candidateRepository.findById(interview.getCandidateId());
         if (candidateOpt.isEmpty()) {
-            return List.of();
+            return new SystemPromptLookup(null, "候选人信息不存在");
         }
 
-        Candidate candidate = candidateOpt.get();
-        String systemPrompt = buildInterviewSystemPrompt(interview, candidate);
+        String prompt = buildInterviewSystemPrompt(interview, candidateOpt.get());
+        systemPromptCache.put(interviewId, prompt, interviewVersion, interview.getCandidateId(), candidateVersion);
+        return new SystemPromptLookup(prompt, null);
+    }
 
-        List<OpenAiMessage> messages = new ArrayList<>();
-        messages.add(new OpenAiMessage("system", systemPrompt));
+    /**
+     * Drop the cached system prompt after the interview was edited
+     */
+    public void invalidateSystemPrompt(String interviewId) {
+        systemPromptCache.invalidateInterview(interviewId);
+    }
+
+    /**
+     * System prompt cache statistics, including DB round-trips saved
+     */
+    public Map<String, Object> getSystemPromptCacheStats() {
+        return systemPromptCache.stats();
+    }
+
+    /**
+     * 构建上下文窗口：保留能放入token预算的最近轮次，更早的轮次折叠进滚动摘要
+     */
+    private ContextWindow buildContextWindow(String interviewId, String systemPrompt,
+                                             ChatRequest request, String callPath) {
+        String userMessage = request.getUserMessage();
+        ContextWindow window;
 
-        // 添加对话历史
-        List<QAHistory> history = loadChatHistory(interviewId);
         if (request.getRecentHistory() != null && !request.getRecentHistory().isEmpty()) {
-            history = new ArrayList<>(request.getRecentHistory());
+            // Client-supplied history: trim only, it is not the stored conversation
+            List<QAHistory> history = request.getRecentHistory();
+            int drop = contextWindowBuilder.turnsToDrop(systemPrompt, false, history, userMessage);
+            window = contextWindowBuilder.build(systemPrompt, null,
+                history.subList(drop, history.size()), userMessage, drop);
+        } else {
+            List<QAHistory> history = loadChatHistory(interviewId);
+            InterviewSummary summary = interviewSummaryRepository.findById(interviewId).orElse(null);
+            int covered = summary != null ? Math.min(summary.getCoveredTurns(), history.size()) : 0;
+            List<QAHistory> pending = history.subList(covered, history.size());
+
+            int drop = contextWindowBuilder.turnsToDrop(systemPrompt, summary != null, pending, userMessage);
+            String summaryText = summary != null ? summary.getSummary() : null;
+            if (drop > 0) {
+                // The stored summary is behind: extend it for this call only and let the
+                // background worker persist the refresh
+                summaryText = conversationSummarizer.extend(summaryText, pending.subList(0, drop),
+                    contextWindowBuilder.getSummaryMaxTokens());
+                summaryWorker.requestRefresh(interviewId);
+            }
+            window = contextWindowBuilder.build(systemPrompt, summaryText,
+                pending.subList(drop, pending.size()), userMessage, covered + drop);
         }
 
-        for (QAHistory qa : history) {
-            messages.add(new OpenAiMessage("user", qa.getQuestionText()));
-            messages.add(new OpenAiMessage("assistant", qa.getAnswerText()));
-        }
+        promptTokenMetrics.record(callPath, window);
+        return window;
+    }
 
-        // 添加当前用户消息
-        messages.add(new OpenAiMessage("user", request.getUserMessage()));
+    /**
+     * Prompt token statistics per call path
+     */
+    public Map<String, Object> getPromptTokenStats() {
+        return promptTokenMetrics.stats();
+    }
 
-        return messages;
+    /**
+     * Background summary worker statistics
+     */
+    public Map<String, Object> getSummaryWorkerStats() {
+        return summaryWorker.stats();
     }
     
     /**
      * 构建面试系统提示
+     *
+     * 固定的面试官角色和面试要求放在最前面，所有面试（同一语言）的提示前缀逐字节相同，
+     * 便于模型服务端复用提示缓存；岗位和候选人信息放在后面。
      */
     private String buildInterviewSystemPrompt(Interview interview, Candidate candidate) {
         StringBuilder prompt = new StringBuilder();
@@ -429,6 +677,22 @@ public class InterviewSessionService {
         // 基础面试官角色
         prompt.append("你是一个专业的AI面试官，正在进行技术面试。\n\n");
 
+        // 面试指导
+        prompt.append("面试要求：\n");
+        prompt.append("1. 基于候选人的实际经验提出有针对性的问题\n");
+        prompt.append("2. 问题难度要适中，既不过于简单也不过于复杂\n");
+        prompt.append("3. 关注候选人在简历中提到的技能和项目经验\n");
+        prompt.append("4. 回答要专业、友好、具有建设性\n");
+        prompt.append("5. 如果候选人回答不完整，可以适当追问\n");
+        prompt.append("6. 保持对话的流畅性和连贯性\n");
+
+        if ("Chinese".equals(interview.getLanguage())) {
+            prompt.append("7. 请用中文进行面试\n");
+        } else {
+            prompt.append("7. 请用英文进行面试，除非候选人主动用中文提问\n");
+        }
+        prompt.append("\n");
+
         // 岗位信息
         prompt.append("当前面试岗位：").append(interview.getTitle()).append("\n");
         if (interview.getTechStack() != null) {
@@ -451,22 +715,6 @@ public class InterviewSessionService {
         if (candidate.getResumeText() != null) {
             prompt.append("- 简历摘要：").append(candidate.getResumeText()).append("\n");
         }
-        prompt.append("\n");
-
-        // 面试指导
-        prompt.append("面试要求：\n");
-        prompt.append("1. 基于候选人的实际经验提出有针对性的问题\n");
-        prompt.append("2. 问题难度要适中，既不过于简单也不过于复杂\n");
-        prompt.append("3. 关注候选人在简历中提到的技能和项目经验\n");
-        prompt.append("4. 回答要专业、友好、具有建设性\n");
-        prompt.append("5. 如果候选人回答不完整，可以适当追问\n");
-        prompt.append("6. 保持对话的流畅性和连贯性\n");
-
-        if ("Chinese".equals(interview.getLanguage())) {
-            prompt.append("7. 请用中文进行面试\n");
-        } else {
-            prompt.append("7. 请用英文进行面试，除非候选人主动用中文提问\n");
-        }
 
         return prompt.toString();
     }
@@ -1,13 +1,29 @@
 package com.aiinterview.service;
 
+import com.aiinterview.context.TokenEstimator;
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.evaluation.EvaluationCache;
+import com.aiinterview.llm.LlmPriority;
 import com.aiinterview.model.EvaluationResult;
 import com.aiinterview.model.openai.OpenAiMessage;
+import com.aiinterview.validator.EvaluationResultValidator;
+import com.aiinterview.validator.ValidationResult;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class LlmEvaluationService {
@@ -18,13 +34,60 @@ public class LlmEvaluationService {
     @Autowired
     private PromptService promptService;
 
+    @Autowired
+    private EvaluationResultValidator evaluationResultValidator;
+
+    @Autowired
+    private EvaluationCache evaluationCache;
+
+    // Evaluations are sampled deterministically by default, so scores are reproducible and cacheable
+    @Value("${interview.evaluation.temperature:0.0}")
+    private Double evaluationTemperature;
+
+    @Value("${interview.evaluation.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${interview.evaluation.batch.max-items:5}")
+    private int batchMaxItems;
+
+    // Prompt plus reserved reply tokens per batch request
+    @Value("${interview.evaluation.batch.max-tokens:4000}")
+    private int batchMaxTokens;
+
+    // Time allowed per answer; a batch request gets this for each answer it carries. 0 disables
+    @Value("${interview.evaluation.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    // Reply tokens reserved for one evaluation object
+    static final int REPLY_TOKENS_PER_ITEM = 300;
+    // "[n]", labels and blank lines around each answer in the batch prompt
+    private static final int ITEM_FRAMING_TOKENS = 12;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final AtomicLong batchRequests = new AtomicLong();
+    private final AtomicLong batchedItems = new AtomicLong();
+    private final AtomicLong acceptedItems = new AtomicLong();
+    private final AtomicLong fallbackItems = new AtomicLong();
+
     /**
-     * Evaluate candidate's answer using LLM
+     * Evaluate candidate's answer using LLM, or return the cached evaluation of the same
+     * answer (see {@link EvaluationCache})
      */
     public Mono<EvaluationResult> evaluateAnswer(String question, String answer, 
                                                   String roleId, String level) {
+        String cacheKey = cacheKey(question, answer, roleId, level);
+        if (cacheKey != null) {
+            EvaluationResult cached = evaluationCache.get(cacheKey);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+        }
+        return evaluateUncached(question, answer, roleId, level, cacheKey);
+    }
+
+    private Mono<EvaluationResult> evaluateUncached(String question, String answer, String roleId, String level,
+                                                    String cacheKey) {
         // Build evaluation prompt
         String systemPrompt = promptService.buildEvaluationSystemPrompt();
         String userPrompt = promptService.buildEvaluationPrompt(question, answer, roleId, level);
@@ -34,8 +97,17 @@ public class LlmEvaluationService {
             new OpenAiMessage("user", userPrompt)
         );
 
-        return openAiService.chat(messages)
-            .map(this::parseEvaluationResult)
+        return openAiService.chat(messages, evaluationTemperature, LlmPriority.EVALUATION)
+            .map(response -> {
+                EvaluationResult result = parseEvaluationResult(response);
+                if (result == null) {
+                    return createFallbackEvaluation(null);
+                }
+                if (cacheKey != null && evaluationResultValidator.validate(extractJson(response)).isValid()) {
+                    evaluationCache.put(cacheKey, result);
+                }
+                return result;
+            })
             .onErrorResume(error -> {
                 System.err.println("Evaluation error: " + error.getMessage());
                 return Mono.just(createFallbackEvaluation(answer));
@@ -43,7 +115,223 @@ public class LlmEvaluationService {
     }
 
     /**
-     * Parse evaluation result from JSON string
+     * Evaluation cache key, or null when the cache does not apply at the evaluation temperature
+     */
+    private String cacheKey(String question, String answer, String roleId, String level) {
+        if (!evaluationCache.isEnabledFor(evaluationTemperature)) {
+            return null;
+        }
+        return evaluationCache.key(question, answer, roleId, level, promptService.getEvaluationPromptVersion());
+    }
+
+    /**
+     * Split answers into batches for {@link #evaluateBatch}. A batch holds at most
+     * {@code interview.evaluation.batch.max-items} answers and stays within
+     * {@code batch.max-tokens}, counting the prompt and {@value #REPLY_TOKENS_PER_ITEM} reply
+     * tokens per answer; an answer that is too large on its own gets a batch to itself. With
+     * batching disabled every answer is its own batch.
+     */
+    public List<List<QAHistory>> planBatches(List<QAHistory> answers, String roleId, String level) {
+        List<List<QAHistory>> batches = new ArrayList<>();
+        if (!batchEnabled) {
+            answers.forEach(qa -> batches.add(List.of(qa)));
+            return batches;
+        }
+
+        int maxItems = Math.max(1, batchMaxItems);
+        int baseTokens = TokenEstimator.estimate(List.of(
+            new OpenAiMessage("system", promptService.buildBatchEvaluationSystemPrompt()),
+            new OpenAiMessage("user", promptService.buildBatchEvaluationPrompt(List.of(), List.of(), roleId, level))));
+
+        List<QAHistory> current = new ArrayList<>();
+        int used = baseTokens;
+        for (QAHistory qa : answers) {
+            int itemTokens = ITEM_FRAMING_TOKENS + REPLY_TOKENS_PER_ITEM
+                + TokenEstimator.estimate(qa.getQuestionText()) + TokenEstimator.estimate(qa.getAnswerText());
+            if (!current.isEmpty() && (current.size() >= maxItems || used + itemTokens > batchMaxTokens)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                used = baseTokens;
+            }
+            current.add(qa);
+            used += itemTokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Evaluate several answers with one LLM request. Results come back in the order of
+     * {@code batch}; cached answers are not sent, and entries that are missing from the reply
+     * or fail {@link EvaluationResultValidator} are evaluated again one by one. A batch request
+     * that times out is treated like a failed one; an answer whose own evaluation times out is
+     * null in the result.
+     */
+    public Mono<List<EvaluationResult>> evaluateBatch(List<QAHistory> batch, String roleId, String level) {
+        EvaluationResult[] results = new EvaluationResult[batch.size()];
+        String[] cacheKeys = new String[batch.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            QAHistory qa = batch.get(i);
+            cacheKeys[i] = cacheKey(qa.getQuestionText(), qa.getAnswerText(), roleId, level);
+            if (cacheKeys[i] != null) {
+                results[i] = evaluationCache.get(cacheKeys[i]);
+            }
+            if (results[i] == null) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Mono.just(Arrays.asList(results));
+        }
+        if (pending.size() == 1) {
+            int index = pending.get(0);
+            QAHistory qa = batch.get(index);
+            return evaluateWithTimeout(qa, roleId, level, cacheKeys[index])
+                .doOnNext(result -> results[index] = result)
+                .then(Mono.fromSupplier(() -> Arrays.asList(results)));
+        }
+
+        List<String> questions = pending.stream().map(i -> batch.get(i).getQuestionText()).toList();
+        List<String> answers = pending.stream().map(i -> batch.get(i).getAnswerText()).toList();
+        List<OpenAiMessage> messages = List.of(
+            new OpenAiMessage("system", promptService.buildBatchEvaluationSystemPrompt()),
+            new OpenAiMessage("user", promptService.buildBatchEvaluationPrompt(questions, answers, roleId, level))
+        );
+
+        batchRequests.incrementAndGet();
+        batchedItems.addAndGet(pending.size());
+        return withTimeout(openAiService.chat(messages, evaluationTemperature, LlmPriority.EVALUATION), pending.size())
+            .map(response -> parseBatchEvaluationResult(response, pending.size()))
+            .onErrorResume(error -> {
+                System.err.println("Batch evaluation error: " + error.getMessage());
+                return Mono.just(new EvaluationResult[pending.size()]);
+            })
+            .flatMap(replies -> evaluateRejected(batch, pending, replies, results, cacheKeys, roleId, level));
+    }
+
+    /**
+     * Place the batch replies, caching the accepted ones, and evaluate the entries the reply
+     * did not cover concurrently
+     */
+    private Mono<List<EvaluationResult>> evaluateRejected(List<QAHistory> batch, List<Integer> pending,
+                                                          EvaluationResult[] replies, EvaluationResult[] results,
+                                                          String[] cacheKeys, String roleId, String level) {
+        List<Mono<EvaluationResult>> retries = new ArrayList<>();
+        for (int i = 0; i < replies.length; i++) {
+            int index = pending.get(i);
+            if (replies[i] != null) {
+                acceptedItems.incrementAndGet();
+                results[index] = replies[i];
+                if (cacheKeys[index] != null) {
+                    evaluationCache.put(cacheKeys[index], replies[i]);
+                }
+                continue;
+            }
+            fallbackItems.incrementAndGet();
+            QAHistory qa = batch.get(index);
+            retries.add(evaluateWithTimeout(qa, roleId, level, cacheKeys[index])
+                .doOnNext(result -> results[index] = result));
+        }
+        return Mono.when(retries).then(Mono.fromSupplier(() -> Arrays.asList(results)));
+    }
+
+    /**
+     * Evaluate one answer of a batch on its own; empty if it does not finish in time
+     */
+    private Mono<EvaluationResult> evaluateWithTimeout(QAHistory qa, String roleId, String level, String cacheKey) {
+        return withTimeout(evaluateUncached(qa.getQuestionText(), qa.getAnswerText(), roleId, level, cacheKey), 1)
+            .onErrorResume(TimeoutException.class, error -> {
+                System.err.println("Evaluation timed out: " + error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private <T> Mono<T> withTimeout(Mono<T> call, int answers) {
+        return timeoutSeconds > 0 ? call.timeout(Duration.ofSeconds(timeoutSeconds * answers)) : call;
+    }
+
+    /**
+     * Map the "evaluations" array of a batch reply to answer positions. Entries are matched by
+     * their index field (1-based), or by position when it is missing; entries that fail
+     * validation are left null.
+     */
+    private EvaluationResult[] parseBatchEvaluationResult(String response, int size) {
+        EvaluationResult[] results = new EvaluationResult[size];
+        try {
+            JsonNode root = objectMapper.readTree(extractJsonValue(response));
+            JsonNode evaluations = root.isArray() ? root : root.path("evaluations");
+            for (int position = 0; position < evaluations.size(); position++) {
+                JsonNode node = evaluations.get(position);
+                if (!node.isObject()) {
+                    continue;
+                }
+                int index = node.has("index") ? node.get("index").asInt() - 1 : position;
+                if (index < 0 || index >= size || results[index] != null) {
+                    continue;
+                }
+                ObjectNode item = ((ObjectNode) node).deepCopy();
+                item.remove("index");
+                ValidationResult validation = evaluationResultValidator.validate(item.toString());
+                if (!validation.isValid()) {
+                    System.err.println("Batch evaluation item " + (index + 1) + " rejected: " + validation.getErrorMessage());
+                    continue;
+                }
+                results[index] = objectMapper.treeToValue(item, EvaluationResult.class);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to parse batch evaluation result: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Extract a JSON object or array from a response that might contain additional text
+     */
+    private String extractJsonValue(String response) {
+        int object = response.indexOf('{');
+        int array = response.indexOf('[');
+        if (array >= 0 && (object < 0 || array < object)) {
+            int end = response.lastIndexOf(']');
+            if (end > array) {
+                return response.substring(array, end + 1);
+            }
+        }
+        return extractJson(response);
+    }
+
+    /**
+     * Batch evaluation counters: requests, answers per request and how many needed a single retry
+     */
+    public Map<String, Object> getBatchStats() {
+        long requests = batchRequests.get();
+        long items = batchedItems.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", batchEnabled);
+        stats.put("maxItems", batchMaxItems);
+        stats.put("maxTokens", batchMaxTokens);
+        stats.put("batchRequests", requests);
+        stats.put("batchedItems", items);
+        stats.put("avgBatchSize", requests == 0 ? 0.0 : (double) items / requests);
+        stats.put("acceptedItems", acceptedItems.get());
+        stats.put("fallbackItems", fallbackItems.get());
+        return stats;
+    }
+
+    /**
+     * Evaluation cache hit rates and tier statistics
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("temperature", evaluationTemperature);
+        stats.putAll(evaluationCache.stats());
+        return stats;
+    }
+
+    /**
+     * Parse evaluation result from JSON string, or null if the response is not an evaluation
      */
     private EvaluationResult parseEvaluationResult(String jsonResponse) {
         try {
@@ -53,7 +341,7 @@ public class LlmEvaluationService {
         } catch (Exception e) {
             System.err.println("Failed to parse evaluation result: " + e.getMessage());
             System.err.println("Response was: " + jsonResponse);
-            return createFallbackEvaluation(null);
+            return null;
         }
     }
 
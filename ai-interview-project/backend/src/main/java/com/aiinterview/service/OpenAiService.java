@@ -1,10 +1,17 @@
 package com.aiinterview.service;
 
+import com.aiinterview.context.PromptPrefixRegistry;
+import com.aiinterview.llm.LlmCallGovernor;
+import com.aiinterview.llm.LlmCircuitBreaker;
+import com.aiinterview.llm.LlmPriority;
+import com.aiinterview.llm.LlmRequestHedger;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.model.openai.OpenAiRequest;
 import com.aiinterview.model.openai.OpenAiResponse;
+import com.aiinterview.stream.SseDeltaDecoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -12,14 +19,40 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class OpenAiService {
 
+    private static final String MOCK_DEFAULT = "Thank you for your response. Can you tell me more about your experience?";
+    private static final String MOCK_GREETING = "Hello! Nice to meet you. Let's start with your background. Can you tell me about your recent work experience?";
+    private static final String MOCK_EXPERIENCE = "That's interesting! Can you elaborate on the specific technologies you used and the challenges you faced?";
+    private static final String MOCK_PROJECT = "Great! What was your role in that project, and what were the main technical challenges?";
+    private static final String MOCK_AGREEMENT = "Perfect! Let's move on to the next topic. Tell me about a challenging problem you solved recently.";
+    private static final String MOCK_DETAILED = "Thank you for the detailed explanation. That demonstrates good understanding. Can you give me a specific example?";
+    private static final String MOCK_MORE_DETAILS = "I see. Can you provide more details about that?";
+    private static final String MOCK_ELABORATE = "Could you elaborate on that point?";
+    private static final List<String> MOCK_RESPONSES = List.of(MOCK_DEFAULT, MOCK_GREETING, MOCK_EXPERIENCE,
+        MOCK_PROJECT, MOCK_AGREEMENT, MOCK_DETAILED, MOCK_MORE_DETAILS, MOCK_ELABORATE);
+
     @Autowired
     private WebClient openAiWebClient;
 
+    @Autowired
+    private LlmCallGovernor callGovernor;
+
+    @Autowired
+    private LlmCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private LlmRequestHedger requestHedger;
+
+    @Autowired
+    private PromptPrefixRegistry prefixRegistry;
+
     @Value("${openai.model}")
     private String model;
 
@@ -29,32 +62,69 @@ public class OpenAiService {
     @Value("${openai.max-tokens}")
     private Integer maxTokens;
 
+    // Off in production, so callers see a failed call instead of a canned answer
+    @Value("${openai.mock-fallback.enabled:true}")
+    private boolean mockFallbackEnabled;
+
+    private final AtomicLong mockFallbacks = new AtomicLong();
+    private final AtomicLong errorsPropagated = new AtomicLong();
+
     /**
      * Call OpenAI API with messages (non-streaming)
      */
     public Mono<String> chat(List<OpenAiMessage> messages) {
+        return chat(messages, null);
+    }
+
+    /**
+     * Call OpenAI API with messages (non-streaming) at the given temperature,
+     * or at {@code openai.temperature} when it is null
+     */
+    public Mono<String> chat(List<OpenAiMessage> messages, Double temperature) {
+        return chat(messages, temperature, LlmPriority.INTERACTIVE);
+    }
+
+    /**
+     * Call OpenAI API with messages (non-streaming) in the given priority lane
+     */
+    public Mono<String> chat(List<OpenAiMessage> messages, Double temperature, LlmPriority priority) {
         OpenAiRequest request = new OpenAiRequest();
         request.setModel(model);
         request.setMessages(messages);
-        request.setTemperature(temperature);
+        request.setTemperature(temperature != null ? temperature : this.temperature);
         request.setMaxTokens(maxTokens);
         request.setStream(false);
+        request.setPromptCacheKey(prefixRegistry.routingKey(messages));
+        String callType = callType(priority);
 
-        return openAiWebClient.post()
+        // Each subscription is one attempt; interactive calls may send a second one when slow.
+        // The prefix is recorded per request actually sent, after the governor and the breaker let it through
+        Mono<OpenAiResponse> attempt = callGovernor.call(priority, () -> circuitBreaker.protect(Mono.defer(() -> {
+            prefixRegistry.record(callType, messages);
+            return openAiWebClient.post()
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(OpenAiResponse.class)
-                .timeout(Duration.ofSeconds(60))
+                .timeout(Duration.ofSeconds(60));
+        })));
+
+        return (priority.isInteractive() ? requestHedger.hedge(attempt) : attempt)
                 .map(response -> {
+                    prefixRegistry.recordUsage(callType, response.getUsage());
                     if (response.getChoices() != null && !response.getChoices().isEmpty()) {
                         return response.getChoices().get(0).getMessage().getContent();
                     }
                     return "";
                 })
                 .onErrorResume(error -> {
+                    if (!mockFallbackEnabled) {
+                        errorsPropagated.incrementAndGet();
+                        return Mono.error(error);
+                    }
                     System.err.println("OpenAI API Error: " + error.getMessage());
                     error.printStackTrace();
+                    mockFallbacks.incrementAndGet();
 
                     // Generate a mock response based on user message
                     String userMessage = messages.stream()
@@ -72,51 +142,79 @@ public class OpenAiService {
      */
     private String generateMockResponse(String userMessage) {
         if (userMessage == null || userMessage.trim().isEmpty()) {
-            return "Thank you for your response. Can you tell me more about your experience?";
+            return MOCK_DEFAULT;
         }
 
         String lower = userMessage.toLowerCase();
 
         if (lower.contains("hello") || lower.contains("hi")) {
-            return "Hello! Nice to meet you. Let's start with your background. Can you tell me about your recent work experience?";
+            return MOCK_GREETING;
         } else if (lower.contains("experience") || lower.contains("worked")) {
-            return "That's interesting! Can you elaborate on the specific technologies you used and the challenges you faced?";
+            return MOCK_EXPERIENCE;
         } else if (lower.contains("project")) {
-            return "Great! What was your role in that project, and what were the main technical challenges?";
+            return MOCK_PROJECT;
         } else if (lower.contains("yes") || lower.contains("yeah") || lower.contains("sure")) {
-            return "Perfect! Let's move on to the next topic. Tell me about a challenging problem you solved recently.";
+            return MOCK_AGREEMENT;
         } else if (lower.length() > 100) {
-            return "Thank you for the detailed explanation. That demonstrates good understanding. Can you give me a specific example?";
+            return MOCK_DETAILED;
         } else if (lower.length() > 20) {
-            return "I see. Can you provide more details about that?";
+            return MOCK_MORE_DETAILS;
         } else {
-            return "Could you elaborate on that point?";
+            return MOCK_ELABORATE;
         }
     }
 
+    /**
+     * Whether a response is, or ends with, a mock fallback response. A stream that fails
+     * part-way ends with one.
+     */
+    public boolean isMockResponse(String response) {
+        if (response == null) {
+            return false;
+        }
+        String trimmed = response.trim();
+        return MOCK_RESPONSES.stream().anyMatch(trimmed::endsWith);
+    }
+
     /**
      * Call OpenAI API with streaming response
      */
     public Flux<String> chatStream(List<OpenAiMessage> messages) {
+        return chatStream(messages, LlmPriority.INTERACTIVE);
+    }
+
+    /**
+     * Call OpenAI API with streaming response in the given priority lane
+     */
+    public Flux<String> chatStream(List<OpenAiMessage> messages, LlmPriority priority) {
         OpenAiRequest request = new OpenAiRequest();
         request.setModel(model);
         request.setMessages(messages);
         request.setTemperature(temperature);
         request.setMaxTokens(maxTokens);
         request.setStream(true);
+        request.setPromptCacheKey(prefixRegistry.routingKey(messages));
+        String callType = callType(priority) + "-stream";
 
-        return openAiWebClient.post()
+        return callGovernor.stream(priority, () -> circuitBreaker.protectStream(Flux.defer(() -> {
+            prefixRegistry.record(callType, messages);
+            return openAiWebClient.post()
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(request)
                 .accept(MediaType.TEXT_EVENT_STREAM)
                 .retrieve()
-                .bodyToFlux(String.class)
-                .timeout(Duration.ofSeconds(90))
-                .map(this::parseStreamChunk)
-                .filter(content -> content != null && !content.isEmpty())
+                .bodyToFlux(DataBuffer.class)
+                .transform(SseDeltaDecoder::decode)
+                .timeout(Duration.ofSeconds(90));
+        })))
                 .onErrorResume(error -> {
+                    if (!mockFallbackEnabled) {
+                        errorsPropagated.incrementAndGet();
+                        return Flux.error(error);
+                    }
                     System.err.println("OpenAI Streaming Error: " + error.getMessage());
                     error.printStackTrace();
+                    mockFallbacks.incrementAndGet();
 
                     // Generate mock response as fallback
                     String userMessage = messages.stream()
@@ -135,41 +233,40 @@ public class OpenAiService {
     }
 
     /**
-     * Parse SSE chunk from OpenAI
+     * Simple chat with system and user messages
      */
-    private String parseStreamChunk(String chunk) {
-        // OpenAI SSE format: data: {"choices":[{"delta":{"content":"..."}}]}
-        // We need to extract the content from delta
-        try {
-            if (chunk.startsWith("data: ")) {
-                String jsonData = chunk.substring(6).trim();
-                if (jsonData.equals("[DONE]")) {
-                    return "";
-                }
-                // Simple parsing - in production, use proper JSON parsing
-                if (jsonData.contains("\"content\":\"")) {
-                    int start = jsonData.indexOf("\"content\":\"") + 11;
-                    int end = jsonData.indexOf("\"", start);
-                    if (end > start) {
-                        return jsonData.substring(start, end);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to parse chunk: " + e.getMessage());
-        }
-        return "";
+    public Mono<String> simpleChat(String systemPrompt, String userPrompt) {
+        return simpleChat(systemPrompt, userPrompt, LlmPriority.INTERACTIVE);
     }
 
     /**
-     * Simple chat with system and user messages
+     * Simple chat with system and user messages in the given priority lane
      */
-    public Mono<String> simpleChat(String systemPrompt, String userPrompt) {
+    public Mono<String> simpleChat(String systemPrompt, String userPrompt, LlmPriority priority) {
         List<OpenAiMessage> messages = List.of(
             new OpenAiMessage("system", systemPrompt),
             new OpenAiMessage("user", userPrompt)
         );
-        return chat(messages);
+        return chat(messages, null, priority);
+    }
+
+    /**
+     * Call type the prompt prefix registry reports under
+     */
+    private static String callType(LlmPriority priority) {
+        return priority.name().toLowerCase();
+    }
+
+    /**
+     * Failed calls answered with a mock response, or passed on to the caller when the
+     * fallback is disabled
+     */
+    public Map<String, Object> getFallbackStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mockFallbackEnabled", mockFallbackEnabled);
+        stats.put("mockFallbacks", mockFallbacks.get());
+        stats.put("errorsPropagated", errorsPropagated.get());
+        return stats;
     }
 
     /**
@@ -27,7 +27,13 @@ public class PdfReportService {
      * Generate PDF report for an interview
      */
     public byte[] generatePdfReport(String interviewId) throws IOException {
-        Map<String, Object> reportData = reportService.generateReport(interviewId);
+        return generatePdfReport(reportService.generateReport(interviewId));
+    }
+
+    /**
+     * Render an already generated report as PDF
+     */
+    public byte[] generatePdfReport(Map<String, Object> reportData) throws IOException {
         Interview interview = getInterviewFromReport(reportData);
 
         PDDocument document = new PDDocument();
@@ -133,10 +139,10 @@ public class PdfReportService {
                 contentStream.setFont(fontNormal, 12);
 
                 @SuppressWarnings("unchecked")
-                List<QAHistory> history = (List<QAHistory>) reportData.get("conversationHistory");
+                List<Object> history = (List<Object>) reportData.get("conversationHistory");
                 if (history != null && !history.isEmpty()) {
                     for (int i = 0; i < history.size() && i < 10; i++) { // Limit to first 10 Q&As for PDF
-                        QAHistory qa = history.get(i);
+                        QAHistory qa = toQAHistory(history.get(i));
 
                         if (yPosition < 150) { // Check if we need a new page
                             contentStream.close();
@@ -259,6 +265,18 @@ public class PdfReportService {
         return dateObj.toString();
     }
 
+    /**
+     * Stored reports hold the conversation as plain JSON maps rather than QAHistory objects
+     */
+    @SuppressWarnings("unchecked")
+    private QAHistory toQAHistory(Object item) {
+        if (item instanceof QAHistory qa) {
+            return qa;
+        }
+        Map<String, Object> map = (Map<String, Object>) item;
+        return new QAHistory((String) map.get("questionText"), (String) map.get("answerText"));
+    }
+
     private Interview getInterviewFromReport(Map<String, Object> reportData) {
         // This is a simplified version - in real implementation you'd fetch the Interview entity
         Interview interview = new Interview();
@@ -15,9 +15,51 @@ import java.util.Map;
 @Service
 public class PromptService {
 
+    // Bump when the evaluation prompt templates below change, so cached evaluations are not reused
+    static final int EVALUATION_PROMPT_VERSION = 2;
+
+    static final String EVALUATION_FORMAT = """
+        请严格按照以下JSON格式返回评估结果（不要包含任何其他文字）：
+        {
+            "score": <0-100的总分>,
+            "rubricLevel": "<excellent/good/average/poor>",
+            "technicalAccuracy": <0-10>,
+            "depth": <0-10>,
+            "experience": <0-10>,
+            "communication": <0-10>,
+            "strengths": ["优点1", "优点2"],
+            "improvements": ["改进建议1", "改进建议2"],
+            "followUpQuestions": ["追问1", "追问2"]
+        }
+        """;
+
+    static final String BATCH_EVALUATION_FORMAT = """
+        每个回答独立评分，不要互相影响。
+        请严格按照以下JSON格式返回评估结果（不要包含任何其他文字），每个回答对应 evaluations 中的一个对象，index 为回答编号：
+        {
+            "evaluations": [
+                {
+                    "index": <回答编号>,
+                    "score": <0-100的总分>,
+                    "rubricLevel": "<excellent/good/average/poor>",
+                    "technicalAccuracy": <0-10>,
+                    "depth": <0-10>,
+                    "experience": <0-10>,
+                    "communication": <0-10>,
+                    "strengths": ["优点1", "优点2"],
+                    "improvements": ["改进建议1", "改进建议2"],
+                    "followUpQuestions": ["追问1", "追问2"]
+                }
+            ]
+        }
+        """;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private JsonNode systemPrompts;
     private JsonNode rolePrompts;
+    // Built once, so every call sends the same bytes and the provider can reuse its prompt cache
+    private String evaluationSystemPrompt = EVALUATION_FORMAT;
+    private String batchEvaluationSystemPrompt = BATCH_EVALUATION_FORMAT;
 
     @PostConstruct
     public void loadPrompts() {
@@ -25,13 +67,18 @@ public class PromptService {
              InputStream roleIn = new ClassPathResource("prompts/role-prompts.json").getInputStream()) {
             systemPrompts = objectMapper.readTree(sysIn);
             rolePrompts = objectMapper.readTree(roleIn);
+            String evaluation = systemPrompts.path("evaluation").asText();
+            evaluationSystemPrompt = evaluation + "\n\n" + EVALUATION_FORMAT;
+            batchEvaluationSystemPrompt = evaluation + "\n\n" + BATCH_EVALUATION_FORMAT;
         } catch (IOException e) {
             System.err.println("Failed to load prompts: " + e.getMessage());
         }
     }
 
     /**
-     * Build complete system prompt for question generation
+     * Build complete system prompt for question generation. The base and role prompts come
+     * first and are the same for every candidate of a role and level, so they form a prefix the
+     * provider can cache; the candidate context follows.
      */
     public String buildSystemPrompt(String roleId, String level, Map<String, Object> candidateInfo) {
         StringBuilder prompt = new StringBuilder();
@@ -51,10 +98,17 @@ public class PromptService {
     }
 
     /**
-     * Build evaluation system prompt
+     * Build evaluation system prompt, including the JSON reply format
      */
     public String buildEvaluationSystemPrompt() {
-        return systemPrompts.path("evaluation").asText();
+        return evaluationSystemPrompt;
+    }
+
+    /**
+     * Build the system prompt for batch evaluations, including the JSON reply format
+     */
+    public String buildBatchEvaluationSystemPrompt() {
+        return batchEvaluationSystemPrompt;
     }
 
     /**
@@ -191,32 +245,46 @@ public class PromptService {
     }
 
     /**
-     * Build evaluation prompt
+     * Version of the evaluation prompts: the template version plus a hash of the evaluation
+     * system prompt, which is loaded from prompts/system-prompts.json
+     */
+    public String getEvaluationPromptVersion() {
+        return EVALUATION_PROMPT_VERSION + "-" + Integer.toHexString(buildEvaluationSystemPrompt().hashCode());
+    }
+
+    /**
+     * Build evaluation prompt. Role and level come before the question and answer, so prompts
+     * for the same role share the longest possible prefix.
      */
     public String buildEvaluationPrompt(String question, String answer, String roleId, String level) {
         return String.format("""
+            岗位：%s
+            级别：%s
+            
             请评估以下面试回答的质量：
             
             问题：%s
             
             候选人回答：%s
-            
-            岗位：%s
-            级别：%s
-            
-            请严格按照以下JSON格式返回评估结果（不要包含任何其他文字）：
-            {
-                "score": <0-100的总分>,
-                "rubricLevel": "<excellent/good/average/poor>",
-                "technicalAccuracy": <0-10>,
-                "depth": <0-10>,
-                "experience": <0-10>,
-                "communication": <0-10>,
-                "strengths": ["优点1", "优点2"],
-                "improvements": ["改进建议1", "改进建议2"],
-                "followUpQuestions": ["追问1", "追问2"]
-            }
-            """, question, answer, roleId, level);
+            """, roleId, level, question, answer);
+    }
+
+    /**
+     * Build a prompt that evaluates several answers in one request. Each answer is numbered
+     * from 1 and must come back as one object of the "evaluations" array, tagged with its index.
+     * Goes with {@link #buildBatchEvaluationSystemPrompt()}.
+     */
+    public String buildBatchEvaluationPrompt(List<String> questions, List<String> answers, String roleId, String level) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("岗位：").append(roleId).append("\n");
+        prompt.append("级别：").append(level).append("\n\n");
+        prompt.append("请分别评估以下 ").append(questions.size()).append(" 个面试回答的质量：\n\n");
+        for (int i = 0; i < questions.size(); i++) {
+            prompt.append("[").append(i + 1).append("]\n");
+            prompt.append("问题：").append(questions.get(i)).append("\n");
+            prompt.append("候选人回答：").append(answers.get(i)).append("\n\n");
+        }
+        return prompt.toString();
     }
 
     /**
@@ -2,24 +2,45 @@ package com.aiinterview.service;
 
 import com.aiinterview.dto.QAHistory;
 import com.aiinterview.dto.ResumeAnalysisResult;
+import com.aiinterview.llm.LlmPriority;
 import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewReport;
+import com.aiinterview.model.UserResume;
+import com.aiinterview.repository.InterviewReportRepository;
 import com.aiinterview.repository.InterviewRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ReportService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+    // Part of the content hash; bump when the report layout or prompt changes so stored reports are rebuilt
+    static final int REPORT_FORMAT_VERSION = 1;
+
     @Autowired
     private InterviewRepository interviewRepository;
 
+    @Autowired
+    private InterviewReportRepository interviewReportRepository;
+
     @Autowired
     private InterviewSessionService interviewSessionService;
 
@@ -32,18 +53,191 @@ public class ReportService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong storeMisses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    /**
+     * A report together with the hash of the data it was built from. A report is incomplete when
+     * the LLM feedback could not be generated; it is not stored and is built again on the next request.
+     */
+    public record VersionedReport(String contentHash, Map<String, Object> report, boolean complete) {
+
+        public VersionedReport(String contentHash, Map<String, Object> report) {
+            this(contentHash, report, true);
+        }
+
+        /**
+         * Strong ETag for the JSON report. Only complete reports may be sent with it, otherwise a
+         * revalidation would keep the client on the report without feedback.
+         */
+        public String eTag() {
+            return toETag(contentHash);
+        }
+    }
+
+    /**
+     * Quote a content hash (optionally suffixed per representation) as a strong ETag
+     */
+    public static String toETag(String contentHash) {
+        return "\"" + contentHash + "\"";
+    }
+
     /**
      * Generate interview report (JSON format)
      */
     public Map<String, Object> generateReport(String interviewId) {
-        Optional<Interview> interviewOpt = interviewRepository.findById(interviewId);
-        if (interviewOpt.isEmpty()) {
-            throw new RuntimeException("Interview not found");
-        }
+        return getReport(interviewId).report();
+    }
 
-        Interview interview = interviewOpt.get();
+    /**
+     * Get the interview report, served from the report store while the interview, its messages,
+     * their evaluations and the resume analysis are unchanged. Otherwise the report (including the
+     * LLM feedback) is generated again, and stored only if the feedback was generated.
+     */
+    public VersionedReport getReport(String interviewId) {
+        Interview interview = interviewRepository.findById(interviewId)
+            .orElseThrow(() -> new RuntimeException("Interview not found"));
         List<QAHistory> history = interviewSessionService.getChatHistory(interviewId);
+        String contentHash = contentHash(interview, history, resumeAnalysisData(interview));
+
+        Optional<InterviewReport> stored = interviewReportRepository.findById(interviewId);
+        if (stored.isPresent() && contentHash.equals(stored.get().getContentHash())) {
+            Map<String, Object> report = readStoredReport(stored.get());
+            if (report != null) {
+                storeHits.incrementAndGet();
+                return new VersionedReport(contentHash, report);
+            }
+        }
+
+        storeMisses.incrementAndGet();
+        Map<String, Object> report = buildReport(interview, history);
+        if (!report.containsKey("comprehensiveFeedback")) {
+            // Keep any stored report as it is; the next request tries the LLM again
+            logger.warn("Report for interview {} has no comprehensive feedback, not storing it", interviewId);
+            return new VersionedReport(contentHash, report, false);
+        }
+        try {
+            String json = objectMapper.writeValueAsString(report);
+            InterviewReport entry = stored.orElseGet(() -> new InterviewReport(interviewId));
+            entry.setContentHash(contentHash);
+            entry.setVersion(entry.getVersion() + 1);
+            entry.setReport(json);
+            interviewReportRepository.save(entry);
+            // Serve the stored form so a report looks the same whether or not it was just generated
+            report = objectMapper.readValue(json, Map.class);
+        } catch (Exception e) {
+            logger.warn("Failed to store report for interview {}: {}", interviewId, e.getMessage());
+        }
+        return new VersionedReport(contentHash, report);
+    }
+
+    /**
+     * Hash of the current report inputs, without reading or generating the report. Matches
+     * {@link VersionedReport#contentHash()} of the report {@link #getReport} would return.
+     */
+    public String getContentHash(String interviewId) {
+        Interview interview = interviewRepository.findById(interviewId)
+            .orElseThrow(() -> new RuntimeException("Interview not found"));
+        return contentHash(interview, interviewSessionService.getChatHistory(interviewId), resumeAnalysisData(interview));
+    }
+
+    /**
+     * Drop the stored report (used when the interview is deleted)
+     */
+    public void deleteStoredReport(String interviewId) {
+        interviewReportRepository.deleteById(interviewId);
+    }
+
+    /**
+     * Count a request answered with 304 Not Modified
+     */
+    public void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    /**
+     * Report store hit rate and conditional-request counters
+     */
+    public Map<String, Object> getStoreStats() {
+        long hits = storeHits.get();
+        long misses = storeMisses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("notModified", notModified.get());
+        return stats;
+    }
+
+    private Map<String, Object> readStoredReport(InterviewReport stored) {
+        try {
+            return objectMapper.readValue(stored.getReport(), Map.class);
+        } catch (Exception e) {
+            logger.warn("Stored report for interview {} is not valid JSON, regenerating: {}",
+                stored.getInterviewId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stored analysis JSON of the interview's resume, hashed as is; null without a resume or analysis
+     */
+    private String resumeAnalysisData(Interview interview) {
+        if (interview.getResumeId() == null) {
+            return null;
+        }
+        return resumeService.getResumeById(interview.getResumeId(), interview.getUserId())
+            .map(UserResume::getAnalysisData)
+            .orElse(null);
+    }
+
+    /**
+     * SHA-256 over everything the report is built from: the interview fields it shows, each turn
+     * with its evaluation and the resume analysis. Turn timestamps are left out, they are not
+     * stable across loads.
+     */
+    static String contentHash(Interview interview, List<QAHistory> history, String resumeAnalysisData) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        hashField(digest, REPORT_FORMAT_VERSION);
+        hashField(digest, interview.getId());
+        hashField(digest, interview.getTitle());
+        hashField(digest, interview.getStatus());
+        hashField(digest, interview.getInterviewType());
+        hashField(digest, interview.getDate());
+        hashField(digest, interview.getCreatedAt());
+        hashField(digest, interview.getResumeId());
+        hashField(digest, history.size());
+        for (QAHistory qa : history) {
+            hashField(digest, qa.getQuestionText());
+            hashField(digest, qa.getAnswerText());
+            hashField(digest, qa.getScore());
+            hashField(digest, qa.getRubricLevel());
+            hashField(digest, qa.getDetailedScores() != null ? new TreeMap<>(qa.getDetailedScores()) : null);
+            hashField(digest, qa.getStrengths());
+            hashField(digest, qa.getImprovements());
+            hashField(digest, qa.getFollowUpQuestions());
+        }
+        hashField(digest, resumeAnalysisData);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void hashField(MessageDigest digest, Object value) {
+        // Length-prefixed so adjacent fields cannot run into each other
+        byte[] bytes = value == null ? new byte[0] : value.toString().getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (value == null ? 0 : 1));
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
 
+    private Map<String, Object> buildReport(Interview interview, List<QAHistory> history) {
+        String interviewId = interview.getId();
         Map<String, Object> report = new HashMap<>();
         report.put("interviewId", interviewId);
         report.put("title", interview.getTitle());
@@ -186,7 +380,8 @@ public class ReportService {
             // Call OpenAI
             String aiResponse = openAiService.simpleChat(
                 "You are an expert technical interviewer and career coach with extensive experience analyzing candidate performance.",
-                prompt
+                prompt,
+                LlmPriority.REPORT
             ).block();
 
             if (aiResponse == null || aiResponse.trim().isEmpty()) {
@@ -1,6 +1,7 @@
 package com.aiinterview.service;
 
 import com.aiinterview.dto.ResumeAnalysisResult;
+import com.aiinterview.llm.LlmPriority;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.validator.ResumeAnalysisValidator;
 import com.aiinterview.validator.ValidationResult;
@@ -55,7 +56,8 @@ public class ResumeAnalysisService {
                 
                 String aiResponse = openAiService.simpleChat(
                     "You are an expert HR professional and technical recruiter with extensive experience analyzing resumes.",
-                    prompt
+                    prompt,
+                    LlmPriority.RESUME_ANALYSIS
                 ).block();
 
                 if (aiResponse == null || aiResponse.trim().isEmpty()) {
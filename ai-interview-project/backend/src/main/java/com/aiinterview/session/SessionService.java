@@ -1,6 +1,7 @@
 package com.aiinterview.session;
 
 import com.aiinterview.knowledge.KnowledgeBaseService;
+import com.aiinterview.knowledge.QuestionIndex;
 import com.aiinterview.knowledge.model.QuestionItem;
 import com.aiinterview.knowledge.model.RubricItem;
 import com.aiinterview.session.model.InterviewSession;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
@@ -45,17 +45,15 @@ public class SessionService {
         if (session == null) {
             return Optional.empty();
         }
-        List<QuestionItem> questions = knowledgeBaseService.getQuestions(session.getRoleId());
-        Set<String> asked = session.getHistory().stream()
-                .map(QAHistory::getQuestionId)
-                .collect(Collectors.toSet());
-        List<QuestionItem> remaining = questions.stream()
-                .filter(q -> !asked.contains(q.getId()))
-                .toList();
-        if (remaining.isEmpty()) {
-            return Optional.empty();
+        QuestionIndex index = knowledgeBaseService.getQuestionIndex(session.getRoleId());
+        BitSet asked = new BitSet(index.size());
+        for (QAHistory qa : session.getHistory()) {
+            int ordinal = index.ordinal(qa.getQuestionId());
+            if (ordinal >= 0) {
+                asked.set(ordinal);
+            }
         }
-        return Optional.of(remaining.get(random.nextInt(remaining.size())));
+        return Optional.ofNullable(index.sample(asked, random));
     }
 
     public QAHistory recordAnswer(String sessionId, QuestionItem question, String answerText) {
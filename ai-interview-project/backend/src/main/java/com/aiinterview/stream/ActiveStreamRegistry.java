@@ -0,0 +1,160 @@
+package com.aiinterview.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The streamed response in flight for each interview, so it can be cancelled.
+ *
+ * A new stream for an interview cancels the previous one (the candidate spoke again), the client
+ * can cancel explicitly, and the streams of a WebSocket session are cancelled when it
+ * disconnects. Cancelling disposes the subscription, which cancels the upstream request and
+ * releases its HTTP connection at once.
+ */
+@Component
+public class ActiveStreamRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveStreamRegistry.class);
+
+    public enum CancelReason { BARGE_IN, CLIENT, DISCONNECT }
+
+    private final Map<String, ActiveStream> streams = new ConcurrentHashMap<>();
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong bargeInCancels = new AtomicLong();
+    private final AtomicLong clientCancels = new AtomicLong();
+    private final AtomicLong disconnectCancels = new AtomicLong();
+
+    /**
+     * Register a new stream for an interview, cancelling the one still running
+     */
+    public ActiveStream start(String interviewId, String sessionId) {
+        ActiveStream stream = new ActiveStream(interviewId, sessionId);
+        started.incrementAndGet();
+        ActiveStream previous = streams.put(interviewId, stream);
+        if (previous != null && previous.cancel(CancelReason.BARGE_IN)) {
+            bargeInCancels.incrementAndGet();
+            logger.info("Cancelled previous stream for interview {}: new transcript", interviewId);
+        }
+        return stream;
+    }
+
+    /**
+     * Unregister a stream that completed or failed; a newer stream of the interview is kept
+     */
+    public void finish(ActiveStream stream) {
+        if (streams.remove(stream.getInterviewId(), stream)) {
+            finished.incrementAndGet();
+        }
+    }
+
+    /**
+     * Cancel the interview's stream on client request
+     *
+     * @return whether a stream was running
+     */
+    public boolean cancel(String interviewId) {
+        ActiveStream stream = streams.remove(interviewId);
+        if (stream != null && stream.cancel(CancelReason.CLIENT)) {
+            clientCancels.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancel every stream started from a WebSocket session
+     *
+     * @return number of streams cancelled
+     */
+    public int cancelSession(String sessionId) {
+        if (sessionId == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (ActiveStream stream : streams.values()) {
+            if (sessionId.equals(stream.getSessionId())
+                    && streams.remove(stream.getInterviewId(), stream)
+                    && stream.cancel(CancelReason.DISCONNECT)) {
+                cancelled++;
+            }
+        }
+        disconnectCancels.addAndGet(cancelled);
+        return cancelled;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        int cancelled = cancelSession(event.getSessionId());
+        if (cancelled > 0) {
+            logger.info("Cancelled {} stream(s) of disconnected session {}", cancelled, event.getSessionId());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", streams.size());
+        stats.put("started", started.get());
+        stats.put("finished", finished.get());
+        stats.put("bargeInCancels", bargeInCancels.get());
+        stats.put("clientCancels", clientCancels.get());
+        stats.put("disconnectCancels", disconnectCancels.get());
+        return stats;
+    }
+
+    /**
+     * One registered stream. The subscription may be attached after the stream was already
+     * cancelled, in which case it is disposed right away.
+     */
+    public static final class ActiveStream {
+
+        private final String interviewId;
+        private final String sessionId;
+        private final Disposable.Swap subscription = Disposables.swap();
+        private volatile CancelReason cancelReason;
+
+        private ActiveStream(String interviewId, String sessionId) {
+            this.interviewId = interviewId;
+            this.sessionId = sessionId;
+        }
+
+        public void attach(Disposable disposable) {
+            subscription.update(disposable);
+        }
+
+        private boolean cancel(CancelReason reason) {
+            if (subscription.isDisposed()) {
+                return false;
+            }
+            cancelReason = reason;
+            subscription.dispose();
+            return true;
+        }
+
+        public String getInterviewId() {
+            return interviewId;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        /**
+         * Why the stream was cancelled, or null while it was not
+         */
+        public CancelReason getCancelReason() {
+            return cancelReason;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.aiinterview.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental decoder for OpenAI chat-completion streams (Server-Sent Events).
+ *
+ * Bytes are fed as they arrive from the network. Lines split across buffers are carried over,
+ * and every event and data line in a buffer is decoded. The data payloads of a stream are fed
+ * to one non-blocking Jackson parser, straight from the buffer bytes: a JSON value that spans
+ * several {@code data:} lines simply continues on the next one, escaped quotes, {@code \n} and
+ * {@code \\uXXXX} sequences decode correctly, and Jackson's recycled buffers are reused for the
+ * whole stream instead of a parser and a String per chunk. Only
+ * {@code choices[0].delta.content} is emitted; empty deltas are dropped.
+ *
+ * One decoder per stream; instances are not thread-safe.
+ */
+public class SseDeltaDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final byte[] DATA_FIELD = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DONE = "[DONE]".getBytes(StandardCharsets.US_ASCII);
+
+    // Partial line carried over from the previous buffer
+    private byte[] line = new byte[512];
+    private int lineLength;
+    // Copy of a direct (off-heap) buffer, reused across buffers
+    private byte[] scratch = new byte[0];
+    private boolean skipLineFeed;
+    private boolean done;
+    private long malformedPayloads;
+
+    // Created on the first payload, and again after a malformed one
+    private JsonParser parser;
+    private ByteArrayFeeder feeder;
+
+    /**
+     * Decode a raw response body into content deltas. Buffers are released once decoded.
+     */
+    public static Flux<String> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            SseDeltaDecoder decoder = new SseDeltaDecoder();
+            return body
+                .concatMapIterable(buffer -> {
+                    try {
+                        return decoder.decode(buffer);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doFinally(signal -> decoder.close());
+        });
+    }
+
+    /**
+     * Decode the readable bytes of a buffer without consuming or releasing it
+     */
+    public List<String> decode(DataBuffer buffer) {
+        List<String> deltas = new ArrayList<>(4);
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer bytes = iterator.next();
+                if (bytes.hasArray()) {
+                    decode(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), deltas::add);
+                } else {
+                    int length = bytes.remaining();
+                    if (scratch.length < length) {
+                        scratch = new byte[Math.max(length, scratch.length * 2)];
+                    }
+                    bytes.get(scratch, 0, length);
+                    decode(scratch, 0, length, deltas::add);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Decode the next bytes of the stream, passing each content delta to {@code sink}
+     */
+    public void decode(byte[] bytes, int offset, int length, Consumer<String> sink) {
+        int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            byte b = bytes[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (b == '\n') {
+                    // Second half of a CRLF
+                    start = i + 1;
+                    continue;
+                }
+            }
+            if (b != '\n' && b != '\r') {
+                continue;
+            }
+            if (lineLength == 0) {
+                onLine(bytes, start, i - start, sink);
+            } else {
+                appendLine(bytes, start, i - start);
+                onLine(line, 0, lineLength, sink);
+                lineLength = 0;
+            }
+            skipLineFeed = b == '\r';
+            start = i + 1;
+        }
+        if (start < end) {
+            appendLine(bytes, start, end - start);
+        }
+    }
+
+    /**
+     * End of stream: decode an unterminated last line. A JSON value left incomplete counts as
+     * malformed.
+     */
+    public List<String> finish() {
+        List<String> deltas = new ArrayList<>(1);
+        if (lineLength > 0) {
+            onLine(line, 0, lineLength, deltas::add);
+            lineLength = 0;
+        }
+        if (parser != null) {
+            feeder.endOfInput();
+            readTokens(deltas::add);
+        }
+        return deltas;
+    }
+
+    /**
+     * Whether the {@code data: [DONE]} marker has been seen
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Data payloads that were not valid JSON and were skipped
+     */
+    public long getMalformedPayloads() {
+        return malformedPayloads;
+    }
+
+    /**
+     * Release the parser's buffers; further input starts a new parser
+     */
+    public void close() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // Nothing to release beyond the recycled buffers
+            }
+            parser = null;
+            feeder = null;
+        }
+    }
+
+    private void onLine(byte[] bytes, int offset, int length, Consumer<String> sink) {
+        // Blank lines end an event; comments and event:, id:, retry: fields carry no content
+        if (length == 0 || !startsWith(bytes, offset, length, DATA_FIELD)) {
+            return;
+        }
+        int payload = offset + DATA_FIELD.length;
+        if (payload < offset + length && bytes[payload] == ' ') {
+            payload++;
+        }
+        onData(bytes, payload, offset + length - payload, sink);
+    }
+
+    private void onData(byte[] bytes, int offset, int length, Consumer<String> sink) {
+        if (done || length == 0) {
+            return;
+        }
+        if (length == DONE.length && startsWith(bytes, offset, length, DONE)) {
+            done = true;
+            return;
+        }
+        if (parser == null) {
+            try {
+                parser = JSON.createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create JSON parser", e);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+        try {
+            feeder.feedInput(bytes, offset, offset + length);
+        } catch (IOException e) {
+            malformed();
+            return;
+        }
+        // Consumes all fed bytes, so the caller may reuse the array afterwards
+        readTokens(sink);
+    }
+
+    private void readTokens(Consumer<String> sink) {
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                if (token == JsonToken.VALUE_STRING && isDeltaContent(parser.getParsingContext())) {
+                    String delta = parser.getText();
+                    if (!delta.isEmpty()) {
+                        sink.accept(delta);
+                    }
+                } else if (token.isScalarValue() && parser.getParsingContext().inRoot()) {
+                    // A chunk must be a JSON object
+                    malformed();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            malformed();
+        }
+    }
+
+    /**
+     * Whether the current string is choices[0].delta.content of a top-level chunk
+     */
+    private static boolean isDeltaContent(JsonStreamContext context) {
+        if (!"content".equals(context.getCurrentName())) {
+            return false;
+        }
+        JsonStreamContext choice = context.getParent();
+        if (choice == null || !"delta".equals(choice.getCurrentName())) {
+            return false;
+        }
+        JsonStreamContext choices = choice.getParent();
+        if (choices == null || !choices.inArray() || choices.getCurrentIndex() != 0) {
+            return false;
+        }
+        JsonStreamContext chunk = choices.getParent();
+        return chunk != null && "choices".equals(chunk.getCurrentName())
+            && chunk.getParent() != null && chunk.getParent().inRoot();
+    }
+
+    private void malformed() {
+        malformedPayloads++;
+        // The parser cannot recover from an error; start over with the next payload
+        close();
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendLine(byte[] bytes, int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(lineLength + length, line.length * 2));
+        }
+        System.arraycopy(bytes, offset, line, lineLength, length);
+        lineLength += length;
+    }
+}
@@ -0,0 +1,124 @@
+package com.aiinterview.stream;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects the text of one streamed response.
+ *
+ * Tokens arrive on a Reactor Netty thread, while a checkpoint may be taken from another thread
+ * (cancellation, disconnect, error handling), so all access is guarded by a lock. The buffer is
+ * sized up front from the request's token limit, so it rarely has to grow. {@link #checkpoint()}
+ * returns the partial text received so far, so an interrupted stream can be persisted, and
+ * {@link #finish()} builds the final String once. If nothing arrived since the last
+ * checkpoint, that String is returned as is.
+ */
+public class StreamAccumulator {
+
+    // Generous for English (~4 chars per token); CJK text is closer to 1-2
+    static final int CHARS_PER_TOKEN = 4;
+    static final int MAX_INITIAL_CAPACITY = 16 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Released once the response is finished
+    private StringBuilder buffer;
+    private int length;
+    private int chunks;
+    private String checkpoint = "";
+    private String finalText;
+
+    public StreamAccumulator(int expectedChars) {
+        this.buffer = new StringBuilder(Math.max(16, Math.min(expectedChars, MAX_INITIAL_CAPACITY)));
+    }
+
+    /**
+     * Accumulator sized for a response of up to {@code maxTokens} tokens
+     */
+    public static StreamAccumulator forMaxTokens(int maxTokens) {
+        return new StreamAccumulator(maxTokens * CHARS_PER_TOKEN);
+    }
+
+    /**
+     * Append the next chunk. Chunks arriving after {@link #finish()} are rejected.
+     */
+    public void append(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (finalText != null) {
+                throw new IllegalStateException("Stream already finished");
+            }
+            buffer.append(chunk);
+            length += chunk.length();
+            chunks++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Text received so far. Taking a checkpoint again without new chunks returns the same String.
+     */
+    public String checkpoint() {
+        lock.lock();
+        try {
+            if (finalText != null) {
+                return finalText;
+            }
+            if (checkpoint.length() != length) {
+                checkpoint = buffer.toString();
+            }
+            return checkpoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Complete the response and return its text. Later calls return the same String.
+     */
+    public String finish() {
+        lock.lock();
+        try {
+            if (finalText == null) {
+                finalText = checkpoint.length() == length ? checkpoint : buffer.toString();
+                buffer = null;
+            }
+            return finalText;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int length() {
+        lock.lock();
+        try {
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int chunkCount() {
+        lock.lock();
+        try {
+            return chunks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return length() == 0;
+    }
+
+    public boolean isFinished() {
+        lock.lock();
+        try {
+            return finalText != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
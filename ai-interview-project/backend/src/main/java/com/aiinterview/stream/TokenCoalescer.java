@@ -0,0 +1,234 @@
+package com.aiinterview.stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces streamed LLM tokens into fewer, larger frames before they are pushed to clients.
+ *
+ * Each token would otherwise be its own STOMP frame through the broker. Tokens are buffered and
+ * flushed as one frame once {@code interview.stream.coalesce.max-chars} characters are
+ * buffered or {@code max-delay-ms} has passed since the first buffered token. The first token
+ * of a response is sent on its own, so time to first token does not change, and whatever is
+ * buffered is flushed before the stream completes or fails.
+ */
+@Component
+public class TokenCoalescer {
+
+    private final boolean enabled;
+    private final long maxDelayMillis;
+    private final int maxChars;
+    private final Scheduler timer;
+
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong maxFramesPerResponse = new AtomicLong();
+    private final AtomicLong firstTokenFlushes = new AtomicLong();
+    private final AtomicLong sizeFlushes = new AtomicLong();
+    private final AtomicLong timeFlushes = new AtomicLong();
+    private final AtomicLong finalFlushes = new AtomicLong();
+    private final AtomicLong totalFlushLatencyNanos = new AtomicLong();
+    private final AtomicLong maxFlushLatencyNanos = new AtomicLong();
+
+    @Autowired
+    public TokenCoalescer(
+            @Value("${interview.stream.coalesce.enabled:true}") boolean enabled,
+            @Value("${interview.stream.coalesce.max-delay-ms:50}") long maxDelayMillis,
+            @Value("${interview.stream.coalesce.max-chars:64}") int maxChars) {
+        this(enabled, maxDelayMillis, maxChars, Schedulers.parallel());
+    }
+
+    TokenCoalescer(boolean enabled, long maxDelayMillis, int maxChars, Scheduler timer) {
+        this.enabled = enabled;
+        this.maxDelayMillis = Math.max(1, maxDelayMillis);
+        this.maxChars = Math.max(1, maxChars);
+        this.timer = timer;
+    }
+
+    /**
+     * Coalesce one response's tokens into frames. With coalescing disabled every token is a
+     * frame, but is still counted.
+     */
+    public Flux<String> coalesce(Flux<String> tokenStream) {
+        if (!enabled) {
+            return Flux.defer(() -> {
+                AtomicLong responseFrames = new AtomicLong();
+                return tokenStream
+                    .filter(token -> !token.isEmpty())
+                    .doOnNext(token -> {
+                        tokens.incrementAndGet();
+                        frames.incrementAndGet();
+                        responseFrames.incrementAndGet();
+                    })
+                    .doOnTerminate(() -> recordResponse(responseFrames.get()));
+            });
+        }
+        return Flux.create(sink -> {
+            Response response = new Response(sink);
+            Disposable upstream = tokenStream.subscribe(response::add, response::error, response::complete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                response.cancelTimer();
+            });
+        });
+    }
+
+    private void recordResponse(long responseFrames) {
+        responses.incrementAndGet();
+        maxFramesPerResponse.accumulateAndGet(responseFrames, Math::max);
+    }
+
+    /**
+     * Frames per response, tokens per frame, flush reasons and how long tokens waited in the
+     * buffer before their frame was sent
+     */
+    public Map<String, Object> stats() {
+        long responseCount = responses.get();
+        long frameCount = frames.get();
+        long latencyFlushes = sizeFlushes.get() + timeFlushes.get() + finalFlushes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxDelayMs", maxDelayMillis);
+        stats.put("maxChars", maxChars);
+        stats.put("responses", responseCount);
+        stats.put("tokens", tokens.get());
+        stats.put("frames", frameCount);
+        stats.put("avgFramesPerResponse", responseCount == 0 ? 0.0 : (double) frameCount / responseCount);
+        stats.put("maxFramesPerResponse", maxFramesPerResponse.get());
+        stats.put("avgTokensPerFrame", frameCount == 0 ? 0.0 : (double) tokens.get() / frameCount);
+        stats.put("firstTokenFlushes", firstTokenFlushes.get());
+        stats.put("sizeFlushes", sizeFlushes.get());
+        stats.put("timeFlushes", timeFlushes.get());
+        stats.put("finalFlushes", finalFlushes.get());
+        stats.put("avgFlushLatencyMs", latencyFlushes == 0 ? 0.0
+            : TimeUnit.NANOSECONDS.toMicros(totalFlushLatencyNanos.get() / latencyFlushes) / 1000.0);
+        stats.put("maxFlushLatencyMs", TimeUnit.NANOSECONDS.toMicros(maxFlushLatencyNanos.get()) / 1000.0);
+        return stats;
+    }
+
+    /**
+     * Buffer of one response. Upstream tokens and the flush timer run on different threads,
+     * so the buffer is guarded by a lock, and frames are emitted under it to keep their order.
+     */
+    private final class Response {
+
+        private final FluxSink<String> sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final StringBuilder buffer = new StringBuilder();
+        private int bufferedTokens;
+        private long firstBufferedAt;
+        // Incremented on every flush, so a timer armed for an earlier batch does nothing
+        private long batch;
+        private Disposable pendingTimer;
+        private long responseFrames;
+        private boolean firstTokenSent;
+
+        private Response(FluxSink<String> sink) {
+            this.sink = sink;
+        }
+
+        private void add(String token) {
+            if (token.isEmpty()) {
+                return;
+            }
+            tokens.incrementAndGet();
+            lock.lock();
+            try {
+                if (!firstTokenSent) {
+                    firstTokenSent = true;
+                    firstTokenFlushes.incrementAndGet();
+                    emit(token);
+                    return;
+                }
+                if (bufferedTokens == 0) {
+                    firstBufferedAt = timer.now(TimeUnit.NANOSECONDS);
+                    long armedBatch = batch;
+                    pendingTimer = timer.schedule(() -> flushOnTimer(armedBatch), maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+                buffer.append(token);
+                bufferedTokens++;
+                if (buffer.length() >= maxChars) {
+                    sizeFlushes.incrementAndGet();
+                    flush();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void flushOnTimer(long armedBatch) {
+            lock.lock();
+            try {
+                if (armedBatch == batch && bufferedTokens > 0) {
+                    timeFlushes.incrementAndGet();
+                    flush();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void complete() {
+            finish();
+            sink.complete();
+        }
+
+        private void error(Throwable error) {
+            finish();
+            sink.error(error);
+        }
+
+        private void finish() {
+            lock.lock();
+            try {
+                if (bufferedTokens > 0) {
+                    finalFlushes.incrementAndGet();
+                    flush();
+                }
+                recordResponse(responseFrames);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds the lock
+        private void flush() {
+            cancelTimer();
+            batch++;
+            long latency = timer.now(TimeUnit.NANOSECONDS) - firstBufferedAt;
+            totalFlushLatencyNanos.addAndGet(latency);
+            maxFlushLatencyNanos.accumulateAndGet(latency, Math::max);
+            String frame = buffer.toString();
+            buffer.setLength(0);
+            bufferedTokens = 0;
+            emit(frame);
+        }
+
+        private void emit(String frame) {
+            frames.incrementAndGet();
+            responseFrames++;
+            sink.next(frame);
+        }
+
+        private void cancelTimer() {
+            Disposable current = pendingTimer;
+            if (current != null) {
+                current.dispose();
+                pendingTimer = null;
+            }
+        }
+    }
+}
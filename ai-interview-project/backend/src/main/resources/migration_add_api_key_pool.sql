@@ -0,0 +1,14 @@
+-- ============================================
+-- Migration: Allow several active API keys per service
+-- Date: 2026-10-17
+-- Description: Requests are balanced over all active keys of a service;
+--              each key may point at its own endpoint and carry a weight
+-- ============================================
+
+ALTER TABLE `api_key_config`
+  DROP INDEX `uk_service_active`,
+  ADD KEY `idx_service_active` (`service_name`, `is_active`),
+  ADD COLUMN `base_url` varchar(500) DEFAULT NULL COMMENT '接口地址，为空时使用 openai.api.url' AFTER `is_active`,
+  ADD COLUMN `weight` int DEFAULT '1' COMMENT '负载均衡权重' AFTER `base_url`;
+
+COMMIT;
@@ -0,0 +1,30 @@
+-- ============================================
+-- Migration: Add interview_completion_job table
+-- Date: 2026-10-17
+-- Description: Background jobs that evaluate answers and generate the report
+--              after an interview ends; unfinished jobs resume on restart
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS `interview_completion_job` (
+  `id` varchar(36) NOT NULL COMMENT '任务ID',
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `user_id` bigint DEFAULT NULL COMMENT '用户ID',
+  `status` varchar(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING/RUNNING/COMPLETED/FAILED',
+  `active_interview_id` varchar(36) GENERATED ALWAYS AS (CASE WHEN `status` IN ('PENDING', 'RUNNING') THEN `interview_id` END) VIRTUAL COMMENT '进行中任务的面试ID（唯一，每个面试最多一个进行中的任务）',
+  `stage` varchar(20) NOT NULL DEFAULT 'QUEUED' COMMENT '阶段：QUEUED/EVALUATING/REPORTING/DONE',
+  `progress` int NOT NULL DEFAULT 0 COMMENT '进度（0-100）',
+  `total_answers` int NOT NULL DEFAULT 0 COMMENT '待评估回答数',
+  `evaluated_answers` int NOT NULL DEFAULT 0 COMMENT '已评估回答数',
+  `attempts` int NOT NULL DEFAULT 0 COMMENT '执行次数',
+  `error` text COMMENT '失败原因',
+  `report` longtext COMMENT '生成的报告JSON',
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `completed_at` timestamp NULL DEFAULT NULL COMMENT '完成时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_completion_job_active_interview` (`active_interview_id`),
+  INDEX `idx_completion_job_interview` (`interview_id`),
+  INDEX `idx_completion_job_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+COMMIT;
@@ -0,0 +1,17 @@
+-- ============================================
+-- Migration: Add interview_report table
+-- Date: 2026-10-17
+-- Description: Stored interview reports keyed by a hash of the interview,
+--              its messages and evaluations; reused until that data changes
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS `interview_report` (
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `content_hash` varchar(64) NOT NULL COMMENT '报告输入数据的SHA-256（同时作为ETag）',
+  `version` int NOT NULL DEFAULT 0 COMMENT '报告生成次数',
+  `report` longtext NOT NULL COMMENT '报告JSON',
+  `generated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '生成时间',
+  PRIMARY KEY (`interview_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+COMMIT;
@@ -0,0 +1,16 @@
+-- ============================================
+-- Migration: Add interview_summary table
+-- Date: 2026-10-17
+-- Description: Rolling summary of early interview turns, sent instead of
+--              turns that no longer fit the prompt token budget
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS `interview_summary` (
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `summary` text COMMENT '较早轮次的对话摘要',
+  `covered_turns` int NOT NULL DEFAULT 0 COMMENT '摘要覆盖的轮次数',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`interview_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+COMMIT;
@@ -67,10 +67,12 @@ CREATE TABLE `api_key_config` (
   `service_name` varchar(50) NOT NULL COMMENT '服务名称，如 openai',
   `api_key` varchar(500) NOT NULL COMMENT 'API密钥',
   `is_active` tinyint(1) DEFAULT '1' COMMENT '是否激活',
+  `base_url` varchar(500) DEFAULT NULL COMMENT '接口地址，为空时使用 openai.api.url',
+  `weight` int DEFAULT '1' COMMENT '负载均衡权重',
   `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
-  UNIQUE KEY `uk_service_active` (`service_name`, `is_active`)
+  KEY `idx_service_active` (`service_name`, `is_active`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Interview Message table (for conversation history persistence)
@@ -87,6 +89,51 @@ CREATE TABLE `interview_message` (
   INDEX `idx_created_at` (`created_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Interview Summary table (rolling summary of early turns, used to trim prompts)
+DROP TABLE IF EXISTS `interview_summary`;
+CREATE TABLE `interview_summary` (
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `summary` text COMMENT '较早轮次的对话摘要',
+  `covered_turns` int NOT NULL DEFAULT 0 COMMENT '摘要覆盖的轮次数',
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`interview_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Interview Completion Job table (background evaluation and report generation after an interview ends)
+DROP TABLE IF EXISTS `interview_completion_job`;
+CREATE TABLE `interview_completion_job` (
+  `id` varchar(36) NOT NULL COMMENT '任务ID',
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `user_id` bigint DEFAULT NULL COMMENT '用户ID',
+  `status` varchar(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING/RUNNING/COMPLETED/FAILED',
+  `active_interview_id` varchar(36) GENERATED ALWAYS AS (CASE WHEN `status` IN ('PENDING', 'RUNNING') THEN `interview_id` END) VIRTUAL COMMENT '进行中任务的面试ID（唯一，每个面试最多一个进行中的任务）',
+  `stage` varchar(20) NOT NULL DEFAULT 'QUEUED' COMMENT '阶段：QUEUED/EVALUATING/REPORTING/DONE',
+  `progress` int NOT NULL DEFAULT 0 COMMENT '进度（0-100）',
+  `total_answers` int NOT NULL DEFAULT 0 COMMENT '待评估回答数',
+  `evaluated_answers` int NOT NULL DEFAULT 0 COMMENT '已评估回答数',
+  `attempts` int NOT NULL DEFAULT 0 COMMENT '执行次数',
+  `error` text COMMENT '失败原因',
+  `report` longtext COMMENT '生成的报告JSON',
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `completed_at` timestamp NULL DEFAULT NULL COMMENT '完成时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_completion_job_active_interview` (`active_interview_id`),
+  INDEX `idx_completion_job_interview` (`interview_id`),
+  INDEX `idx_completion_job_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Interview Report table (last generated report, rebuilt when its input hash changes)
+DROP TABLE IF EXISTS `interview_report`;
+CREATE TABLE `interview_report` (
+  `interview_id` varchar(36) NOT NULL COMMENT '面试ID',
+  `content_hash` varchar(64) NOT NULL COMMENT '报告输入数据的SHA-256（同时作为ETag）',
+  `version` int NOT NULL DEFAULT 0 COMMENT '报告生成次数',
+  `report` longtext NOT NULL COMMENT '报告JSON',
+  `generated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '生成时间',
+  PRIMARY KEY (`interview_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Subscription Plan table
 DROP TABLE IF EXISTS `subscription_plan`;
 CREATE TABLE `subscription_plan` (
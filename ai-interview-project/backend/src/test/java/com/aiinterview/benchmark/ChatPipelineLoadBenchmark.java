@@ -0,0 +1,176 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.cache.RedisHistoryStore;
+import com.aiinterview.cache.SessionHistoryCache;
+import com.aiinterview.context.ContextWindowBuilder;
+import com.aiinterview.context.ConversationSummarizer;
+import com.aiinterview.context.ConversationSummaryWorker;
+import com.aiinterview.context.PromptTokenMetrics;
+import com.aiinterview.context.SystemPromptCache;
+import com.aiinterview.dto.ChatRequest;
+import com.aiinterview.knowledge.KnowledgeBaseService;
+import com.aiinterview.model.Candidate;
+import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewMessage;
+import com.aiinterview.repository.CandidateRepository;
+import com.aiinterview.repository.InterviewMessageRepository;
+import com.aiinterview.repository.InterviewRepository;
+import com.aiinterview.repository.InterviewSummaryRepository;
+import com.aiinterview.service.InterviewSessionService;
+import com.aiinterview.service.OpenAiService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 200 concurrent chats through {@link InterviewSessionService#generatePersonalizedResponse}.
+ *
+ * Each chat subscribes on a 4-thread "event loop" (standing in for the Netty loop), does four
+ * blocking repository calls of {@value #DB_LATENCY_MS} ms (interview, candidate, history, summary)
+ * plus one save, and waits {@value #LLM_LATENCY_MS} ms for the model. {@code event-loop} runs the
+ * blocking work on the loop itself, as before; {@code bounded} moves it to the bounded chat scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(200)
+@Fork(1)
+public class ChatPipelineLoadBenchmark {
+
+    private static final long DB_LATENCY_MS = 2;
+    private static final long LLM_LATENCY_MS = 50;
+
+    @Param({"event-loop", "bounded"})
+    public String pipeline;
+
+    private Scheduler eventLoop;
+    private Scheduler modelScheduler;
+    private Scheduler chatScheduler;
+    private InterviewSessionService service;
+    private ChatRequest request;
+    private final AtomicLong interviewCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLoop = Schedulers.newParallel("event-loop", 4);
+        modelScheduler = Schedulers.newParallel("model", 4);
+        chatScheduler = "bounded".equals(pipeline)
+            ? Schedulers.newBoundedElastic(10, 10_000, "chat-blocking")
+            : eventLoop;
+
+        InterviewRepository interviewRepository = stub(InterviewRepository.class);
+        when(interviewRepository.findById(anyString())).thenAnswer(invocation -> {
+            sleep(DB_LATENCY_MS);
+            Interview interview = new Interview();
+            interview.setId(invocation.getArgument(0));
+            interview.setCandidateId(1);
+            interview.setTitle("Backend Java Developer");
+            interview.setLanguage("English");
+            interview.setTechStack("Java, Spring Boot");
+            interview.setDate(LocalDate.now());
+            interview.setStatus("In Progress");
+            return Optional.of(interview);
+        });
+
+        CandidateRepository candidateRepository = stub(CandidateRepository.class);
+        when(candidateRepository.findById(anyInt())).thenAnswer(invocation -> {
+            sleep(DB_LATENCY_MS);
+            Candidate candidate = new Candidate();
+            candidate.setId(1);
+            candidate.setName("Load Test Candidate");
+            candidate.setExperienceYears(5);
+            return Optional.of(candidate);
+        });
+
+        InterviewMessageRepository messageRepository = stub(InterviewMessageRepository.class);
+        when(messageRepository.findByInterviewIdOrderByCreatedAtAsc(anyString())).thenAnswer(invocation -> {
+            sleep(DB_LATENCY_MS);
+            return Collections.emptyList();
+        });
+        when(messageRepository.save(any(InterviewMessage.class))).thenAnswer(invocation -> {
+            sleep(DB_LATENCY_MS);
+            return invocation.getArgument(0);
+        });
+
+        InterviewSummaryRepository summaryRepository = stub(InterviewSummaryRepository.class);
+        when(summaryRepository.findById(anyString())).thenAnswer(invocation -> {
+            sleep(DB_LATENCY_MS);
+            return Optional.empty();
+        });
+
+        OpenAiService openAiService = stub(OpenAiService.class);
+        when(openAiService.chat(anyList())).thenAnswer(invocation ->
+            Mono.delay(Duration.ofMillis(LLM_LATENCY_MS), modelScheduler).thenReturn("Tell me more about that."));
+
+        ConversationSummarizer summarizer = new ConversationSummarizer();
+        service = new InterviewSessionService();
+        ReflectionTestUtils.setField(service, "interviewRepository", interviewRepository);
+        ReflectionTestUtils.setField(service, "candidateRepository", candidateRepository);
+        ReflectionTestUtils.setField(service, "interviewMessageRepository", messageRepository);
+        ReflectionTestUtils.setField(service, "interviewSummaryRepository", summaryRepository);
+        ReflectionTestUtils.setField(service, "openAiService", openAiService);
+        ReflectionTestUtils.setField(service, "knowledgeBaseService", stub(KnowledgeBaseService.class));
+        ReflectionTestUtils.setField(service, "redisHistoryStore", new RedisHistoryStore());
+        ReflectionTestUtils.setField(service, "historyCache", new SessionHistoryCache(1000, 64L << 20, 120, 30));
+        ReflectionTestUtils.setField(service, "contextWindowBuilder",
+            new ContextWindowBuilder("gpt-3.5-turbo", 1000, 6000, 10, 400, ""));
+        ReflectionTestUtils.setField(service, "conversationSummarizer", summarizer);
+        ReflectionTestUtils.setField(service, "promptTokenMetrics", new PromptTokenMetrics());
+        ReflectionTestUtils.setField(service, "summaryWorker",
+            new ConversationSummaryWorker(messageRepository, summaryRepository, summarizer, 4, 6, 100, 400));
+        ReflectionTestUtils.setField(service, "systemPromptCache", new SystemPromptCache(1000, 30));
+        ReflectionTestUtils.setField(service, "chatBlockingScheduler", chatScheduler);
+
+        request = new ChatRequest();
+        request.setUserMessage("I used a token bucket per client and kept the counters in Redis.");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (chatScheduler != eventLoop) {
+            chatScheduler.dispose();
+        }
+        eventLoop.dispose();
+        modelScheduler.dispose();
+    }
+
+    @Benchmark
+    public String chat() {
+        // A fresh interview per chat, so every call misses the prompt and history caches
+        String interviewId = "load-" + interviewCounter.incrementAndGet();
+        return Mono.defer(() -> service.generatePersonalizedResponse(interviewId, request))
+            .subscribeOn(eventLoop)
+            .block();
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.context.TokenEstimator;
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.evaluation.EvaluationCache;
+import com.aiinterview.evaluation.EvaluationScheduler;
+import com.aiinterview.model.EvaluationResult;
+import com.aiinterview.model.openai.OpenAiMessage;
+import com.aiinterview.service.LlmEvaluationService;
+import com.aiinterview.service.OpenAiService;
+import com.aiinterview.service.PromptService;
+import com.aiinterview.validator.EvaluationResultValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Evaluating the {@value #ANSWERS} answers of one interview, as the completion job does: the
+ * answers are planned into batches, each batch is one task on the shared
+ * {@link EvaluationScheduler}, and the interview is done when every batch has returned.
+ *
+ * The model is simulated with {@value #FIRST_TOKEN_MS} ms to first token, plus
+ * {@value #PREFILL_MS_PER_1K_TOKENS} ms per 1k prompt tokens and {@value #REPLY_MS_PER_ITEM} ms
+ * of decoding per evaluation in the reply (about 1/20 of a hosted model's wall time).
+ * {@code batchSize} 1 is the per-answer mode; {@code slots} is how many scheduler slots the
+ * interview gets, 8 when the scheduler is idle and fewer when other users are evaluating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class EvaluationBatchingBenchmark {
+
+    private static final int ANSWERS = 10;
+    private static final long FIRST_TOKEN_MS = 40;
+    private static final long PREFILL_MS_PER_1K_TOKENS = 10;
+    private static final long REPLY_MS_PER_ITEM = 120;
+
+    private static final String ITEM = """
+        {"score": 80.0, "rubricLevel": "good", "technicalAccuracy": 8, "depth": 8, "experience": 8,
+         "communication": 8, "strengths": ["Explains the core idea clearly"],
+         "improvements": ["Add an example from a real project"],
+         "followUpQuestions": ["How would this behave under heavy load?"]}
+        """;
+
+    @Param({"1", "3", "5"})
+    public int batchSize;
+
+    @Param({"2", "8"})
+    public int slots;
+
+    private Scheduler modelScheduler;
+    private LlmEvaluationService evaluationService;
+    private EvaluationScheduler evaluationScheduler;
+    private List<QAHistory> answers;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong interviews = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelScheduler = Schedulers.newParallel("model", 4);
+
+        PromptService promptService = new PromptService();
+        promptService.loadPrompts();
+
+        OpenAiService openAiService = mock(OpenAiService.class, withSettings().stubOnly());
+        when(openAiService.chat(anyList(), any(), any())).thenAnswer(invocation -> {
+            List<OpenAiMessage> messages = invocation.getArgument(0);
+            int tokens = TokenEstimator.estimate(messages);
+            String prompt = messages.get(messages.size() - 1).getContent();
+            int items = Math.max(1, countItems(prompt));
+            requests.incrementAndGet();
+            promptTokens.addAndGet(tokens);
+            long latency = FIRST_TOKEN_MS + PREFILL_MS_PER_1K_TOKENS * tokens / 1000 + REPLY_MS_PER_ITEM * items;
+            return Mono.delay(Duration.ofMillis(latency), modelScheduler).thenReturn(reply(items));
+        });
+
+        evaluationService = new LlmEvaluationService();
+        ReflectionTestUtils.setField(evaluationService, "openAiService", openAiService);
+        ReflectionTestUtils.setField(evaluationService, "promptService", promptService);
+        ReflectionTestUtils.setField(evaluationService, "evaluationResultValidator", new EvaluationResultValidator());
+        // Disabled: every interview repeats the same answers, which would all be cache hits
+        ReflectionTestUtils.setField(evaluationService, "evaluationCache", new EvaluationCache(false, 0.0, 1, 1, 1, "bench"));
+        ReflectionTestUtils.setField(evaluationService, "batchEnabled", batchSize > 1);
+        ReflectionTestUtils.setField(evaluationService, "batchMaxItems", batchSize);
+        ReflectionTestUtils.setField(evaluationService, "batchMaxTokens", 8000);
+
+        evaluationScheduler = new EvaluationScheduler(slots, 200, 20);
+
+        answers = new ArrayList<>();
+        for (int i = 0; i < ANSWERS; i++) {
+            answers.add(new QAHistory(
+                "Question " + i + ": how does a HashMap handle collisions, and what changed in Java 8?",
+                "Answer " + i + ": entries that hash to the same bucket are chained in a linked list; "
+                    + "since Java 8 a bucket with more than eight entries becomes a red-black tree, "
+                    + "so lookups stay O(log n) even with many collisions. Resizing doubles the table."));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long count = Math.max(1, interviews.get());
+        System.out.printf("%nbatchSize=%d: %.1f requests and %,d prompt tokens per interview; batching %s%n",
+            batchSize, (double) requests.get() / count, promptTokens.get() / count,
+            evaluationService.getBatchStats());
+        modelScheduler.dispose();
+    }
+
+    /**
+     * Time until all answers of one interview are evaluated
+     */
+    @Benchmark
+    public int evaluateInterview() {
+        List<Mono<List<EvaluationResult>>> batches = evaluationService.planBatches(answers, "backend_java", "mid")
+            .stream()
+            .map(batch -> evaluationScheduler.submit("bench", () -> evaluationService.evaluateBatch(batch, "backend_java", "mid")))
+            .toList();
+        int evaluated = Flux.merge(batches).map(List::size).reduce(0, Integer::sum).block();
+        if (evaluated != ANSWERS) {
+            throw new IllegalStateException("Only " + evaluated + " answers were evaluated");
+        }
+        interviews.incrementAndGet();
+        return evaluated;
+    }
+
+    private static int countItems(String prompt) {
+        int items = 0;
+        for (int i = 1; prompt.contains("[" + i + "]\n"); i++) {
+            items++;
+        }
+        return items;
+    }
+
+    private static String reply(int items) {
+        if (items == 1) {
+            return ITEM;
+        }
+        StringBuilder reply = new StringBuilder("{\"evaluations\": [");
+        for (int i = 1; i <= items; i++) {
+            if (i > 1) {
+                reply.append(',');
+            }
+            reply.append(ITEM.replaceFirst("\\{", "{\"index\": " + i + ", "));
+        }
+        return reply.append("]}").toString();
+    }
+}
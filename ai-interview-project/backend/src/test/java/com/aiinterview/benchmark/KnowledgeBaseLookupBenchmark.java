@@ -0,0 +1,141 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.knowledge.QuestionIndex;
+import com.aiinterview.knowledge.model.QuestionItem;
+import com.aiinterview.knowledge.model.RubricItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question and rubric lookups against a role with {@code questions} generated questions
+ * (200 skills, one or two per question; 3 difficulties; 4 types) and 20 rubrics per role
+ * over 50 roles.
+ *
+ * {@code legacy*} is what {@code KnowledgeBaseService} and {@code pickNextQuestion} used to do:
+ * copy the role's questions that are not in the asked-id set and pick one at random, filter the
+ * list with a stream for a query, and scan the role's rubric list for the skill. The
+ * {@code indexed*} variants use {@link QuestionIndex} and a (roleId, skill) map. Each pick
+ * happens at turn {@code askedQuestions} of an interview.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KnowledgeBaseLookupBenchmark {
+
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final String[] TYPES = {"technical", "behavioral", "system_design", "coding"};
+
+    private record RubricKey(String roleId, String skill) {
+    }
+
+    @Param({"1000", "100000"})
+    public int questions;
+
+    @Param({"30"})
+    public int askedQuestions;
+
+    private List<QuestionItem> questionList;
+    private QuestionIndex index;
+    private Set<String> askedIds;
+    private BitSet askedOrdinals;
+    private Map<String, List<RubricItem>> rubricsByRole;
+    private Map<RubricKey, RubricItem> rubrics;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        questionList = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            QuestionItem item = new QuestionItem();
+            item.setId("q_" + i);
+            item.setText("Generated question " + i);
+            item.setType(TYPES[i % TYPES.length]);
+            item.setDifficulty(DIFFICULTIES[(i / 4) % DIFFICULTIES.length]);
+            item.setSkills(i % 3 == 0 ? List.of("skill_" + (i % 200), "skill_" + ((i + 7) % 200))
+                : List.of("skill_" + (i % 200)));
+            questionList.add(item);
+        }
+        index = new QuestionIndex(questionList);
+
+        rubricsByRole = new HashMap<>();
+        rubrics = new HashMap<>();
+        for (int role = 0; role < 50; role++) {
+            for (int skill = 0; skill < 20; skill++) {
+                RubricItem rubric = new RubricItem();
+                rubric.setRoleId("role_" + role);
+                rubric.setSkill("skill_" + skill);
+                rubric.setLevels(Map.of("excellent", "...", "average", "...", "poor", "..."));
+                rubricsByRole.computeIfAbsent(rubric.getRoleId(), k -> new ArrayList<>()).add(rubric);
+                rubrics.putIfAbsent(new RubricKey(rubric.getRoleId(), rubric.getSkill()), rubric);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void askSome() {
+        Set<String> ids = new HashSet<>();
+        askedOrdinals = new BitSet(questions);
+        while (ids.size() < askedQuestions) {
+            int ordinal = random.nextInt(questions);
+            ids.add(questionList.get(ordinal).getId());
+            askedOrdinals.set(ordinal);
+        }
+        askedIds = ids;
+    }
+
+    @Benchmark
+    public QuestionItem legacyPick() {
+        List<QuestionItem> remaining = questionList.stream()
+            .filter(q -> !askedIds.contains(q.getId()))
+            .toList();
+        return remaining.isEmpty() ? null : remaining.get(random.nextInt(remaining.size()));
+    }
+
+    @Benchmark
+    public QuestionItem indexedPick() {
+        QuestionItem picked = index.sample(askedOrdinals, random);
+        // Keep the asked count fixed across invocations
+        askedOrdinals.clear(index.ordinal(picked.getId()));
+        return picked;
+    }
+
+    @Benchmark
+    public List<QuestionItem> legacyFind() {
+        return questionList.stream()
+            .filter(q -> q.getSkills().contains("skill_42"))
+            .filter(q -> "medium".equals(q.getDifficulty()))
+            .filter(q -> "technical".equals(q.getType()))
+            .toList();
+    }
+
+    @Benchmark
+    public List<QuestionItem> indexedFind() {
+        return index.find("skill_42", "medium", "technical");
+    }
+
+    @Benchmark
+    public Optional<RubricItem> legacyRubric() {
+        return rubricsByRole.getOrDefault("role_17", List.of())
+            .stream()
+            .filter(r -> "skill_19".equals(r.getSkill()))
+            .findFirst();
+    }
+
+    @Benchmark
+    public Optional<RubricItem> indexedRubric() {
+        return Optional.ofNullable(rubrics.get(new RubricKey("role_17", "skill_19")));
+    }
+}
@@ -0,0 +1,143 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.config.RedisConfig;
+import com.aiinterview.dto.QAHistory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 50-turn interview session against an embedded Redis, comparing the legacy layout
+ * (whole history rewritten with SET after every turn and every evaluation) with the
+ * list layout (RPUSH per turn, LSET per evaluation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisHistoryLayoutBenchmark {
+
+    private static final int TURNS = 50;
+    private static final int EVALUATED_TURNS = 10;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private List<QAHistory> turns;
+    private long sessionCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        // JSON values, as before the compact serializer, so only the key layout differs
+        redisTemplate = RedisConfig.createTemplate(connectionFactory, RedisConfig.jsonSerializer());
+
+        turns = new ArrayList<>();
+        for (int i = 0; i < TURNS; i++) {
+            turns.add(new QAHistory(
+                "Question " + i + ": explain how you would design a rate limiter for a public API.",
+                "Answer " + i + ": I would start with a token bucket per client, keep counters in Redis, "
+                    + "and fall back to a local limiter when Redis is unavailable. ".repeat(3)));
+        }
+
+        printPayloadSizes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void legacyValueLayout() {
+        String key = "bench:legacy:" + (sessionCounter++);
+        List<QAHistory> history = new ArrayList<>();
+        for (QAHistory qa : turns) {
+            history.add(qa);
+            redisTemplate.opsForValue().set(key, history, Duration.ofHours(1));
+        }
+        for (int i = TURNS - EVALUATED_TURNS; i < TURNS; i++) {
+            history.set(i, evaluated(turns.get(i)));
+            redisTemplate.opsForValue().set(key, history, Duration.ofHours(1));
+        }
+        redisTemplate.delete(key);
+    }
+
+    @Benchmark
+    public void listLayout() {
+        String key = "bench:list:" + (sessionCounter++);
+        redisTemplate.opsForList().rightPush(key, turns.get(0));
+        redisTemplate.expire(key, Duration.ofHours(1));
+        for (int i = 1; i < TURNS; i++) {
+            redisTemplate.opsForList().rightPushIfPresent(key, turns.get(i));
+            redisTemplate.expire(key, Duration.ofHours(1));
+        }
+        for (int i = TURNS - EVALUATED_TURNS; i < TURNS; i++) {
+            redisTemplate.opsForList().set(key, i, evaluated(turns.get(i)));
+        }
+        redisTemplate.delete(key);
+    }
+
+    /**
+     * Bytes sent to Redis for one session under each layout (payload only, excluding protocol framing)
+     */
+    private void printPayloadSizes() {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+
+        long legacyBytes = 0;
+        List<QAHistory> history = new ArrayList<>();
+        for (QAHistory qa : turns) {
+            history.add(qa);
+            legacyBytes += serializer.serialize(history).length;
+        }
+        for (int i = TURNS - EVALUATED_TURNS; i < TURNS; i++) {
+            history.set(i, evaluated(turns.get(i)));
+            legacyBytes += serializer.serialize(history).length;
+        }
+
+        long listBytes = 0;
+        for (QAHistory qa : turns) {
+            listBytes += serializer.serialize(qa).length;
+        }
+        for (int i = TURNS - EVALUATED_TURNS; i < TURNS; i++) {
+            listBytes += serializer.serialize(evaluated(turns.get(i))).length;
+        }
+
+        System.out.printf("%nPayload bytes per %d-turn session: legacy=%d, list=%d%n", TURNS, legacyBytes, listBytes);
+    }
+
+    private static QAHistory evaluated(QAHistory source) {
+        QAHistory qa = new QAHistory(source.getQuestionText(), source.getAnswerText(), "good", 78.0);
+        qa.setDetailedScores(Map.of("technicalAccuracy", 8, "depth", 7, "experience", 8, "communication", 8));
+        qa.setStrengths(List.of("Clear structure", "Mentions failure modes"));
+        qa.setImprovements(List.of("Quantify limits"));
+        qa.setFollowUpQuestions(List.of("How would you shard the counters?"));
+        return qa;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.config.RedisConfig;
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.EvaluationResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of cached values under the JSON serializer and the compact binary
+ * serializer (with and without Deflate), for a typical evaluated turn, a long answer and
+ * an evaluation result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+    @Param({"json", "compact", "compact-deflate"})
+    public String format;
+
+    @Param({"turn", "long-turn", "evaluation"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = switch (format) {
+            case "json" -> RedisConfig.valueSerializer("json", 0);
+            case "compact" -> RedisConfig.valueSerializer("compact", 0);
+            default -> RedisConfig.valueSerializer("compact", 512);
+        };
+        value = switch (payload) {
+            case "turn" -> turn(1);
+            case "long-turn" -> turn(12);
+            default -> evaluation();
+        };
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s/%s: %d bytes%n", format, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static QAHistory turn(int answerSentences) {
+        QAHistory qa = new QAHistory(
+            "Explain how you would design a rate limiter for a public API.",
+            "I would start with a token bucket per client, keep counters in Redis, "
+                + "and fall back to a local limiter when Redis is unavailable. ".repeat(answerSentences),
+            "good", 78.0);
+        qa.setDetailedScores(Map.of("technicalAccuracy", 8, "depth", 7, "experience", 8, "communication", 8));
+        qa.setStrengths(List.of("Clear structure", "Mentions failure modes"));
+        qa.setImprovements(List.of("Quantify limits"));
+        qa.setFollowUpQuestions(List.of("How would you shard the counters?"));
+        return qa;
+    }
+
+    private static EvaluationResult evaluation() {
+        EvaluationResult result = new EvaluationResult();
+        result.setScore(78.0);
+        result.setRubricLevel("good");
+        result.setTechnicalAccuracy(8);
+        result.setDepth(7);
+        result.setExperience(8);
+        result.setCommunication(8);
+        result.setStrengths(List.of("Clear structure", "Mentions failure modes"));
+        result.setImprovements(List.of("Quantify limits"));
+        result.setFollowUpQuestions(List.of("How would you shard the counters?"));
+        return result;
+    }
+}
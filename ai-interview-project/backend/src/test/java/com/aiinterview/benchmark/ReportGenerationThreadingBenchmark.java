@@ -0,0 +1,138 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.Interview;
+import com.aiinterview.repository.InterviewRepository;
+import com.aiinterview.service.InterviewSessionService;
+import com.aiinterview.service.OpenAiService;
+import com.aiinterview.service.ReportService;
+import com.aiinterview.service.ResumeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * A burst of {@value #CONCURRENT_REPORTS} concurrent {@link ReportService#generateReport} calls, each
+ * blocking on a {@value #LLM_LATENCY_MS} ms model call, as Tomcat would run them.
+ *
+ * {@code platform} runs them on a 200-thread pool (Tomcat's default {@code max-threads});
+ * {@code virtual} runs each on its own virtual thread, as with {@code spring.threads.virtual.enabled=true}.
+ * The virtual variant needs a Java 21 JVM: run with {@code JAVA_HOME} pointing at a JDK 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ReportGenerationThreadingBenchmark {
+
+    private static final int CONCURRENT_REPORTS = 1000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long LLM_LATENCY_MS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private Executor requestExecutor;
+    private ExecutorService platformThreads;
+    private Scheduler modelScheduler;
+    private ReportService reportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(threads)) {
+            // Throws UnsupportedOperationException before Java 21
+            requestExecutor = new VirtualThreadTaskExecutor("report-");
+        } else {
+            platformThreads = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+            requestExecutor = platformThreads;
+        }
+        modelScheduler = Schedulers.newParallel("model", 4);
+
+        Interview interview = new Interview();
+        interview.setId("report-bench");
+        interview.setTitle("Backend Java Developer");
+        interview.setInterviewType("technical");
+        interview.setStatus("Completed");
+        interview.setDate(LocalDate.now());
+
+        List<QAHistory> history = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            history.add(new QAHistory("Question " + i + ": how would you design a rate limiter?",
+                "Answer " + i + ": a token bucket per client with counters in Redis."));
+        }
+
+        InterviewRepository interviewRepository = stub(InterviewRepository.class);
+        when(interviewRepository.findById(anyString())).thenReturn(Optional.of(interview));
+        InterviewSessionService sessionService = stub(InterviewSessionService.class);
+        when(sessionService.getChatHistory(anyString())).thenReturn(history);
+        when(sessionService.buildFeedback(anyString(), anyString())).thenReturn("Solid answers overall.");
+        OpenAiService openAiService = stub(OpenAiService.class);
+        when(openAiService.simpleChat(anyString(), anyString(), any())).thenAnswer(invocation ->
+            Mono.delay(Duration.ofMillis(LLM_LATENCY_MS), modelScheduler)
+                .thenReturn("{\"overallAssessment\": {\"score\": 80}, \"nextSteps\": [\"practice\"]}"));
+
+        reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "interviewRepository", interviewRepository);
+        ReflectionTestUtils.setField(reportService, "interviewSessionService", sessionService);
+        ReflectionTestUtils.setField(reportService, "openAiService", openAiService);
+        ReflectionTestUtils.setField(reportService, "resumeService", stub(ResumeService.class));
+        ReflectionTestUtils.setField(reportService, "objectMapper", new ObjectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (platformThreads != null) {
+            platformThreads.shutdownNow();
+        }
+        modelScheduler.dispose();
+    }
+
+    /**
+     * Time until all reports of the burst are generated
+     */
+    @Benchmark
+    public int reportBurst() {
+        List<CompletableFuture<Map<String, Object>>> reports = new ArrayList<>(CONCURRENT_REPORTS);
+        for (int i = 0; i < CONCURRENT_REPORTS; i++) {
+            reports.add(CompletableFuture.supplyAsync(() -> reportService.generateReport("report-bench"), requestExecutor));
+        }
+        int generated = 0;
+        for (CompletableFuture<Map<String, Object>> report : reports) {
+            if (report.join().containsKey("comprehensiveFeedback")) {
+                generated++;
+            }
+        }
+        if (generated != CONCURRENT_REPORTS) {
+            throw new IllegalStateException("Only " + generated + " reports had model feedback");
+        }
+        return generated;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,110 @@
+package com.aiinterview.benchmark;
+
+import com.aiinterview.stream.SseDeltaDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one streamed chat completion, from the captures in {@code src/test/resources/streams}
+ * (OpenAI chunk format, one delta per event: 168 mostly one- to three-character CJK deltas, and
+ * 188 English deltas around a code snippet with escaped quotes and backslashes).
+ *
+ * {@code legacy} is the string slicing {@code OpenAiService.parseStreamChunk} used to do on
+ * each line, after decoding the capture to a String and splitting it into lines. {@code decoder} feeds the raw bytes
+ * to {@link SseDeltaDecoder} in {@code bufferSize} slices, as they come off the socket, and
+ * {@code decoderFlux} does the same through the {@code Flux<DataBuffer>} path of
+ * {@code chatStream}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseDecodingBenchmark {
+
+    @Param({"zh", "en"})
+    public String capture;
+
+    // 64: worst case; 1460: one TCP segment; 8192: a typical read
+    @Param({"64", "1460", "8192"})
+    public int bufferSize;
+
+    private byte[] bytes;
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/streams/chat-completion-" + capture + ".sse")) {
+            bytes = in.readAllBytes();
+        }
+        List<String> legacy = new ArrayList<>();
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            String delta = legacyParse(line);
+            if (!delta.isEmpty()) {
+                legacy.add(delta);
+            }
+        }
+        List<String> decoded = new ArrayList<>();
+        new SseDeltaDecoder().decode(bytes, 0, bytes.length, decoded::add);
+        System.out.printf("%n%s: %,d bytes, %d deltas; legacy returns %d deltas and %s text%n",
+            capture, bytes.length, decoded.size(), legacy.size(),
+            String.join("", legacy).equals(String.join("", decoded)) ? "the same" : "different");
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            blackhole.consume(legacyParse(line));
+        }
+    }
+
+    @Benchmark
+    public void decoder(Blackhole blackhole) {
+        SseDeltaDecoder decoder = new SseDeltaDecoder();
+        for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+            decoder.decode(bytes, offset, Math.min(bufferSize, bytes.length - offset), blackhole::consume);
+        }
+        blackhole.consume(decoder.finish());
+    }
+
+    @Benchmark
+    public Long decoderFlux() {
+        List<DataBuffer> buffers = new ArrayList<>(bytes.length / bufferSize + 1);
+        for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+            buffers.add(bufferFactory.wrap(ByteBuffer.wrap(bytes, offset, Math.min(bufferSize, bytes.length - offset))));
+        }
+        return SseDeltaDecoder.decode(Flux.fromIterable(buffers)).count().block();
+    }
+
+    /**
+     * The pre-decoder OpenAiService.parseStreamChunk
+     */
+    private static String legacyParse(String chunk) {
+        if (chunk.startsWith("data: ")) {
+            String jsonData = chunk.substring(6).trim();
+            if (jsonData.equals("[DONE]")) {
+                return "";
+            }
+            if (jsonData.contains("\"content\":\"")) {
+                int start = jsonData.indexOf("\"content\":\"") + 11;
+                int end = jsonData.indexOf("\"", start);
+                if (end > start) {
+                    return jsonData.substring(start, end);
+                }
+            }
+        }
+        return "";
+    }
+}
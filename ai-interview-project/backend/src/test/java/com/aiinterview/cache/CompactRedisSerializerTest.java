@@ -0,0 +1,158 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.config.RedisConfig;
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.EvaluationResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = RedisConfig.jsonSerializer();
+    private final RedisSerializer<Object> compact = RedisConfig.valueSerializer("compact", 0);
+
+    private static QAHistory evaluatedTurn() {
+        QAHistory qa = new QAHistory("How would you design a rate limiter?", "Token bucket per client — 令牌桶", "good", 78.5);
+        qa.setDetailedScores(Map.of("technicalAccuracy", 8, "depth", -1));
+        qa.setStrengths(List.of("Clear structure"));
+        qa.setImprovements(new ArrayList<>());
+        qa.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456789));
+        return qa;
+    }
+
+    @Test
+    void testQAHistory_RoundTripsAllFields() {
+        QAHistory original = evaluatedTurn();
+
+        byte[] bytes = compact.serialize(original);
+        QAHistory copy = (QAHistory) compact.deserialize(bytes);
+
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0] & 0xFF);
+        assertEquals(original.getQuestionText(), copy.getQuestionText());
+        assertEquals(original.getAnswerText(), copy.getAnswerText());
+        assertEquals("good", copy.getRubricLevel());
+        assertEquals(78.5, copy.getScore());
+        assertEquals(original.getDetailedScores(), copy.getDetailedScores());
+        assertEquals(List.of("Clear structure"), copy.getStrengths());
+        assertEquals(List.of(), copy.getImprovements());
+        assertNull(copy.getFollowUpQuestions());
+        assertEquals(original.getCreatedAt(), copy.getCreatedAt());
+    }
+
+    @Test
+    void testQAHistory_NullFieldsStayNull() {
+        QAHistory original = new QAHistory();
+        original.setCreatedAt(null);
+
+        QAHistory copy = (QAHistory) compact.deserialize(compact.serialize(original));
+
+        assertNull(copy.getQuestionText());
+        assertNull(copy.getScore());
+        assertNull(copy.getDetailedScores());
+        assertNull(copy.getCreatedAt());
+    }
+
+    @Test
+    void testEvaluationResult_RoundTrip() {
+        EvaluationResult original = new EvaluationResult();
+        original.setScore(91.0);
+        original.setRubricLevel("excellent");
+        original.setTechnicalAccuracy(9);
+        original.setDepth(null);
+        original.setCommunication(10);
+        original.setFollowUpQuestions(List.of("Why?"));
+
+        EvaluationResult copy = (EvaluationResult) compact.deserialize(compact.serialize(original));
+
+        assertEquals(91.0, copy.getScore());
+        assertEquals("excellent", copy.getRubricLevel());
+        assertEquals(9, copy.getTechnicalAccuracy());
+        assertNull(copy.getDepth());
+        assertEquals(10, copy.getCommunication());
+        assertEquals(List.of("Why?"), copy.getFollowUpQuestions());
+    }
+
+    @Test
+    void testCompactIsSmallerThanJson() {
+        QAHistory qa = evaluatedTurn();
+
+        assertTrue(compact.serialize(qa).length * 2 < json.serialize(qa).length);
+    }
+
+    @Test
+    void testLargeValues_AreDeflatedAboveThreshold() {
+        RedisSerializer<Object> compressing = RedisConfig.valueSerializer("compact", 256);
+        QAHistory qa = evaluatedTurn();
+        qa.setAnswerText("I would keep counters in Redis and fall back to a local limiter. ".repeat(20));
+
+        byte[] plain = compact.serialize(qa);
+        byte[] deflated = compressing.serialize(qa);
+
+        assertEquals(CompactRedisSerializer.FLAG_DEFLATED, deflated[3]);
+        assertTrue(deflated.length < plain.length / 2);
+        assertEquals(qa.getAnswerText(), ((QAHistory) compressing.deserialize(deflated)).getAnswerText());
+        // Compressed values stay readable with compression turned off
+        assertEquals(qa.getAnswerText(), ((QAHistory) compact.deserialize(deflated)).getAnswerText());
+    }
+
+    @Test
+    void testSmallValues_AreNotDeflated() {
+        RedisSerializer<Object> compressing = RedisConfig.valueSerializer("compact", 4096);
+
+        assertEquals(0, compressing.serialize(evaluatedTurn())[3]);
+    }
+
+    @Test
+    void testJsonValues_StillReadable() {
+        QAHistory qa = evaluatedTurn();
+        List<QAHistory> legacyList = new ArrayList<>(List.of(qa));
+
+        Object fromJson = compact.deserialize(json.serialize(qa));
+        Object listFromJson = compact.deserialize(json.serialize(legacyList));
+
+        assertEquals(qa.getAnswerText(), ((QAHistory) fromJson).getAnswerText());
+        assertEquals(1, ((List<?>) listFromJson).size());
+    }
+
+    @Test
+    void testUnregisteredTypes_UseJson() {
+        Map<String, Object> value = new HashMap<>(Map.of("k", "v"));
+        byte[] bytes = compact.serialize(value);
+
+        assertEquals('{', bytes[0]);
+        assertEquals(value, compact.deserialize(bytes));
+    }
+
+    @Test
+    void testUnknownSchemaVersion_Rejected() {
+        byte[] bytes = compact.serialize(evaluatedTurn());
+        bytes[2] = 99;
+
+        assertThrows(SerializationException.class, () -> compact.deserialize(bytes));
+    }
+
+    @Test
+    void testTruncatedValue_Rejected() {
+        byte[] bytes = compact.serialize(evaluatedTurn());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        assertThrows(SerializationException.class, () -> compact.deserialize(truncated));
+    }
+
+    @Test
+    void testDuplicateTypeId_Rejected() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(json, 0).register(CompactCodecs.qaHistory());
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.register(CompactCodecs.qaHistory()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.aiinterview.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryWriteTrackerTest {
+
+    private final HistoryWriteTracker tracker = new HistoryWriteTracker();
+
+    @Test
+    void testStamp_UnchangedWithoutWrites() {
+        long stamp = tracker.stamp("iv-1");
+
+        assertTrue(tracker.unchanged("iv-1", stamp));
+    }
+
+    @Test
+    void testStamp_WriteStartedAfterStamp_IsChanged() {
+        long stamp = tracker.stamp("iv-1");
+        tracker.beginWrite("iv-1");
+
+        assertFalse(tracker.unchanged("iv-1", stamp));
+    }
+
+    @Test
+    void testStamp_WriteFinishedAfterStamp_IsChanged() {
+        tracker.beginWrite("iv-1");
+        long stamp = tracker.stamp("iv-1");
+        tracker.endWrite("iv-1");
+
+        assertEquals(HistoryWriteTracker.WRITING, stamp);
+        assertFalse(tracker.unchanged("iv-1", stamp));
+    }
+
+    @Test
+    void testStamp_WriteFinishedBeforeStamp_IsUnchanged() {
+        tracker.beginWrite("iv-1");
+        tracker.endWrite("iv-1");
+        long stamp = tracker.stamp("iv-1");
+
+        assertTrue(tracker.unchanged("iv-1", stamp));
+    }
+}
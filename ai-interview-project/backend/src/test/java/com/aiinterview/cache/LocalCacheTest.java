@@ -0,0 +1,139 @@
+package com.aiinterview.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCacheTest {
+
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+    }
+
+    private LocalCache<String, String> newCache(int maxEntries, long maxWeight, Duration ttl, Duration idle) {
+        return new LocalCache<>("test", maxEntries, maxWeight, ttl, idle,
+            (k, v) -> v.length(), clock::get);
+    }
+
+    @Test
+    void testGetAndPut_CountsHitsAndMisses() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ZERO, Duration.ZERO);
+
+        assertNull(cache.get("a"));
+        cache.put("a", "value");
+        assertEquals("value", cache.get("a"));
+
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testSizeCap_EvictsLeastRecentlyUsed() {
+        LocalCache<String, String> cache = newCache(2, 0, Duration.ZERO, Duration.ZERO);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void testWeightCap_EvictsUntilWithinLimit() {
+        LocalCache<String, String> cache = newCache(100, 10, Duration.ZERO, Duration.ZERO);
+
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("a"));
+        assertEquals(8L, cache.weightedSize());
+    }
+
+    @Test
+    void testOversizedValue_IsNotRetained() {
+        LocalCache<String, String> cache = newCache(100, 3, Duration.ZERO, Duration.ZERO);
+
+        cache.put("a", "too long");
+
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.weightedSize());
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ofNanos(100), Duration.ZERO);
+
+        cache.put("a", "1");
+        clock.addAndGet(50);
+        assertEquals("1", cache.get("a"));
+        clock.addAndGet(50);
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+
+    @Test
+    void testExpireAfterAccess_ResetOnRead() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ZERO, Duration.ofNanos(100));
+
+        cache.put("a", "1");
+        clock.addAndGet(80);
+        assertEquals("1", cache.get("a"));
+        clock.addAndGet(80);
+        assertEquals("1", cache.get("a"));
+        clock.addAndGet(100);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void testCleanUp_RemovesExpiredEntries() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ofNanos(100), Duration.ZERO);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        clock.addAndGet(100);
+        cache.cleanUp();
+
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.weightedSize());
+    }
+
+    @Test
+    void testInvalidate() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ZERO, Duration.ZERO);
+
+        cache.put("a", "1");
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.stats().get("invalidations"));
+    }
+
+    @Test
+    void testComputeIfAbsent_LoadsOnceUntilExpired() {
+        LocalCache<String, String> cache = newCache(10, 0, Duration.ofNanos(100), Duration.ZERO);
+        AtomicLong loads = new AtomicLong();
+
+        assertEquals("v1", cache.computeIfAbsent("a", k -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.computeIfAbsent("a", k -> "v" + loads.incrementAndGet()));
+        clock.addAndGet(100);
+        assertEquals("v2", cache.computeIfAbsent("a", k -> "v" + loads.incrementAndGet()));
+
+        assertEquals(2L, loads.get());
+        assertEquals(2L, cache.weightedSize());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(2L, cache.stats().get("misses"));
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+}
@@ -0,0 +1,224 @@
+package com.aiinterview.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionResponseCacheTest {
+
+    private static final String SYSTEM = "You are interviewing a mid-level Java backend engineer.";
+    private static final String PROMPT = "The interview is starting. Ask the first question about the candidate's "
+        + "recent projects and the technologies they used.";
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    // nextDouble() decides bypasses, nextInt() picks the variant
+    private double nextDouble = 0.5;
+    private int nextInt;
+
+    private final RandomGenerator random = new RandomGenerator() {
+        @Override
+        public long nextLong() {
+            return 0;
+        }
+
+        @Override
+        public double nextDouble() {
+            return nextDouble;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return Math.min(nextInt, bound - 1);
+        }
+    };
+
+    // 2 variants, 10% bypass, 60 min TTL, 1 min for frontend_react, never for hr
+    private final QuestionResponseCache cache = new QuestionResponseCache(true, 2, 2, 0.1, 0.9, 3, 10, 3,
+        Duration.ofMinutes(60), Map.of("frontend_react", Duration.ofMinutes(1), "hr", Duration.ZERO), clock, random);
+
+    private QuestionResponseCache.Key key(String prompt) {
+        return cache.key("backend_java", "mid", 0, SYSTEM, prompt);
+    }
+
+    private void fill(String prompt, String... questions) {
+        for (String question : questions) {
+            QuestionResponseCache.Key key = key(prompt);
+            assertNull(cache.get(key));
+            cache.put(key, question);
+        }
+    }
+
+    @Test
+    void testGet_ServesAfterCollectingVariants() {
+        fill(PROMPT, "Q1");
+        assertEquals(1L, cache.stats().get("misses"));
+
+        fill(PROMPT, "Q2");
+        assertEquals(1L, cache.stats().get("collecting"));
+
+        nextInt = 1;
+        assertEquals("Q2", cache.get(key(PROMPT)));
+        nextInt = 0;
+        // Case and whitespace do not matter
+        assertEquals("Q1", cache.get(key("  " + PROMPT.toUpperCase().replace(" ", "\n  "))));
+        assertEquals(2L, cache.stats().get("exactHits"));
+    }
+
+    @Test
+    void testGet_NearDuplicatePromptMatches() {
+        fill(PROMPT, "Q1", "Q2");
+
+        QuestionResponseCache.Key similar = key(PROMPT.replace("projects", "project"));
+        assertNotNull(cache.get(similar));
+        assertEquals(1L, cache.stats().get("nearHits"));
+
+        assertNull(cache.get(key("Ask about the candidate's experience with distributed transactions.")));
+    }
+
+    @Test
+    void testGet_PromptsWithAnswersOnlyMatchExactly() {
+        // From turn 1 on the prompt carries the candidate's answers
+        String answered = PROMPT + " Candidate answered: I split the monolith into services.";
+        for (String question : new String[] {"Q1", "Q2"}) {
+            QuestionResponseCache.Key key = cache.key("backend_java", "mid", 1, SYSTEM, answered);
+            assertNull(cache.get(key));
+            cache.put(key, question);
+        }
+
+        assertNull(cache.get(cache.key("backend_java", "mid", 1, SYSTEM, answered.replace("services", "service"))));
+        assertNotNull(cache.get(cache.key("backend_java", "mid", 1, SYSTEM, answered)));
+        // An opening prompt is not near-matched against an answered one either
+        assertNull(cache.get(key(answered.replace("services", "service"))));
+        assertEquals(0L, cache.stats().get("nearHits"));
+    }
+
+    @Test
+    void testGet_ScopedByRoleLevelAndSystemPrompt() {
+        fill(PROMPT, "Q1", "Q2");
+
+        assertNull(cache.get(cache.key("backend_java", "senior", 0, SYSTEM, PROMPT)));
+        assertNull(cache.get(cache.key("backend_java", "mid", 0, SYSTEM + " Focus on Spring.", PROMPT)));
+        assertNotNull(cache.get(key(PROMPT)));
+    }
+
+    @Test
+    void testGet_BypassReplacesVariant() {
+        fill(PROMPT, "Q1", "Q2");
+
+        nextDouble = 0.05;
+        QuestionResponseCache.Key bypassed = key(PROMPT);
+        assertNull(cache.get(bypassed));
+        nextInt = 0;
+        cache.put(bypassed, "Q3");
+
+        nextDouble = 0.5;
+        assertEquals("Q3", cache.get(key(PROMPT)));
+        assertEquals(1L, cache.stats().get("bypassed"));
+        assertEquals(1L, cache.stats().get("replaced"));
+    }
+
+    @Test
+    void testGet_RoleTtlExpiresEntries() {
+        QuestionResponseCache.Key first = cache.key("frontend_react", "mid", 0, SYSTEM, PROMPT);
+        cache.get(first);
+        cache.put(first, "Q1");
+        QuestionResponseCache.Key second = cache.key("frontend_react", "mid", 0, SYSTEM, PROMPT);
+        cache.get(second);
+        cache.put(second, "Q2");
+        assertNotNull(cache.get(cache.key("frontend_react", "mid", 0, SYSTEM, PROMPT)));
+
+        now = now.plusSeconds(61);
+        assertNull(cache.get(cache.key("frontend_react", "mid", 0, SYSTEM, PROMPT)));
+    }
+
+    @Test
+    void testKey_UncacheableRequests() {
+        assertNull(cache.key("backend_java", "mid", 3, SYSTEM, PROMPT));
+        assertNull(cache.key("hr", "mid", 0, SYSTEM, PROMPT));
+        assertNotNull(cache.key("backend_java", "mid", 2, SYSTEM, PROMPT));
+        assertEquals(2L, cache.stats().get("uncacheable"));
+    }
+
+    @Test
+    void testPut_EvictsOldestPromptInScope() {
+        fill("prompt one about databases", "A1", "A2");
+        fill("prompt two about networking", "B1", "B2");
+        fill("prompt three about caching", "C1", "C2");
+        fill("prompt four about security", "D1", "D2");
+
+        assertNull(cache.get(key("prompt one about databases")));
+        assertNotNull(cache.get(key("prompt four about security")));
+    }
+
+    @Test
+    void testJaccard() {
+        assertEquals(1.0, QuestionResponseCache.jaccard(new int[] {1, 2, 3}, new int[] {1, 2, 3}));
+        assertEquals(0.5, QuestionResponseCache.jaccard(new int[] {1, 2, 3}, new int[] {2, 3, 4}));
+        assertEquals(0.0, QuestionResponseCache.jaccard(new int[] {1}, new int[] {2}));
+    }
+
+    @Test
+    void testConcurrentFirstPuts_SameScopeKeepAllPrompts() throws Exception {
+        // Thread-local random, as in production
+        QuestionResponseCache shared = new QuestionResponseCache(true, 2, 1, 0.0, 0.9, 3, 10, 100,
+            Duration.ofMinutes(60), Map.of(), clock, null);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> puts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String prompt = "Prompt number " + i + " about a completely different topic " + "xyz".repeat(i);
+                puts.add(executor.submit(() -> {
+                    start.await();
+                    shared.put(shared.key("backend_java", "mid", 0, SYSTEM, prompt), "Question for " + prompt);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> put : puts) {
+                put.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < threads; i++) {
+            String prompt = "Prompt number " + i + " about a completely different topic " + "xyz".repeat(i);
+            assertEquals("Question for " + prompt, shared.get(shared.key("backend_java", "mid", 0, SYSTEM, prompt)));
+        }
+    }
+}
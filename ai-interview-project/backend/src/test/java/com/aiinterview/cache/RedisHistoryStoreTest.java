@@ -0,0 +1,182 @@
+package com.aiinterview.cache;
+
+import com.aiinterview.dto.QAHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisHistoryStoreTest {
+
+    private static final String LIST_KEY = "session:history:list:iv-1";
+    private static final String LEGACY_KEY = "session:history:iv-1";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ListOperations<String, Object> listOperations;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private RedisHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisHistoryStore(redisTemplate);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testLoad_ReadsListWithLrange() {
+        when(listOperations.range(LIST_KEY, 0, -1))
+            .thenReturn(List.of(new QAHistory("Q1", "A1"), new QAHistory("Q2", "A2")));
+
+        List<QAHistory> history = store.load("iv-1");
+
+        assertEquals(2, history.size());
+        assertEquals("Q2", history.get(1).getQuestionText());
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    void testLoad_MigratesLegacyValue() {
+        when(listOperations.range(LIST_KEY, 0, -1)).thenReturn(List.of());
+        when(valueOperations.get(LEGACY_KEY))
+            .thenReturn(new ArrayList<>(List.of(new QAHistory("Q1", "A1"))));
+
+        RedisOperations<String, Object> operations = runSessionCallbacksOn();
+
+        List<QAHistory> history = store.load("iv-1");
+
+        assertEquals(1, history.size());
+        verify(operations).exec();
+        verify(listOperations).rightPushAll(eq(LIST_KEY), anyCollection());
+        verify(redisTemplate).delete(LEGACY_KEY);
+    }
+
+    @Test
+    void testLoad_MissingEverywhere_ReturnsNull() {
+        when(listOperations.range(LIST_KEY, 0, -1)).thenReturn(List.of());
+        when(valueOperations.get(LEGACY_KEY)).thenReturn(null);
+
+        assertNull(store.load("iv-1"));
+    }
+
+    @Test
+    void testRange_SlicesMigratedLegacyValue() {
+        when(listOperations.range(LIST_KEY, -2, -1)).thenReturn(List.of());
+        when(valueOperations.get(LEGACY_KEY)).thenReturn(new ArrayList<>(List.of(
+            new QAHistory("Q1", "A1"), new QAHistory("Q2", "A2"), new QAHistory("Q3", "A3"))));
+
+        List<QAHistory> recent = store.range("iv-1", -2, -1);
+
+        assertEquals(2, recent.size());
+        assertEquals("Q2", recent.get(0).getQuestionText());
+    }
+
+    @Test
+    void testSaveAll_ReplacesListInOneTransaction() {
+        RedisOperations<String, Object> operations = runSessionCallbacksOn();
+
+        store.saveAll("iv-1", List.of(new QAHistory("Q1", "A1"), new QAHistory("Q2", "A2")));
+
+        InOrder inOrder = inOrder(operations, listOperations);
+        inOrder.verify(operations).multi();
+        inOrder.verify(operations).delete(LIST_KEY);
+        inOrder.verify(listOperations).rightPushAll(eq(LIST_KEY), argThat((List<Object> values) -> values.size() == 2));
+        inOrder.verify(operations).expire(LIST_KEY, RedisHistoryStore.TTL);
+        inOrder.verify(operations).exec();
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void testAppend_UsesRpushxSoPartialHistoryIsNeverCreated() {
+        QAHistory qa = new QAHistory("Q", "A");
+        when(listOperations.rightPushIfPresent(LIST_KEY, qa)).thenReturn(0L);
+
+        assertFalse(store.append("iv-1", qa));
+        verify(listOperations, never()).rightPush(anyString(), any());
+        verify(redisTemplate, never()).expire(anyString(), any());
+    }
+
+    @Test
+    void testAppend_ExistingList() {
+        QAHistory qa = new QAHistory("Q", "A");
+        when(listOperations.rightPushIfPresent(LIST_KEY, qa)).thenReturn(3L);
+
+        assertTrue(store.append("iv-1", qa));
+        verify(redisTemplate).expire(LIST_KEY, RedisHistoryStore.TTL);
+    }
+
+    @Test
+    void testReplace_InvalidIndexDropsKeys() {
+        QAHistory qa = new QAHistory("Q", "A");
+        when(listOperations.index(LIST_KEY, 5)).thenReturn(null);
+
+        store.replace("iv-1", 5, qa);
+
+        verify(listOperations, never()).set(anyString(), anyLong(), any());
+        verify(redisTemplate).delete(List.of(LIST_KEY, LEGACY_KEY));
+    }
+
+    @Test
+    void testReplace_MatchingTurnIsOverwritten() {
+        QAHistory evaluated = new QAHistory("Q2", "A2");
+        evaluated.setScore(80.0);
+        when(listOperations.index(LIST_KEY, 1)).thenReturn(new QAHistory("Q2", "A2"));
+
+        store.replace("iv-1", 1, evaluated);
+
+        verify(listOperations).set(LIST_KEY, 1, evaluated);
+        verify(redisTemplate, never()).delete(anyList());
+    }
+
+    @Test
+    void testReplace_DifferentTurnAtIndexDropsKeys() {
+        // Turns reached Redis in a different order than the database
+        when(listOperations.index(LIST_KEY, 1)).thenReturn(new QAHistory("Q3", "A3"));
+
+        store.replace("iv-1", 1, new QAHistory("Q2", "A2"));
+
+        verify(listOperations, never()).set(anyString(), anyLong(), any());
+        verify(redisTemplate).delete(List.of(LIST_KEY, LEGACY_KEY));
+    }
+
+    @Test
+    void testRedisUnavailable_FallsBackQuietly() {
+        when(redisTemplate.opsForList()).thenThrow(new RuntimeException("connection refused"));
+
+        assertNull(store.load("iv-1"));
+        assertFalse(store.append("iv-1", new QAHistory("Q", "A")));
+    }
+
+    /**
+     * Run session callbacks (MULTI/EXEC blocks) against a mocked connection-bound template
+     */
+    @SuppressWarnings("unchecked")
+    private RedisOperations<String, Object> runSessionCallbacksOn() {
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        lenient().when(operations.opsForList()).thenReturn(listOperations);
+        when(redisTemplate.execute(any(SessionCallback.class)))
+            .thenAnswer(invocation -> invocation.<SessionCallback<?>>getArgument(0).execute(operations));
+        return operations;
+    }
+}
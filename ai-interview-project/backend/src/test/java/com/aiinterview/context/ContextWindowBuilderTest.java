@@ -0,0 +1,84 @@
+package com.aiinterview.context;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.model.openai.OpenAiMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextWindowBuilderTest {
+
+    private static final String WINDOWS = "gpt-3.5-turbo:16385,gpt-4:8192,gpt-4o:128000";
+
+    private static ContextWindowBuilder builder(int maxPromptTokens, int maxTurns, int summaryMaxTokens) {
+        return new ContextWindowBuilder("gpt-3.5-turbo", 1000, maxPromptTokens, maxTurns, summaryMaxTokens, WINDOWS);
+    }
+
+    private static List<QAHistory> turns(int count, int answerWords) {
+        List<QAHistory> history = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            history.add(new QAHistory("question " + i, "word ".repeat(answerWords)));
+        }
+        return history;
+    }
+
+    @Test
+    void testEstimate_LatinAndCjk() {
+        assertEquals(0, TokenEstimator.estimate((String) null));
+        assertEquals(3, TokenEstimator.estimate("hello world!"));
+        assertEquals(4, TokenEstimator.estimate("你好世界"));
+        assertEquals(TokenEstimator.MESSAGE_OVERHEAD + 3, TokenEstimator.estimate(new OpenAiMessage("user", "hello world!")));
+    }
+
+    @Test
+    void testBudget_PerModel() {
+        ContextWindowBuilder uncapped = new ContextWindowBuilder("gpt-4", 1000, 0, 10, 400, WINDOWS);
+
+        assertEquals(7192, uncapped.budgetFor("gpt-4"));
+        assertEquals(127000, uncapped.budgetFor("gpt-4o-2024-08-06"));
+        assertEquals(ContextWindowBuilder.DEFAULT_WINDOW_TOKENS - 1000, uncapped.budgetFor("unknown-model"));
+        assertEquals(6000, builder(6000, 10, 400).budgetFor("gpt-4o"));
+    }
+
+    @Test
+    void testTurnsToDrop_EverythingFits() {
+        assertEquals(0, builder(6000, 10, 400).turnsToDrop("system", false, turns(5, 10), "hi"));
+    }
+
+    @Test
+    void testTurnsToDrop_CapsTurnCount() {
+        assertEquals(4, builder(6000, 10, 400).turnsToDrop("system", false, turns(14, 10), "hi"));
+    }
+
+    @Test
+    void testTurnsToDrop_DropsOldestUntilWithinBudget() {
+        ContextWindowBuilder builder = builder(2000, 100, 200);
+        List<QAHistory> history = turns(20, 400);
+
+        int drop = builder.turnsToDrop("system", false, history, "hi");
+        ContextWindow window = builder.build("system", "s".repeat(800), history.subList(drop, history.size()), "hi", drop);
+
+        assertTrue(drop > 0 && drop < 20);
+        assertTrue(window.getPromptTokens() <= 2000, "prompt tokens " + window.getPromptTokens());
+        assertEquals(20 - drop, window.getIncludedTurns());
+    }
+
+    @Test
+    void testBuild_OrdersSystemSummaryTurnsAndMessage() {
+        ContextWindow window = builder(6000, 10, 400)
+            .build("system", "earlier turns", turns(2, 3), "current", 3);
+        List<OpenAiMessage> messages = window.getMessages();
+
+        assertEquals(7, messages.size());
+        assertEquals("system", messages.get(1).getRole());
+        assertTrue(messages.get(1).getContent().endsWith("earlier turns"));
+        assertEquals("question 0", messages.get(2).getContent());
+        assertEquals("current", messages.get(6).getContent());
+        assertTrue(window.isSummarized());
+        assertEquals(3, window.getDroppedTurns());
+        assertEquals(TokenEstimator.estimate(messages), window.getPromptTokens());
+    }
+}
@@ -0,0 +1,51 @@
+package com.aiinterview.context;
+
+import com.aiinterview.dto.QAHistory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationSummarizerTest {
+
+    private final ConversationSummarizer summarizer = new ConversationSummarizer();
+
+    @Test
+    void testExtend_OneLinePerTurn() {
+        String summary = summarizer.extend(null, List.of(
+            new QAHistory("I built a payment system", "What was the hardest part?"),
+            new QAHistory("Idempotency", "How did you handle retries?")), 400);
+
+        String[] lines = summary.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("I built a payment system"));
+        assertTrue(lines[1].contains("How did you handle retries?"));
+    }
+
+    @Test
+    void testExtend_AppendsToExistingSummary() {
+        String summary = summarizer.extend("- earlier", List.of(new QAHistory("Q", "A")), 400);
+
+        assertTrue(summary.startsWith("- earlier\n"));
+    }
+
+    @Test
+    void testExtend_DropsOldestLinesOverLimit() {
+        String summary = null;
+        for (int i = 0; i < 30; i++) {
+            summary = summarizer.extend(summary, List.of(new QAHistory("answer number " + i, "follow-up " + i)), 60);
+        }
+
+        assertTrue(TokenEstimator.estimate(summary) <= 60);
+        assertTrue(summary.contains("answer number 29"));
+        assertFalse(summary.contains("answer number 0 "));
+    }
+
+    @Test
+    void testExcerpt_TruncatesLongText() {
+        String excerpt = ConversationSummarizer.excerpt("x".repeat(500));
+
+        assertEquals(ConversationSummarizer.MAX_EXCERPT_CHARS + 1, excerpt.length());
+    }
+}
@@ -0,0 +1,138 @@
+package com.aiinterview.context;
+
+import com.aiinterview.model.InterviewMessage;
+import com.aiinterview.model.InterviewSummary;
+import com.aiinterview.repository.InterviewMessageRepository;
+import com.aiinterview.repository.InterviewSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationSummaryWorkerTest {
+
+    private static final String ID = "iv-1";
+
+    @Mock
+    private InterviewMessageRepository interviewMessageRepository;
+
+    @Mock
+    private InterviewSummaryRepository interviewSummaryRepository;
+
+    private ConversationSummaryWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ConversationSummaryWorker(interviewMessageRepository, interviewSummaryRepository,
+            new ConversationSummarizer(), 3, 2, 1, 400);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    private static List<InterviewMessage> messages(int count) {
+        List<InterviewMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            InterviewMessage msg = new InterviewMessage();
+            msg.setUserMessage("answer " + i);
+            msg.setAiMessage("question " + (i + 1));
+            messages.add(msg);
+        }
+        return messages;
+    }
+
+    @Test
+    void testRefresh_FoldsAllButRecentTurns() {
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(ID)).thenReturn(messages(7));
+        when(interviewSummaryRepository.findById(ID)).thenReturn(Optional.empty());
+
+        worker.refresh(ID);
+
+        ArgumentCaptor<InterviewSummary> saved = ArgumentCaptor.forClass(InterviewSummary.class);
+        verify(interviewSummaryRepository).save(saved.capture());
+        assertEquals(5, saved.getValue().getCoveredTurns());
+        assertTrue(saved.getValue().getSummary().contains("answer 4"));
+        assertFalse(saved.getValue().getSummary().contains("answer 5"));
+    }
+
+    @Test
+    void testRefresh_OnlyAddsNewTurnsToExistingSummary() {
+        InterviewSummary existing = new InterviewSummary(ID);
+        existing.setSummary("- earlier");
+        existing.setCoveredTurns(4);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(ID)).thenReturn(messages(7));
+        when(interviewSummaryRepository.findById(ID)).thenReturn(Optional.of(existing));
+
+        worker.refresh(ID);
+
+        assertEquals(5, existing.getCoveredTurns());
+        assertTrue(existing.getSummary().startsWith("- earlier\n"));
+        assertFalse(existing.getSummary().contains("answer 3"));
+    }
+
+    @Test
+    void testRefresh_NothingNewToFold() {
+        InterviewSummary existing = new InterviewSummary(ID);
+        existing.setCoveredTurns(5);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(ID)).thenReturn(messages(7));
+        when(interviewSummaryRepository.findById(ID)).thenReturn(Optional.of(existing));
+
+        worker.refresh(ID);
+
+        verify(interviewSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    void testOnTurnSaved_QueuesEveryNTurns() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(ID)).thenAnswer(invocation -> {
+            done.countDown();
+            return messages(0);
+        });
+
+        worker.onTurnSaved(ID);
+        worker.onTurnSaved(ID);
+        verifyNoInteractions(interviewMessageRepository);
+        worker.onTurnSaved(ID);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1L, worker.stats().get("submitted"));
+    }
+
+    @Test
+    void testRequestRefresh_BoundedQueueRejectsInsteadOfBlocking() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return messages(0);
+        });
+
+        worker.requestRefresh("running");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        worker.requestRefresh("queued");
+        worker.requestRefresh("queued");
+        worker.requestRefresh("overflow");
+        release.countDown();
+
+        assertEquals(1L, worker.stats().get("deduplicated"));
+        assertEquals(1L, worker.stats().get("rejected"));
+    }
+}
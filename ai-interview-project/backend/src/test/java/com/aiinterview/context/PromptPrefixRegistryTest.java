@@ -0,0 +1,94 @@
+package com.aiinterview.context;
+
+import com.aiinterview.model.openai.OpenAiMessage;
+import com.aiinterview.model.openai.OpenAiResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptPrefixRegistryTest {
+
+    // 407 characters, about 100 tokens
+    private static final String SYSTEM = "You are a technical interviewer. ".repeat(12) + "Be concise.";
+
+    // 32-character blocks, prefixes count from 50 tokens
+    private final PromptPrefixRegistry registry = new PromptPrefixRegistry(true, 32, 50, Duration.ofMinutes(5), 1000,
+        true);
+
+    private static List<OpenAiMessage> prompt(String system, String user) {
+        return List.of(new OpenAiMessage("system", system), new OpenAiMessage("user", user));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> typeStats(String callType) {
+        return (Map<String, Object>) ((Map<String, Object>) registry.stats().get("callTypes")).get(callType);
+    }
+
+    @Test
+    void testRecord_RepeatedPromptIsCacheable() {
+        assertEquals(0, registry.record("evaluation", prompt(SYSTEM, "Question one")));
+
+        int cacheable = registry.record("evaluation", prompt(SYSTEM, "Question one"));
+
+        // Whole blocks only: 416 of the 433 characters
+        assertEquals(104, cacheable);
+        assertEquals(2L, typeStats("evaluation").get("calls"));
+        assertEquals(1L, typeStats("evaluation").get("cacheableCalls"));
+        assertEquals(104L, typeStats("evaluation").get("cacheableTokens"));
+    }
+
+    @Test
+    void testRecord_SharedSystemPromptIsCacheablePrefix() {
+        String detail = " Describe it in detail.".repeat(5);
+        registry.record("evaluation", prompt(SYSTEM, "Question one." + detail));
+
+        assertEquals(136, registry.record("evaluation", prompt(SYSTEM, "Question one." + detail)));
+        // Only the blocks before the first differing character
+        assertEquals(104, registry.record("evaluation", prompt(SYSTEM, "Question two." + detail)));
+    }
+
+    @Test
+    void testRecord_EarlyDifferenceBreaksPrefix() {
+        registry.record("interactive", prompt(SYSTEM, "Question one"));
+
+        assertEquals(0, registry.record("interactive", prompt("Candidate: Alice. " + SYSTEM, "Question one")));
+        assertEquals(0L, typeStats("interactive").get("cacheableTokens"));
+    }
+
+    @Test
+    void testRecord_ShortPrefixBelowMinimumNotCounted() {
+        registry.record("report", prompt("Short system prompt.", "Question one"));
+
+        assertEquals(0, registry.record("report", prompt("Short system prompt.", "Question one")));
+    }
+
+    @Test
+    void testRecordUsage_ProviderCachedRatio() {
+        registry.record("evaluation", prompt(SYSTEM, "Question one"));
+        OpenAiResponse.Usage usage = new OpenAiResponse.Usage();
+        usage.setPromptTokens(2000);
+        OpenAiResponse.PromptTokensDetails details = new OpenAiResponse.PromptTokensDetails();
+        details.setCachedTokens(1536);
+        usage.setPromptTokensDetails(details);
+
+        registry.recordUsage("evaluation", usage);
+
+        assertEquals(2000L, typeStats("evaluation").get("providerPromptTokens"));
+        assertEquals(0.768, typeStats("evaluation").get("providerCachedRatio"));
+    }
+
+    @Test
+    void testRoutingKey_SameForSharedFirstBlock() {
+        assertEquals(registry.routingKey(prompt(SYSTEM, "Question one")),
+            registry.routingKey(prompt(SYSTEM, "Question two")));
+        assertNotEquals(registry.routingKey(prompt(SYSTEM, "Question one")),
+            registry.routingKey(prompt("Candidate: Alice. " + SYSTEM, "Question one")));
+
+        PromptPrefixRegistry withoutKey = new PromptPrefixRegistry(true, 32, 50, Duration.ofMinutes(5), 1000, false);
+        assertNull(withoutKey.routingKey(prompt(SYSTEM, "Question one")));
+    }
+}
@@ -0,0 +1,77 @@
+package com.aiinterview.context;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SystemPromptCacheTest {
+
+    private final SystemPromptCache cache = new SystemPromptCache(100, 30);
+
+    @Test
+    void testHit_CountsSavedRoundTrips() {
+        assertNull(cache.get("iv-1"));
+        cache.put("iv-1", "prompt", cache.interviewVersion("iv-1"), 7, cache.candidateVersion(7));
+
+        assertEquals("prompt", cache.get("iv-1"));
+        assertEquals("prompt", cache.get("iv-1"));
+        assertEquals(4L, cache.stats().get("dbRoundTripsSaved"));
+        assertEquals(1.33, cache.stats().get("dbRoundTripsSavedPerTurn"));
+    }
+
+    @Test
+    void testInterviewUpdate_Invalidates() {
+        cache.put("iv-1", "prompt", cache.interviewVersion("iv-1"), 7, cache.candidateVersion(7));
+
+        cache.invalidateInterview("iv-1");
+
+        assertNull(cache.get("iv-1"));
+    }
+
+    @Test
+    void testCandidateUpdate_InvalidatesEveryInterviewOfThatCandidate() {
+        cache.put("iv-1", "prompt 1", 0, 7, cache.candidateVersion(7));
+        cache.put("iv-2", "prompt 2", 0, 7, cache.candidateVersion(7));
+        cache.put("iv-3", "prompt 3", 0, 8, cache.candidateVersion(8));
+
+        cache.invalidateCandidate(7);
+
+        assertNull(cache.get("iv-1"));
+        assertNull(cache.get("iv-2"));
+        assertEquals("prompt 3", cache.get("iv-3"));
+        assertEquals(2L, cache.stats().get("staleRejections"));
+    }
+
+    @Test
+    void testPromptBuiltBeforeConcurrentUpdate_IsNotServed() {
+        long versionSeenByBuilder = cache.interviewVersion("iv-1");
+        cache.invalidateInterview("iv-1");
+        cache.put("iv-1", "stale prompt", versionSeenByBuilder, 7, cache.candidateVersion(7));
+
+        assertNull(cache.get("iv-1"));
+    }
+
+    @Test
+    void testVersions_AreBoundedLikeThePrompts() {
+        for (int candidateId = 0; candidateId < 1000; candidateId++) {
+            cache.invalidateCandidate(candidateId);
+            cache.invalidateInterview("iv-" + candidateId);
+        }
+
+        assertEquals(200, cache.stats().get("trackedVersions"));
+    }
+
+    @Test
+    void testDroppedVersion_DoesNotRevivePromptStampedAfterIt() {
+        cache.invalidateCandidate(7);
+        long stamped = cache.candidateVersion(7);
+        cache.put("iv-1", "prompt", 0, 7, stamped);
+        // Enough other candidates change that version 7 is evicted
+        for (int candidateId = 100; candidateId < 300; candidateId++) {
+            cache.invalidateCandidate(candidateId);
+        }
+
+        assertEquals(0, cache.candidateVersion(7));
+        assertNull(cache.get("iv-1"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.aiinterview.controller;
 
+import com.aiinterview.llm.ApiKeyProvider;
 import com.aiinterview.model.ApiKeyConfig;
 import com.aiinterview.service.ApiKeyConfigService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,6 +18,8 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +36,9 @@ class ApiKeyControllerTest {
     @MockBean
     private ApiKeyConfigService apiKeyConfigService;
 
+    @MockBean
+    private ApiKeyProvider apiKeyProvider;
+
     @MockBean
     private com.aiinterview.config.WebMvcConfig webMvcConfig;
 
@@ -146,6 +152,42 @@ class ApiKeyControllerTest {
             .andExpect(jsonPath("$.id").value(1))
             .andExpect(jsonPath("$.serviceName").value(serviceName))
             .andExpect(jsonPath("$.isActive").value(true));
+
+        verify(apiKeyProvider).invalidate(serviceName);
+    }
+
+    @Test
+    void testSetApiKey_AppendKeepsOtherKeysActive() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("apiKey", testApiKey);
+        request.put("append", "true");
+        request.put("baseUrl", "https://proxy.example.com/v1/chat/completions");
+        request.put("weight", "3");
+
+        when(apiKeyConfigService.save(any(ApiKeyConfig.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/admin/keys/{serviceName}", serviceName)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.baseUrl").value("https://proxy.example.com/v1/chat/completions"))
+            .andExpect(jsonPath("$.weight").value(3));
+
+        verify(apiKeyConfigService, never()).deactivateAllForService(anyString());
+        verify(apiKeyProvider).invalidate(serviceName);
+    }
+
+    @Test
+    void testSetApiKey_InvalidWeight() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("apiKey", testApiKey);
+        request.put("weight", "0");
+
+        mockMvc.perform(post("/api/admin/keys/{serviceName}", serviceName)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -157,6 +199,8 @@ class ApiKeyControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
             .andExpect(status().isBadRequest());
+
+        verify(apiKeyProvider, never()).invalidate(anyString());
     }
 
     @Test
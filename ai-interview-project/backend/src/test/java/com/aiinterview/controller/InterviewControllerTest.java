@@ -2,6 +2,7 @@ package com.aiinterview.controller;
 
 import com.aiinterview.dto.CreateInterviewRequest;
 import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewCompletionJob;
 import com.aiinterview.repository.InterviewRepository;
 import com.aiinterview.service.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -52,9 +54,6 @@ class InterviewControllerTest {
     @Mock
     private PdfReportService pdfReportService;
 
-    @Mock
-    private LlmEvaluationService llmEvaluationService;
-
     @Mock
     private AudioService audioService;
 
@@ -64,6 +63,9 @@ class InterviewControllerTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private InterviewCompletionService interviewCompletionService;
+
     @InjectMocks
     private InterviewController interviewController;
 
@@ -166,6 +168,51 @@ class InterviewControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updates)))
                 .andExpect(status().isOk());
+
+        verify(interviewSessionService).invalidateSystemPrompt("test-id");
+    }
+
+    @Test
+    void endInterview_StartsCompletionJob() throws Exception {
+        Interview interview = createMockInterview();
+        InterviewCompletionJob job = new InterviewCompletionJob("job-1", "test-id", 1L);
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(interviewRepository.findById("test-id")).thenReturn(java.util.Optional.of(interview));
+        when(interviewCompletionService.start(interview, 1L)).thenReturn(job);
+        when(interviewCompletionService.describe(job, false)).thenReturn(new HashMap<>(Map.of(
+            "jobId", "job-1", "status", InterviewCompletionJob.STATUS_PENDING)));
+
+        // Evaluation and report generation run in the background
+        mockMvc.perform(post("/api/interviews/test-id/end")
+                .requestAttr("userId", 1L))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void getCompletionJob_ReturnsStatus() throws Exception {
+        InterviewCompletionJob job = new InterviewCompletionJob("job-1", "test-id", 1L);
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(interviewCompletionService.getJob("test-id", "job-1")).thenReturn(Optional.of(job));
+        when(interviewCompletionService.describe(job, true)).thenReturn(new HashMap<>(Map.of(
+            "jobId", "job-1", "status", InterviewCompletionJob.STATUS_COMPLETED, "progress", 100)));
+
+        mockMvc.perform(get("/api/interviews/test-id/end/job-1")
+                .requestAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.progress").value(100));
+    }
+
+    @Test
+    void getCompletionJob_UnknownJob_ReturnsNotFound() throws Exception {
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(interviewCompletionService.getJob("test-id", "missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/interviews/test-id/end/missing")
+                .requestAttr("userId", 1L))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -191,21 +238,65 @@ class InterviewControllerTest {
             "conversationHistory", List.of()
         );
         when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
-        when(reportService.generateReport("test-id")).thenReturn(report);
+        when(reportService.getReport("test-id")).thenReturn(new ReportService.VersionedReport("abc123", report));
 
         // When & Then
         mockMvc.perform(get("/api/interviews/test-id/report")
                 .requestAttr("userId", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
                 .andExpect(jsonPath("$.score").value(85));
     }
 
+    @Test
+    void getInterviewReport_MatchingETag_ReturnsNotModified() throws Exception {
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(reportService.getContentHash("test-id")).thenReturn("abc123");
+
+        mockMvc.perform(get("/api/interviews/test-id/report")
+                .requestAttr("userId", 1L)
+                .header("If-None-Match", "\"other\", \"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc123\""));
+
+        // Neither the stored report nor the LLM is touched
+        verify(reportService, never()).getReport(anyString());
+        verify(reportService).recordNotModified();
+    }
+
+    @Test
+    void getInterviewReport_StaleETag_ReturnsReport() throws Exception {
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(reportService.getContentHash("test-id")).thenReturn("def456");
+        when(reportService.getReport("test-id")).thenReturn(new ReportService.VersionedReport("def456", Map.of("score", 90)));
+
+        mockMvc.perform(get("/api/interviews/test-id/report")
+                .requestAttr("userId", 1L)
+                .header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"def456\""))
+                .andExpect(jsonPath("$.score").value(90));
+    }
+
+    @Test
+    void downloadInterviewReport_MatchingETag_ReturnsNotModified() throws Exception {
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(reportService.getContentHash("test-id")).thenReturn("abc123");
+
+        mockMvc.perform(get("/api/interviews/test-id/report/download")
+                .requestAttr("userId", 1L)
+                .header("If-None-Match", "\"abc123-pdf\""))
+                .andExpect(status().isNotModified());
+
+        verify(reportService, never()).getReport(anyString());
+    }
+
     @Test
     void getInterviewReportJson_Success() throws Exception {
         // Given
         when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
         Map<String, Object> report = Map.of("score", 85);
-        when(reportService.generateReport("test-id")).thenReturn(report);
+        when(reportService.getReport("test-id")).thenReturn(new ReportService.VersionedReport("abc123", report));
 
         // When & Then
         mockMvc.perform(get("/api/interviews/test-id/report/json")
@@ -336,14 +427,31 @@ class InterviewControllerTest {
         // Given
         when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
         byte[] pdfData = "PDF content".getBytes();
-        when(pdfReportService.generatePdfReport("test-id")).thenReturn(pdfData);
+        Map<String, Object> report = Map.of("score", 85);
+        when(reportService.getReport("test-id")).thenReturn(new ReportService.VersionedReport("abc123", report));
+        when(pdfReportService.generatePdfReport(report)).thenReturn(pdfData);
 
         // When & Then
         mockMvc.perform(get("/api/interviews/test-id/report/download")
                 .requestAttr("userId", 1L))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "application/pdf"))
-                .andExpect(header().string("Content-Disposition", "attachment; filename=\"interview-report-test-id.pdf\""));
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"interview-report-test-id.pdf\""))
+                .andExpect(header().string("ETag", "\"abc123-pdf\""));
+    }
+
+    @Test
+    void getInterviewReport_WithoutFeedback_NotCacheable() throws Exception {
+        when(interviewService.isInterviewOwnedByUser("test-id", 1L)).thenReturn(true);
+        when(reportService.getReport("test-id"))
+            .thenReturn(new ReportService.VersionedReport("abc123", Map.of("score", 85), false));
+
+        mockMvc.perform(get("/api/interviews/test-id/report")
+                .requestAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.score").value(85));
     }
 
     @Test
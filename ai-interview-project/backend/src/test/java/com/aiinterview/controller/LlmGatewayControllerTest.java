@@ -1,5 +1,8 @@
 package com.aiinterview.controller;
 
+import com.aiinterview.cache.QuestionResponseCache;
+import com.aiinterview.evaluation.EvaluationRejectedException;
+import com.aiinterview.evaluation.EvaluationScheduler;
 import com.aiinterview.model.EvaluationResult;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.service.LlmEvaluationService;
@@ -15,9 +18,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import com.aiinterview.config.TestWebMvcConfig;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.*;
@@ -28,7 +34,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
-@Import(TestWebMvcConfig.class)
+@Import({TestWebMvcConfig.class, EvaluationScheduler.class})
 @WebMvcTest(LlmGatewayController.class)
 class LlmGatewayControllerTest {
     
@@ -46,6 +52,12 @@ class LlmGatewayControllerTest {
     
     @MockBean
     private SessionService sessionService;
+
+    @SpyBean
+    private EvaluationScheduler evaluationScheduler;
+
+    @MockBean
+    private QuestionResponseCache questionCache;
     
     @MockBean
     private com.aiinterview.config.WebMvcConfig webMvcConfig;
@@ -86,6 +98,74 @@ class LlmGatewayControllerTest {
 
         verify(openAiService).chat(anyList());
     }
+
+    @Test
+    void testQuestionGenerate_CachesGeneratedQuestion() throws Exception {
+        QuestionResponseCache.Key key = mock(QuestionResponseCache.Key.class);
+        when(sessionService.getSession("session-123")).thenReturn(Optional.empty());
+        when(questionCache.key("backend_java", "mid", 0, "System prompt", "User prompt")).thenReturn(key);
+        when(openAiService.chat(anyList())).thenReturn(Mono.just("What is Java?"));
+
+        mockMvc.perform(post("/api/llm/question-generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sessionId\":\"session-123\",\"roleId\":\"backend_java\",\"level\":\"mid\"}"))
+                .andDo(result -> mockMvc.perform(asyncDispatch(result)))
+                .andExpect(status().isOk());
+
+        verify(questionCache).put(key, "What is Java?");
+    }
+
+    @Test
+    void testQuestionGenerateStream_CachesAccumulatedQuestion() throws Exception {
+        QuestionResponseCache.Key key = mock(QuestionResponseCache.Key.class);
+        when(sessionService.getSession("session-123")).thenReturn(Optional.empty());
+        when(questionCache.key("backend_java", "mid", 0, "System prompt", "User prompt")).thenReturn(key);
+        when(openAiService.chatStream(anyList())).thenReturn(Flux.just("What ", "is ", "Java?"));
+
+        MvcResult result = mockMvc.perform(get("/api/llm/question-generate/stream").param("sessionId", "session-123"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(questionCache).put(key, "What is Java?");
+    }
+
+    @Test
+    void testQuestionGenerate_CachedQuestionSkipsLlm() throws Exception {
+        QuestionResponseCache.Key key = mock(QuestionResponseCache.Key.class);
+        when(sessionService.getSession("session-123")).thenReturn(Optional.empty());
+        when(questionCache.key(anyString(), anyString(), anyInt(), anyString(), anyString())).thenReturn(key);
+        when(questionCache.get(key)).thenReturn("What is the JVM?");
+
+        MvcResult result = mockMvc.perform(post("/api/llm/question-generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sessionId\":\"session-123\",\"roleId\":\"backend_java\",\"level\":\"mid\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.question").value("What is the JVM?"));
+
+        verify(openAiService, never()).chat(anyList());
+    }
+
+    @Test
+    void testQuestionGenerate_MockFallbackNotCached() throws Exception {
+        QuestionResponseCache.Key key = mock(QuestionResponseCache.Key.class);
+        when(sessionService.getSession("session-123")).thenReturn(Optional.empty());
+        when(questionCache.key(anyString(), anyString(), anyInt(), anyString(), anyString())).thenReturn(key);
+        when(openAiService.chat(anyList())).thenReturn(Mono.just("Could you elaborate on that point?"));
+        when(openAiService.isMockResponse("Could you elaborate on that point?")).thenReturn(true);
+
+        MvcResult result = mockMvc.perform(post("/api/llm/question-generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sessionId\":\"session-123\",\"roleId\":\"backend_java\",\"level\":\"mid\"}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        verify(questionCache, never()).put(any(), anyString());
+    }
     
     @Test
     void testEval_Success() throws Exception {
@@ -120,6 +200,25 @@ class LlmGatewayControllerTest {
 
         verify(evaluationService).evaluateAnswer(anyString(), anyString(), anyString(), anyString());
     }
+
+    @Test
+    void testEval_QueueFull_Returns429() throws Exception {
+        doReturn(Mono.error(new EvaluationRejectedException(EvaluationRejectedException.QUEUE_FULL, "Evaluation queue is full")))
+            .when(evaluationScheduler).submit(any(), any());
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/llm/eval")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"question\":\"What is Java?\",\"answer\":\"Java is a programming language\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.reason").value("queue-full"));
+
+        verify(evaluationService, never()).evaluateAnswer(anyString(), anyString(), anyString(), anyString());
+    }
     
     @Test
     void testChat_Success() throws Exception {
@@ -0,0 +1,108 @@
+package com.aiinterview.evaluation;
+
+import com.aiinterview.model.EvaluationResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EvaluationCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private EvaluationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EvaluationCache(true, 0.0, 100, "gpt-test", redisTemplate);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    private static EvaluationResult result(double score) {
+        EvaluationResult result = new EvaluationResult();
+        result.setScore(score);
+        return result;
+    }
+
+    @Test
+    void testKey_NormalisesWhitespaceAndCase() {
+        String key = cache.key("What is Java?", "Java is a language", "backend_java", "mid", "1-a");
+
+        assertEquals(key, cache.key("  What is  Java? ", "JAVA is\na\tlanguage", "backend_java", "mid", "1-a"));
+        assertEquals(64, key.length());
+    }
+
+    @Test
+    void testKey_DiffersByRoleLevelAndPromptVersion() {
+        String key = cache.key("Q", "A", "backend_java", "mid", "1-a");
+
+        assertNotEquals(key, cache.key("Q", "A", "frontend", "mid", "1-a"));
+        assertNotEquals(key, cache.key("Q", "A", "backend_java", "senior", "1-a"));
+        assertNotEquals(key, cache.key("Q", "A", "backend_java", "mid", "2-a"));
+        assertNotEquals(key, new EvaluationCache(true, 0.0, 100, "gpt-4o", null).key("Q", "A", "backend_java", "mid", "1-a"));
+        // Fields are length-prefixed, so moving text between them changes the key
+        assertNotEquals(cache.key("QA", "", "r", "l", "v"), cache.key("Q", "A", "r", "l", "v"));
+    }
+
+    @Test
+    void testIsEnabledFor_OnlyDeterministicTemperatures() {
+        assertTrue(cache.isEnabledFor(0.0));
+        assertFalse(cache.isEnabledFor(0.7));
+        assertFalse(cache.isEnabledFor(null));
+        assertFalse(new EvaluationCache(false, 0.0, 100, "gpt-test", null).isEnabledFor(0.0));
+        assertEquals(2L, cache.stats().get("bypassed"));
+    }
+
+    @Test
+    void testPut_WritesBothTiersWithTtl() {
+        EvaluationResult result = result(80.0);
+
+        cache.put("k", result);
+
+        assertSame(result, cache.get("k"));
+        verify(valueOperations).set(eq("eval:cache:k"), same(result), any(Duration.class));
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1L, cache.stats().get("localHits"));
+    }
+
+    @Test
+    void testGet_RedisHitIsCopiedToLocalTier() {
+        when(valueOperations.get("eval:cache:k")).thenReturn(result(75.0));
+
+        assertEquals(75.0, cache.get("k").getScore());
+        assertEquals(75.0, cache.get("k").getScore());
+
+        verify(valueOperations, times(1)).get("eval:cache:k");
+        Map<String, Object> stats = cache.stats();
+        assertEquals(1L, stats.get("redisHits"));
+        assertEquals(1L, stats.get("localHits"));
+        assertEquals(1.0, stats.get("hitRate"));
+    }
+
+    @Test
+    void testRedisFailure_IsAMiss() {
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Connection refused"));
+        doThrow(new RuntimeException("Connection refused")).when(valueOperations).set(anyString(), any(), any(Duration.class));
+
+        assertNull(cache.get("k"));
+        cache.put("k", result(70.0));
+
+        assertEquals(70.0, cache.get("k").getScore());
+        assertEquals(0.5, cache.stats().get("hitRate"));
+    }
+}
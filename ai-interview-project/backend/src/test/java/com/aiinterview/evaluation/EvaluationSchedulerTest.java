@@ -0,0 +1,152 @@
+package com.aiinterview.evaluation;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationSchedulerTest {
+
+    private final List<String> startOrder = new ArrayList<>();
+    private final List<Sinks.One<String>> pending = new ArrayList<>();
+
+    /**
+     * An evaluation that records when it starts and completes only when the test says so
+     */
+    private Mono<String> evaluation(String name) {
+        return Mono.defer(() -> {
+            startOrder.add(name);
+            Sinks.One<String> sink = Sinks.one();
+            pending.add(sink);
+            return sink.asMono();
+        });
+    }
+
+    private void completeOldest() {
+        pending.remove(0).tryEmitValue("done");
+    }
+
+    @Test
+    void submit_LimitsConcurrentEvaluations() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(2, 10, 10);
+
+        for (int i = 0; i < 4; i++) {
+            String name = "e" + i;
+            scheduler.submit("user-1", () -> evaluation(name)).subscribe();
+        }
+
+        assertEquals(List.of("e0", "e1"), startOrder);
+        assertEquals(2, scheduler.stats().get("running"));
+        assertEquals(2, scheduler.stats().get("queued"));
+
+        completeOldest();
+        assertEquals(List.of("e0", "e1", "e2"), startOrder);
+        assertEquals(2, scheduler.stats().get("running"));
+        assertEquals(1, scheduler.stats().get("queued"));
+    }
+
+    @Test
+    void submit_ServesUsersRoundRobin() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(1, 20, 10);
+        scheduler.submit("blocker", () -> evaluation("blocker")).subscribe();
+
+        // One user ends an interview with five answers, then another user submits two
+        for (int i = 0; i < 5; i++) {
+            String name = "a" + i;
+            scheduler.submit("user-a", () -> evaluation(name)).subscribe();
+        }
+        scheduler.submit("user-b", () -> evaluation("b0")).subscribe();
+        scheduler.submit("user-b", () -> evaluation("b1")).subscribe();
+
+        for (int i = 0; i < 7; i++) {
+            completeOldest();
+        }
+
+        assertEquals(List.of("blocker", "a0", "b0", "a1", "b1", "a2", "a3", "a4"), startOrder);
+    }
+
+    @Test
+    void submit_RejectsWhenQueueIsFull() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(1, 2, 10);
+        scheduler.submit("user-1", () -> evaluation("running")).subscribe();
+        scheduler.submit("user-2", () -> evaluation("q1")).subscribe();
+        scheduler.submit("user-3", () -> evaluation("q2")).subscribe();
+
+        EvaluationRejectedException rejected = assertThrows(EvaluationRejectedException.class,
+            () -> scheduler.submit("user-4", () -> evaluation("q3")).block());
+
+        assertEquals(EvaluationRejectedException.QUEUE_FULL, rejected.getReason());
+        assertEquals(1L, scheduler.stats().get("rejectedQueueFull"));
+        assertEquals(List.of("running"), startOrder);
+    }
+
+    @Test
+    void submit_RejectsWhenUserHasTooManyQueued() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(1, 10, 2);
+        scheduler.submit("user-1", () -> evaluation("running")).subscribe();
+        scheduler.submit("user-1", () -> evaluation("q1")).subscribe();
+        scheduler.submit("user-1", () -> evaluation("q2")).subscribe();
+
+        EvaluationRejectedException rejected = assertThrows(EvaluationRejectedException.class,
+            () -> scheduler.submit("user-1", () -> evaluation("q3")).block());
+        assertEquals(EvaluationRejectedException.USER_LIMIT, rejected.getReason());
+
+        // Other users are still accepted
+        scheduler.submit("user-2", () -> evaluation("other")).subscribe();
+        assertEquals(1L, scheduler.stats().get("rejectedUserLimit"));
+        assertEquals(3, scheduler.stats().get("queued"));
+    }
+
+    @Test
+    void cancel_DropsQueuedEvaluationWithoutStartingIt() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(1, 10, 10);
+        scheduler.submit("user-1", () -> evaluation("running")).subscribe();
+        Disposable queued = scheduler.submit("user-2", () -> evaluation("cancelled")).subscribe();
+
+        queued.dispose();
+        completeOldest();
+
+        assertEquals(List.of("running"), startOrder);
+        Map<String, Object> stats = scheduler.stats();
+        assertEquals(0, stats.get("queued"));
+        assertEquals(0, stats.get("running"));
+        assertEquals(1L, stats.get("cancelled"));
+        assertEquals(1L, stats.get("completed"));
+    }
+
+    @Test
+    void cancel_RunningEvaluationFreesItsSlot() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(1, 10, 10);
+        AtomicInteger cancelledUpstream = new AtomicInteger();
+        Disposable running = scheduler.submit("user-1",
+            () -> evaluation("running").doOnCancel(cancelledUpstream::incrementAndGet)).subscribe();
+        scheduler.submit("user-2", () -> evaluation("next")).subscribe();
+
+        running.dispose();
+
+        assertEquals(1, cancelledUpstream.get());
+        assertEquals(List.of("running", "next"), startOrder);
+        assertEquals(1, scheduler.stats().get("running"));
+    }
+
+    @Test
+    void submit_PropagatesResultsAndFailures() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(2, 10, 10);
+
+        assertEquals("ok", scheduler.submit("user-1", () -> Mono.just("ok")).block());
+        assertThrows(IllegalStateException.class,
+            () -> scheduler.submit("user-1", () -> Mono.<String>error(new IllegalStateException("boom"))).block());
+
+        Map<String, Object> stats = scheduler.stats();
+        assertEquals(1L, stats.get("completed"));
+        assertEquals(1L, stats.get("failed"));
+        assertEquals(0, stats.get("running"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.aiinterview.knowledge;
+
+import com.aiinterview.knowledge.model.QuestionItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionIndexTest {
+
+    private static QuestionItem question(String id, String type, String difficulty, String... skills) {
+        QuestionItem item = new QuestionItem();
+        item.setId(id);
+        item.setText("Question " + id);
+        item.setType(type);
+        item.setDifficulty(difficulty);
+        item.setSkills(List.of(skills));
+        return item;
+    }
+
+    private final QuestionIndex index = new QuestionIndex(List.of(
+        question("q1", "technical", "medium", "java_core"),
+        question("q2", "technical", "hard", "java_core", "concurrency"),
+        question("q3", "behavioral", "medium", "communication"),
+        question("q4", "technical", "medium", "sql")));
+
+    private static List<String> ids(List<QuestionItem> questions) {
+        return questions.stream().map(QuestionItem::getId).toList();
+    }
+
+    @Test
+    void testFind_IntersectsCriteria() {
+        assertEquals(List.of("q1", "q2"), ids(index.find("java_core", null, null)));
+        assertEquals(List.of("q1", "q4"), ids(index.find(null, "medium", "technical")));
+        assertEquals(List.of("q2"), ids(index.find("concurrency", "hard", "technical")));
+        assertEquals(List.of(), ids(index.find("java_core", null, "behavioral")));
+        assertEquals(List.of(), ids(index.find("unknown", null, null)));
+        assertEquals(4, index.find(null, null, null).size());
+    }
+
+    @Test
+    void testOrdinal() {
+        assertEquals(2, index.ordinal("q3"));
+        assertSame(index.get(2), index.questions().get(2));
+        assertEquals(-1, index.ordinal("missing"));
+        assertEquals(-1, index.ordinal(null));
+    }
+
+    @Test
+    void testSample_WithoutReplacementUntilExhausted() {
+        BitSet asked = new BitSet();
+        asked.set(index.ordinal("q2"));
+        Random random = new Random(42);
+
+        Set<String> picked = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(picked.add(index.sample(asked, random).getId()));
+        }
+
+        assertEquals(Set.of("q1", "q3", "q4"), picked);
+        assertNull(index.sample(asked, random));
+    }
+
+    @Test
+    void testSample_LastQuestionFoundAfterRandomDrawsMiss() {
+        // A random source that keeps drawing asked questions falls back to counting
+        BitSet asked = new BitSet();
+        asked.set(0, 3);
+        Random alwaysFirst = new Random() {
+            @Override
+            public int nextInt(int bound) {
+                return 0;
+            }
+        };
+
+        assertEquals("q4", index.sample(asked, alwaysFirst).getId());
+        assertEquals(4, asked.cardinality());
+    }
+
+    @Test
+    void testEmpty() {
+        assertNull(QuestionIndex.EMPTY.sample(new BitSet(), new Random()));
+        assertTrue(QuestionIndex.EMPTY.questions().isEmpty());
+    }
+}
@@ -0,0 +1,63 @@
+package com.aiinterview.knowledge;
+
+import com.aiinterview.knowledge.model.QuestionItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Knowledge base loaded from {@code src/main/resources/knowledge-base}
+ */
+class QuestionKnowledgeBaseServiceTest {
+
+    private KnowledgeBaseService knowledgeBaseService;
+
+    @BeforeEach
+    void setUp() {
+        knowledgeBaseService = new KnowledgeBaseService();
+        knowledgeBaseService.loadKnowledgeBase();
+    }
+
+    @Test
+    void testGetRubric_ByRoleAndSkill() {
+        assertTrue(knowledgeBaseService.getRubric("backend_java", "spring_boot").isPresent());
+        assertEquals("spring_boot", knowledgeBaseService.getRubric("backend_java", "spring_boot").get().getSkill());
+        assertTrue(knowledgeBaseService.getRubric("frontend_react", "spring_boot").isEmpty());
+        assertTrue(knowledgeBaseService.getRubric("backend_java", "unknown").isEmpty());
+    }
+
+    @Test
+    void testGetQuestions_LoadedPerRole() {
+        List<QuestionItem> questions = knowledgeBaseService.getQuestions("backend_java");
+
+        assertFalse(questions.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> questions.add(new QuestionItem()));
+        assertTrue(knowledgeBaseService.getQuestions("unknown_role").isEmpty());
+        assertEquals(List.of("q_spring_001"), knowledgeBaseService.findQuestions("backend_java", "spring_boot", null, null)
+            .stream().map(QuestionItem::getId).toList());
+    }
+
+    @Test
+    void testPickNextQuestion_EachQuestionOnce() {
+        int total = knowledgeBaseService.getQuestions("frontend_react").size();
+        BitSet asked = new BitSet();
+        Random random = new Random(7);
+
+        Set<String> picked = new HashSet<>();
+        for (int i = 0; i < total; i++) {
+            Optional<QuestionItem> next = knowledgeBaseService.pickNextQuestion("frontend_react", asked, random);
+            assertTrue(next.isPresent());
+            assertTrue(picked.add(next.get().getId()));
+        }
+
+        assertTrue(knowledgeBaseService.pickNextQuestion("frontend_react", asked, random).isEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package com.aiinterview.llm;
+
+import com.aiinterview.model.ApiKeyConfig;
+import com.aiinterview.service.ApiKeyConfigService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyProviderTest {
+
+    @Mock
+    private ApiKeyConfigService apiKeyConfigService;
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    private ApiKeyProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        // Loads run inline, so background refreshes complete before the next assertion
+        provider = new ApiKeyProvider(apiKeyConfigService, Duration.ofSeconds(30), clock, Schedulers.immediate());
+    }
+
+    private static List<ApiKeyConfig> keys(String... apiKeys) {
+        List<ApiKeyConfig> configs = new ArrayList<>();
+        for (int i = 0; i < apiKeys.length; i++) {
+            ApiKeyConfig config = new ApiKeyConfig("openai", apiKeys[i]);
+            config.setId(i + 1);
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    private Optional<String> key() {
+        return provider.apiKey("openai").block();
+    }
+
+    @Test
+    void testApiKey_CachedWithinTtl() {
+        when(apiKeyConfigService.getActiveApiKeyConfigs("openai")).thenReturn(keys("sk-one"));
+
+        assertEquals(Optional.of("sk-one"), key());
+        now = now.plusSeconds(29);
+        assertEquals(Optional.of("sk-one"), key());
+
+        verify(apiKeyConfigService, times(1)).getActiveApiKeyConfigs("openai");
+        assertEquals(1L, provider.stats().get("hits"));
+    }
+
+    @Test
+    void testActiveKeys_AllActiveKeysNewestFirst() {
+        when(apiKeyConfigService.getActiveApiKeyConfigs("openai")).thenReturn(keys("sk-new", "sk-old"));
+
+        assertEquals(2, provider.activeKeys("openai").block().size());
+        assertEquals(Optional.of("sk-new"), key());
+    }
+
+    @Test
+    void testApiKey_StaleKeyServedWhileRefreshing() {
+        when(apiKeyConfigService.getActiveApiKeyConfigs("openai"))
+            .thenReturn(keys("sk-one"), keys("sk-two"));
+        key();
+        now = now.plusSeconds(31);
+
+        // The stale key answers this request; the reload serves the next one
+        assertEquals(Optional.of("sk-one"), key());
+        assertEquals(Optional.of("sk-two"), key());
+        assertEquals(1L, provider.stats().get("staleHits"));
+    }
+
+    @Test
+    void testApiKey_RefreshFailureKeepsCachedKey() {
+        when(apiKeyConfigService.getActiveApiKeyConfigs("openai"))
+            .thenReturn(keys("sk-one"))
+            .thenThrow(new RuntimeException("Connection refused"));
+        key();
+        now = now.plusSeconds(31);
+
+        assertEquals(Optional.of("sk-one"), key());
+        assertEquals(1L, provider.stats().get("refreshFailures"));
+    }
+
+    @Test
+    void testInvalidate_ReloadsAtOnce() {
+        when(apiKeyConfigService.getActiveApiKeyConfigs("openai"))
+            .thenReturn(keys("sk-one"), keys("sk-rotated"));
+        key();
+
+        provider.invalidate("openai");
+
+        assertEquals(Optional.of("sk-rotated"), key());
+        verify(apiKeyConfigService, times(2)).getActiveApiKeyConfigs("openai");
+    }
+}
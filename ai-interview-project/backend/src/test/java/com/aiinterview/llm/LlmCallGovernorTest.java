@@ -0,0 +1,228 @@
+package com.aiinterview.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmCallGovernorTest {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+
+    // Calls started by the governor, by label, completed from the test
+    private final Map<String, Sinks.One<String>> started = new LinkedHashMap<>();
+    private final List<String> results = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    private LlmCallGovernor governor(int limit, double interactiveReserve, double requestsPerSecond, int burst) {
+        return new LlmCallGovernor(true, limit, 1, 10, 0.5, interactiveReserve, requestsPerSecond, burst,
+            1, Duration.ofSeconds(5), scheduler);
+    }
+
+    private Disposable submit(LlmCallGovernor governor, LlmPriority priority, String label) {
+        return governor.call(priority, () -> {
+            Sinks.One<String> sink = Sinks.one();
+            started.put(label, sink);
+            return sink.asMono();
+        }).subscribe(results::add, errors::add);
+    }
+
+    private void complete(String label) {
+        started.get(label).tryEmitValue(label);
+    }
+
+    private static WebClientResponseException tooManyRequests() {
+        return WebClientResponseException.create(429, "Too Many Requests", HttpHeaders.EMPTY, new byte[0], null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> lane(LlmCallGovernor governor, String name) {
+        return (Map<String, Object>) ((Map<String, Object>) governor.stats().get("lanes")).get(name);
+    }
+
+    @Test
+    void testCall_QueuesBeyondLimitAndStartsOnRelease() {
+        LlmCallGovernor governor = governor(2, 0.0, 0, 1);
+
+        submit(governor, LlmPriority.INTERACTIVE, "a");
+        submit(governor, LlmPriority.INTERACTIVE, "b");
+        submit(governor, LlmPriority.INTERACTIVE, "c");
+
+        assertEquals(List.of("a", "b"), new ArrayList<>(started.keySet()));
+        assertEquals(1, lane(governor, "interactive").get("queued"));
+
+        complete("a");
+
+        assertEquals(List.of("a"), results);
+        assertTrue(started.containsKey("c"));
+        assertEquals(2, governor.stats().get("inFlight"));
+    }
+
+    @Test
+    void testCall_InteractiveLaneServedFirstAndKeepsReserve() {
+        // Limit 4, half reserved: batch lanes may use 2 slots
+        LlmCallGovernor governor = governor(4, 0.5, 0, 1);
+
+        submit(governor, LlmPriority.EVALUATION, "eval-1");
+        submit(governor, LlmPriority.REPORT, "report-1");
+        submit(governor, LlmPriority.EVALUATION, "eval-2");
+        assertEquals(List.of("eval-1", "report-1"), new ArrayList<>(started.keySet()));
+
+        // Interactive turns start at once despite the batch queue
+        submit(governor, LlmPriority.INTERACTIVE, "turn-1");
+        submit(governor, LlmPriority.INTERACTIVE, "turn-2");
+        submit(governor, LlmPriority.INTERACTIVE, "turn-3");
+        assertTrue(started.containsKey("turn-1") && started.containsKey("turn-2"));
+        assertFalse(started.containsKey("turn-3"));
+
+        // A freed slot goes to the waiting turn, not to the evaluation queued before it
+        complete("eval-1");
+        assertTrue(started.containsKey("turn-3"));
+        assertFalse(started.containsKey("eval-2"));
+
+        // Batch work resumes only once the reserve is free again
+        complete("turn-1");
+        complete("turn-2");
+        assertFalse(started.containsKey("eval-2"));
+        complete("turn-3");
+        assertTrue(started.containsKey("eval-2"));
+    }
+
+    @Test
+    void testCall_OverloadHalvesLimitOncePerEvent() {
+        LlmCallGovernor governor = governor(4, 0.0, 0, 1);
+        for (String label : List.of("a", "b", "c", "d")) {
+            submit(governor, LlmPriority.INTERACTIVE, label);
+        }
+
+        started.get("a").tryEmitError(tooManyRequests());
+        // Started before the decrease: same congestion event
+        started.get("b").tryEmitError(tooManyRequests());
+
+        assertEquals(2.0, governor.stats().get("limit"));
+        assertEquals(1L, governor.stats().get("decreases"));
+        assertEquals(2L, governor.stats().get("overloads"));
+        assertEquals(2, errors.size());
+
+        // Success while the limit is in use grows it by 1/limit
+        complete("c");
+        assertEquals(2.5, governor.stats().get("limit"));
+    }
+
+    @Test
+    void testCall_OtherErrorsLeaveLimitAlone() {
+        LlmCallGovernor governor = governor(4, 0.0, 0, 1);
+        submit(governor, LlmPriority.INTERACTIVE, "a");
+
+        started.get("a").tryEmitError(WebClientResponseException.create(400, "Bad Request", HttpHeaders.EMPTY, new byte[0], null));
+
+        assertEquals(4.0, governor.stats().get("limit"));
+        assertEquals(0, governor.stats().get("inFlight"));
+    }
+
+    @Test
+    void testCall_TokenBucketSpacesRequests() {
+        LlmCallGovernor governor = governor(4, 0.0, 2, 1);
+
+        submit(governor, LlmPriority.INTERACTIVE, "a");
+        submit(governor, LlmPriority.INTERACTIVE, "b");
+        assertFalse(started.containsKey("b"));
+
+        scheduler.advanceTimeBy(Duration.ofMillis(499));
+        assertFalse(started.containsKey("b"));
+
+        scheduler.advanceTimeBy(Duration.ofMillis(1));
+        assertTrue(started.containsKey("b"));
+        assertEquals(1L, governor.stats().get("rateLimitedWaits"));
+    }
+
+    @Test
+    void testCall_RejectedWhenLaneQueueFull() {
+        LlmCallGovernor governor = governor(1, 0.0, 0, 1);
+        submit(governor, LlmPriority.REPORT, "a");
+        submit(governor, LlmPriority.REPORT, "b");
+        submit(governor, LlmPriority.REPORT, "c");
+
+        assertEquals(1, errors.size());
+        LlmRejectedException rejected = (LlmRejectedException) errors.get(0);
+        assertEquals(LlmRejectedException.QUEUE_FULL, rejected.getReason());
+        assertEquals(1L, lane(governor, "report").get("rejectedQueueFull"));
+    }
+
+    @Test
+    void testCall_RejectedAfterQueueTimeout() {
+        LlmCallGovernor governor = governor(1, 0.0, 0, 1);
+        submit(governor, LlmPriority.EVALUATION, "a");
+        submit(governor, LlmPriority.EVALUATION, "b");
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(5));
+
+        assertEquals(LlmRejectedException.QUEUE_TIMEOUT, ((LlmRejectedException) errors.get(0)).getReason());
+        complete("a");
+        assertFalse(started.containsKey("b"));
+        assertEquals(1L, lane(governor, "evaluation").get("timedOut"));
+    }
+
+    @Test
+    void testCall_CancelledWhileQueuedNeverStarts() {
+        LlmCallGovernor governor = governor(1, 0.0, 0, 1);
+        submit(governor, LlmPriority.INTERACTIVE, "a");
+        Disposable queued = submit(governor, LlmPriority.INTERACTIVE, "b");
+
+        queued.dispose();
+        complete("a");
+
+        assertFalse(started.containsKey("b"));
+        assertEquals(1L, lane(governor, "interactive").get("cancelled"));
+        assertEquals(0, governor.stats().get("inFlight"));
+    }
+
+    @Test
+    void testStream_SlotHeldUntilStreamEnds() {
+        LlmCallGovernor governor = governor(1, 0.0, 0, 1);
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> received = new ArrayList<>();
+        governor.stream(LlmPriority.INTERACTIVE, tokens::asFlux).subscribe(received::add);
+        submit(governor, LlmPriority.INTERACTIVE, "next");
+
+        tokens.tryEmitNext("Hello");
+        assertFalse(started.containsKey("next"));
+
+        tokens.tryEmitComplete();
+        assertEquals(List.of("Hello"), received);
+        assertTrue(started.containsKey("next"));
+    }
+
+    @Test
+    void testCall_DisabledPassesThrough() {
+        LlmCallGovernor governor = new LlmCallGovernor(false, 1, 1, 1, 0.5, 0.0, 1, 1, 0,
+            Duration.ofSeconds(1), scheduler);
+
+        submit(governor, LlmPriority.EVALUATION, "a");
+        submit(governor, LlmPriority.EVALUATION, "b");
+
+        assertEquals(2, started.size());
+        assertEquals(List.of("x"), governor.stream(LlmPriority.REPORT, () -> Flux.just("x")).collectList().block());
+    }
+
+    @Test
+    void testClassify() {
+        assertEquals(LlmCallGovernor.Outcome.OVERLOAD, LlmCallGovernor.classify(tooManyRequests()));
+        assertEquals(LlmCallGovernor.Outcome.OVERLOAD, LlmCallGovernor.classify(new TimeoutException()));
+        assertEquals(LlmCallGovernor.Outcome.OVERLOAD, LlmCallGovernor.classify(
+            WebClientResponseException.create(503, "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null)));
+        assertEquals(LlmCallGovernor.Outcome.IGNORED, LlmCallGovernor.classify(new IllegalStateException("bad json")));
+    }
+}
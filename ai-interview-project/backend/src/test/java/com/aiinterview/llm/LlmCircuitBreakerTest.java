@@ -0,0 +1,180 @@
+package com.aiinterview.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmCircuitBreakerTest {
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    // Window of 4, opens at 50% failures or 75% slow calls (over 1 s), open for 10 s, 2 probes
+    private final LlmCircuitBreaker breaker = new LlmCircuitBreaker(true, 4, 4, 50, 75,
+        Duration.ofSeconds(1), Duration.ofSeconds(10), 2, clock);
+
+    private void succeed() {
+        assertEquals("ok", breaker.protect(Mono.just("ok")).block());
+    }
+
+    private void fail() {
+        StepVerifier.create(breaker.protect(Mono.error(new IOException("connection reset"))))
+            .expectError(IOException.class)
+            .verify();
+    }
+
+    private Mono<String> slow() {
+        return Mono.fromCallable(() -> {
+            now = now.plusMillis(1500);
+            return "slow";
+        });
+    }
+
+    private static WebClientResponseException status(int code) {
+        return WebClientResponseException.create(code, "status " + code, HttpHeaders.EMPTY, new byte[0], null);
+    }
+
+    @Test
+    void testProtect_OpensOnFailureRateAndFailsFast() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+
+        fail();
+        assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+
+        StepVerifier.create(breaker.protect(Mono.<String>error(new AssertionError("must not be called"))))
+            .expectErrorSatisfies(error -> {
+                assertInstanceOf(LlmCircuitOpenException.class, error);
+                assertEquals(10_000, ((LlmCircuitOpenException) error).getRetryAfterMillis());
+            })
+            .verify();
+        assertEquals(1L, breaker.stats().get("rejected"));
+    }
+
+    @Test
+    void testProtect_OpensOnSlowCallRate() {
+        for (int i = 0; i < 3; i++) {
+            breaker.protect(slow()).block();
+        }
+        succeed();
+
+        assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(3L, breaker.stats().get("slowCalls"));
+    }
+
+    @Test
+    void testProtect_ClientErrorsDoNotCount() {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(breaker.protect(Mono.error(status(400)))).expectError().verify();
+        }
+        assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+
+        StepVerifier.create(breaker.protect(Mono.error(status(429)))).expectError().verify();
+        assertEquals(1L, breaker.stats().get("failures"));
+    }
+
+    @Test
+    void testProtect_HalfOpenProbesCloseTheCircuit() {
+        succeed();
+        succeed();
+        fail();
+        fail();
+
+        now = now.plusSeconds(10);
+        Sinks.One<String> firstProbe = Sinks.one();
+        Sinks.One<String> secondProbe = Sinks.one();
+        StepVerifier.create(breaker.protect(firstProbe.asMono()))
+            .then(() -> {
+                assertEquals(LlmCircuitBreaker.State.HALF_OPEN, breaker.getState());
+                breaker.protect(secondProbe.asMono()).subscribe();
+                // Only two probes at a time
+                StepVerifier.create(breaker.protect(Mono.just("third")))
+                    .expectError(LlmCircuitOpenException.class)
+                    .verify();
+                firstProbe.tryEmitValue("ok");
+            })
+            .expectNext("ok")
+            .verifyComplete();
+        assertEquals(LlmCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        secondProbe.tryEmitValue("ok");
+        assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+        succeed();
+    }
+
+    @Test
+    void testProtect_FailedProbeReopens() {
+        succeed();
+        succeed();
+        fail();
+        fail();
+
+        now = now.plusSeconds(10);
+        fail();
+
+        assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.stats().get("opened"));
+        assertEquals("probe call failed", breaker.stats().get("lastOpenReason"));
+    }
+
+    @Test
+    void testProtectStream_RecordsStreamOutcome() {
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(breaker.protectStream(Flux.just("a", "b"))).expectNextCount(2).verifyComplete();
+        }
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(breaker.protectStream(Flux.concat(Flux.just("a"), Flux.error(new IOException("stalled")))))
+                .expectNext("a")
+                .expectError(IOException.class)
+                .verify();
+        }
+
+        assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+        StepVerifier.create(breaker.protectStream(Flux.just("a")))
+            .expectError(LlmCircuitOpenException.class)
+            .verify();
+    }
+
+    @Test
+    void testProtect_DisabledPassesThrough() {
+        LlmCircuitBreaker disabled = new LlmCircuitBreaker(false, 1, 1, 1, 1,
+            Duration.ofSeconds(1), Duration.ofSeconds(10), 1, clock);
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(disabled.protect(Mono.error(new IOException("down"))))
+                .expectError(IOException.class)
+                .verify();
+        }
+        assertEquals(LlmCircuitBreaker.State.CLOSED, disabled.getState());
+    }
+}
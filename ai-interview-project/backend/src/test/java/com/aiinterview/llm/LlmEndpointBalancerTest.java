@@ -0,0 +1,186 @@
+package com.aiinterview.llm;
+
+import com.aiinterview.model.ApiKeyConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmEndpointBalancerTest {
+
+    private static final String DEFAULT_URL = "https://api.openai.com/v1/chat/completions";
+
+    @Mock
+    private ApiKeyProvider apiKeyProvider;
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    private LlmEndpointBalancer balancer;
+
+    // Requests as sent, and the responses to answer them with (200 once empty)
+    private final List<ClientRequest> sent = new ArrayList<>();
+    private final Queue<ClientResponse> responses = new LinkedList<>();
+    private final ExchangeFunction next = request -> {
+        sent.add(request);
+        ClientResponse response = responses.poll();
+        return Mono.just(response != null ? response : ClientResponse.create(HttpStatus.OK).build());
+    };
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create(DEFAULT_URL)).build();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        balancer = new LlmEndpointBalancer(apiKeyProvider, DEFAULT_URL, Duration.ofSeconds(30), Duration.ofSeconds(10), 2, clock);
+    }
+
+    private static ApiKeyConfig key(int id, String apiKey, String baseUrl, int weight) {
+        ApiKeyConfig config = new ApiKeyConfig("openai", apiKey);
+        config.setId(id);
+        config.setBaseUrl(baseUrl);
+        config.setWeight(weight);
+        return config;
+    }
+
+    private void activeKeys(ApiKeyConfig... configs) {
+        when(apiKeyProvider.activeKeys("openai")).thenReturn(Mono.just(List.of(configs)));
+    }
+
+    private HttpStatus send() {
+        return (HttpStatus) balancer.filter("openai").filter(request, next).block().statusCode();
+    }
+
+    private String authorization(int index) {
+        return sent.get(index).headers().getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    void testFilter_WeightedRoundRobinIsSmooth() {
+        activeKeys(key(1, "sk-aaaaaaaaaaaa", null, 2), key(2, "sk-bbbbbbbbbbbb", "https://proxy.test/v1/chat/completions", 1));
+
+        for (int i = 0; i < 6; i++) {
+            send();
+        }
+
+        List<String> keys = sent.stream().map(r -> r.headers().getFirst(HttpHeaders.AUTHORIZATION).substring(7)).toList();
+        // Weight 2:1, interleaved rather than in bursts
+        assertEquals(List.of("sk-aaaaaaaaaaaa", "sk-bbbbbbbbbbbb", "sk-aaaaaaaaaaaa",
+            "sk-aaaaaaaaaaaa", "sk-bbbbbbbbbbbb", "sk-aaaaaaaaaaaa"), keys);
+        assertEquals(URI.create(DEFAULT_URL), sent.get(0).url());
+        assertEquals(URI.create("https://proxy.test/v1/chat/completions"), sent.get(1).url());
+    }
+
+    @Test
+    void testFilter_RateLimitedKeyIsEjectedAndRequestRetried() {
+        activeKeys(key(1, "sk-aaaaaaaaaaaa", null, 1), key(2, "sk-bbbbbbbbbbbb", null, 1));
+        responses.add(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "20").build());
+
+        assertEquals(HttpStatus.OK, send());
+        assertEquals("Bearer sk-aaaaaaaaaaaa", authorization(0));
+        assertEquals("Bearer sk-bbbbbbbbbbbb", authorization(1));
+
+        // Only the healthy key is used during the cool-down
+        send();
+        send();
+        assertEquals("Bearer sk-bbbbbbbbbbbb", authorization(2));
+        assertEquals("Bearer sk-bbbbbbbbbbbb", authorization(3));
+
+        now = now.plusSeconds(21);
+        send();
+        send();
+        assertEquals(2, sent.subList(4, 6).stream().map(r -> r.headers().getFirst(HttpHeaders.AUTHORIZATION)).distinct().count());
+
+        Map<String, Object> stats = balancer.stats();
+        assertEquals(1L, stats.get("retries"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> keys = (Map<String, Map<String, Object>>) stats.get("keys");
+        assertEquals(1L, keys.get("sk-aaaa...aaaa@api.openai.com").get("rateLimited"));
+    }
+
+    @Test
+    void testFilter_ServerErrorOnLastAttemptIsReturned() {
+        activeKeys(key(1, "sk-aaaaaaaaaaaa", null, 1), key(2, "sk-bbbbbbbbbbbb", null, 1));
+        responses.add(ClientResponse.create(HttpStatus.BAD_GATEWAY).build());
+        responses.add(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, send());
+        assertEquals(2, sent.size());
+
+        // Both keys cooling down: the one that recovers first is still used
+        assertEquals(HttpStatus.OK, send());
+        assertEquals("Bearer sk-aaaaaaaaaaaa", authorization(2));
+        assertEquals(1L, balancer.stats().get("allEjectedSelections"));
+    }
+
+    @Test
+    void testFilter_ExhaustedRateLimitWindowEjectsUntilReset() {
+        activeKeys(key(1, "sk-aaaaaaaaaaaa", null, 1), key(2, "sk-bbbbbbbbbbbb", null, 1));
+        responses.add(ClientResponse.create(HttpStatus.OK)
+            .header("x-ratelimit-remaining-requests", "0")
+            .header("x-ratelimit-reset-requests", "1m30s")
+            .build());
+
+        send();
+        send();
+        send();
+
+        assertEquals("Bearer sk-aaaaaaaaaaaa", authorization(0));
+        assertEquals("Bearer sk-bbbbbbbbbbbb", authorization(1));
+        assertEquals("Bearer sk-bbbbbbbbbbbb", authorization(2));
+    }
+
+    @Test
+    void testFilter_NoActiveKeySendsDummyKey() {
+        when(apiKeyProvider.activeKeys("openai")).thenReturn(Mono.just(List.of()));
+
+        send();
+
+        assertEquals("Bearer " + LlmEndpointBalancer.DUMMY_KEY, authorization(0));
+    }
+
+    @Test
+    void testParseDurationMillis() {
+        assertEquals(20, LlmEndpointBalancer.parseDurationMillis("20ms"));
+        assertEquals(90_000, LlmEndpointBalancer.parseDurationMillis("1m30s"));
+        assertEquals(3_723_500, LlmEndpointBalancer.parseDurationMillis("1h2m3.5s"));
+        assertEquals(1000, LlmEndpointBalancer.parseDurationMillis("soon"));
+    }
+}
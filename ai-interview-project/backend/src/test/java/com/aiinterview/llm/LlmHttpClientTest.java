@@ -0,0 +1,97 @@
+package com.aiinterview.llm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmHttpClientTest {
+
+    // Responses to /slow are held until released
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private DisposableServer server;
+    private LlmHttpClient client;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                .post("/fast", (request, response) -> response.sendString(Mono.just("ok")))
+                .post("/slow", (request, response) -> response.sendString(release.asMono().then(Mono.just("late")))))
+            .bindNow();
+        client = new LlmHttpClient(1, 1, 5000, 30, 300, 2000, 10, false);
+        webClient = client.webClientBuilder().baseUrl("http://127.0.0.1:" + server.port()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.tryEmitEmpty();
+        client.close();
+        server.disposeNow();
+    }
+
+    // The connection goes back to the pool just after the body was read
+    private void awaitStat(String name, Object expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(client.stats().get(name)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, client.stats().get(name));
+    }
+
+    private Mono<String> post(String path) {
+        return webClient.post().uri(path).retrieve().bodyToMono(String.class);
+    }
+
+    @Test
+    void testRequestsReuseOnePooledConnection() throws InterruptedException {
+        assertEquals("ok", post("/fast").block(Duration.ofSeconds(5)));
+        awaitStat("active", 0);
+        assertEquals("ok", post("/fast").block(Duration.ofSeconds(5)));
+        awaitStat("active", 0);
+
+        Map<String, Object> stats = client.stats();
+        assertEquals(2L, stats.get("acquires"));
+        assertEquals(1, stats.get("idle"));
+        assertTrue((double) stats.get("maxAcquireMs") > 0.0);
+    }
+
+    @Test
+    void testPendingAcquiresAreQueuedAndLimited() throws InterruptedException {
+        List<Mono<String>> calls = List.of(post("/slow"), post("/slow"), post("/slow"));
+        Flux<String> results = Flux.merge(calls.stream()
+            .map(call -> call.onErrorResume(error -> Mono.just("rejected")))
+            .toList());
+        var collected = results.collectList().toFuture();
+
+        // One connection busy, one request waiting for it, the third over the pending limit
+        awaitStat("pending", 1);
+        assertEquals(1, client.stats().get("active"));
+
+        release.tryEmitEmpty();
+        assertEquals(List.of("late", "late", "rejected"),
+            collected.join().stream().sorted().toList());
+        assertEquals(1L, client.stats().get("acquireFailures"));
+    }
+
+    @Test
+    void testIsAcquireFailure() {
+        assertFalse(LlmHttpClient.isAcquireFailure(new TimeoutException("read")));
+        assertFalse(LlmHttpClient.isAcquireFailure(new RuntimeException(new IllegalStateException())));
+    }
+}
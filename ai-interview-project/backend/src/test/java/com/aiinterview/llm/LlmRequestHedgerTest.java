@@ -0,0 +1,149 @@
+package com.aiinterview.llm;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmRequestHedgerTest {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+
+    // Attempts started, completed from the test
+    private final List<Sinks.One<String>> attempts = new ArrayList<>();
+    private final List<Boolean> cancelled = new ArrayList<>();
+    private final Mono<String> attempt = Mono.defer(() -> {
+        Sinks.One<String> sink = Sinks.one();
+        int index = attempts.size();
+        attempts.add(sink);
+        cancelled.add(false);
+        return sink.asMono().doOnCancel(() -> cancelled.set(index, true));
+    });
+
+    private LlmRequestHedger hedger(double maxHedgeRatio) {
+        return new LlmRequestHedger(true, 0.95, 100, 5, maxHedgeRatio, 20, scheduler);
+    }
+
+    /**
+     * Record successful calls taking the given latencies
+     */
+    private void warmUp(LlmRequestHedger hedger, long... latencies) {
+        for (long latency : latencies) {
+            hedger.hedge(Mono.just("warm").delayElement(Duration.ofMillis(latency), scheduler)).subscribe();
+            scheduler.advanceTimeBy(Duration.ofMillis(latency));
+        }
+    }
+
+    @Test
+    void testHedge_NoHedgeBeforeEnoughSamples() {
+        LlmRequestHedger hedger = hedger(1.0);
+        warmUp(hedger, 200, 200);
+
+        hedger.hedge(attempt).subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(10));
+
+        assertEquals(1, attempts.size());
+        assertEquals(-1L, hedger.stats().get("hedgeDelayMs"));
+    }
+
+    @Test
+    void testHedge_SecondAttemptAfterPercentileDelayWins() {
+        LlmRequestHedger hedger = hedger(1.0);
+        warmUp(hedger, 200, 200, 200, 200, 300);
+        assertEquals(300L, hedger.stats().get("hedgeDelayMs"));
+
+        List<String> results = new ArrayList<>();
+        hedger.hedge(attempt).subscribe(results::add);
+        scheduler.advanceTimeBy(Duration.ofMillis(299));
+        assertEquals(1, attempts.size());
+
+        scheduler.advanceTimeBy(Duration.ofMillis(1));
+        assertEquals(2, attempts.size());
+
+        attempts.get(1).tryEmitValue("hedge");
+        assertEquals(List.of("hedge"), results);
+        // The slow first attempt is cancelled
+        assertTrue(cancelled.get(0));
+        assertEquals(1L, hedger.stats().get("hedgeWins"));
+    }
+
+    @Test
+    void testHedge_FastAnswerCancelsHedgeTimer() {
+        LlmRequestHedger hedger = hedger(1.0);
+        warmUp(hedger, 200, 200, 200, 200, 200);
+
+        List<String> results = new ArrayList<>();
+        hedger.hedge(attempt).subscribe(results::add);
+        attempts.get(0).tryEmitValue("fast");
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertEquals(List.of("fast"), results);
+        assertEquals(1, attempts.size());
+        assertEquals(0L, hedger.stats().get("hedged"));
+    }
+
+    @Test
+    void testHedge_FailsOnlyWhenBothAttemptsFail() {
+        LlmRequestHedger hedger = hedger(1.0);
+        warmUp(hedger, 200, 200, 200, 200, 200);
+
+        List<String> results = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        hedger.hedge(attempt).subscribe(results::add, errors::add);
+        scheduler.advanceTimeBy(Duration.ofMillis(200));
+
+        attempts.get(1).tryEmitError(new IOException("reset"));
+        assertTrue(errors.isEmpty());
+
+        attempts.get(0).tryEmitValue("first");
+        assertEquals(List.of("first"), results);
+    }
+
+    @Test
+    void testHedge_FirstFailureBeforeHedgeFailsCall() {
+        LlmRequestHedger hedger = hedger(1.0);
+        warmUp(hedger, 200, 200, 200, 200, 200);
+
+        List<Throwable> errors = new ArrayList<>();
+        hedger.hedge(attempt).subscribe(value -> { }, errors::add);
+        attempts.get(0).tryEmitError(new IOException("reset"));
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertEquals(1, errors.size());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    void testHedge_BudgetCapsHedgedShare() {
+        // 10% of calls: the warm-up calls count, so only one hedge in the first ten
+        LlmRequestHedger hedger = hedger(0.1);
+        warmUp(hedger, 200, 200, 200, 200, 200);
+
+        hedger.hedge(attempt).subscribe();
+        hedger.hedge(attempt).subscribe();
+        scheduler.advanceTimeBy(Duration.ofMillis(200));
+
+        assertEquals(3, attempts.size());
+        assertEquals(1L, hedger.stats().get("hedged"));
+        assertEquals(1L, hedger.stats().get("skippedOverBudget"));
+    }
+
+    @Test
+    void testHedge_DisabledOnlyRecordsLatency() {
+        LlmRequestHedger hedger = new LlmRequestHedger(false, 0.95, 100, 1, 1.0, 20, scheduler);
+        warmUp(hedger, 200);
+
+        hedger.hedge(attempt).subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertEquals(1, attempts.size());
+        assertEquals(200L, hedger.stats().get("hedgeDelayMs"));
+    }
+}
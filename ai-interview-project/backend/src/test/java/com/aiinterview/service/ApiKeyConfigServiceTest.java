@@ -42,30 +42,41 @@ class ApiKeyConfigServiceTest {
     
     @Test
     void testGetActiveApiKey_Success() {
-        when(apiKeyConfigRepository.findByServiceNameAndIsActive("openai", true))
-            .thenReturn(Optional.of(activeConfig));
+        when(apiKeyConfigRepository.findByServiceNameAndIsActiveOrderByIdDesc("openai", true))
+            .thenReturn(List.of(activeConfig));
         
         Optional<String> result = apiKeyConfigService.getActiveApiKey("openai");
         
         assertTrue(result.isPresent());
         assertEquals("sk-test-key-123", result.get());
-        verify(apiKeyConfigRepository).findByServiceNameAndIsActive("openai", true);
+        verify(apiKeyConfigRepository).findByServiceNameAndIsActiveOrderByIdDesc("openai", true);
     }
     
     @Test
     void testGetActiveApiKey_NotFound() {
-        when(apiKeyConfigRepository.findByServiceNameAndIsActive("openai", true))
-            .thenReturn(Optional.empty());
+        when(apiKeyConfigRepository.findByServiceNameAndIsActiveOrderByIdDesc("openai", true))
+            .thenReturn(List.of());
         
         Optional<String> result = apiKeyConfigService.getActiveApiKey("openai");
         
         assertFalse(result.isPresent());
     }
     
+    @Test
+    void testGetActiveApiKey_NewestOfSeveral() {
+        ApiKeyConfig newer = new ApiKeyConfig("openai", "sk-newer-key-789");
+        newer.setId(3);
+        when(apiKeyConfigRepository.findByServiceNameAndIsActiveOrderByIdDesc("openai", true))
+            .thenReturn(List.of(newer, activeConfig));
+
+        assertEquals(Optional.of("sk-newer-key-789"), apiKeyConfigService.getActiveApiKey("openai"));
+        assertEquals(2, apiKeyConfigService.getActiveApiKeyConfigs("openai").size());
+    }
+
     @Test
     void testGetActiveApiKeyConfig_Success() {
-        when(apiKeyConfigRepository.findByServiceNameAndIsActive("openai", true))
-            .thenReturn(Optional.of(activeConfig));
+        when(apiKeyConfigRepository.findByServiceNameAndIsActiveOrderByIdDesc("openai", true))
+            .thenReturn(List.of(activeConfig));
         
         Optional<ApiKeyConfig> result = apiKeyConfigService.getActiveApiKeyConfig("openai");
         
@@ -0,0 +1,287 @@
+package com.aiinterview.service;
+
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.evaluation.EvaluationScheduler;
+import com.aiinterview.model.EvaluationResult;
+import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewCompletionJob;
+import com.aiinterview.repository.InterviewCompletionJobRepository;
+import com.aiinterview.repository.InterviewRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterviewCompletionServiceTest {
+
+    @Mock
+    private InterviewRepository interviewRepository;
+
+    @Mock
+    private InterviewCompletionJobRepository jobRepository;
+
+    @Mock
+    private InterviewSessionService interviewSessionService;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private LlmEvaluationService llmEvaluationService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Spy
+    private EvaluationScheduler evaluationScheduler = new EvaluationScheduler(8, 200, 20);
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Executor completionExecutor = new SyncTaskExecutor();
+
+    @InjectMocks
+    private InterviewCompletionService interviewCompletionService;
+
+    private Interview interview;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(interviewCompletionService, "evaluationStageTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(interviewCompletionService, "maxAttempts", 3);
+
+        interview = new Interview();
+        interview.setId("interview-1");
+        interview.setTitle("backend_java_senior");
+        interview.setStatus("In Progress");
+        interview.setCreatedAt(LocalDateTime.now().minusMinutes(30));
+    }
+
+    private void persistJobs() {
+        Map<String, InterviewCompletionJob> store = new java.util.HashMap<>();
+        when(jobRepository.save(any(InterviewCompletionJob.class))).thenAnswer(invocation -> {
+            InterviewCompletionJob job = invocation.getArgument(0);
+            store.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(store.get(invocation.<String>getArgument(0))));
+    }
+
+    private static EvaluationResult evaluation(double score) {
+        EvaluationResult result = new EvaluationResult();
+        result.setScore(score);
+        result.setRubricLevel("Proficient");
+        return result;
+    }
+
+    @Test
+    void testStart_RunsAllStagesAndStoresReport() {
+        persistJobs();
+        when(interviewRepository.findById("interview-1")).thenReturn(Optional.of(interview));
+        when(interviewSessionService.getChatHistory("interview-1")).thenReturn(List.of(
+            new QAHistory("What is a HashMap?", "A hash table keyed by hashCode"),
+            new QAHistory("What is GC?", "Automatic memory management"),
+            new QAHistory("Any questions?", " ")));
+        when(llmEvaluationService.planBatches(anyList(), eq("backend_java"), eq("senior")))
+            .thenAnswer(invocation -> List.of(invocation.<List<QAHistory>>getArgument(0)));
+        when(llmEvaluationService.evaluateBatch(anyList(), eq("backend_java"), eq("senior")))
+            .thenReturn(Mono.just(List.of(evaluation(82.0), evaluation(82.0))));
+        when(reportService.generateReport("interview-1")).thenReturn(Map.of("overallScore", 82));
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        assertEquals("Completed", interview.getStatus());
+        assertNotNull(interview.getEndedAt());
+        verify(interviewRepository).save(interview);
+
+        assertEquals(InterviewCompletionJob.STATUS_COMPLETED, job.getStatus());
+        assertEquals(InterviewCompletionJob.STAGE_DONE, job.getStage());
+        assertEquals(100, job.getProgress());
+        assertEquals(2, job.getTotalAnswers());
+        assertEquals(2, job.getEvaluatedAnswers());
+        assertEquals(1, job.getAttempts());
+
+        // Blank answers are skipped; the rest go through the shared scheduler under the owner, as one batch
+        verify(llmEvaluationService).planBatches(argThat(batch -> batch.size() == 2), anyString(), anyString());
+        verify(evaluationScheduler, times(1)).submit(eq("1"), any());
+        verify(interviewSessionService, times(2)).updateEvaluationResults(eq("interview-1"), anyString(), anyString(),
+            eq(82.0), any(), any(), any(), any(), eq("Proficient"));
+        verify(interviewSessionService).evictSession("interview-1");
+
+        Map<String, Object> view = interviewCompletionService.describe(job, true);
+        assertEquals(Map.of("overallScore", 82), view.get("report"));
+    }
+
+    @Test
+    void testStart_ConcurrentInsertConflict_ReturnsExistingJob() {
+        InterviewCompletionJob winner = new InterviewCompletionJob("job-1", "interview-1", 1L);
+        // Nothing active at the first check; the other request's job is there after the conflict
+        when(jobRepository.findFirstByInterviewIdOrderByCreatedAtDesc("interview-1"))
+            .thenReturn(Optional.empty(), Optional.of(winner));
+        when(jobRepository.save(any(InterviewCompletionJob.class)))
+            .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'uk_completion_job_active_interview'"));
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        assertSame(winner, job);
+        verify(interviewRepository, never()).save(any());
+        verify(completionExecutor, never()).execute(any());
+    }
+
+    @Test
+    void testStart_RejectedByWorkers_RestoresInterviewStatus() {
+        when(jobRepository.save(any(InterviewCompletionJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new RejectedExecutionException("queue full")).when(completionExecutor).execute(any());
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        assertEquals(InterviewCompletionJob.STATUS_FAILED, job.getStatus());
+        assertEquals("In Progress", interview.getStatus());
+        assertNull(interview.getStartedAt());
+        assertNull(interview.getEndedAt());
+        assertNull(interview.getDurationSeconds());
+        verify(interviewRepository, times(2)).save(interview);
+    }
+
+    @Test
+    void testStart_PublishesProgressToInterviewTopic() {
+        persistJobs();
+        when(interviewRepository.findById("interview-1")).thenReturn(Optional.of(interview));
+        when(interviewSessionService.getChatHistory("interview-1")).thenReturn(List.of());
+        when(reportService.generateReport("interview-1")).thenReturn(Map.of());
+
+        interviewCompletionService.start(interview, 1L);
+
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/interview/interview-1"),
+            argThat((Map<String, Object> message) -> "completion".equals(message.get("type"))));
+        verify(messagingTemplate).convertAndSend(eq("/topic/interview/interview-1"),
+            argThat((Map<String, Object> message) -> InterviewCompletionJob.STATUS_COMPLETED.equals(message.get("status"))));
+    }
+
+    @Test
+    void testRun_SkipsAnswersAlreadyEvaluated() {
+        persistJobs();
+        InterviewCompletionJob job = new InterviewCompletionJob("job-1", "interview-1", 1L);
+        job.setStatus(InterviewCompletionJob.STATUS_RUNNING);
+        job.setStage(InterviewCompletionJob.STAGE_EVALUATING);
+        job.setAttempts(1);
+        jobRepository.save(job);
+        when(interviewRepository.findById("interview-1")).thenReturn(Optional.of(interview));
+        when(interviewSessionService.getChatHistory("interview-1")).thenReturn(List.of(
+            new QAHistory("What is a HashMap?", "A hash table keyed by hashCode", "Proficient", 80.0),
+            new QAHistory("What is GC?", "Automatic memory management")));
+        when(llmEvaluationService.planBatches(anyList(), anyString(), anyString()))
+            .thenAnswer(invocation -> List.of(invocation.<List<QAHistory>>getArgument(0)));
+        when(llmEvaluationService.evaluateBatch(anyList(), anyString(), anyString()))
+            .thenReturn(Mono.just(List.of(evaluation(70.0))));
+        when(reportService.generateReport("interview-1")).thenReturn(Map.of());
+
+        interviewCompletionService.run("job-1");
+
+        verify(llmEvaluationService).evaluateBatch(
+            argThat(batch -> batch.size() == 1 && "What is GC?".equals(batch.get(0).getQuestionText())),
+            anyString(), anyString());
+        assertEquals(2, job.getEvaluatedAnswers());
+        assertEquals(2, job.getAttempts());
+        assertEquals(InterviewCompletionJob.STATUS_COMPLETED, job.getStatus());
+    }
+
+    @Test
+    void testRun_TimedOutAnswerLeftUnscored() {
+        persistJobs();
+        when(interviewRepository.findById("interview-1")).thenReturn(Optional.of(interview));
+        when(interviewSessionService.getChatHistory("interview-1")).thenReturn(List.of(
+            new QAHistory("What is a HashMap?", "A hash table keyed by hashCode"),
+            new QAHistory("What is GC?", "Automatic memory management")));
+        when(llmEvaluationService.planBatches(anyList(), anyString(), anyString()))
+            .thenAnswer(invocation -> List.of(invocation.<List<QAHistory>>getArgument(0)));
+        when(llmEvaluationService.evaluateBatch(anyList(), anyString(), anyString()))
+            .thenReturn(Mono.just(Arrays.asList(evaluation(75.0), null)));
+        when(reportService.generateReport("interview-1")).thenReturn(Map.of());
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        // The answer evaluated in time is kept; the other stays unscored
+        verify(interviewSessionService).updateEvaluationResults(eq("interview-1"), eq("What is a HashMap?"),
+            anyString(), eq(75.0), any(), any(), any(), any(), any());
+        verify(interviewSessionService, times(1)).updateEvaluationResults(anyString(), anyString(), anyString(),
+            any(), any(), any(), any(), any(), any());
+        assertEquals(1, job.getEvaluatedAnswers());
+        assertEquals(InterviewCompletionJob.STATUS_COMPLETED, job.getStatus());
+    }
+
+    @Test
+    void testRun_ReportFailure_MarksJobFailed() {
+        persistJobs();
+        when(interviewRepository.findById("interview-1")).thenReturn(Optional.of(interview));
+        when(interviewSessionService.getChatHistory("interview-1")).thenReturn(List.of());
+        when(reportService.generateReport("interview-1")).thenThrow(new RuntimeException("Report generation failed"));
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        assertEquals(InterviewCompletionJob.STATUS_FAILED, job.getStatus());
+        assertEquals(InterviewCompletionJob.STAGE_REPORTING, job.getStage());
+        assertEquals("Report generation failed", job.getError());
+        verify(interviewSessionService, never()).evictSession(anyString());
+    }
+
+    @Test
+    void testStart_ActiveJobExists_ReturnsIt() {
+        InterviewCompletionJob active = new InterviewCompletionJob("job-1", "interview-1", 1L);
+        active.setStatus(InterviewCompletionJob.STATUS_RUNNING);
+        when(jobRepository.findFirstByInterviewIdOrderByCreatedAtDesc("interview-1")).thenReturn(Optional.of(active));
+
+        InterviewCompletionJob job = interviewCompletionService.start(interview, 1L);
+
+        assertSame(active, job);
+        verify(interviewRepository, never()).save(any());
+        verify(completionExecutor, never()).execute(any());
+    }
+
+    @Test
+    void testResumeUnfinishedJobs_ResubmitsOrGivesUp() {
+        persistJobs();
+        InterviewCompletionJob resumable = new InterviewCompletionJob("job-1", "interview-1", 1L);
+        resumable.setStatus(InterviewCompletionJob.STATUS_RUNNING);
+        resumable.setStage(InterviewCompletionJob.STAGE_REPORTING);
+        resumable.setAttempts(1);
+        InterviewCompletionJob exhausted = new InterviewCompletionJob("job-2", "interview-2", 2L);
+        exhausted.setStatus(InterviewCompletionJob.STATUS_RUNNING);
+        exhausted.setAttempts(3);
+        jobRepository.save(resumable);
+        when(jobRepository.findByStatusInOrderByCreatedAtAsc(anyCollection())).thenReturn(List.of(resumable, exhausted));
+        when(reportService.generateReport("interview-1")).thenReturn(Map.of());
+
+        interviewCompletionService.resumeUnfinishedJobs();
+
+        // The interrupted job continues at the report stage without evaluating again
+        assertEquals(InterviewCompletionJob.STATUS_COMPLETED, resumable.getStatus());
+        verifyNoInteractions(llmEvaluationService);
+        assertEquals(InterviewCompletionJob.STATUS_FAILED, exhausted.getStatus());
+        assertNotNull(exhausted.getError());
+    }
+}
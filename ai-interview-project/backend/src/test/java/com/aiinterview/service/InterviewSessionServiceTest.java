@@ -1,26 +1,44 @@
 package com.aiinterview.service;
 
+import com.aiinterview.cache.RedisHistoryStore;
+import com.aiinterview.cache.SessionHistoryCache;
+import com.aiinterview.context.ContextWindowBuilder;
+import com.aiinterview.context.ConversationSummarizer;
+import com.aiinterview.context.ConversationSummaryWorker;
+import com.aiinterview.context.PromptTokenMetrics;
+import com.aiinterview.context.SystemPromptCache;
 import com.aiinterview.dto.ChatRequest;
 import com.aiinterview.dto.QAHistory;
+import com.aiinterview.knowledge.KnowledgeBaseService;
 import com.aiinterview.model.Candidate;
 import com.aiinterview.model.Interview;
 import com.aiinterview.model.InterviewMessage;
+import com.aiinterview.model.InterviewSummary;
+import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.repository.CandidateRepository;
 import com.aiinterview.repository.InterviewMessageRepository;
 import com.aiinterview.repository.InterviewRepository;
+import com.aiinterview.repository.InterviewSummaryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -42,10 +60,35 @@ class InterviewSessionServiceTest {
     private OpenAiService openAiService;
     
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
-    
+    private RedisHistoryStore redisHistoryStore;
+
+    @Mock
+    private KnowledgeBaseService knowledgeBaseService;
+
+    @Spy
+    private SessionHistoryCache historyCache = new SessionHistoryCache(100, 1024 * 1024, 60, 30);
+
     @Mock
-    private ValueOperations<String, Object> valueOperations;
+    private InterviewSummaryRepository interviewSummaryRepository;
+
+    @Spy
+    private ContextWindowBuilder contextWindowBuilder = new ContextWindowBuilder(
+        "gpt-3.5-turbo", 1000, 6000, 10, 400, "gpt-3.5-turbo:16385");
+
+    @Spy
+    private ConversationSummarizer conversationSummarizer = new ConversationSummarizer();
+
+    @Spy
+    private PromptTokenMetrics promptTokenMetrics = new PromptTokenMetrics();
+
+    @Mock
+    private ConversationSummaryWorker summaryWorker;
+
+    @Spy
+    private SystemPromptCache systemPromptCache = new SystemPromptCache(100, 30);
+
+    @Spy
+    private Scheduler chatBlockingScheduler = Schedulers.immediate();
     
     @InjectMocks
     private InterviewSessionService interviewSessionService;
@@ -76,8 +119,7 @@ class InterviewSessionServiceTest {
         when(candidateRepository.findById(1)).thenReturn(Optional.of(testCandidate));
         when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
             .thenReturn(Collections.emptyList());
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(null);
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
         
         Optional<Map<String, Object>> session = interviewSessionService.getInterviewSession("test-interview-id");
         
@@ -90,12 +132,12 @@ class InterviewSessionServiceTest {
     void testSaveChatMessage() {
         when(interviewMessageRepository.save(any(InterviewMessage.class)))
             .thenAnswer(invocation -> invocation.getArgument(0));
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        
         QAHistory qa = new QAHistory("Question?", "Answer.");
         interviewSessionService.saveChatMessage("test-interview-id", qa);
         
         verify(interviewMessageRepository).save(any(InterviewMessage.class));
+        verify(redisHistoryStore).append("test-interview-id", qa);
+        verify(summaryWorker).onTurnSaved("test-interview-id");
     }
     
     @Test
@@ -105,8 +147,7 @@ class InterviewSessionServiceTest {
         when(openAiService.chat(anyList())).thenReturn(Mono.just("AI Response"));
         when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
             .thenReturn(Collections.emptyList());
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(null);
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
         when(interviewMessageRepository.save(any(InterviewMessage.class)))
             .thenAnswer(invocation -> invocation.getArgument(0));
         
@@ -135,8 +176,7 @@ class InterviewSessionServiceTest {
         
         when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
             .thenReturn(Arrays.asList(msg1, msg2));
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(null);
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
         
         List<QAHistory> history = interviewSessionService.getChatHistory("test-interview-id");
         
@@ -144,5 +184,383 @@ class InterviewSessionServiceTest {
         assertEquals("Question 1", history.get(0).getQuestionText());
         assertEquals("Answer 1", history.get(0).getAnswerText());
     }
-}
 
+    @Test
+    void testGetChatHistory_ServedFromLocalCacheAfterFirstLoad() {
+        InterviewMessage msg = new InterviewMessage();
+        msg.setUserMessage("Question 1");
+        msg.setAiMessage("Answer 1");
+
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(List.of(msg));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+
+        interviewSessionService.getChatHistory("test-interview-id");
+        List<QAHistory> second = interviewSessionService.getChatHistory("test-interview-id");
+
+        assertEquals(1, second.size());
+        verify(interviewMessageRepository, times(1)).findByInterviewIdOrderByCreatedAtAsc("test-interview-id");
+        verify(redisHistoryStore, times(1)).load("test-interview-id");
+        assertEquals(1L, interviewSessionService.getHistoryCacheStats().get("hits"));
+    }
+
+    @Test
+    void testSaveChatMessage_AppendsToCachedHistory() {
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(Collections.emptyList());
+        when(interviewMessageRepository.save(any(InterviewMessage.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+
+        interviewSessionService.getChatHistory("test-interview-id");
+        interviewSessionService.saveChatMessage("test-interview-id", new QAHistory("Q", "A"));
+
+        List<QAHistory> history = interviewSessionService.getChatHistory("test-interview-id");
+        assertEquals(1, history.size());
+        assertEquals("Q", history.get(0).getQuestionText());
+    }
+
+    @Test
+    void testEvictSession_ForcesReload() {
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(Collections.emptyList());
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+
+        interviewSessionService.getChatHistory("test-interview-id");
+        interviewSessionService.evictSession("test-interview-id");
+        interviewSessionService.getChatHistory("test-interview-id");
+
+        verify(interviewMessageRepository, times(2)).findByInterviewIdOrderByCreatedAtAsc("test-interview-id");
+    }
+
+    @Test
+    void testGetChatHistory_ServedFromRedisBeforeDatabase() {
+        when(redisHistoryStore.load("test-interview-id"))
+            .thenReturn(List.of(new QAHistory("Q1", "A1")));
+
+        List<QAHistory> history = interviewSessionService.getChatHistory("test-interview-id");
+
+        assertEquals(1, history.size());
+        verify(interviewMessageRepository, never()).findByInterviewIdOrderByCreatedAtAsc(anyString());
+    }
+
+    @Test
+    void testGetChatHistory_SeedsRedisFromDatabase() {
+        InterviewMessage msg = new InterviewMessage();
+        msg.setUserMessage("Question 1");
+        msg.setAiMessage("Answer 1");
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(List.of(msg));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+
+        interviewSessionService.getChatHistory("test-interview-id");
+
+        verify(redisHistoryStore).saveAll(eq("test-interview-id"), argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void testGetChatHistory_TurnSavedDuringDatabaseRead_DoesNotSeedRedis() {
+        InterviewMessage msg = new InterviewMessage();
+        msg.setUserMessage("Question 1");
+        msg.setAiMessage("Answer 1");
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenAnswer(invocation -> {
+                // A chat turn is saved while the history is being read
+                interviewSessionService.saveChatMessage("test-interview-id", new QAHistory("Question 2", "Answer 2"));
+                return List.of(msg);
+            });
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+
+        List<QAHistory> history = interviewSessionService.getChatHistory("test-interview-id");
+
+        assertEquals(1, history.size());
+        verify(redisHistoryStore, never()).saveAll(anyString(), anyList());
+    }
+
+    @Test
+    void testGetChatHistory_TurnSavedDuringRedisRead_DoesNotSeedLocalCache() {
+        when(redisHistoryStore.load("test-interview-id")).thenAnswer(invocation -> {
+            interviewSessionService.saveChatMessage("test-interview-id", new QAHistory("Question 2", "Answer 2"));
+            return List.of(new QAHistory("Question 1", "Answer 1"));
+        });
+
+        interviewSessionService.getChatHistory("test-interview-id");
+
+        verify(historyCache, never()).put(anyString(), anyList());
+        assertNull(historyCache.get("test-interview-id"));
+    }
+
+    @Test
+    void testPickNextQuestion_KeepsAskedSetUntilRoleChanges() {
+        List<BitSet> seen = new ArrayList<>();
+        when(knowledgeBaseService.pickNextQuestion(anyString(), any(BitSet.class), any())).thenAnswer(invocation -> {
+            BitSet asked = invocation.getArgument(1);
+            seen.add((BitSet) asked.clone());
+            asked.set(seen.size());
+            return Optional.empty();
+        });
+
+        interviewSessionService.pickNextQuestion("test-interview-id", "backend");
+        interviewSessionService.pickNextQuestion("test-interview-id", "backend");
+        interviewSessionService.pickNextQuestion("test-interview-id", "frontend");
+
+        assertTrue(seen.get(0).isEmpty());
+        assertTrue(seen.get(1).get(1));
+        assertTrue(seen.get(2).isEmpty());
+    }
+
+    @Test
+    void testGetChatHistory_TurnSavedWhileSeeding_DropsRedisHistory() {
+        InterviewMessage msg = new InterviewMessage();
+        msg.setUserMessage("Question 1");
+        msg.setAiMessage("Answer 1");
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(List.of(msg));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+        doAnswer(invocation -> {
+            interviewSessionService.saveChatMessage("test-interview-id", new QAHistory("Question 2", "Answer 2"));
+            return null;
+        }).when(redisHistoryStore).saveAll(eq("test-interview-id"), anyList());
+
+        interviewSessionService.getChatHistory("test-interview-id");
+
+        verify(redisHistoryStore).delete("test-interview-id");
+    }
+
+    @Test
+    void testUpdateEvaluationResults_ReplacesOnlyChangedTurn() {
+        InterviewMessage first = new InterviewMessage();
+        first.setUserMessage("Q1");
+        first.setAiMessage("A1");
+        InterviewMessage second = new InterviewMessage();
+        second.setUserMessage("Q2");
+        second.setAiMessage("A2");
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(List.of(first, second));
+
+        interviewSessionService.updateEvaluationResults("test-interview-id", "Q2", "A2", 80.0,
+            Map.of("technicalAccuracy", 8, "depth", 7, "experience", 8, "communication", 9),
+            List.of("clear"), List.of("more depth"), List.of("why?"), "good");
+
+        verify(redisHistoryStore).replace(eq("test-interview-id"), eq(1L),
+            argThat(qa -> "Q2".equals(qa.getQuestionText()) && Double.valueOf(80.0).equals(qa.getScore())));
+        verify(redisHistoryStore, never()).saveAll(anyString(), anyList());
+    }
+
+    @Test
+    void testGetRecentChatHistory_UsesRedisRange() {
+        when(redisHistoryStore.range("test-interview-id", -2, -1))
+            .thenReturn(List.of(new QAHistory("Q2", "A2"), new QAHistory("Q3", "A3")));
+
+        List<QAHistory> recent = interviewSessionService.getRecentChatHistory("test-interview-id", 2);
+
+        assertEquals(2, recent.size());
+        assertEquals("Q3", recent.get(1).getQuestionText());
+    }
+
+    private List<InterviewMessage> storedMessages(int count) {
+        List<InterviewMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            InterviewMessage msg = new InterviewMessage();
+            msg.setInterviewId("test-interview-id");
+            msg.setUserMessage("answer " + i);
+            msg.setAiMessage("question " + (i + 1));
+            messages.add(msg);
+        }
+        return messages;
+    }
+
+    @Test
+    void testBuildMessagesForOpenAI_SummarisesOldTurnsWithoutWaitingForWorker() {
+        when(interviewRepository.findById("test-interview-id")).thenReturn(Optional.of(testInterview));
+        when(candidateRepository.findById(1)).thenReturn(Optional.of(testCandidate));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(storedMessages(14));
+
+        ChatRequest request = new ChatRequest();
+        request.setUserMessage("next answer");
+        List<OpenAiMessage> messages = interviewSessionService.buildMessagesForOpenAI("test-interview-id", request);
+
+        // system prompt, summary, the 10 most recent turns, current message
+        assertEquals(1 + 1 + 20 + 1, messages.size());
+        assertTrue(messages.get(1).getContent().contains("answer 3"));
+        assertEquals("answer 4", messages.get(2).getContent());
+        verify(interviewSummaryRepository, never()).save(any());
+        verify(summaryWorker).requestRefresh("test-interview-id");
+        assertEquals(1L, ((Map<?, ?>) interviewSessionService.getPromptTokenStats().get("stream")).get("calls"));
+    }
+
+    @Test
+    void testBuildMessagesForOpenAI_UsesStoredSummaryForCoveredTurns() {
+        InterviewSummary summary = new InterviewSummary("test-interview-id");
+        summary.setSummary("- stored summary");
+        summary.setCoveredTurns(6);
+        when(interviewRepository.findById("test-interview-id")).thenReturn(Optional.of(testInterview));
+        when(candidateRepository.findById(1)).thenReturn(Optional.of(testCandidate));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(storedMessages(8));
+        when(interviewSummaryRepository.findById("test-interview-id")).thenReturn(Optional.of(summary));
+
+        ChatRequest request = new ChatRequest();
+        request.setUserMessage("next answer");
+        List<OpenAiMessage> messages = interviewSessionService.buildMessagesForOpenAI("test-interview-id", request);
+
+        assertEquals(1 + 1 + 4 + 1, messages.size());
+        assertTrue(messages.get(1).getContent().endsWith("- stored summary"));
+        assertEquals("answer 6", messages.get(2).getContent());
+        verify(summaryWorker, never()).requestRefresh(anyString());
+    }
+
+    @Test
+    void testSystemPrompt_CachedAcrossTurnsUntilInterviewUpdated() {
+        when(interviewRepository.findById("test-interview-id")).thenReturn(Optional.of(testInterview));
+        when(candidateRepository.findById(1)).thenReturn(Optional.of(testCandidate));
+        when(redisHistoryStore.load(anyString())).thenReturn(null);
+        when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+            .thenReturn(Collections.emptyList());
+
+        ChatRequest request = new ChatRequest();
+        request.setUserMessage("hello");
+        String first = interviewSessionService.buildMessagesForOpenAI("test-interview-id", request).get(0).getContent();
+        interviewSessionService.buildMessagesForOpenAI("test-interview-id", request);
+
+        verify(interviewRepository, times(1)).findById("test-interview-id");
+        verify(candidateRepository, times(1)).findById(1);
+        assertTrue(first.contains("Backend Java Developer"));
+
+        testInterview.setTitle("Staff Engineer");
+        interviewSessionService.invalidateSystemPrompt("test-interview-id");
+        String rebuilt = interviewSessionService.buildMessagesForOpenAI("test-interview-id", request).get(0).getContent();
+
+        assertTrue(rebuilt.contains("Staff Engineer"));
+        verify(interviewRepository, times(2)).findById("test-interview-id");
+        assertEquals(2L, interviewSessionService.getSystemPromptCacheStats().get("dbRoundTripsSaved"));
+    }
+
+    @Test
+    void testGeneratePersonalizedResponse_BlockingWorkRunsOnChatScheduler() throws Exception {
+        Scheduler chatScheduler = Schedulers.newSingle("chat-blocking-test");
+        ReflectionTestUtils.setField(interviewSessionService, "chatBlockingScheduler", chatScheduler);
+        try {
+            List<String> lookupThreads = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch saved = new CountDownLatch(1);
+            when(interviewRepository.findById("test-interview-id")).thenAnswer(invocation -> {
+                lookupThreads.add(Thread.currentThread().getName());
+                return Optional.of(testInterview);
+            });
+            when(candidateRepository.findById(1)).thenReturn(Optional.of(testCandidate));
+            when(redisHistoryStore.load(anyString())).thenReturn(null);
+            when(interviewMessageRepository.findByInterviewIdOrderByCreatedAtAsc("test-interview-id"))
+                .thenReturn(Collections.emptyList());
+            when(openAiService.chat(anyList())).thenReturn(Mono.just("AI Response"));
+            when(interviewMessageRepository.save(any(InterviewMessage.class))).thenAnswer(invocation -> {
+                lookupThreads.add(Thread.currentThread().getName());
+                saved.countDown();
+                return invocation.getArgument(0);
+            });
+
+            ChatRequest request = new ChatRequest();
+            request.setUserMessage("Test question");
+
+            StepVerifier.create(interviewSessionService.generatePersonalizedResponse("test-interview-id", request))
+                .expectNext("AI Response")
+                .verifyComplete();
+
+            assertTrue(saved.await(5, TimeUnit.SECONDS));
+            assertEquals(2, lookupThreads.size());
+            assertTrue(lookupThreads.stream().allMatch(name -> name.startsWith("chat-blocking-test")), lookupThreads.toString());
+        } finally {
+            chatScheduler.dispose();
+        }
+    }
+
+    @Test
+    void testSaveChatMessageAsync_SavesOneInterviewInOrder() throws Exception {
+        Scheduler chatScheduler = Schedulers.newParallel("chat-blocking-test", 4);
+        ReflectionTestUtils.setField(interviewSessionService, "chatBlockingScheduler", chatScheduler);
+        try {
+            CountDownLatch firstStarted = new CountDownLatch(1);
+            CountDownLatch releaseFirst = new CountDownLatch(1);
+            CountDownLatch allSaved = new CountDownLatch(3);
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            when(interviewMessageRepository.save(any(InterviewMessage.class))).thenAnswer(invocation -> {
+                InterviewMessage message = invocation.getArgument(0);
+                if ("Q1".equals(message.getUserMessage())) {
+                    firstStarted.countDown();
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                }
+                order.add(message.getUserMessage());
+                allSaved.countDown();
+                return message;
+            });
+
+            interviewSessionService.saveChatMessageAsync("test-interview-id", new QAHistory("Q1", "A1"));
+            assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+            // Submitted while the first save is still running, e.g. a barge-in partial and the next turn
+            interviewSessionService.saveChatMessageAsync("test-interview-id", new QAHistory("Q2", "A2"));
+            interviewSessionService.saveChatMessageAsync("test-interview-id", new QAHistory("Q3", "A3"));
+            releaseFirst.countDown();
+
+            assertTrue(allSaved.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("Q1", "Q2", "Q3"), order);
+        } finally {
+            chatScheduler.dispose();
+        }
+    }
+
+    @Test
+    void testSaveChatMessageAsync_SaturatedSchedulerRetriesInsteadOfSavingInline() throws Exception {
+        Scheduler single = Schedulers.newSingle("chat-blocking-test");
+        AtomicInteger rejections = new AtomicInteger(2);
+        Scheduler saturated = new Scheduler() {
+            @Override
+            public Disposable schedule(Runnable task) {
+                rejectWhileSaturated();
+                return single.schedule(task);
+            }
+
+            @Override
+            public Worker createWorker() {
+                Worker worker = single.createWorker();
+                return new Worker() {
+                    @Override
+                    public Disposable schedule(Runnable task) {
+                        rejectWhileSaturated();
+                        return worker.schedule(task);
+                    }
+
+                    @Override
+                    public void dispose() {
+                        worker.dispose();
+                    }
+                };
+            }
+
+            private void rejectWhileSaturated() {
+                if (rejections.getAndDecrement() > 0) {
+                    throw new RejectedExecutionException("queue full");
+                }
+            }
+        };
+        ReflectionTestUtils.setField(interviewSessionService, "chatBlockingScheduler", saturated);
+        try {
+            CountDownLatch saved = new CountDownLatch(1);
+            List<String> saveThreads = Collections.synchronizedList(new ArrayList<>());
+            when(interviewMessageRepository.save(any(InterviewMessage.class))).thenAnswer(invocation -> {
+                saveThreads.add(Thread.currentThread().getName());
+                saved.countDown();
+                return invocation.getArgument(0);
+            });
+
+            interviewSessionService.saveChatMessageAsync("test-interview-id", new QAHistory("Q1", "A1"));
+
+            assertTrue(saved.await(5, TimeUnit.SECONDS));
+            assertEquals(1, saveThreads.size());
+            assertTrue(saveThreads.get(0).startsWith("chat-blocking-test"), saveThreads.toString());
+        } finally {
+            single.dispose();
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.aiinterview.service;
 
+import com.aiinterview.dto.QAHistory;
+import com.aiinterview.evaluation.EvaluationCache;
+import com.aiinterview.llm.LlmPriority;
 import com.aiinterview.model.EvaluationResult;
 import com.aiinterview.model.openai.OpenAiMessage;
 import com.aiinterview.model.openai.OpenAiResponse;
+import com.aiinterview.validator.EvaluationResultValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,14 +33,23 @@ class LlmEvaluationServiceTest {
     
     @Mock
     private PromptService promptService;
+
+    @Spy
+    private EvaluationResultValidator evaluationResultValidator = new EvaluationResultValidator();
+
+    // Bypassed until a test sets a deterministic evaluation temperature
+    @Spy
+    private EvaluationCache evaluationCache = new EvaluationCache(true, 0.0, 100, 60, 24, "gpt-test");
     
     @InjectMocks
     private LlmEvaluationService llmEvaluationService;
     
     @BeforeEach
     void setUp() {
-        when(promptService.buildEvaluationSystemPrompt()).thenReturn("System prompt");
-        when(promptService.buildEvaluationPrompt(anyString(), anyString(), anyString(), anyString()))
+        // Batch tests only use the per-answer prompt when an entry falls back
+        lenient().when(promptService.buildEvaluationSystemPrompt()).thenReturn("System prompt");
+        lenient().when(promptService.buildBatchEvaluationSystemPrompt()).thenReturn("Batch system prompt");
+        lenient().when(promptService.buildEvaluationPrompt(anyString(), anyString(), anyString(), anyString()))
             .thenReturn("Evaluation prompt");
     }
     
@@ -53,7 +69,7 @@ class LlmEvaluationServiceTest {
             }
             """;
         
-        when(openAiService.chat(any(List.class))).thenReturn(Mono.just(validJsonResponse));
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(validJsonResponse));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
             "What is Java?", 
@@ -74,7 +90,7 @@ class LlmEvaluationServiceTest {
         })
         .verifyComplete();
         
-        verify(openAiService).chat(any(List.class));
+        verify(openAiService).chat(any(List.class), any(), eq(LlmPriority.EVALUATION));
         verify(promptService).buildEvaluationSystemPrompt();
         verify(promptService).buildEvaluationPrompt(anyString(), anyString(), anyString(), anyString());
     }
@@ -83,7 +99,7 @@ class LlmEvaluationServiceTest {
     void testEvaluateAnswer_WithExtraText() {
         String responseWithExtraText = "Here is the evaluation: {\"score\": 75.0, \"rubricLevel\": \"good\"}";
         
-        when(openAiService.chat(any(List.class))).thenReturn(Mono.just(responseWithExtraText));
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(responseWithExtraText));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
             "What is Spring?", 
@@ -102,7 +118,7 @@ class LlmEvaluationServiceTest {
     void testEvaluateAnswer_ParseError() {
         String invalidJson = "This is not valid JSON";
         
-        when(openAiService.chat(any(List.class))).thenReturn(Mono.just(invalidJson));
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(invalidJson));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
             "Question", 
@@ -121,7 +137,7 @@ class LlmEvaluationServiceTest {
     
     @Test
     void testEvaluateAnswer_ServiceError() {
-        when(openAiService.chat(any(List.class)))
+        when(openAiService.chat(any(List.class), any(), any()))
             .thenReturn(Mono.error(new RuntimeException("Service unavailable")));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
@@ -141,7 +157,7 @@ class LlmEvaluationServiceTest {
     
     @Test
     void testEvaluateAnswer_FallbackForShortAnswer() {
-        when(openAiService.chat(any(List.class)))
+        when(openAiService.chat(any(List.class), any(), any()))
             .thenReturn(Mono.error(new RuntimeException("Error")));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
@@ -161,7 +177,7 @@ class LlmEvaluationServiceTest {
     @Test
     void testEvaluateAnswer_FallbackForLongAnswer() {
         String longAnswer = "A".repeat(300);
-        when(openAiService.chat(any(List.class)))
+        when(openAiService.chat(any(List.class), any(), any()))
             .thenReturn(Mono.error(new RuntimeException("Error")));
         
         StepVerifier.create(llmEvaluationService.evaluateAnswer(
@@ -177,5 +193,232 @@ class LlmEvaluationServiceTest {
         })
         .verifyComplete();
     }
-}
 
+    private static String batchItem(int index, int dimension, String level) {
+        return String.format("""
+            {"index": %d, "score": %.1f, "rubricLevel": "%s",
+             "technicalAccuracy": %d, "depth": %d, "experience": %d, "communication": %d,
+             "strengths": ["Explains the core idea clearly"],
+             "improvements": ["Add an example from a real project"],
+             "followUpQuestions": ["How would this behave under heavy load?"]}
+            """, index, dimension * 10.0, level, dimension, dimension, dimension, dimension);
+    }
+
+    private static List<QAHistory> answers(int count) {
+        List<QAHistory> answers = new java.util.ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            answers.add(new QAHistory("Question " + i, "Answer " + i));
+        }
+        return answers;
+    }
+
+    private void enableBatching(int maxItems, int maxTokens) {
+        ReflectionTestUtils.setField(llmEvaluationService, "batchEnabled", true);
+        ReflectionTestUtils.setField(llmEvaluationService, "batchMaxItems", maxItems);
+        ReflectionTestUtils.setField(llmEvaluationService, "batchMaxTokens", maxTokens);
+    }
+
+    @Test
+    void testPlanBatches_SplitsByItemsAndTokenBudget() {
+        enableBatching(3, 4000);
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+
+        List<List<QAHistory>> batches = llmEvaluationService.planBatches(answers(7), "backend_java", "mid");
+        assertEquals(List.of(3, 3, 1), batches.stream().map(List::size).toList());
+
+        // Each answer reserves its reply tokens, so a tight budget fits only two per batch
+        enableBatching(10, 2 * LlmEvaluationService.REPLY_TOKENS_PER_ITEM + 100);
+        batches = llmEvaluationService.planBatches(answers(5), "backend_java", "mid");
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    void testPlanBatches_Disabled_OneAnswerPerBatch() {
+        List<List<QAHistory>> batches = llmEvaluationService.planBatches(answers(3), "backend_java", "mid");
+
+        assertEquals(List.of(1, 1, 1), batches.stream().map(List::size).toList());
+        verify(promptService, never()).buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void testEvaluateBatch_OneRequestForAllAnswers() {
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        // Entries are matched by index, not by their order in the reply
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(
+            "{\"evaluations\": [" + batchItem(2, 6, "average") + "," + batchItem(1, 8, "good") + "]}"));
+
+        StepVerifier.create(llmEvaluationService.evaluateBatch(answers(2), "backend_java", "mid"))
+            .assertNext(results -> {
+                assertEquals(2, results.size());
+                assertEquals(80.0, results.get(0).getScore());
+                assertEquals("good", results.get(0).getRubricLevel());
+                assertEquals(60.0, results.get(1).getScore());
+            })
+            .verifyComplete();
+
+        verify(openAiService, times(1)).chat(any(List.class), any(), any());
+        verify(promptService, never()).buildEvaluationPrompt(anyString(), anyString(), anyString(), anyString());
+        assertEquals(0L, llmEvaluationService.getBatchStats().get("fallbackItems"));
+    }
+
+    @Test
+    void testEvaluateBatch_InvalidEntryFallsBackAlone() {
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        // Entry 2 claims "excellent" for a score of 60 and fails validation; entry 3 is missing
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(
+            Mono.just("[" + batchItem(1, 8, "good") + "," + batchItem(2, 6, "excellent") + "]"),
+            Mono.just("{\"score\": 70.0, \"rubricLevel\": \"average\"}"));
+
+        StepVerifier.create(llmEvaluationService.evaluateBatch(answers(3), "backend_java", "mid"))
+            .assertNext(results -> {
+                assertEquals(80.0, results.get(0).getScore());
+                assertEquals(70.0, results.get(1).getScore());
+                assertEquals(70.0, results.get(2).getScore());
+            })
+            .verifyComplete();
+
+        verify(promptService).buildEvaluationPrompt(eq("Question 2"), eq("Answer 2"), anyString(), anyString());
+        verify(promptService).buildEvaluationPrompt(eq("Question 3"), eq("Answer 3"), anyString(), anyString());
+        verify(promptService, never()).buildEvaluationPrompt(eq("Question 1"), anyString(), anyString(), anyString());
+        assertEquals(1L, llmEvaluationService.getBatchStats().get("acceptedItems"));
+        assertEquals(2L, llmEvaluationService.getBatchStats().get("fallbackItems"));
+    }
+
+    @Test
+    void testEvaluateBatch_RequestError_EvaluatesEachAnswer() {
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(
+            Mono.error(new RuntimeException("Service unavailable")),
+            Mono.just("{\"score\": 70.0, \"rubricLevel\": \"average\"}"));
+
+        StepVerifier.create(llmEvaluationService.evaluateBatch(answers(2), "backend_java", "mid"))
+            .assertNext(results -> {
+                assertEquals(2, results.size());
+                assertTrue(results.stream().allMatch(result -> result.getScore() == 70.0));
+            })
+            .verifyComplete();
+
+        verify(openAiService, times(3)).chat(any(List.class), any(), any());
+    }
+
+    @Test
+    void testEvaluateBatch_TimedOutRequest_EvaluatesEachAnswer() {
+        ReflectionTestUtils.setField(llmEvaluationService, "timeoutSeconds", 10L);
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(
+            Mono.never(),
+            Mono.just("{\"score\": 70.0, \"rubricLevel\": \"average\"}"));
+
+        // The batch request gets 10s per answer, then each answer is evaluated on its own
+        StepVerifier.withVirtualTime(() -> llmEvaluationService.evaluateBatch(answers(2), "backend_java", "mid"))
+            .thenAwait(Duration.ofSeconds(20))
+            .assertNext(results -> {
+                assertEquals(2, results.size());
+                assertTrue(results.stream().allMatch(result -> result.getScore() == 70.0));
+            })
+            .verifyComplete();
+
+        verify(openAiService, times(3)).chat(any(List.class), any(), any());
+    }
+
+    @Test
+    void testEvaluateBatch_TimedOutAnswer_IsNull() {
+        ReflectionTestUtils.setField(llmEvaluationService, "timeoutSeconds", 10L);
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(
+            Mono.just("{\"evaluations\": [" + batchItem(1, 8, "good") + "]}"),
+            Mono.never());
+
+        StepVerifier.withVirtualTime(() -> llmEvaluationService.evaluateBatch(answers(2), "backend_java", "mid"))
+            .thenAwait(Duration.ofSeconds(10))
+            .assertNext(results -> {
+                assertEquals(80.0, results.get(0).getScore());
+                assertNull(results.get(1));
+            })
+            .verifyComplete();
+    }
+
+    private void enableCache(double temperature) {
+        ReflectionTestUtils.setField(llmEvaluationService, "evaluationTemperature", temperature);
+        lenient().when(promptService.getEvaluationPromptVersion()).thenReturn("1-test");
+    }
+
+    private static String evaluation(int dimension, String level) {
+        return batchItem(1, dimension, level).replace("\"index\": 1, ", "");
+    }
+
+    @Test
+    void testEvaluateAnswer_RepeatedAnswerServedFromCache() {
+        enableCache(0.0);
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(evaluation(8, "good")));
+
+        StepVerifier.create(llmEvaluationService.evaluateAnswer("What is Java?", "Java is a language", "backend_java", "mid"))
+            .assertNext(result -> assertEquals(80.0, result.getScore()))
+            .verifyComplete();
+        // Case and whitespace differences normalise to the same key
+        StepVerifier.create(llmEvaluationService.evaluateAnswer("What is Java?", "  java is a\n language ", "backend_java", "mid"))
+            .assertNext(result -> assertEquals(80.0, result.getScore()))
+            .verifyComplete();
+
+        verify(openAiService, times(1)).chat(any(List.class), eq(0.0), any());
+        assertEquals(0.5, llmEvaluationService.getCacheStats().get("hitRate"));
+    }
+
+    @Test
+    void testEvaluateAnswer_FallbackIsNotCached() {
+        enableCache(0.0);
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just("Not JSON"));
+
+        llmEvaluationService.evaluateAnswer("Q", "A", "backend_java", "mid").block();
+        llmEvaluationService.evaluateAnswer("Q", "A", "backend_java", "mid").block();
+
+        verify(openAiService, times(2)).chat(any(List.class), any(), any());
+        verify(evaluationCache, never()).put(anyString(), any());
+    }
+
+    @Test
+    void testEvaluateAnswer_NonDeterministicTemperature_BypassesCache() {
+        enableCache(0.7);
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(Mono.just(evaluation(8, "good")));
+
+        llmEvaluationService.evaluateAnswer("Q", "A", "backend_java", "mid").block();
+        llmEvaluationService.evaluateAnswer("Q", "A", "backend_java", "mid").block();
+
+        verify(openAiService, times(2)).chat(any(List.class), eq(0.7), any());
+        assertEquals(0L, llmEvaluationService.getCacheStats().get("lookups"));
+        assertEquals(2L, llmEvaluationService.getCacheStats().get("bypassed"));
+    }
+
+    @Test
+    void testEvaluateBatch_CachedAnswersAreNotSent() {
+        enableCache(0.0);
+        when(promptService.buildBatchEvaluationPrompt(anyList(), anyList(), anyString(), anyString()))
+            .thenReturn("Batch prompt");
+        when(openAiService.chat(any(List.class), any(), any())).thenReturn(
+            Mono.just(evaluation(9, "excellent")),
+            Mono.just("[" + batchItem(1, 8, "good") + "," + batchItem(2, 6, "average") + "]"));
+
+        llmEvaluationService.evaluateAnswer("Question 2", "Answer 2", "backend_java", "mid").block();
+
+        StepVerifier.create(llmEvaluationService.evaluateBatch(answers(3), "backend_java", "mid"))
+            .assertNext(results -> {
+                assertEquals(80.0, results.get(0).getScore());
+                assertEquals(90.0, results.get(1).getScore());
+                assertEquals(60.0, results.get(2).getScore());
+            })
+            .verifyComplete();
+
+        verify(promptService).buildBatchEvaluationPrompt(eq(List.of("Question 1", "Question 3")), anyList(), anyString(), anyString());
+        assertEquals(2L, llmEvaluationService.getBatchStats().get("batchedItems"));
+
+        // Every answer is cached now, so the same batch needs no request at all
+        llmEvaluationService.evaluateBatch(answers(3), "backend_java", "mid").block();
+        verify(openAiService, times(2)).chat(any(List.class), any(), any());
+    }
+}
@@ -1,18 +1,29 @@
 package com.aiinterview.service;
 
+import com.aiinterview.context.PromptPrefixRegistry;
+import com.aiinterview.llm.LlmCallGovernor;
+import com.aiinterview.llm.LlmCircuitBreaker;
+import com.aiinterview.llm.LlmPriority;
+import com.aiinterview.llm.LlmRequestHedger;
 import com.aiinterview.model.openai.OpenAiMessage;
+import com.aiinterview.model.openai.OpenAiResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,8 +41,23 @@ class OpenAiServiceTest {
     @Mock
     private WebClient.RequestBodySpec requestBodySpec;
     
+    @Mock
+    private WebClient.RequestHeadersSpec<?> requestHeadersSpec;
+
     @Mock
     private WebClient.ResponseSpec responseSpec;
+
+    @Mock
+    private LlmCallGovernor callGovernor;
+
+    @Mock
+    private LlmCircuitBreaker circuitBreaker;
+
+    @Mock
+    private LlmRequestHedger requestHedger;
+
+    @Mock
+    private PromptPrefixRegistry prefixRegistry;
     
     @InjectMocks
     private OpenAiService openAiService;
@@ -42,6 +68,15 @@ class OpenAiServiceTest {
         ReflectionTestUtils.setField(openAiService, "model", "gpt-3.5-turbo");
         ReflectionTestUtils.setField(openAiService, "temperature", 0.7);
         ReflectionTestUtils.setField(openAiService, "maxTokens", 1000);
+        ReflectionTestUtils.setField(openAiService, "mockFallbackEnabled", true);
+        // Calls go straight through; each component has its own test
+        lenient().when(callGovernor.call(any(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<Mono<?>>>getArgument(1).get());
+        lenient().when(callGovernor.stream(any(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<Flux<String>>>getArgument(1).get());
+        lenient().when(circuitBreaker.protect(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(circuitBreaker.protectStream(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(requestHedger.hedge(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
     
     @Test
@@ -98,52 +133,115 @@ class OpenAiServiceTest {
         assertNotNull(messages);
     }
     
+    private void stubStream(String... chunks) {
+        DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+        when(openAiWebClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.contentType(any())).thenReturn(requestBodySpec);
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any());
+        doReturn(requestHeadersSpec).when(requestHeadersSpec).accept(any());
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(Flux.fromArray(chunks)
+            .map(chunk -> factory.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+    }
+
     @Test
-    void testParseStreamChunk_ValidFormat() {
-        // Test the private parseStreamChunk method using reflection
-        String chunk = "data: {\"choices\":[{\"delta\":{\"content\":\"Hello\"}}]}";
-        
-        try {
-            java.lang.reflect.Method method = OpenAiService.class.getDeclaredMethod("parseStreamChunk", String.class);
-            method.setAccessible(true);
-            String result = (String) method.invoke(openAiService, chunk);
-            
-            assertNotNull(result);
-            assertEquals("Hello", result);
-        } catch (Exception e) {
-            // If reflection fails, test passes if service is configured
-            assertTrue(openAiService.isConfigured());
-        }
+    void testChatStream_DecodesDeltasSplitAcrossBuffers() {
+        stubStream(
+            "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\",\"content\":\"\"}}]}\n\ndata: {\"choices\":[{\"del",
+            "ta\":{\"content\":\"Hello \\\"wor\"}}]}\n\ndata: {\"choices\":[{\"delta\":{\"content\":\"ld\\\"\\n\\u4f60\"}}]}\n",
+            "\ndata: [DONE]\n\n");
+
+        StepVerifier.create(openAiService.chatStream(List.of(new OpenAiMessage("user", "Hi"))))
+            .expectNext("Hello \"wor", "ld\"\n\u4f60")
+            .verifyComplete();
     }
-    
+
     @Test
-    void testParseStreamChunk_Done() {
-        String chunk = "data: [DONE]";
-        
-        try {
-            java.lang.reflect.Method method = OpenAiService.class.getDeclaredMethod("parseStreamChunk", String.class);
-            method.setAccessible(true);
-            String result = (String) method.invoke(openAiService, chunk);
-            
-            assertEquals("", result);
-        } catch (Exception e) {
-            assertTrue(openAiService.isConfigured());
-        }
+    void testChatStream_DoneAndInvalidLinesProduceNoTokens() {
+        stubStream("invalid format\n\n", "data: [DONE]\n\n");
+
+        StepVerifier.create(openAiService.chatStream(List.of(new OpenAiMessage("user", "Hi"))))
+            .verifyComplete();
     }
-    
+
     @Test
-    void testParseStreamChunk_InvalidFormat() {
-        String chunk = "invalid format";
-        
-        try {
-            java.lang.reflect.Method method = OpenAiService.class.getDeclaredMethod("parseStreamChunk", String.class);
-            method.setAccessible(true);
-            String result = (String) method.invoke(openAiService, chunk);
-            
-            assertEquals("", result);
-        } catch (Exception e) {
-            assertTrue(openAiService.isConfigured());
-        }
+    void testChatStream_RunsInRequestedLane() {
+        stubStream("data: {\"choices\":[{\"delta\":{\"content\":\"Hi\"}}]}\n\n");
+
+        StepVerifier.create(openAiService.chatStream(List.of(new OpenAiMessage("user", "Hi")), LlmPriority.EVALUATION))
+            .expectNext("Hi")
+            .verifyComplete();
+
+        verify(callGovernor).stream(eq(LlmPriority.EVALUATION), any());
+    }
+
+    private void stubChatError() {
+        when(openAiWebClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.contentType(any())).thenReturn(requestBodySpec);
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any());
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(OpenAiResponse.class)).thenReturn(Mono.error(new IllegalStateException("upstream down")));
     }
-}
 
+    @Test
+    void testChat_MockFallbackOnError() {
+        stubChatError();
+
+        StepVerifier.create(openAiService.chat(List.of(new OpenAiMessage("user", "hello"))))
+            .expectNextMatches(reply -> reply.startsWith("Hello!"))
+            .verifyComplete();
+
+        assertEquals(1L, openAiService.getFallbackStats().get("mockFallbacks"));
+        verify(requestHedger).hedge(any());
+    }
+
+    @Test
+    void testChat_ErrorPropagatedWhenFallbackDisabled() {
+        ReflectionTestUtils.setField(openAiService, "mockFallbackEnabled", false);
+        stubChatError();
+
+        StepVerifier.create(openAiService.chat(List.of(new OpenAiMessage("user", "hello")), null, LlmPriority.REPORT))
+            .expectErrorMessage("upstream down")
+            .verify();
+
+        assertEquals(1L, openAiService.getFallbackStats().get("errorsPropagated"));
+        // Only interactive calls are hedged
+        verify(requestHedger, never()).hedge(any());
+    }
+
+    @Test
+    void testChat_PrefixRecordedOnlyWhenRequestIsSent() {
+        stubChatError();
+        List<OpenAiMessage> messages = List.of(new OpenAiMessage("user", "hello"));
+
+        Mono<String> reply = openAiService.chat(messages, null, LlmPriority.REPORT);
+        verify(prefixRegistry, never()).record(any(), any());
+
+        StepVerifier.create(reply).expectNextCount(1).verifyComplete();
+        verify(prefixRegistry).record("report", messages);
+    }
+
+    @Test
+    void testChat_RejectedByGovernor_PrefixNotRecorded() {
+        doReturn(Mono.error(new IllegalStateException("queue full"))).when(callGovernor).call(any(), any());
+
+        StepVerifier.create(openAiService.chat(List.of(new OpenAiMessage("user", "hello")), null, LlmPriority.REPORT))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        verify(prefixRegistry, never()).record(any(), any());
+        verify(openAiWebClient, never()).post();
+    }
+
+    @Test
+    void testChatStream_PrefixRecordedOnSubscribe() {
+        stubStream("data: {\"choices\":[{\"delta\":{\"content\":\"Hi\"}}]}\n\n");
+        List<OpenAiMessage> messages = List.of(new OpenAiMessage("user", "Hi"));
+
+        Flux<String> stream = openAiService.chatStream(messages, LlmPriority.INTERACTIVE);
+        verify(prefixRegistry, never()).record(any(), any());
+
+        StepVerifier.create(stream).expectNext("Hi").verifyComplete();
+        verify(prefixRegistry).record("interactive-stream", messages);
+    }
+}
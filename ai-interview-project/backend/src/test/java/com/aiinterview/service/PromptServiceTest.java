@@ -174,6 +174,32 @@ class PromptServiceTest {
         assertTrue(prompt.contains(roleId) || prompt.contains(level));
     }
     
+    @Test
+    void testEvaluationPrompts_StablePartsInSystemPrompt() {
+        String systemPrompt = promptService.buildEvaluationSystemPrompt();
+        String batchSystemPrompt = promptService.buildBatchEvaluationSystemPrompt();
+
+        // The reply format is part of the shared system prompt, not of each request
+        assertTrue(systemPrompt.endsWith(PromptService.EVALUATION_FORMAT));
+        assertTrue(batchSystemPrompt.endsWith(PromptService.BATCH_EVALUATION_FORMAT));
+        assertSame(systemPrompt, promptService.buildEvaluationSystemPrompt());
+
+        String prompt = promptService.buildEvaluationPrompt("What is Spring Boot?", "A framework", "backend_java", "mid");
+        assertTrue(prompt.startsWith("岗位：backend_java\n级别：mid\n"));
+        assertFalse(prompt.contains("JSON"));
+        assertTrue(prompt.indexOf("backend_java") < prompt.indexOf("What is Spring Boot?"));
+    }
+
+    @Test
+    void testBuildBatchEvaluationPrompt_NumbersAnswersAfterRole() {
+        String prompt = promptService.buildBatchEvaluationPrompt(
+            List.of("Q1", "Q2"), List.of("A1", "A2"), "backend_java", "mid");
+
+        assertTrue(prompt.startsWith("岗位：backend_java\n级别：mid\n"));
+        assertTrue(prompt.contains("[1]\n问题：Q1\n候选人回答：A1"));
+        assertTrue(prompt.contains("[2]\n问题：Q2\n候选人回答：A2"));
+    }
+
     @Test
     void testGetRoleDisplayName_ValidRole() {
         String displayName = promptService.getRoleDisplayName("backend_java");
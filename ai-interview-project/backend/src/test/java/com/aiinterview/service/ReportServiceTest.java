@@ -1,14 +1,22 @@
 package com.aiinterview.service;
 
 import com.aiinterview.dto.QAHistory;
+import com.aiinterview.llm.LlmPriority;
 import com.aiinterview.model.Interview;
+import com.aiinterview.model.InterviewReport;
+import com.aiinterview.model.UserResume;
+import com.aiinterview.repository.InterviewReportRepository;
 import com.aiinterview.repository.InterviewRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,6 +24,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +37,18 @@ class ReportServiceTest {
     
     @Mock
     private InterviewSessionService interviewSessionService;
+
+    @Mock
+    private InterviewReportRepository interviewReportRepository;
+
+    @Mock
+    private OpenAiService openAiService;
+
+    @Mock
+    private ResumeService resumeService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
     
     @InjectMocks
     private ReportService reportService;
@@ -138,5 +159,110 @@ class ReportServiceTest {
         assertNotNull(report);
         verify(interviewSessionService).buildFeedback("interview-123", "general");
     }
-}
 
+    private void persistReports() {
+        AtomicReference<InterviewReport> store = new AtomicReference<>();
+        when(interviewReportRepository.findById("interview-123")).thenAnswer(invocation -> Optional.ofNullable(store.get()));
+        when(interviewReportRepository.save(any(InterviewReport.class))).thenAnswer(invocation -> {
+            store.set(invocation.getArgument(0));
+            return store.get();
+        });
+    }
+
+    @Test
+    void testGetReport_UnchangedData_ServedFromStore() {
+        persistReports();
+        when(interviewRepository.findById("interview-123")).thenReturn(Optional.of(testInterview));
+        when(interviewSessionService.getChatHistory("interview-123")).thenReturn(testHistory);
+        when(interviewSessionService.buildFeedback(eq("interview-123"), anyString())).thenReturn("Feedback");
+        when(openAiService.simpleChat(anyString(), anyString(), any()))
+            .thenReturn(Mono.just("{\"overallAssessment\": {\"score\": 75}}"));
+
+        ReportService.VersionedReport first = reportService.getReport("interview-123");
+        ReportService.VersionedReport second = reportService.getReport("interview-123");
+
+        assertEquals(first.contentHash(), second.contentHash());
+        assertEquals(first.report(), second.report());
+        assertEquals("\"" + first.contentHash() + "\"", first.eTag());
+        // The LLM feedback is generated once and then read back from the store
+        verify(openAiService, times(1)).simpleChat(anyString(), anyString(), eq(LlmPriority.REPORT));
+        verify(interviewReportRepository, times(1)).save(any(InterviewReport.class));
+        assertEquals(1L, reportService.getStoreStats().get("hits"));
+        assertEquals(1L, reportService.getStoreStats().get("misses"));
+    }
+
+    @Test
+    void testGetReport_NewEvaluation_Regenerates() {
+        persistReports();
+        when(interviewRepository.findById("interview-123")).thenReturn(Optional.of(testInterview));
+        when(interviewSessionService.getChatHistory("interview-123")).thenReturn(testHistory);
+        when(interviewSessionService.buildFeedback(eq("interview-123"), anyString())).thenReturn("Feedback");
+        when(openAiService.simpleChat(anyString(), anyString(), any()))
+            .thenReturn(Mono.just("{\"overallAssessment\": {\"score\": 75}}"));
+
+        ReportService.VersionedReport before = reportService.getReport("interview-123");
+        testHistory.get(0).setScore(80.0);
+        testHistory.get(0).setRubricLevel("Proficient");
+        ReportService.VersionedReport after = reportService.getReport("interview-123");
+
+        assertNotEquals(before.contentHash(), after.contentHash());
+        verify(interviewSessionService, times(2)).buildFeedback(eq("interview-123"), anyString());
+        ArgumentCaptor<InterviewReport> saved = ArgumentCaptor.forClass(InterviewReport.class);
+        verify(interviewReportRepository, times(2)).save(saved.capture());
+        assertEquals(2, saved.getValue().getVersion());
+        assertEquals(after.contentHash(), saved.getValue().getContentHash());
+    }
+
+    @Test
+    void testGetReport_FeedbackFailed_NotStoredAndRetried() {
+        persistReports();
+        when(interviewRepository.findById("interview-123")).thenReturn(Optional.of(testInterview));
+        when(interviewSessionService.getChatHistory("interview-123")).thenReturn(testHistory);
+        when(interviewSessionService.buildFeedback(eq("interview-123"), anyString())).thenReturn("Feedback");
+        when(openAiService.simpleChat(anyString(), anyString(), any()))
+            .thenReturn(Mono.just("Mock response: service unavailable"))
+            .thenReturn(Mono.just("{\"overallAssessment\": {\"score\": 75}}"));
+
+        ReportService.VersionedReport degraded = reportService.getReport("interview-123");
+
+        assertFalse(degraded.complete());
+        assertFalse(degraded.report().containsKey("comprehensiveFeedback"));
+        verify(interviewReportRepository, never()).save(any(InterviewReport.class));
+
+        ReportService.VersionedReport retried = reportService.getReport("interview-123");
+
+        assertTrue(retried.complete());
+        assertTrue(retried.report().containsKey("comprehensiveFeedback"));
+        assertEquals(degraded.contentHash(), retried.contentHash());
+        verify(interviewReportRepository, times(1)).save(any(InterviewReport.class));
+    }
+
+    @Test
+    void testGetContentHash_ChangesWithResumeAnalysis() {
+        testInterview.setResumeId(7L);
+        testInterview.setUserId(1L);
+        UserResume resume = new UserResume();
+        resume.setAnalysisData("{\"level\": \"mid\"}");
+        when(interviewRepository.findById("interview-123")).thenReturn(Optional.of(testInterview));
+        when(interviewSessionService.getChatHistory("interview-123")).thenReturn(testHistory);
+        when(resumeService.getResumeById(7L, 1L)).thenReturn(Optional.of(resume));
+
+        String before = reportService.getContentHash("interview-123");
+        resume.setAnalysisData("{\"level\": \"senior\"}");
+
+        assertNotEquals(before, reportService.getContentHash("interview-123"));
+    }
+
+    @Test
+    void testContentHash_IgnoresTurnTimestamps() {
+        QAHistory reloaded = new QAHistory("What is Java?", "Java is a programming language");
+        reloaded.setCreatedAt(LocalDateTime.now().plusMinutes(5));
+
+        assertEquals(
+            ReportService.contentHash(testInterview, List.of(testHistory.get(0)), null),
+            ReportService.contentHash(testInterview, List.of(reloaded), null));
+        assertNotEquals(
+            ReportService.contentHash(testInterview, List.of(testHistory.get(0)), null),
+            ReportService.contentHash(testInterview, List.of(new QAHistory("What is Java?", "A language")), null));
+    }
+}
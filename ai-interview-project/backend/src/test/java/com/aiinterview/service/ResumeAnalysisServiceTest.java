@@ -1,6 +1,8 @@
 package com.aiinterview.service;
 
 import com.aiinterview.dto.ResumeAnalysisResult;
+import com.aiinterview.llm.LlmPriority;
+import com.aiinterview.validator.ResumeAnalysisValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,7 +26,7 @@ class ResumeAnalysisServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         objectMapper = new ObjectMapper();
-        resumeAnalysisService = new ResumeAnalysisService(openAiService, objectMapper);
+        resumeAnalysisService = new ResumeAnalysisService(openAiService, objectMapper, new ResumeAnalysisValidator());
     }
 
     @Test
@@ -43,7 +45,7 @@ class ResumeAnalysisServiceTest {
             }
             """;
 
-        when(openAiService.simpleChat(any(), any())).thenReturn(Mono.just(mockResponse));
+        when(openAiService.simpleChat(any(), any(), any())).thenReturn(Mono.just(mockResponse));
 
         // When
         ResumeAnalysisResult result = resumeAnalysisService.analyzeResumeWithOpenAI(resumeText);
@@ -58,7 +60,7 @@ class ResumeAnalysisServiceTest {
         assertEquals("Bachelor's in Computer Science", result.getEducation());
         assertEquals("Experienced Java developer with strong backend skills", result.getSummary());
 
-        verify(openAiService, times(1)).simpleChat(any(), any());
+        verify(openAiService, times(1)).simpleChat(any(), any(), eq(LlmPriority.RESUME_ANALYSIS));
     }
 
     @Test
@@ -67,7 +69,7 @@ class ResumeAnalysisServiceTest {
         String resumeText = "Test resume";
         String invalidJsonResponse = "Invalid JSON response without braces";
 
-        when(openAiService.simpleChat(any(), any())).thenReturn(Mono.just(invalidJsonResponse));
+        when(openAiService.simpleChat(any(), any(), any())).thenReturn(Mono.just(invalidJsonResponse));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -75,7 +77,7 @@ class ResumeAnalysisServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Failed to analyze resume"));
-        verify(openAiService, times(1)).simpleChat(any(), any());
+        verify(openAiService, times(1)).simpleChat(any(), any(), eq(LlmPriority.RESUME_ANALYSIS));
     }
 
     @Test
@@ -83,7 +85,7 @@ class ResumeAnalysisServiceTest {
         // Given
         String resumeText = "Test resume";
 
-        when(openAiService.simpleChat(any(), any())).thenReturn(Mono.error(new RuntimeException("OpenAI service error")));
+        when(openAiService.simpleChat(any(), any(), any())).thenReturn(Mono.error(new RuntimeException("OpenAI service error")));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -91,7 +93,7 @@ class ResumeAnalysisServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Failed to analyze resume"));
-        verify(openAiService, times(1)).simpleChat(any(), any());
+        verify(openAiService, times(1)).simpleChat(any(), any(), eq(LlmPriority.RESUME_ANALYSIS));
     }
 
     @Test
@@ -180,7 +182,7 @@ class ResumeAnalysisServiceTest {
         });
 
         assertEquals("Resume text cannot be null or empty", exception.getMessage());
-        verify(openAiService, never()).simpleChat(any(), any());
+        verify(openAiService, never()).simpleChat(any(), any(), any());
     }
 
     @Test
@@ -194,7 +196,7 @@ class ResumeAnalysisServiceTest {
         });
 
         assertEquals("Resume text cannot be null or empty", exception.getMessage());
-        verify(openAiService, never()).simpleChat(any(), any());
+        verify(openAiService, never()).simpleChat(any(), any(), any());
     }
 
     @Test
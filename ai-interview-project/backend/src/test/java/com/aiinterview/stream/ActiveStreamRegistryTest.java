@@ -0,0 +1,66 @@
+package com.aiinterview.stream;
+
+import com.aiinterview.stream.ActiveStreamRegistry.ActiveStream;
+import com.aiinterview.stream.ActiveStreamRegistry.CancelReason;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveStreamRegistryTest {
+
+    private final ActiveStreamRegistry registry = new ActiveStreamRegistry();
+
+    @Test
+    void testStart_CancelsPreviousStreamOfInterview() {
+        ActiveStream first = registry.start("i1", "s1");
+        Disposable subscription = Disposables.single();
+        first.attach(subscription);
+
+        ActiveStream second = registry.start("i1", "s1");
+
+        assertTrue(subscription.isDisposed());
+        assertEquals(CancelReason.BARGE_IN, first.getCancelReason());
+        assertNull(second.getCancelReason());
+        assertEquals(1L, registry.stats().get("bargeInCancels"));
+    }
+
+    @Test
+    void testFinish_KeepsNewerStream() {
+        ActiveStream first = registry.start("i1", "s1");
+        ActiveStream second = registry.start("i1", "s1");
+
+        registry.finish(first);
+        assertEquals(1, registry.stats().get("active"));
+
+        registry.finish(second);
+        assertEquals(0, registry.stats().get("active"));
+        assertFalse(registry.cancel("i1"));
+    }
+
+    @Test
+    void testAttach_AfterCancelDisposesAtOnce() {
+        ActiveStream stream = registry.start("i1", "s1");
+        assertTrue(registry.cancel("i1"));
+
+        Disposable subscription = Disposables.single();
+        stream.attach(subscription);
+
+        assertTrue(subscription.isDisposed());
+        assertEquals(CancelReason.CLIENT, stream.getCancelReason());
+    }
+
+    @Test
+    void testCancelSession_OnlyThatSession() {
+        ActiveStream own = registry.start("i1", "s1");
+        ActiveStream other = registry.start("i2", "s2");
+
+        assertEquals(1, registry.cancelSession("s1"));
+
+        assertEquals(CancelReason.DISCONNECT, own.getCancelReason());
+        assertNull(other.getCancelReason());
+        assertEquals(0, registry.cancelSession(null));
+        assertEquals(1, registry.stats().get("active"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.aiinterview.stream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseDeltaDecoderTest {
+
+    private static String chunk(String content) {
+        return "data: {\"id\":\"chatcmpl-1\",\"object\":\"chat.completion.chunk\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\"" + content + "\"},\"finish_reason\":null}]}\n\n";
+    }
+
+    private static List<String> decode(SseDeltaDecoder decoder, String... parts) {
+        List<String> deltas = new ArrayList<>();
+        for (String part : parts) {
+            byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            decoder.decode(bytes, 0, bytes.length, deltas::add);
+        }
+        deltas.addAll(decoder.finish());
+        return deltas;
+    }
+
+    @Test
+    void testDecode_ValidChunk() {
+        assertEquals(List.of("Hello"), decode(new SseDeltaDecoder(), chunk("Hello")));
+    }
+
+    @Test
+    void testDecode_Done() {
+        SseDeltaDecoder decoder = new SseDeltaDecoder();
+
+        assertEquals(List.of(), decode(decoder, "data: [DONE]\n\n"));
+        assertTrue(decoder.isDone());
+    }
+
+    @Test
+    void testDecode_InvalidFormat() {
+        SseDeltaDecoder decoder = new SseDeltaDecoder();
+
+        // The stream recovers with the next event after a malformed payload
+        assertEquals(List.of("ok"), decode(decoder, "invalid format\n\n", "data: not json\n\n", chunk("ok")));
+        assertEquals(1, decoder.getMalformedPayloads());
+    }
+
+    @Test
+    void testDecode_UnescapesQuotesNewlinesAndUnicode() {
+        List<String> deltas = decode(new SseDeltaDecoder(),
+            chunk("say \\\"hi\\\""), chunk("line\\nbreak"), chunk("\\u4f60\\u597d"), chunk("back\\\\slash"));
+
+        assertEquals(List.of("say \"hi\"", "line\nbreak", "你好", "back\\slash"), deltas);
+    }
+
+    @Test
+    void testDecode_EventsSplitAtEveryByte() {
+        String stream = chunk("你好") + chunk(" wor\\\"ld") + "data: [DONE]\n\n";
+        byte[] bytes = stream.getBytes(StandardCharsets.UTF_8);
+        SseDeltaDecoder decoder = new SseDeltaDecoder();
+        List<String> deltas = new ArrayList<>();
+
+        for (int i = 0; i < bytes.length; i++) {
+            decoder.decode(bytes, i, 1, deltas::add);
+        }
+
+        assertEquals(List.of("你好", " wor\"ld"), deltas);
+        assertTrue(decoder.isDone());
+    }
+
+    @Test
+    void testDecode_BatchedDataLinesAndCrLf() {
+        String batched = "data: {\"choices\":[{\"delta\":{\"content\":\"a\"}}]}\r\n"
+            + "data:{\"choices\":[{\"delta\":{\"content\":\"b\"}}]}\r\n\r\n"
+            + ": keep-alive comment\r\n"
+            + "event: message\rdata: {\"choices\":[{\"delta\":{\"content\":\"c\"}}]}\r\r";
+
+        assertEquals(List.of("a", "b", "c"), decode(new SseDeltaDecoder(), batched));
+    }
+
+    @Test
+    void testDecode_JsonSpanningDataLinesIsJoined() {
+        String event = "data: {\"choices\":[{\"delta\":\n"
+            + "data: {\"content\":\"joined\"}}]}\n\n";
+
+        assertEquals(List.of("joined"), decode(new SseDeltaDecoder(), event));
+    }
+
+    @Test
+    void testDecode_SkipsOtherChoicesAndFields() {
+        String event = "data: {\"choices\":[{\"index\":0,\"logprobs\":{\"content\":[{\"token\":\"x\"}]},"
+            + "\"delta\":{\"role\":\"assistant\",\"content\":\"first\"}},{\"index\":1,\"delta\":{\"content\":\"second\"}}],"
+            + "\"usage\":null}\n\n";
+
+        assertEquals(List.of("first"), decode(new SseDeltaDecoder(), event));
+    }
+
+    @Test
+    void testDecode_UnterminatedLastLineIsFlushed() {
+        assertEquals(List.of("tail"), decode(new SseDeltaDecoder(),
+            "data: {\"choices\":[{\"delta\":{\"content\":\"tail\"}}]}"));
+    }
+
+    @Test
+    void testDecodeFlux_ReleasesPooledBuffers() {
+        String stream = chunk("one") + chunk("two");
+        int split = stream.length() / 2;
+        // A pooled direct buffer, as Reactor Netty delivers them, and a heap buffer
+        ByteBuf pooled = PooledByteBufAllocator.DEFAULT.directBuffer()
+            .writeBytes(stream.substring(0, split).getBytes(StandardCharsets.UTF_8));
+        NettyDataBuffer first = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT).wrap(pooled);
+        DataBuffer second = new DefaultDataBufferFactory().wrap(stream.substring(split).getBytes(StandardCharsets.UTF_8));
+
+        StepVerifier.create(SseDeltaDecoder.decode(Flux.just(first, second)))
+            .expectNext("one", "two")
+            .verifyComplete();
+
+        assertEquals(0, pooled.refCnt());
+    }
+}
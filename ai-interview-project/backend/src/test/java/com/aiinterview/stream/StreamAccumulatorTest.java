@@ -0,0 +1,87 @@
+package com.aiinterview.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamAccumulatorTest {
+
+    @Test
+    void testFinish_JoinsChunksAndSkipsEmpty() {
+        StreamAccumulator accumulator = StreamAccumulator.forMaxTokens(1000);
+        accumulator.append("Hi");
+        accumulator.append("");
+        accumulator.append(null);
+        accumulator.append(" there");
+
+        assertEquals("Hi there", accumulator.finish());
+        assertEquals(2, accumulator.chunkCount());
+        assertEquals(8, accumulator.length());
+        assertTrue(accumulator.isFinished());
+    }
+
+    @Test
+    void testCheckpoint_ReturnsPartialTextAndIsReusedByFinish() {
+        StreamAccumulator accumulator = new StreamAccumulator(64);
+        accumulator.append("partial");
+
+        String checkpoint = accumulator.checkpoint();
+        assertEquals("partial", checkpoint);
+        assertSame(checkpoint, accumulator.checkpoint());
+        // Nothing arrived since the checkpoint, so the final text is not copied again
+        assertSame(checkpoint, accumulator.finish());
+        assertSame(checkpoint, accumulator.finish());
+    }
+
+    @Test
+    void testCheckpoint_FollowsLaterChunks() {
+        StreamAccumulator accumulator = new StreamAccumulator(64);
+        accumulator.append("a");
+        assertEquals("a", accumulator.checkpoint());
+        accumulator.append("b");
+
+        assertEquals("ab", accumulator.checkpoint());
+        assertEquals("ab", accumulator.finish());
+        assertEquals("", new StreamAccumulator(0).checkpoint());
+    }
+
+    @Test
+    void testAppend_AfterFinishIsRejected() {
+        StreamAccumulator accumulator = new StreamAccumulator(16);
+        accumulator.finish();
+
+        assertThrows(IllegalStateException.class, () -> accumulator.append("late"));
+    }
+
+    @Test
+    void testConcurrentAppendAndCheckpoint() throws InterruptedException {
+        StreamAccumulator accumulator = new StreamAccumulator(16);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 10_000; i++) {
+                accumulator.append("x");
+            }
+            return null;
+        });
+        executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 1_000; i++) {
+                String checkpoint = accumulator.checkpoint();
+                assertTrue(checkpoint.chars().allMatch(c -> c == 'x'));
+            }
+            return null;
+        });
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000, accumulator.finish().length());
+    }
+}
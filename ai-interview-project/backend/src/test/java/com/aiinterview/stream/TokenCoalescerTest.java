@@ -0,0 +1,106 @@
+package com.aiinterview.stream;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCoalescerTest {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+
+    @Test
+    void testCoalesce_FirstTokenImmediatelyThenBySize() {
+        TokenCoalescer coalescer = new TokenCoalescer(true, 50, 6, scheduler);
+
+        StepVerifier.create(coalescer.coalesce(Flux.just("Hi", " th", "ere", "!", "", " ok")))
+            .expectNext("Hi", " there", "! ok")
+            .verifyComplete();
+
+        Map<String, Object> stats = coalescer.stats();
+        assertEquals(1L, stats.get("responses"));
+        assertEquals(5L, stats.get("tokens"));
+        assertEquals(3L, stats.get("frames"));
+        assertEquals(1L, stats.get("firstTokenFlushes"));
+        assertEquals(1L, stats.get("sizeFlushes"));
+        assertEquals(1L, stats.get("finalFlushes"));
+        assertEquals(3.0, stats.get("avgFramesPerResponse"));
+    }
+
+    @Test
+    void testCoalesce_FlushesAfterMaxDelay() {
+        TokenCoalescer coalescer = new TokenCoalescer(true, 50, 1000, scheduler);
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.withVirtualTime(() -> coalescer.coalesce(tokens.asFlux()), () -> scheduler, Long.MAX_VALUE)
+            .then(() -> tokens.tryEmitNext("a"))
+            .expectNext("a")
+            .then(() -> tokens.tryEmitNext("b"))
+            .thenAwait(Duration.ofMillis(20))
+            .then(() -> tokens.tryEmitNext("c"))
+            .expectNoEvent(Duration.ofMillis(29))
+            .thenAwait(Duration.ofMillis(1))
+            .expectNext("bc")
+            .then(() -> tokens.tryEmitNext("d"))
+            .then(tokens::tryEmitComplete)
+            .expectNext("d")
+            .verifyComplete();
+
+        Map<String, Object> stats = coalescer.stats();
+        assertEquals(1L, stats.get("timeFlushes"));
+        assertEquals(1L, stats.get("finalFlushes"));
+        assertEquals(50.0, stats.get("maxFlushLatencyMs"));
+    }
+
+    @Test
+    void testCoalesce_FlushesBufferBeforeError() {
+        TokenCoalescer coalescer = new TokenCoalescer(true, 50, 1000, scheduler);
+        Flux<String> failing = Flux.just("a", "b", "c").concatWith(Flux.error(new IllegalStateException("reset")));
+
+        StepVerifier.create(coalescer.coalesce(failing))
+            .expectNext("a", "bc")
+            .verifyErrorMessage("reset");
+
+        assertEquals(1L, coalescer.stats().get("finalFlushes"));
+        // No timer left behind to flush a finished response
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertEquals(0L, coalescer.stats().get("timeFlushes"));
+    }
+
+    @Test
+    void testCoalesce_CancelDisposesUpstreamAndTimer() {
+        TokenCoalescer coalescer = new TokenCoalescer(true, 50, 1000, scheduler);
+        Sinks.Many<String> tokens = Sinks.many().multicast().onBackpressureBuffer();
+
+        StepVerifier.create(coalescer.coalesce(tokens.asFlux()))
+            .then(() -> tokens.tryEmitNext("a"))
+            .expectNext("a")
+            .then(() -> tokens.tryEmitNext("b"))
+            .thenCancel()
+            .verify();
+
+        assertEquals(0, tokens.currentSubscriberCount());
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertEquals(0L, coalescer.stats().get("timeFlushes"));
+    }
+
+    @Test
+    void testCoalesce_DisabledPassesTokensThrough() {
+        TokenCoalescer coalescer = new TokenCoalescer(false, 50, 64, scheduler);
+
+        StepVerifier.create(coalescer.coalesce(Flux.just("a", "", "b")))
+            .expectNext("a", "b")
+            .verifyComplete();
+
+        Map<String, Object> stats = coalescer.stats();
+        assertEquals(2L, stats.get("frames"));
+        assertEquals(1L, stats.get("responses"));
+        assertEquals(1.0, stats.get("avgTokensPerFrame"));
+    }
+}
@@ -351,8 +351,8 @@ const InterviewRoom = () => {
               setIsStreaming(true);
               setStreamingResponse(prev => prev + response.content);
               currentAiMessageRef.current = (currentAiMessageRef.current || '') + response.content;
-            } else if (response.type === 'complete') {
-              // Stream complete
+            } else if (response.type === 'complete' || response.type === 'cancelled') {
+              // Stream complete, or cut short: keep the text received so far
               setIsStreaming(false);
               if (currentAiMessageRef.current) {
                 setMessages(prev => [...prev, {
@@ -666,15 +666,15 @@ const InterviewRoom = () => {
         headers['Authorization'] = `Bearer ${accessToken}`;
       }
 
-      // Call backend to end interview and generate report
+      // Call backend to end interview; evaluation and the report run as a background job
       const response = await fetch(`http://localhost:8080/api/interviews/${id}/end`, {
         method: 'POST',
         headers
       });
 
         if (response.ok) {
-          const data = await response.json();
-          success('Interview ended successfully. Report generated.');
+          const job = await response.json();
+          success('Interview ended. Generating your report...');
           
           stopAllMedia();
           // Close WebSocket connection
@@ -682,10 +682,13 @@ const InterviewRoom = () => {
             stompClientRef.current.deactivate();
           }
 
-          // Navigate to report page
-          setTimeout(() => {
+          const finished = await waitForCompletionJob(job, headers);
+          if (finished.status === 'COMPLETED') {
+            success('Report generated.');
             navigate(`/report/${id}`);
-          }, 1500);
+          } else {
+            error(finished.error || 'Failed to generate report');
+          }
         } else {
           const errorData = await response.json().catch(() => ({}));
           error(errorData.message || 'Failed to end interview');
@@ -696,6 +699,20 @@ const InterviewRoom = () => {
     }
   };
 
+  // Poll the completion job until the report is ready or the job fails
+  const waitForCompletionJob = async (job, headers) => {
+    let current = job;
+    while (current.status !== 'COMPLETED' && current.status !== 'FAILED') {
+      await new Promise((resolve) => setTimeout(resolve, 1500));
+      const response = await fetch(`http://localhost:8080/api/interviews/${id}/end/${job.jobId}`, { headers });
+      if (!response.ok) {
+        throw new Error(`Failed to load completion status: ${response.status}`);
+      }
+      current = await response.json();
+    }
+    return current;
+  };
+
   const handleStartInterview = () => {
     setShowPreparation(false);
   };
@@ -1,12 +1,18 @@
 package com.aiinterview.service;
 
+import com.aiinterview.llm.LlmCallGovernor;
+import com.aiinterview.llm.LlmCircuitBreaker;
+import com.aiinterview.llm.LlmHttpClient;
+import com.aiinterview.llm.LlmPriority;
+import com.aiinterview.stream.SseDeltaDecoder;
+import com.aiinterview.stream.StreamAccumulator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.Disposable;
-import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -43,14 +49,20 @@ public class StreamingAIService {
     private double temperature;
 
     private final WebClient webClient;
+    private final LlmCallGovernor callGovernor;
+    private final LlmCircuitBreaker circuitBreaker;
 
     // 每个 session 的活跃流订阅
     private final Map<String, Disposable> activeStreams = new ConcurrentHashMap<>();
 
-    public StreamingAIService() {
-        this.webClient = WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)) // 10MB
-                .build();
+    public StreamingAIService(LlmHttpClient llmHttpClient, LlmCallGovernor callGovernor,
+                              LlmCircuitBreaker circuitBreaker) {
+        // 与后端共用 LLM 连接池（连接数、超时、空闲回收见 openai.http.*）
+        this.webClient = llmHttpClient.webClientBuilder().build();
+        // 与后端共用并发与速率限制，语音轮次走交互优先级
+        this.callGovernor = callGovernor;
+        // 上游故障时熔断，快速失败而不是等满超时
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -87,18 +99,18 @@ public class StreamingAIService {
                 "stream", true
         );
 
-        // 累积完整响应
-        StringBuilder fullResponse = new StringBuilder();
+        // 累积完整响应（回调在 Netty 线程上执行，累加器线程安全并按 max-tokens 预分配）
+        StreamAccumulator fullResponse = StreamAccumulator.forMaxTokens(maxTokens);
 
         // 发起流式请求
-        Disposable subscription = webClient.post()
+        Disposable subscription = callGovernor.stream(LlmPriority.INTERACTIVE, () -> circuitBreaker.protectStream(webClient.post()
                 .uri(openaiApiUrl)
                 .header("Authorization", "Bearer " + openaiApiKey)
                 .header("Content-Type", "application/json")
                 .bodyValue(requestBody)
                 .retrieve()
-                .bodyToFlux(String.class)
-                .flatMap(this::parseSSEChunk)
+                .bodyToFlux(DataBuffer.class)
+                .transform(SseDeltaDecoder::decode)))
                 .doOnNext(token -> {
                     // 流式返回 token
                     fullResponse.append(token);
@@ -108,11 +120,11 @@ public class StreamingAIService {
                     // 流结束
                     logger.info("[Stream] 完成, turnId={}, 总长度={}", turnId, fullResponse.length());
                     activeStreams.remove(sessionId);
-                    onComplete.accept(fullResponse.toString());
+                    onComplete.accept(fullResponse.finish());
                 })
                 .doOnError(error -> {
                     // 流错误
-                    logger.error("[Stream] 错误, turnId={}", turnId, error);
+                    logger.error("[Stream] 错误, turnId={}, 已接收长度={}", turnId, fullResponse.length(), error);
                     activeStreams.remove(sessionId);
                     onError.accept(error.getMessage());
                 })
@@ -137,54 +149,4 @@ public class StreamingAIService {
         }
         return false;
     }
-
-    /**
-     * 解析 OpenAI SSE 数据块
-     *
-     * OpenAI 流式返回格式：
-     * data: {"choices":[{"delta":{"content":"token"}}]}
-     * data: [DONE]
-     */
-    private Flux<String> parseSSEChunk(String chunk) {
-        if (chunk == null || chunk.isBlank()) {
-            return Flux.empty();
-        }
-
-        // 处理 SSE 格式
-        String[] lines = chunk.split("\n");
-        return Flux.fromArray(lines)
-                .filter(line -> line.startsWith("data: "))
-                .map(line -> line.substring(6)) // 去掉 "data: "
-                .filter(data -> !data.equals("[DONE]"))
-                .mapNotNull(data -> {
-                    try {
-                        // 简单 JSON 解析（生产环境建议使用 Jackson）
-                        int contentStart = data.indexOf("\"content\":\"");
-                        if (contentStart == -1) {
-                            return null;
-                        }
-                        contentStart += 11; // "content":"
-                        int contentEnd = data.indexOf("\"", contentStart);
-                        if (contentEnd == -1) {
-                            return null;
-                        }
-                        String token = data.substring(contentStart, contentEnd);
-                        return unescapeJson(token);
-                    } catch (Exception e) {
-                        logger.warn("[Stream] 解析 chunk 失败: {}", data, e);
-                        return null;
-                    }
-                });
-    }
-
-    /**
-     * JSON 字符串反转义
-     */
-    private String unescapeJson(String s) {
-        return s.replace("\\n", "\n")
-                .replace("\\r", "\r")
-                .replace("\\t", "\t")
-                .replace("\\\"", "\"")
-                .replace("\\\\", "\\");
-    }
 }
@@ -2,7 +2,6 @@ package com.aiinterview;
 
 import com.aiinterview.service.StreamingAIService;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -30,14 +29,10 @@ public class VoiceInterviewTest {
     @MockBean
     private SimpMessagingTemplate messagingTemplate;
 
+    // 使用容器中的实例（依赖共享的 LLM 连接池）
+    @Autowired
     private StreamingAIService streamingAIService;
 
-    @BeforeEach
-    public void setup() {
-        // 如果没有真实的 API Key，这里可以使用 Mock
-        streamingAIService = new StreamingAIService();
-    }
-
     /**
      * 测试：三重触发机制的参数验证
      */